@@ -0,0 +1,31 @@
+package sebastien.perpignane.cardgame;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks, always with the GC profiler so that allocations are reported.
+ *
+ * Accepts the usual JMH command line options, for example a benchmark name regex:
+ * <pre>
+ *     java -jar target/benchmarks.jar PlayableCardsFilter
+ * </pre>
+ */
+public class ContreeBenchmarks {
+
+    private ContreeBenchmarks() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var commandLineOptions = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,34 @@
+package sebastien.perpignane.cardgame.card;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardDealerBenchmark {
+
+    private final CardDealer cardDealer = new CardDealer(List.of(3, 3, 2));
+
+    private List<ClassicalCard> cards;
+
+    @Setup
+    public void setUp() {
+        cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, new Random(42));
+    }
+
+    @Benchmark
+    public List<List<ClassicalCard>> dealCards() {
+        return cardDealer.dealCards(cards, 4);
+    }
+
+}
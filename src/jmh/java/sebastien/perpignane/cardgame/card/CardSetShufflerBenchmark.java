@@ -0,0 +1,38 @@
+package sebastien.perpignane.cardgame.card;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardSetShufflerBenchmark {
+
+    private final CardSetShuffler shuffler = new CardSetShufflerImpl();
+
+    private final SplittableCardSetShuffler splittableShuffler = new SplittableCardSetShuffler(42);
+
+    private final byte[] cardOrdinals = new byte[32];
+
+    @Benchmark
+    public List<ClassicalCard> shuffle() {
+        return shuffler.shuffle(CardSet.GAME_32);
+    }
+
+    @Benchmark
+    public List<ClassicalCard> splittableShuffle() {
+        return splittableShuffler.shuffle(CardSet.GAME_32);
+    }
+
+    @Benchmark
+    public byte[] splittableShuffleInPlace() {
+        splittableShuffler.shuffle(cardOrdinals);
+        return cardOrdinals;
+    }
+
+}
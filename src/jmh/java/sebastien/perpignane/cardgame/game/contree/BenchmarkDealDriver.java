@@ -0,0 +1,169 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerEventHandler;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerStatus;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Builds real deals, bids and tricks for benchmarks, driving them directly at the deal level.
+ *
+ * The first bidder always bids 80 HEART, the others pass, then each player plays a random allowed card.
+ */
+class BenchmarkDealDriver {
+
+    private final SplittableRandom random;
+
+    private final SplittableCardSetShuffler shuffler;
+
+    private final ContreeGameEventSender eventSender = new ContreeGameEventSender();
+
+    private final ContreeDealPlayers dealPlayers;
+
+    private final BiddableValuesFilter biddableValuesFilter = new BiddableValuesFilter();
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    private final DealScoreCalculator dealScoreCalculator = new DealScoreCalculator();
+
+    private final CardDealer cardDealer = new CardDealer(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG);
+
+    private ContreePlayer currentPlayer;
+
+    private Set<ClassicalCard> currentAllowedCards;
+
+    private int nbDeals;
+
+    BenchmarkDealDriver(long seed) {
+        random = new SplittableRandom(seed);
+        shuffler = new SplittableCardSetShuffler(seed);
+        ContreeGamePlayers gamePlayers = new ContreeGamePlayersImpl();
+        for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+            gamePlayers.joinGame(new ContreePlayerImpl("Benchmark " + (i + 1), new TurnRecordingEventHandler()));
+        }
+        dealPlayers = gamePlayers.buildDealPlayers();
+    }
+
+    /**
+     * @return a deal in PLAY step: bids are over
+     */
+    ContreeDeal startPlayedDeal() {
+        ContreeDeal deal = new ContreeDeal(
+                new ContreeDealBids(biddableValuesFilter),
+                new ContreeTricks(playableCardsFilter, eventSender),
+                cardDealer,
+                shuffler,
+                null,
+                new ContreeDealScore(dealScoreCalculator),
+                eventSender
+        );
+        dealPlayers.setCurrentDeal(deal);
+        nbDeals++;
+        deal.startDeal(nbDeals, "BENCHMARK-" + nbDeals, dealPlayers);
+
+        deal.placeBid(new ContreeBid(currentPlayer, ContreeBidValue.EIGHTY, CardSuit.HEARTS));
+        while (deal.isBidStep()) {
+            deal.placeBid(new ContreeBid(currentPlayer));
+        }
+        return deal;
+    }
+
+    /**
+     * @return an over deal, with all its cards played and its score computed
+     */
+    ContreeDeal playDeal() {
+        ContreeDeal deal = startPlayedDeal();
+        while (!deal.isOver()) {
+            deal.playerPlays(currentPlayer, randomAllowedCard());
+        }
+        return deal;
+    }
+
+    /**
+     * @return bids where the first bidder bid 80 HEART, waiting for the second bidder
+     */
+    ContreeDealBids startBids() {
+        ContreeDealBids bids = new ContreeDealBids(biddableValuesFilter);
+        bids.startBids(dealPlayers.buildBidPlayers());
+        bids.placeBid(new ContreeBid(currentPlayer, ContreeBidValue.EIGHTY, CardSuit.HEARTS));
+        return bids;
+    }
+
+    BiddableValuesFilter getBiddableValuesFilter() {
+        return biddableValuesFilter;
+    }
+
+    DealScoreCalculator getDealScoreCalculator() {
+        return dealScoreCalculator;
+    }
+
+    private ClassicalCard randomAllowedCard() {
+        Iterator<ClassicalCard> it = currentAllowedCards.iterator();
+        for (int i = random.nextInt(currentAllowedCards.size()) ; i > 0 ; i--) {
+            it.next();
+        }
+        return it.next();
+    }
+
+    private class TurnRecordingEventHandler implements ContreePlayerEventHandler {
+
+        private ContreePlayer player;
+
+        @Override
+        public void setPlayer(ContreePlayer player) {
+            this.player = player;
+        }
+
+        @Override
+        public void onPlayerTurnToBid(Set<ContreeBidValue> allowedBidValues) {
+            currentPlayer = player;
+        }
+
+        @Override
+        public void onPlayerTurn(Set<ClassicalCard> allowedCards) {
+            currentPlayer = player;
+            currentAllowedCards = allowedCards;
+        }
+
+        @Override
+        public boolean isBot() {
+            return true;
+        }
+
+        @Override
+        public void onReceivedHand(Collection<ClassicalCard> hand) {
+            // Not used
+        }
+
+        @Override
+        public void onGameStarted() {
+            // Not used
+        }
+
+        @Override
+        public void onGameOver() {
+            // Not used
+        }
+
+        @Override
+        public void onEjection() {
+            // Not used
+        }
+
+        @Override
+        public void onStatusUpdate(ContreePlayerStatus oldStatus, ContreePlayerStatus newStatus) {
+            // Not used
+        }
+
+    }
+
+}
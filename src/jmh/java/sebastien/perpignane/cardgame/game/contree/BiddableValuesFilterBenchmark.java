@@ -0,0 +1,38 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biddable values of the second bidder, after a 80 HEART bid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BiddableValuesFilterBenchmark {
+
+    private BiddableValuesFilter filter;
+
+    private ContreeDealBids bids;
+
+    private ContreePlayer bidder;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDealDriver driver = new BenchmarkDealDriver(42);
+        filter = driver.getBiddableValuesFilter();
+        bids = driver.startBids();
+        bidder = bids.getCurrentBidder().orElseThrow();
+    }
+
+    @Benchmark
+    public BiddableValuesFilter.BidFilterResult biddableValues() {
+        return filter.biddableValues(bidder, bids);
+    }
+
+}
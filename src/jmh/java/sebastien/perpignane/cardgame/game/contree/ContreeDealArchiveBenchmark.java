@@ -0,0 +1,101 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Deals appended to an archive in a temporary directory by concurrent threads, and decoded back from the mapped segments.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContreeDealArchiveBenchmark {
+
+    private static final int NB_READ_DEALS = 100_000;
+
+    private final DealRecord deal = playedDeal();
+
+    private Path directory;
+
+    private ContreeDealArchive archive;
+
+    private ContreeDealArchiveReader reader;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("contree-deal-archive");
+        archive = new ContreeDealArchive(directory);
+        Path readDirectory = directory.resolve("read");
+        try (ContreeDealArchive readArchive = new ContreeDealArchive(readDirectory)) {
+            for (int i = 0 ; i < NB_READ_DEALS ; i++) {
+                readArchive.append(deal);
+            }
+        }
+        reader = ContreeDealArchiveReader.open(readDirectory);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        archive.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * A deal bid 80 HEART after a pass, whose 32 cards are played
+     */
+    private static DealRecord playedDeal() {
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, new Random(42));
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        byte[] playedCards = new byte[cards.size()];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+            playedCards[i] = (byte) cards.get(i).ordinal();
+        }
+        byte pass = (byte) ContreeBidValue.PASS.ordinal();
+        byte noSuit = (byte) ContreeGameEvent.NONE;
+        return new DealRecord(
+                hands,
+                0,
+                new byte[] {pass, (byte) ContreeBidValue.EIGHTY.ordinal(), pass, pass, pass},
+                new byte[] {noSuit, (byte) CardSuit.HEARTS.ordinal(), noSuit, noSuit, noSuit},
+                playedCards
+        );
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void append() {
+        archive.append(deal);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_READ_DEALS)
+    public void scan(Blackhole blackhole) {
+        reader.forEach(blackhole::consume);
+    }
+
+}
@@ -0,0 +1,84 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries over the bitmap indexes of 10 million deals, cycling through a thousand random deals.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ContreeDealIndexBenchmark {
+
+    private static final int NB_DEALS = 10_000_000;
+
+    private static final int NB_SAMPLE_DEALS = 1024;
+
+    private ContreeDealIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        DealRecord[] deals = new DealRecord[NB_SAMPLE_DEALS];
+        for (int i = 0 ; i < deals.length ; i++) {
+            deals[i] = randomDeal(random);
+        }
+        index = ContreeDealIndex.build(NB_DEALS, dealIndex -> deals[(int) (dealIndex % NB_SAMPLE_DEALS)]);
+    }
+
+    /**
+     * A deal with a random contract, possibly doubled, whose 32 cards are played in the order of the distribution
+     */
+    private static DealRecord randomDeal(Random random) {
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, random);
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        byte[] playedCards = new byte[cards.size()];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+            playedCards[i] = (byte) cards.get(i).ordinal();
+        }
+        byte pass = (byte) ContreeBidValue.PASS.ordinal();
+        byte noSuit = (byte) ContreeGameEvent.NONE;
+        byte contract = (byte) (ContreeBidValue.EIGHTY.ordinal() + random.nextInt(ContreeBidValue.CAPOT.ordinal()));
+        byte suit = (byte) random.nextInt(CardSuit.NONE.ordinal());
+        byte doubleOrPass = random.nextInt(10) == 0 ? (byte) ContreeBidValue.DOUBLE.ordinal() : pass;
+        return new DealRecord(
+                hands,
+                random.nextInt(ContreePlayers.NB_PLAYERS),
+                new byte[] {contract, doubleOrPass, pass, pass, pass},
+                new byte[] {suit, noSuit, noSuit, noSuit, noSuit},
+                playedCards
+        );
+    }
+
+    @Benchmark
+    public long failedHeartCapots() {
+        return index.query().contract(ContreeBidValue.CAPOT).trumpSuit(CardSuit.HEARTS).contractReached(false).count();
+    }
+
+    @Benchmark
+    public double eightyWinRateWithFewTrumps() {
+        return index.query().contract(ContreeBidValue.EIGHTY).bidderTrumpsAtMost(2).contractReachedRate();
+    }
+
+    @Benchmark
+    public long allDeals() {
+        return index.query().count();
+    }
+
+}
@@ -0,0 +1,71 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Double dummy solves of random deals, from the first trick or with some cards left in each hand,
+ * for the points of the deal and for the points of each playable card, as done by each layout of a {@link ContreePimcSearch}.
+ * A full deal takes around a hundred milliseconds, a few are close to a second: this is why a PIMC search gives up its solves at the end of its move budget.
+ * Thousands of deals are cycled, so that a solve does not simply read the positions the same deal left in the transposition table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreeDoubleDummySolverBenchmark {
+
+    private static final int NB_DEALS = 4_096;
+
+    private static final CardSuit[] TRUMP_SUITS = { CardSuit.HEARTS, CardSuit.SPADES, CardSuit.CLUBS, CardSuit.DIAMONDS };
+
+    private static final int[] NO_TRICK_CARDS = new int[ContreePlayers.NB_PLAYERS];
+
+    @Param({"3", "5", "8"})
+    public int nbCardsByPlayer;
+
+    private final ContreeDoubleDummySolver solver = new ContreeDoubleDummySolver();
+
+    private final long[][] hands = new long[NB_DEALS][ContreePlayers.NB_PLAYERS];
+
+    private final CardSuit[] trumpSuits = new CardSuit[NB_DEALS];
+
+    private int deal;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0 ; i < NB_DEALS ; i++) {
+            List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+            Collections.shuffle(cards, random);
+            for (int j = 0 ; j < nbCardsByPlayer * ContreePlayers.NB_PLAYERS ; j++) {
+                hands[i][j % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i][j % ContreePlayers.NB_PLAYERS], cards.get(j));
+            }
+            trumpSuits[i] = TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)];
+        }
+    }
+
+    @Benchmark
+    public int solve() {
+        int i = deal++ & (NB_DEALS - 1);
+        return solver.solve(trumpSuits[i], hands[i], i % ContreePlayers.NB_PLAYERS, NO_TRICK_CARDS, 0);
+    }
+
+    @Benchmark
+    public int[] solveCards() {
+        int i = deal++ & (NB_DEALS - 1);
+        return solver.solveCards(trumpSuits[i], hands[i], i % ContreePlayers.NB_PLAYERS, NO_TRICK_CARDS, 0);
+    }
+
+}
@@ -0,0 +1,51 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Events appended by the game thread to an event log in a temporary directory, with the default group commit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreeEventLogBenchmark {
+
+    private Path directory;
+
+    private ContreeEventLog eventLog;
+
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("contree-event-log");
+        eventLog = new ContreeEventLog(directory);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        eventLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void appendCardPlayed() {
+        sequence++;
+        eventLog.onEvent(new ContreeGameEvent(ContreeEventType.CARD_PLAYED, sequence, 1, 1, (int) (sequence & 3), (int) (sequence & 31), ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+    }
+
+}
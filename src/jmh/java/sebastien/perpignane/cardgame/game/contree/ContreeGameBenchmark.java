@@ -0,0 +1,44 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end bot-only deal and game, without any player thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreeGameBenchmark {
+
+    private BenchmarkDealDriver dealDriver;
+
+    private ContreeSimulator simulator;
+
+    @Setup
+    public void setUp() {
+        dealDriver = new BenchmarkDealDriver(42);
+        simulator = new ContreeSimulator(new ContreeGameConfig() { });
+    }
+
+    /**
+     * Deal, bids, 8 tricks and score
+     */
+    @Benchmark
+    public ContreeDeal fullDeal() {
+        return dealDriver.playDeal();
+    }
+
+    /**
+     * Game with the default max score, 3 bots always passing and one bot always bidding 80 HEART
+     */
+    @Benchmark
+    public SimulatedGameResult fullGame() {
+        return simulator.playGame();
+    }
+
+}
@@ -0,0 +1,105 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PIMC searches of the next card of a random deal, after some tricks, on pools of a given parallelism.
+ * Without move budget, all the layouts are solved: the time by search shows how the search scales with the pool.
+ * With the default move budget, the time by search is the time a bot takes to play a card.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreePimcSearchBenchmark {
+
+    private static final Duration NO_MOVE_BUDGET = Duration.ofMinutes(10);
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param({"0", "2", "4"})
+    public int nbPlayedTricks;
+
+    private ForkJoinPool pool;
+
+    private ContreePimcSearch allLayoutsSearch;
+
+    private ContreePimcSearch budgetedSearch;
+
+    private ContreePlayTracker tracker;
+
+    private long hand;
+
+    private long allowedCards;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        allLayoutsSearch = new ContreePimcSearch(ContreePimcSearch.DEFAULT_NB_LAYOUTS, NO_MOVE_BUDGET, pool);
+        budgetedSearch = new ContreePimcSearch(ContreePimcSearch.DEFAULT_NB_LAYOUTS, ContreePimcSearch.DEFAULT_MOVE_BUDGET, pool);
+
+        Random dealRandom = new Random(7);
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, dealRandom);
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+        }
+        ContreeSearchState state = new ContreeSearchState(CardSuit.HEARTS, hands, 0, new int[ContreePlayers.NB_PLAYERS], 0);
+        tracker = new ContreePlayTracker();
+        tracker.onEvent(event(ContreeEventType.DEAL_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.BID_PLACED, 0, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.PLAY_STEP_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, CardSuit.HEARTS.ordinal()));
+        // The played tricks are made of random allowed cards
+        while (state.nbCompletedTricks() < nbPlayedTricks) {
+            int slot = state.nextPlayerSlot();
+            List<ClassicalCard> playableCards = CardMask.toList(state.playableCards());
+            ClassicalCard card = playableCards.get(dealRandom.nextInt(playableCards.size()));
+            state.play(card);
+            tracker.onEvent(event(ContreeEventType.CARD_PLAYED, slot, card.ordinal(), ContreeGameEvent.NONE));
+            if (state.nbTrickCards() == 0) {
+                tracker.onEvent(event(ContreeEventType.TRICK_ENDED, state.trickWinnerSlot(state.nbCompletedTricks() - 1), ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+            }
+        }
+        hand = state.hand(state.nextPlayerSlot());
+        allowedCards = state.playableCards();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ClassicalCard searchAllLayouts() {
+        return allLayoutsSearch.evaluate(tracker, hand, allowedCards, random).bestCard();
+    }
+
+    @Benchmark
+    public ClassicalCard searchWithinMoveBudget() {
+        return budgetedSearch.evaluate(tracker, hand, allowedCards, random).bestCard();
+    }
+
+    private static ContreeGameEvent event(ContreeEventType type, int playerSlot, int card, int suit) {
+        return new ContreeGameEvent(type, 1, 1, ContreeGameEvent.NONE, playerSlot, card, suit, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
+    }
+
+}
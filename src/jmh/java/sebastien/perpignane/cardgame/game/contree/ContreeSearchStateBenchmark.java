@@ -0,0 +1,62 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole deal played on the search state with its lowest playable cards, then taken back card by card:
+ * 32 plays and 32 undos by operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreeSearchStateBenchmark {
+
+    private static final int NB_DEALS = 64;
+
+    private static final CardSuit[] TRUMP_SUITS = { CardSuit.HEARTS, CardSuit.SPADES, CardSuit.CLUBS, CardSuit.DIAMONDS };
+
+    private final ContreeSearchState[] states = new ContreeSearchState[NB_DEALS];
+
+    private int deal;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0 ; i < NB_DEALS ; i++) {
+            List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+            Collections.shuffle(cards, random);
+            long[] hands = new long[ContreePlayers.NB_PLAYERS];
+            for (int j = 0 ; j < cards.size() ; j++) {
+                hands[j % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[j % ContreePlayers.NB_PLAYERS], cards.get(j));
+            }
+            states[i] = new ContreeSearchState(TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)], hands, i % ContreePlayers.NB_PLAYERS, new int[0], 0);
+        }
+    }
+
+    @Benchmark
+    public int playAndUndoDeal() {
+        ContreeSearchState state = states[deal++ & (NB_DEALS - 1)];
+        while (!state.isOver()) {
+            state.play(Long.numberOfTrailingZeros(state.playableCards()));
+        }
+        int points = state.teamPoints(0);
+        for (int i = state.nbPlayedCards() ; i > 0 ; i--) {
+            state.undo();
+        }
+        return points;
+    }
+
+}
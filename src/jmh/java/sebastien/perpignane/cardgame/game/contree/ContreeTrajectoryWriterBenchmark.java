@@ -0,0 +1,99 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Games simulated by 4 threads, without trajectories, then with every decision written raw or LZ4 compressed in a temporary directory.
+ * The games should not be slower with trajectories as long as the writer threads keep up with the game threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ContreeTrajectoryWriterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Trajectories {
+
+        @Param({"none", "raw", "lz4"})
+        public String trajectories;
+
+        @Param({"2"})
+        public int nbWriters;
+
+        private Path directory;
+
+        private ContreeTrajectoryWriter writer;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            if (!trajectories.equals("none")) {
+                directory = Files.createTempDirectory("contree-trajectories");
+                writer = new ContreeTrajectoryWriter(directory, ContreeTrajectoryWriter.DEFAULT_SHARD_SIZE, ContreeTrajectoryWriter.DEFAULT_RECORDS_BY_BLOCK, trajectories.equals("lz4"), nbWriters);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            writer.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class GameThread {
+
+        private ContreeSimulator simulator;
+
+        private ContreeTrajectoryWriter writer;
+
+        /**
+         * Created by the benchmark thread, so that the simulator records in the recorder of this thread
+         */
+        @Setup(Level.Iteration)
+        public void setUp(Trajectories trajectories) {
+            writer = trajectories.writer;
+            simulator = new ContreeSimulator(new ContreeGameConfig() {
+                @Override
+                public Optional<ContreeTrajectoryWriter> getTrajectoryWriter() {
+                    return Optional.ofNullable(trajectories.writer);
+                }
+            });
+        }
+
+        /**
+         * Hands the last block of the recorder of this thread over to the writer, before it is closed
+         */
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            if (writer != null) {
+                writer.releaseLocalRecorder();
+            }
+        }
+
+    }
+
+    @Benchmark
+    public SimulatedGameResult fullGame(GameThread gameThread) {
+        return gameThread.simulator.playGame();
+    }
+
+}
@@ -0,0 +1,38 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Winner of the full tricks of real deals.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContreeTrickBenchmark {
+
+    private static final int NB_TRICKS = 64;
+
+    private final ContreeTrick[] tricks = new ContreeTrick[NB_TRICKS];
+
+    private int trick;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDealDriver driver = new BenchmarkDealDriver(42);
+        for (int i = 0 ; i < NB_TRICKS ; i++) {
+            tricks[i] = driver.playDeal().lastTrick().orElseThrow();
+        }
+    }
+
+    @Benchmark
+    public ContreePlayer winningPlayer() {
+        return tricks[trick++ & (NB_TRICKS - 1)].winningPlayer();
+    }
+
+}
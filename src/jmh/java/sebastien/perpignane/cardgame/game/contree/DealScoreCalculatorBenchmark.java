@@ -0,0 +1,40 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores of real deals, played until the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealScoreCalculatorBenchmark {
+
+    private static final int NB_DEALS = 64;
+
+    private final ContreeDeal[] deals = new ContreeDeal[NB_DEALS];
+
+    private DealScoreCalculator calculator;
+
+    private int deal;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDealDriver driver = new BenchmarkDealDriver(42);
+        calculator = driver.getDealScoreCalculator();
+        for (int i = 0 ; i < NB_DEALS ; i++) {
+            deals[i] = driver.playDeal();
+        }
+    }
+
+    @Benchmark
+    public DealScoreResult computeDealScores() {
+        return calculator.computeDealScores(deals[deal++ & (NB_DEALS - 1)]);
+    }
+
+}
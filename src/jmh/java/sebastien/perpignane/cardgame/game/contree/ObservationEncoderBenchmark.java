@@ -0,0 +1,107 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Observations of a player in the middle of the play of a deal, with half of the tricks played.
+ * The allocation rate reported by the GC profiler should be 0.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ObservationEncoderBenchmark {
+
+    private static final int NB_PLAYED_CARDS = 16;
+
+    private final ObservationEncoder encoder = new ObservationEncoder();
+
+    private final float[] observation = new float[ObservationEncoder.SIZE];
+
+    private final FloatBuffer buffer = ByteBuffer.allocateDirect(ObservationEncoder.SIZE * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+    private ContreeGame game;
+
+    private ContreePlayer player;
+
+    @Setup
+    public void setUp() {
+        ContreeBotStrategy strategy = new StoppingStrategy(new Random(42));
+        try {
+            new ContreeSimulator(new ContreeGameConfig() { }, List.of(strategy, strategy, strategy, strategy)).playGame();
+        }
+        catch (PositionReachedException e) {
+            // The game stays in the middle of the deal
+        }
+    }
+
+    @Benchmark
+    public float[] encodeArray() {
+        encoder.encode(game, player, observation, 0);
+        return observation;
+    }
+
+    @Benchmark
+    public FloatBuffer encodeBuffer() {
+        buffer.clear();
+        encoder.encode(game, player, buffer);
+        return buffer;
+    }
+
+    private static class PositionReachedException extends RuntimeException {
+    }
+
+    /**
+     * Bids 80 hearts first, then plays random cards until the benchmarked position is reached
+     */
+    private class StoppingStrategy extends RandomCardBotStrategy {
+
+        private ContreeGame joinedGame;
+
+        private int nbPlayedCards;
+
+        StoppingStrategy(Random random) {
+            super(random);
+        }
+
+        @Override
+        public void onJoiningGame(ContreeGame game) {
+            joinedGame = game;
+        }
+
+        @Override
+        public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+            if (allowedBidValues.contains(ContreeBidValue.EIGHTY)) {
+                return new ContreeBid(player, ContreeBidValue.EIGHTY, CardSuit.HEARTS);
+            }
+            return new ContreeBid(player);
+        }
+
+        @Override
+        public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+            if (nbPlayedCards++ == NB_PLAYED_CARDS) {
+                game = joinedGame;
+                ObservationEncoderBenchmark.this.player = player;
+                throw new PositionReachedException();
+            }
+            return super.chooseCard(player, allowedCards);
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Playable cards of random situations: a hand of 8 cards and 0 to 3 cards already played in the trick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayableCardsFilterBenchmark {
+
+    private static final int NB_SITUATIONS = 1024;
+
+    private static final CardSuit[] TRUMP_SUITS = { CardSuit.HEARTS, CardSuit.SPADES, CardSuit.CLUBS, CardSuit.DIAMONDS };
+
+    private final PlayableCardsFilter filter = new PlayableCardsFilter();
+
+    private final long[] hands = new long[NB_SITUATIONS];
+
+    private final CardSuit[] trumpSuits = new CardSuit[NB_SITUATIONS];
+
+    private final int[][] playedCards = new int[NB_SITUATIONS][ContreePlayers.NB_PLAYERS];
+
+    private final int[] nbPlayedCards = new int[NB_SITUATIONS];
+
+    private int situation;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0 ; i < NB_SITUATIONS ; i++) {
+            List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+            Collections.shuffle(cards, random);
+            hands[i] = CardMask.of(cards.subList(0, 8));
+            trumpSuits[i] = TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)];
+            nbPlayedCards[i] = random.nextInt(ContreePlayers.NB_PLAYERS);
+            for (int j = 0 ; j < nbPlayedCards[i] ; j++) {
+                playedCards[i][j] = cards.get(8 + j).ordinal();
+            }
+        }
+    }
+
+    @Benchmark
+    public long playableCards() {
+        int i = situation++ & (NB_SITUATIONS - 1);
+        return filter.playableCards(hands[i], trumpSuits[i], playedCards[i], nbPlayedCards[i]);
+    }
+
+}
@@ -0,0 +1,51 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps of many environments with random allowed actions, passing 3 times out of 4 during the bids. The time is by environment step:
+ * run with "-t" threads, each thread stepping its own environments, for the throughput of several cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VecContreeEnvBenchmark {
+
+    private static final int NB_ENVS = 1024;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private final int[] actions = new int[NB_ENVS];
+
+    private VecContreeEnv env;
+
+    @Setup
+    public void setUp() {
+        env = new VecContreeEnv(NB_ENVS, random.nextLong());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_ENVS)
+    public VecContreeEnv.Batch step() {
+        VecContreeEnv.Batch batch = env.batch();
+        for (int e = 0 ; e < NB_ENVS ; e++) {
+            long legalActions = batch.legalActions()[e];
+            if (batch.phases()[e] == VecContreeEnv.BID_PHASE && random.nextInt(4) > 0) {
+                actions[e] = VecContreeEnv.PASS_ACTION;
+                continue;
+            }
+            for (int i = random.nextInt(Long.bitCount(legalActions)) ; i > 0 ; i--) {
+                legalActions &= legalActions - 1;
+            }
+            actions[e] = Long.numberOfTrailingZeros(legalActions);
+        }
+        return env.step(actions);
+    }
+
+}
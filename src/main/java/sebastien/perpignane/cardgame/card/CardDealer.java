@@ -7,10 +7,12 @@ import java.util.stream.IntStream;
 public class CardDealer {
 
     private final List<Integer> distributeConfiguration;
+    private final int[] nbCardsByRound;
     private final int nbDistributedCardsPerPlayer;
 
     public CardDealer(List<Integer> distributeConfiguration) {
         this.distributeConfiguration = distributeConfiguration;
+        nbCardsByRound = distributeConfiguration.stream().mapToInt(Integer::intValue).toArray();
         nbDistributedCardsPerPlayer = nbDistributedCardsPerPlayer();
     }
 
@@ -24,6 +26,31 @@ public class CardDealer {
 
     }
 
+    /**
+     * Deals the cards as {@link #dealCards}, without allocating: the hands are written as {@link CardMask}s.
+     * @param cardOrdinals the ordinals of the shuffled cards
+     * @param hands receives the hand of each player, from the offset
+     */
+    public void dealHands(byte[] cardOrdinals, int nbPlayers, long[] hands, int offset) {
+
+        throwExceptionIfCardsCannotBeEquallyDistributed(cardOrdinals.length, nbPlayers);
+
+        throwExceptionIfNbDistributedCardsDoesNotMatchNbCardsAndNbPlayers(cardOrdinals.length, nbPlayers);
+
+        int card = 0;
+        for (int playerIdx = 0 ; playerIdx < nbPlayers ; playerIdx++) {
+            hands[offset + playerIdx] = CardMask.EMPTY;
+        }
+        for (int nbCards : nbCardsByRound) {
+            for (int playerIdx = 0 ; playerIdx < nbPlayers ; playerIdx++) {
+                for (int i = 0 ; i < nbCards ; i++) {
+                    hands[offset + playerIdx] |= 1L << cardOrdinals[card++];
+                }
+            }
+        }
+
+    }
+
     private int nbDistributedCardsPerPlayer() {
         return distributeConfiguration.stream().mapToInt(Integer::intValue).sum();
     }
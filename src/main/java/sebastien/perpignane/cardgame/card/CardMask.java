@@ -0,0 +1,152 @@
+package sebastien.perpignane.cardgame.card;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A set of {@link ClassicalCard} stored in a single <code>long</code>: bit <code>n</code> is set when the card with ordinal <code>n</code> is in the set.
+ *
+ * As the 54 classical cards fit in 64 bits, all set operations are simple bitwise operations and never allocate.
+ *
+ * Iteration without allocation:
+ * <pre>
+ *     for (long m = mask; m != 0; m = CardMask.removeFirst(m)) {
+ *         ClassicalCard card = CardMask.first(m);
+ *     }
+ * </pre>
+ */
+public final class CardMask {
+
+    public static final long EMPTY = 0L;
+
+    private static final ClassicalCard[] CARDS = ClassicalCard.values();
+
+    private static final long[] SUIT_MASKS = new long[CardSuit.values().length];
+
+    static {
+        for (ClassicalCard card : CARDS) {
+            SUIT_MASKS[card.getSuit().ordinal()] |= of(card);
+        }
+    }
+
+    private CardMask() {}
+
+    public static long of(ClassicalCard card) {
+        return 1L << card.ordinal();
+    }
+
+    public static long of(ClassicalCard... cards) {
+        long mask = EMPTY;
+        for (ClassicalCard card : cards) {
+            mask |= of(card);
+        }
+        return mask;
+    }
+
+    public static long of(Collection<ClassicalCard> cards) {
+        long mask = EMPTY;
+        for (ClassicalCard card : cards) {
+            mask |= of(card);
+        }
+        return mask;
+    }
+
+    public static long with(long mask, ClassicalCard card) {
+        return mask | of(card);
+    }
+
+    public static long without(long mask, ClassicalCard card) {
+        return mask & ~of(card);
+    }
+
+    public static boolean contains(long mask, ClassicalCard card) {
+        return (mask & of(card)) != 0;
+    }
+
+    public static long union(long mask, long otherMask) {
+        return mask | otherMask;
+    }
+
+    public static long intersection(long mask, long otherMask) {
+        return mask & otherMask;
+    }
+
+    public static long minus(long mask, long otherMask) {
+        return mask & ~otherMask;
+    }
+
+    /**
+     * @return the mask of all the classical cards of the given suit
+     */
+    public static long suit(CardSuit suit) {
+        return SUIT_MASKS[suit.ordinal()];
+    }
+
+    /**
+     * @return the cards of the mask having the given suit
+     */
+    public static long ofSuit(long mask, CardSuit suit) {
+        return mask & SUIT_MASKS[suit.ordinal()];
+    }
+
+    public static int size(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    public static boolean isEmpty(long mask) {
+        return mask == EMPTY;
+    }
+
+    /**
+     * @return the card with the lowest ordinal in the mask
+     * @throws NoSuchElementException if the mask is empty
+     */
+    public static ClassicalCard first(long mask) {
+        if (mask == EMPTY) {
+            throw new NoSuchElementException("Empty card mask");
+        }
+        return CARDS[Long.numberOfTrailingZeros(mask)];
+    }
+
+    /**
+     * @return the mask without its card with the lowest ordinal
+     */
+    public static long removeFirst(long mask) {
+        return mask & (mask - 1);
+    }
+
+    public static ClassicalCard card(int ordinal) {
+        return CARDS[ordinal];
+    }
+
+    public static void forEach(long mask, Consumer<ClassicalCard> action) {
+        for (long m = mask; m != EMPTY; m = removeFirst(m)) {
+            action.accept(first(m));
+        }
+    }
+
+    public static Set<ClassicalCard> toSet(long mask) {
+        Set<ClassicalCard> cards = EnumSet.noneOf(ClassicalCard.class);
+        forEach(mask, cards::add);
+        return cards;
+    }
+
+    /**
+     * @return an unmodifiable list of the cards of the mask, sorted by ordinal
+     */
+    public static List<ClassicalCard> toList(long mask) {
+        ClassicalCard[] cards = new ClassicalCard[size(mask)];
+        int i = 0;
+        for (long m = mask; m != EMPTY; m = removeFirst(m)) {
+            cards[i++] = first(m);
+        }
+        return List.of(cards);
+    }
+
+    public static String toString(long mask) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        forEach(mask, c -> joiner.add(c.toString()));
+        return joiner.toString();
+    }
+
+}
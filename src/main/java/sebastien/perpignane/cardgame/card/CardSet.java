@@ -33,8 +33,11 @@ public enum CardSet {
 
     private final SortedSet<ClassicalCard> gameCards;
 
+    private final long gameCardsMask;
+
     CardSet() {
         this.gameCards = selectCards();
+        this.gameCardsMask = CardMask.of(gameCards);
     }
 
     protected abstract SortedSet<ClassicalCard> selectCards();
@@ -43,8 +46,19 @@ public enum CardSet {
         return gameCards;
     }
 
+    /**
+     * @return the cards of this set as a {@link CardMask}
+     */
+    public long getGameCardsMask() {
+        return gameCardsMask;
+    }
+
     public Collection<ClassicalCard> allOf(CardSuit cardSuit) {
         return gameCards.stream().filter(c -> c.getSuit() == cardSuit).toList();
     }
 
+    public long allOfMask(CardSuit cardSuit) {
+        return CardMask.ofSuit(gameCardsMask, cardSuit);
+    }
+
 }
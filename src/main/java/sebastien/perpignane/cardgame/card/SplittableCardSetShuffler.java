@@ -0,0 +1,92 @@
+package sebastien.perpignane.cardgame.card;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Shuffles card sets with its own {@link RandomGenerator.SplittableGenerator}, so that games never contend on a shared random generator
+ * and are reproduced from a seed.
+ *
+ * A shuffler is not thread safe: each game, or each worker, gets its own shuffler with {@link #split()}, whose stream is independent of the stream of its parent.
+ */
+public class SplittableCardSetShuffler implements CardSetShuffler {
+
+    public static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<RandomGenerator.SplittableGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+
+    private static final ClassicalCard[] CARDS = ClassicalCard.values();
+
+    /**
+     * Card ordinals of each card set, in the order of the set
+     */
+    private static final byte[][] CARD_ORDINALS = new byte[CardSet.values().length][];
+
+    static {
+        for (CardSet cardSet : CardSet.values()) {
+            byte[] ordinals = new byte[cardSet.getGameCards().size()];
+            int i = 0;
+            for (ClassicalCard card : cardSet.getGameCards()) {
+                ordinals[i++] = (byte) card.ordinal();
+            }
+            CARD_ORDINALS[cardSet.ordinal()] = ordinals;
+        }
+    }
+
+    private final RandomGenerator.SplittableGenerator random;
+
+    /**
+     * Shuffler seeded at random
+     */
+    public SplittableCardSetShuffler() {
+        this(FACTORY.create());
+    }
+
+    public SplittableCardSetShuffler(long seed) {
+        this(FACTORY.create(seed));
+    }
+
+    public SplittableCardSetShuffler(RandomGenerator.SplittableGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * @return a new shuffler, with a stream split from the stream of this shuffler
+     */
+    public SplittableCardSetShuffler split() {
+        return new SplittableCardSetShuffler(splitGenerator());
+    }
+
+    /**
+     * @return a new generator, split from the stream of this shuffler, for the other random decisions of a game
+     */
+    public RandomGenerator.SplittableGenerator splitGenerator() {
+        return random.split();
+    }
+
+    @Override
+    public List<ClassicalCard> shuffle(CardSet cSet) {
+        byte[] ordinals = CARD_ORDINALS[cSet.ordinal()].clone();
+        shuffle(ordinals);
+        ClassicalCard[] cards = new ClassicalCard[ordinals.length];
+        for (int i = 0 ; i < ordinals.length ; i++) {
+            cards[i] = CARDS[ordinals[i]];
+        }
+        return Arrays.asList(cards);
+    }
+
+    /**
+     * Fisher–Yates shuffle of card ordinals, in place
+     */
+    public void shuffle(byte[] cardOrdinals) {
+        for (int i = cardOrdinals.length - 1 ; i > 0 ; i--) {
+            int j = random.nextInt(i + 1);
+            byte ordinal = cardOrdinals[i];
+            cardOrdinals[i] = cardOrdinals[j];
+            cardOrdinals[j] = ordinal;
+        }
+    }
+
+}
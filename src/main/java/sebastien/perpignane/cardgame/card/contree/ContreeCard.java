@@ -1,6 +1,7 @@
 package sebastien.perpignane.cardgame.card.contree;
 
 import sebastien.perpignane.cardgame.card.CardRank;
+import sebastien.perpignane.cardgame.card.CardSet;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.card.ValuableCard;
@@ -9,8 +10,45 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * A contree card is a classical card of the 32 cards game, being a trump or not.
+ *
+ * There are only 64 possible contree cards, so instances are shared: they are all created once and obtained with
+ * {@link #of(ClassicalCard, CardSuit)} or {@link #of(ClassicalCard, boolean)}.
+ */
 public class ContreeCard implements ValuableCard {
 
+    private static final int NB_CARDS = ClassicalCard.values().length;
+
+    /**
+     * Game values, indexed by {@link #index(int, boolean)}
+     */
+    private static final int[] VALUES = new int[NB_CARDS * 2];
+
+    /**
+     * Game points, indexed by {@link #index(int, boolean)}
+     */
+    private static final int[] POINTS = new int[NB_CARDS * 2];
+
+    /**
+     * Shared instances, indexed by {@link #index(int, boolean)}. Null for cards not used in contree.
+     */
+    private static final ContreeCard[] CARDS = new ContreeCard[NB_CARDS * 2];
+
+    static {
+        for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+            var contreeRankValueAndPoints = ContreeRankValueAndPoints.getByCardValue(card.getRank());
+            int standardIndex = index(card.ordinal(), false);
+            int trumpIndex = index(card.ordinal(), true);
+            VALUES[standardIndex] = contreeRankValueAndPoints.getStandardGameValue();
+            VALUES[trumpIndex] = contreeRankValueAndPoints.getTrumpGameValue();
+            POINTS[standardIndex] = contreeRankValueAndPoints.getStandardGamePoints();
+            POINTS[trumpIndex] = contreeRankValueAndPoints.getTrumpGamePoints();
+            CARDS[standardIndex] = new ContreeCard(card, false);
+            CARDS[trumpIndex] = new ContreeCard(card, true);
+        }
+    }
+
     private final ClassicalCard card;
 
     private final boolean trump;
@@ -19,17 +57,44 @@ public class ContreeCard implements ValuableCard {
 
     private final int point;
 
-    public ContreeCard(ClassicalCard card, CardSuit trumpSuit) {
-        this(card, card.getSuit() == trumpSuit);
+    private ContreeCard(ClassicalCard card, boolean trump) {
+        this.card = card;
+        this.trump = trump;
+        int index = index(card.ordinal(), trump);
+        this.value = VALUES[index];
+        this.point = POINTS[index];
     }
 
-    public ContreeCard(ClassicalCard card, boolean trump) {
+    public static ContreeCard of(ClassicalCard card, CardSuit trumpSuit) {
         Objects.requireNonNull(card);
-        this.card = card;
-        this.trump = trump;
-        var contreeRankValueAndPoints = ContreeRankValueAndPoints.getByCardValue(card.getRank());
-        this.value = this.trump ? contreeRankValueAndPoints.getTrumpGameValue() : contreeRankValueAndPoints.getStandardGameValue();
-        this.point = this.trump ? contreeRankValueAndPoints.getTrumpGamePoints() : contreeRankValueAndPoints.getStandardGamePoints();
+        return of(card, card.getSuit() == trumpSuit);
+    }
+
+    public static ContreeCard of(ClassicalCard card, boolean trump) {
+        Objects.requireNonNull(card);
+        ContreeCard contreeCard = CARDS[index(card.ordinal(), trump)];
+        if (contreeCard == null) {
+            throw new IllegalArgumentException(String.format("%s is not a contree card", card));
+        }
+        return contreeCard;
+    }
+
+    /**
+     * @return the game value of the card with the given ordinal, without looking up any {@link ContreeCard}
+     */
+    public static int gameValue(int cardOrdinal, boolean trump) {
+        return VALUES[index(cardOrdinal, trump)];
+    }
+
+    /**
+     * @return the game points of the card with the given ordinal, without looking up any {@link ContreeCard}
+     */
+    public static int gamePoints(int cardOrdinal, boolean trump) {
+        return POINTS[index(cardOrdinal, trump)];
+    }
+
+    private static int index(int cardOrdinal, boolean trump) {
+        return (cardOrdinal << 1) | (trump ? 1 : 0);
     }
 
     public ClassicalCard getCard() {
@@ -59,15 +124,15 @@ public class ContreeCard implements ValuableCard {
     }
 
     public static Set<ContreeCard> of(final CardSuit trump, Set<ClassicalCard> cards) {
-        return cards.stream().map(c -> new ContreeCard(c, trump)).collect(Collectors.toSet());
+        return cards.stream().map(c -> of(c, trump)).collect(Collectors.toSet());
     }
 
     public static Set<ContreeCard> ofAllTrumps(Set<ClassicalCard> cards) {
-        return cards.stream().map(c -> new ContreeCard(c, true)).collect(Collectors.toSet());
+        return cards.stream().map(c -> of(c, true)).collect(Collectors.toSet());
     }
 
     public static Set<ContreeCard> ofNoTrumps(Set<ClassicalCard> cards) {
-        return cards.stream().map(c -> new ContreeCard(c, false)).collect(Collectors.toSet());
+        return cards.stream().map(c -> of(c, false)).collect(Collectors.toSet());
     }
 
 }
@@ -2,9 +2,6 @@ package sebastien.perpignane.cardgame.card.contree;
 
 import sebastien.perpignane.cardgame.card.CardRank;
 
-import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  *
@@ -35,13 +32,15 @@ public enum ContreeRankValueAndPoints {
     private final int standardPoints;
     private final int trumpPoints;
 
-    private static final Map<CardRank, ContreeRankValueAndPoints> contreeCardEnumByValue;
+    /**
+     * Indexed by card rank ordinal, null for ranks not used in contree
+     */
+    private static final ContreeRankValueAndPoints[] contreeCardEnumByValue = new ContreeRankValueAndPoints[CardRank.values().length];
 
     static {
-        contreeCardEnumByValue = Arrays.stream(ContreeRankValueAndPoints.values()).collect(Collectors.toMap(
-                cc -> cc.cardRank,
-                cc -> cc
-        ));
+        for (ContreeRankValueAndPoints cc : values()) {
+            contreeCardEnumByValue[cc.cardRank.ordinal()] = cc;
+        }
     }
 
     ContreeRankValueAndPoints(CardRank cardRank, int standardAndTrumpValues, int standardAndTrumpPoints) {
@@ -81,7 +80,7 @@ public enum ContreeRankValueAndPoints {
     }
 
     public static ContreeRankValueAndPoints getByCardValue(CardRank cardRank) {
-        return contreeCardEnumByValue.get(cardRank);
+        return contreeCardEnumByValue[cardRank.ordinal()];
     }
 
 }
@@ -8,10 +8,14 @@ import java.util.UUID;
 public abstract class AbstractGame<P extends Player<?, ?>> {
 
     private final String gameId;
-    private GameStatus status;
+    private volatile GameStatus status;
 
     protected AbstractGame() {
-        gameId = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString());
+    }
+
+    protected AbstractGame(String gameId) {
+        this.gameId = gameId;
     }
 
     protected void updateState(GameStatus newState) {
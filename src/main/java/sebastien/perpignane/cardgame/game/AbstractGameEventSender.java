@@ -6,13 +6,29 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public abstract class AbstractGameEventSender {
 
+    /**
+     * Event types, used to coalesce the snapshot events of asynchronous observers, see {@link #isSnapshotEvent(int)}.
+     * Subclasses number their own events from {@link #FIRST_GAME_SPECIFIC_EVENT}.
+     */
+    protected static final int STATE_EVENT = 0;
+    protected static final int NEXT_PLAYER_EVENT = 1;
+    protected static final int FIRST_GAME_SPECIFIC_EVENT = 2;
+
     //We use a concurrent set (provided by concurrent hash map) to allow safe addition of observers while the game is running.
     protected final Set<GameObserver> gameObservers = ConcurrentHashMap.newKeySet();
 
+    protected final AsyncEventDispatcher asyncDispatcher;
+
     protected AbstractGameEventSender(GameObserver... observers) {
+        this(new AsyncEventDispatcher(), observers);
+    }
+
+    protected AbstractGameEventSender(AsyncEventDispatcher asyncDispatcher, GameObserver... observers) {
+        this.asyncDispatcher = asyncDispatcher;
         gameObservers.addAll(Arrays.asList(observers));
     }
 
@@ -23,8 +39,32 @@ public abstract class AbstractGameEventSender {
         gameObservers.add(observer);
     }
 
+    /**
+     * The observer gets the events asynchronously, on a dispatcher thread: a slow observer does not slow the game down.
+     * The dispatcher threads are shared by the games: the observer must not block for long, on a monitor or otherwise.
+     * @param policy what happens when the observer is too slow
+     */
+    public void registerAsAsyncObserver(CardGameObserver observer, BackpressurePolicy policy) {
+        asyncDispatcher.register(observer, policy);
+    }
+
+    /**
+     * Sends the event to the synchronous observers, then queues it for the asynchronous ones
+     */
+    protected <O extends CardGameObserver> void sendEvent(Set<O> observers, Class<O> observerType, int eventType, Consumer<O> event) {
+        observers.forEach(event);
+        asyncDispatcher.dispatch(observerType, isSnapshotEvent(eventType) ? eventType : AsyncEventDispatcher.NOT_COALESCED, event);
+    }
+
+    /**
+     * @return true if the event only carries the latest value of a state, so that a pending event of the same type can be replaced by a newer one
+     */
+    protected boolean isSnapshotEvent(int eventType) {
+        return eventType == STATE_EVENT || eventType == NEXT_PLAYER_EVENT;
+    }
+
     public void sendStateEvent(GameStatus oldState, GameStatus newState) {
-        gameObservers.forEach(go -> go.onStateUpdated(oldState, newState));
+        sendEvent(gameObservers, GameObserver.class, STATE_EVENT, go -> go.onStateUpdated(oldState, newState));
     }
 
     public <P extends Player<?, ?>> void sendGameStartedEvent(List<P> players) {
@@ -32,7 +72,7 @@ public abstract class AbstractGameEventSender {
     }
 
     public void sendNextPlayerEvent(Player<?, ?> currentPlayer) {
-        gameObservers.forEach(go -> go.onNextPlayer(currentPlayer));
+        sendEvent(gameObservers, GameObserver.class, NEXT_PLAYER_EVENT, go -> go.onNextPlayer(currentPlayer));
     }
 
 }
@@ -0,0 +1,143 @@
+package sebastien.perpignane.cardgame.game;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the events of a game to its asynchronous observers, in batches, on a dispatcher thread.
+ *
+ * Each observer has its own bounded event queue and {@link BackpressurePolicy}, so a slow observer only delays its own events,
+ * unless it chose to block the game. Events of an observer are delivered in order, by one dispatcher thread at a time.
+ * A dispatch delivers at most one batch to each observer, then gives its thread back to the executor, shared by the dispatchers of all the games.
+ * Without asynchronous observer, sending an event costs a single check.
+ *
+ * Observers run on the threads of the executor: they must not block for long, on a monitor or otherwise, or they hold a dispatcher thread away from the other games.
+ * With an executor of virtual threads, an observer blocking on a monitor, like a synchronized <code>PrintStream</code>, would also pin the carrier thread.
+ */
+public class AsyncEventDispatcher {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * Event type of the events which must not be coalesced, see {@link BackpressurePolicy#COALESCE}
+     */
+    public static final int NOT_COALESCED = -1;
+
+    /**
+     * Pool of daemon platform threads, one by processor, shared by the dispatchers of all the games
+     */
+    public static final Executor SHARED_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().daemon().name("EventDispatcher-", 0).factory()
+    );
+
+    private final List<ObserverEventQueue> queues = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Executor executor;
+
+    private final int queueCapacity;
+
+    private final Consumer<?>[] batch = new Consumer<?>[BATCH_SIZE];
+
+    public AsyncEventDispatcher() {
+        this(SHARED_EXECUTOR, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param executor runs the dispatches
+     * @param queueCapacity maximum number of pending events by observer
+     */
+    public AsyncEventDispatcher(Executor executor, int queueCapacity) {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void register(CardGameObserver observer, BackpressurePolicy policy) {
+        if (observer == null) {
+            throw new IllegalArgumentException("observer cannot be null");
+        }
+        queues.add(new ObserverEventQueue(observer, policy, queueCapacity));
+    }
+
+    /**
+     * Queues the event for the asynchronous observers of the given type.
+     * @param observerType only observers of this type get the event
+     * @param eventType the type of a snapshot event, whose latest value is enough for the observers, or {@link #NOT_COALESCED}
+     * @param event the callback of the observers
+     */
+    public <O extends CardGameObserver> void dispatch(Class<O> observerType, int eventType, Consumer<? super O> event) {
+        if (queues.isEmpty()) {
+            return;
+        }
+        boolean queued = false;
+        for (ObserverEventQueue queue : queues) {
+            if (observerType.isInstance(queue.getObserver())) {
+                offer(queue, eventType, event);
+                queued = true;
+            }
+        }
+        if (queued) {
+            schedule();
+        }
+    }
+
+    private void offer(ObserverEventQueue queue, int eventType, Consumer<?> event) {
+        try {
+            queue.offer(eventType, event, this::schedule);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a slow observer", e);
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::dispatchPendingEvents);
+        }
+    }
+
+    private void dispatchPendingEvents() {
+        for (ObserverEventQueue queue : queues) {
+            queue.deliver(batch);
+        }
+        scheduled.set(false);
+        // Events left after a batch, or queued before the flag was reset, when their sender could not schedule the dispatch, get the next dispatch.
+        if (hasPendingEvents()) {
+            schedule();
+        }
+    }
+
+    private boolean hasPendingEvents() {
+        for (ObserverEventQueue queue : queues) {
+            if (!queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasObservers() {
+        return !queues.isEmpty();
+    }
+
+    /**
+     * @return the number of events asynchronous observers did not get because of their {@link BackpressurePolicy}
+     */
+    public long getNbDroppedEvents() {
+        long nbDroppedEvents = 0;
+        for (ObserverEventQueue queue : queues) {
+            nbDroppedEvents += queue.getNbDroppedEvents();
+        }
+        return nbDroppedEvents;
+    }
+
+}
@@ -0,0 +1,25 @@
+package sebastien.perpignane.cardgame.game;
+
+/**
+ * What happens when an asynchronous observer is too slow and its event queue is full.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The game waits until the observer has room for the event: no event is lost, but the observer slows the game down.
+     */
+    BLOCK,
+
+    /**
+     * The oldest pending event is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * When the queue is full, a new snapshot event, like a score or a state update, replaces the pending event of the same type, if any:
+     * the older one is removed and the new one is queued at the tail, so that events stay in order.
+     * Other events, like played cards or bids, are never coalesced: when the queue is full, the oldest pending event is dropped.
+     */
+    COALESCE
+
+}
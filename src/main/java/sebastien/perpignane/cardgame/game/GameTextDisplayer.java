@@ -6,6 +6,7 @@ import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
 import sebastien.perpignane.cardgame.game.contree.ContreeDealObserver;
 import sebastien.perpignane.cardgame.game.contree.ContreeDealScore;
 import sebastien.perpignane.cardgame.game.contree.ContreeGame;
+import sebastien.perpignane.cardgame.game.contree.ContreeGameScore;
 import sebastien.perpignane.cardgame.game.contree.ContreeTrickObserver;
 import sebastien.perpignane.cardgame.game.war.WarGame;
 import sebastien.perpignane.cardgame.game.war.WarPlayedCard;
@@ -224,6 +225,12 @@ Final score :
         );
     }
 
+    @Override
+    public void onGameScoreUpdated(ContreeGameScore gameScore) {
+        out.println("Game score:");
+        ContreeTeam.getTeams().stream().sorted().forEach(t -> out.printf("\t%s: %d / %d%n", t, gameScore.getTeamScore(t), gameScore.getMaxScore()));
+    }
+
     @Override
     public void onPlacedBid(String dealId, Player<?, ?> player, ContreeBidValue bidValue, CardSuit suit) {
         out.printf("Deal %s : Bid (%s, %s) placed by %s%n", dealId, bidValue, suit, player);
@@ -0,0 +1,169 @@
+package sebastien.perpignane.cardgame.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring buffer of the events waiting to be delivered to one asynchronous observer.
+ *
+ * An event is a callback of the observer, with the type of the event used for coalescing.
+ * Events are queued by the game and polled in batches by the dispatcher, so the lock is held only to copy references.
+ */
+class ObserverEventQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ObserverEventQueue.class);
+
+    private final CardGameObserver observer;
+
+    private final BackpressurePolicy policy;
+
+    private final Consumer<?>[] events;
+
+    private final int[] eventTypes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+
+    private int size;
+
+    private long nbDroppedEvents;
+
+    ObserverEventQueue(CardGameObserver observer, BackpressurePolicy policy, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive, got %d", capacity));
+        }
+        this.observer = observer;
+        this.policy = policy;
+        this.events = new Consumer<?>[capacity];
+        this.eventTypes = new int[capacity];
+    }
+
+    /**
+     * @param eventType type of a snapshot event, coalesced with the pending events of the same type, or {@link AsyncEventDispatcher#NOT_COALESCED}
+     * @param beforeWaiting called before waiting for room in the queue, with the {@link BackpressurePolicy#BLOCK} policy
+     */
+    void offer(int eventType, Consumer<?> event, Runnable beforeWaiting) throws InterruptedException {
+        lock.lock();
+        try {
+            if (size == events.length) {
+                if (policy == BackpressurePolicy.BLOCK) {
+                    beforeWaiting.run();
+                    while (size == events.length) {
+                        notFull.await();
+                    }
+                }
+                else if (policy == BackpressurePolicy.COALESCE && eventType != AsyncEventDispatcher.NOT_COALESCED && removePendingEvent(eventType)) {
+                    nbDroppedEvents++;
+                }
+                else {
+                    removeOldest();
+                    nbDroppedEvents++;
+                }
+            }
+            int tail = (head + size) % events.length;
+            events[tail] = event;
+            eventTypes[tail] = eventType;
+            size++;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest pending event of the given type, the next events moving up by one, so that the new event goes at the tail, in order
+     * @return false if no event of this type is pending
+     */
+    private boolean removePendingEvent(int eventType) {
+        for (int i = 0; i < size; i++) {
+            if (eventTypes[(head + i) % events.length] == eventType) {
+                for (int j = i; j < size - 1; j++) {
+                    int index = (head + j) % events.length;
+                    int next = (index + 1) % events.length;
+                    events[index] = events[next];
+                    eventTypes[index] = eventTypes[next];
+                }
+                events[(head + size - 1) % events.length] = null;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeOldest() {
+        events[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+    }
+
+    /**
+     * Delivers at most <code>batch.length</code> events to the observer, in the calling thread.
+     * An observer failing on an event still gets the next ones.
+     * @param batch buffer receiving the delivered events, reused from one call to the next
+     * @return the number of delivered events
+     */
+    @SuppressWarnings("unchecked")
+    int deliver(Consumer<?>[] batch) {
+        int nbEvents;
+        lock.lock();
+        try {
+            nbEvents = Math.min(size, batch.length);
+            for (int i = 0; i < nbEvents; i++) {
+                batch[i] = events[head];
+                removeOldest();
+            }
+            if (nbEvents > 0) {
+                notFull.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < nbEvents; i++) {
+            try {
+                ((Consumer<Object>) batch[i]).accept(observer);
+            }
+            catch (RuntimeException e) {
+                log.error("Observer {} failed to process an event", observer, e);
+            }
+            batch[i] = null;
+        }
+        return nbEvents;
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of events the observer did not get, because of the backpressure policy
+     */
+    long getNbDroppedEvents() {
+        lock.lock();
+        try {
+            return nbDroppedEvents;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    CardGameObserver getObserver() {
+        return observer;
+    }
+
+}
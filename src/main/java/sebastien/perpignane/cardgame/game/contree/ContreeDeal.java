@@ -37,18 +37,48 @@ class ContreeDeal {
 
     private final CardDealer cardDealer;
 
+    private final CardSetShuffler shuffler;
+
+    private final ContreeDealSupplier dealSupplier;
+
+    /**
+     * Receives the hands taken from the deal supplier, shared by all the deals of the game
+     */
+    private final long[] suppliedHands;
+
     private final ContreeGameEventSender eventSender;
 
     public ContreeDeal(
             ContreeDealBids contreeDealBids,
             ContreeTricks tricks,
             CardDealer cardDealer,
+            CardSetShuffler shuffler,
+            ContreeDealSupplier dealSupplier,
+            ContreeDealScore dealScore,
+            ContreeGameEventSender gameEventSender
+    ) {
+        this(contreeDealBids, tricks, cardDealer, shuffler, dealSupplier, new long[ContreePlayers.NB_PLAYERS], dealScore, gameEventSender);
+    }
+
+    /**
+     * @param suppliedHands receives the hands taken from the deal supplier, reused by the next deals of the game
+     */
+    ContreeDeal(
+            ContreeDealBids contreeDealBids,
+            ContreeTricks tricks,
+            CardDealer cardDealer,
+            CardSetShuffler shuffler,
+            ContreeDealSupplier dealSupplier,
+            long[] suppliedHands,
             ContreeDealScore dealScore,
             ContreeGameEventSender gameEventSender
     ) {
         this.dealStep        = DealStep.NOT_STARTED;
         this.eventSender     = gameEventSender;
         this.cardDealer      = cardDealer;
+        this.shuffler        = shuffler;
+        this.dealSupplier    = dealSupplier;
+        this.suppliedHands   = suppliedHands;
         this.bids            = contreeDealBids;
         this.tricks          = tricks;
         this.score           = dealScore;
@@ -68,11 +98,19 @@ class ContreeDeal {
         eventSender.sendStartOfDealEvent(dealNumber, dealId);
         eventSender.sendBidStepStartedEvent(dealId);
 
-        CardSetShuffler shuffler    = new CardSetShufflerImpl();
-        List<ClassicalCard> cards   = shuffler.shuffle(CardSet.GAME_32);
-        distributeCardsToPlayers(cards);
+        if (dealSupplier == null) {
+            distributeCardsToPlayers(shuffler.shuffle(CardSet.GAME_32));
+        }
+        else {
+            distributeSuppliedHandsToPlayers();
+        }
 
-        bids.startBids(dealPlayers.buildBidPlayers());
+        if (eventSender.isTrustedReplay()) {
+            bids.startTrustedBids(dealPlayers.buildBidPlayers());
+        }
+        else {
+            bids.startBids(dealPlayers.buildBidPlayers());
+        }
     }
 
     private void distributeCardsToPlayers(List<ClassicalCard> cards) {
@@ -91,20 +129,41 @@ class ContreeDeal {
 
         for (int i = 0 ; i < distributedCards.size() ; i++) {
             players.receiveHandForPlayer(i, distributedCards.get(i));
+            eventSender.sendDealtHandEvent(i, distributedCards.get(i));
         }
 
     }
 
-    public void placeBid(ContreeBid bid) {
+    private void distributeSuppliedHandsToPlayers() {
 
-        if (isPlayStep()) {
-            throw new IllegalStateException(
-                String.format("Cheater detected: %s ? A bid cannot be placed during PLAY step", bid.player())
-            );
+        if (players.getNumberOfPlayers() != ContreePlayers.NB_PLAYERS) {
+            throw new IllegalStateException(String.format("The supplied deals are dealt to %d players, not %d", ContreePlayers.NB_PLAYERS, players.getNumberOfPlayers()));
         }
 
+        dealSupplier.take(suppliedHands);
+
+        for (int i = 0 ; i < suppliedHands.length ; i++) {
+            players.receiveHandForPlayer(i, CardMask.toList(suppliedHands[i]));
+            eventSender.sendDealtHandEvent(i, suppliedHands[i]);
+        }
+
+    }
+
+    public void placeBid(ContreeBid bid) {
+
+        if (eventSender.isTrustedReplay()) {
+            bids.placeTrustedBid(bid);
+        }
+        else {
+            if (isPlayStep()) {
+                throw new IllegalStateException(
+                    String.format("Cheater detected: %s ? A bid cannot be placed during PLAY step", bid.player())
+                );
+            }
+            bids.placeBid(bid);
+        }
+        // Sent once the bid is validated, so that rejected bids are never recorded
         eventSender.sendPlacedBidEvent(dealId, bid);
-        bids.placeBid(bid);
 
         if ( bids.bidsAreOver() ) {
             if ( bids.hasOnlyPassBids() ) {
@@ -161,6 +220,18 @@ class ContreeDeal {
 
     }
 
+    /**
+     * Notifies the player expected to bid or play that it is its turn, after a trusted replay
+     */
+    void notifyCurrentPlayer() {
+        if (isBidStep()) {
+            bids.notifyCurrentBidder();
+        }
+        else if (isPlayStep()) {
+            tricks.notifyCurrentPlayer();
+        }
+    }
+
     public Optional<ContreePlayer> getCurrentPlayer() {
         if (tricks.tricksAreOver()) {
             return Optional.empty();
@@ -249,4 +320,12 @@ class ContreeDeal {
         return eventSender;
     }
 
+    ContreeDealBids getBids() {
+        return bids;
+    }
+
+    ContreeTricks getTricks() {
+        return tricks;
+    }
+
 }
@@ -0,0 +1,179 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.BYTE_ORDER;
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.RECORD_SIZE;
+
+/**
+ * Archive of finished deals, shared by all the games of a configuration, see {@link ContreeGameConfig#getDealArchive()}.
+ *
+ * Deals are {@link DealRecordCodec fixed-size records}, written in memory mapped segment files of <code>recordsPerSegment</code> records.
+ * Appending a deal claims the index of its record with an atomic counter, then encodes the record in place in the mapped segment:
+ * games append concurrently without lock nor system call, the OS writes the pages back to the disk.
+ * A full segment is forced to the disk and unmapped.
+ *
+ * Each segment starts with a header of {@link #HEADER_SIZE} bytes: magic number, version, record size and number of records by segment.
+ */
+public class ContreeDealArchive implements Closeable {
+
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    static final int HEADER_SIZE = RECORD_SIZE;
+
+    static final int MAGIC = 0x43544441;
+
+    static final int VERSION = 1;
+
+    static final String SEGMENT_SUFFIX = ".deals";
+
+    private record Segment(MappedByteBuffer buffer, AtomicInteger nbWrittenRecords) {}
+
+    private final Path directory;
+
+    private final int recordsPerSegment;
+
+    private final AtomicLong nextIndex;
+
+    private final ConcurrentHashMap<Integer, Segment> mappedSegments = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    public ContreeDealArchive(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens the archive of the directory, new deals are appended after the archived ones.
+     * @param recordsPerSegment number of deals of a segment file, it must be the one of the archived segments
+     */
+    public ContreeDealArchive(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment <= 0 || recordsPerSegment > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException(String.format("The number of records by segment must be between 1 and %d, got %d", (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE, recordsPerSegment));
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        long nbArchivedRecords = 0;
+        if (!segments.isEmpty()) {
+            int lastSegmentIndex = segments.size() - 1;
+            Segment lastSegment = mapSegment(lastSegmentIndex);
+            int nbWrittenRecords = nbWrittenRecords(lastSegment.buffer(), segments.get(lastSegmentIndex));
+            nbArchivedRecords = (long) lastSegmentIndex * recordsPerSegment + nbWrittenRecords;
+            if (nbWrittenRecords < recordsPerSegment) {
+                lastSegment.nbWrittenRecords().set(nbWrittenRecords);
+                mappedSegments.put(lastSegmentIndex, lastSegment);
+            }
+        }
+        this.nextIndex = new AtomicLong(nbArchivedRecords);
+    }
+
+    static String segmentFileName(int segmentIndex) {
+        return String.format("%010d%s", segmentIndex, SEGMENT_SUFFIX);
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+
+    /**
+     * @return the number of records written at the start of the segment, a record not fully written before a crash ends the segment
+     * @throws IOException if the segment is not a segment of a deal archive
+     */
+    static int nbWrittenRecords(ByteBuffer segment, Path segmentPath) throws IOException {
+        if (segment.capacity() < HEADER_SIZE || segment.getInt(0) != MAGIC || segment.getInt(Integer.BYTES) != VERSION || segment.getInt(2 * Integer.BYTES) != RECORD_SIZE) {
+            throw new IOException(String.format("%s is not a segment of a version %d deal archive", segmentPath, VERSION));
+        }
+        int capacity = (segment.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        int nbRecords = 0;
+        while (nbRecords < capacity && DealRecordCodec.isWritten(segment, HEADER_SIZE + nbRecords * RECORD_SIZE)) {
+            nbRecords++;
+        }
+        return nbRecords;
+    }
+
+    /**
+     * Can be called by several threads at the same time.
+     * @throws IllegalStateException if the archive is closed
+     * @throws UncheckedIOException if a new segment cannot be created
+     */
+    public void append(DealRecord deal) {
+        if (closed) {
+            throw new IllegalStateException(String.format("The deal archive %s is closed", directory));
+        }
+        long index = nextIndex.getAndIncrement();
+        int segmentIndex = (int) (index / recordsPerSegment);
+        Segment segment = mappedSegments.computeIfAbsent(segmentIndex, this::mapNewSegment);
+        // Absolute writes in a region of the buffer claimed by this thread only
+        DealRecordCodec.encode(deal, segment.buffer(), HEADER_SIZE + (int) (index % recordsPerSegment) * RECORD_SIZE);
+        if (segment.nbWrittenRecords().incrementAndGet() == recordsPerSegment) {
+            segment.buffer().force();
+            mappedSegments.remove(segmentIndex);
+        }
+    }
+
+    private Segment mapNewSegment(int segmentIndex) {
+        try {
+            return mapSegment(segmentIndex);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment mapSegment(int segmentIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentFileName(segmentIndex)), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean newSegment = channel.size() == 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+            buffer.order(BYTE_ORDER);
+            if (newSegment) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, VERSION);
+                buffer.putInt(2 * Integer.BYTES, RECORD_SIZE);
+                buffer.putInt(3 * Integer.BYTES, recordsPerSegment);
+            }
+            else if (buffer.getInt(3 * Integer.BYTES) != recordsPerSegment) {
+                throw new IOException(String.format("%s has %d records by segment, not %d", directory, buffer.getInt(3 * Integer.BYTES), recordsPerSegment));
+            }
+            return new Segment(buffer, new AtomicInteger());
+        }
+    }
+
+    /**
+     * @return the number of deals of the archive, including the ones being appended
+     */
+    public long size() {
+        return nextIndex.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Forces the segments to the disk. The games appending deals must be over.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        mappedSegments.values().forEach(segment -> segment.buffer().force());
+        mappedSegments.clear();
+    }
+
+}
@@ -0,0 +1,97 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeDealArchive.HEADER_SIZE;
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.BYTE_ORDER;
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.RECORD_SIZE;
+
+/**
+ * Read-only view of the deals of a {@link ContreeDealArchive}, through memory mapped segments: deals are decoded where the OS pages them in.
+ *
+ * The deals are numbered from 0 in the order of the segments. A segment ends at its first record not fully written, see {@link ContreeDealArchive#nbWrittenRecords}.
+ */
+public final class ContreeDealArchiveReader {
+
+    private final List<MappedByteBuffer> segments;
+
+    /**
+     * Number of the first deal of each segment, and the total number of deals
+     */
+    private final long[] firstDealIndexes;
+
+    private ContreeDealArchiveReader(List<MappedByteBuffer> segments, long[] firstDealIndexes) {
+        this.segments = segments;
+        this.firstDealIndexes = firstDealIndexes;
+    }
+
+    /**
+     * @return a view of the deals archived in the directory when it is opened
+     * @throws IOException if a segment cannot be read, or is not a segment of a deal archive
+     */
+    public static ContreeDealArchiveReader open(Path directory) throws IOException {
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        List<Path> segmentPaths = ContreeDealArchive.segments(directory);
+        long[] firstDealIndexes = new long[segmentPaths.size() + 1];
+        for (int i = 0 ; i < segmentPaths.size() ; i++) {
+            try (FileChannel channel = FileChannel.open(segmentPaths.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                segment.order(BYTE_ORDER);
+                segments.add(segment);
+                firstDealIndexes[i + 1] = firstDealIndexes[i] + ContreeDealArchive.nbWrittenRecords(segment, segmentPaths.get(i));
+            }
+        }
+        return new ContreeDealArchiveReader(segments, firstDealIndexes);
+    }
+
+    public long size() {
+        return firstDealIndexes[segments.size()];
+    }
+
+    /**
+     * @param dealIndex the number of the deal, from 0
+     */
+    public DealRecord get(long dealIndex) {
+        if (dealIndex < 0 || dealIndex >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Deal %d is not in an archive of %d deals", dealIndex, size()));
+        }
+        // First segment ending after the deal, segments may be empty
+        int segmentIndex = 0;
+        int lastSegmentIndex = segments.size() - 1;
+        while (segmentIndex < lastSegmentIndex) {
+            int middle = (segmentIndex + lastSegmentIndex) >>> 1;
+            if (firstDealIndexes[middle + 1] <= dealIndex) {
+                segmentIndex = middle + 1;
+            }
+            else {
+                lastSegmentIndex = middle;
+            }
+        }
+        return DealRecordCodec.decode(segments.get(segmentIndex), recordOffset(dealIndex - firstDealIndexes[segmentIndex]));
+    }
+
+    /**
+     * Decodes the deals in order, segment after segment
+     */
+    public void forEach(Consumer<DealRecord> action) {
+        for (int i = 0 ; i < segments.size() ; i++) {
+            MappedByteBuffer segment = segments.get(i);
+            long nbRecords = firstDealIndexes[i + 1] - firstDealIndexes[i];
+            for (long record = 0 ; record < nbRecords ; record++) {
+                action.accept(DealRecordCodec.decode(segment, recordOffset(record)));
+            }
+        }
+    }
+
+    private static int recordOffset(long recordIndex) {
+        return HEADER_SIZE + (int) recordIndex * RECORD_SIZE;
+    }
+
+}
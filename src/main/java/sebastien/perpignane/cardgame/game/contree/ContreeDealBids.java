@@ -28,15 +28,36 @@ class ContreeDealBids {
     }
 
     public void startBids(ContreeBidPlayers bidPlayers) {
+        startTrustedBids(bidPlayers);
+        notifyCurrentBidder();
+    }
+
+    /**
+     * Starts the bids without notifying the first bidder, see {@link ContreeGameEventSender#setTrustedReplay(boolean)}
+     */
+    void startTrustedBids(ContreeBidPlayers bidPlayers) {
         this.bidPlayers = bidPlayers;
         currentBidderSlot = bidPlayers.getCurrentBidderSlot();
+    }
+
+    void notifyCurrentBidder() {
         currentBidderFilterResult = biddableValuesFilter.biddableValues(currentBidderSlot.getPlayer().orElseThrow(), this);
         currentBidderSlot.getPlayer().orElseThrow().onPlayerTurnToBid(currentBidderFilterResult.biddableValues());
     }
 
     public void placeBid(ContreeBid bid) {
-
         throwsExceptionIfBidIsInvalid(bid);
+        addBid(bid, true);
+    }
+
+    /**
+     * Places a recorded bid without validating it nor notifying the next bidder, see {@link ContreeGameEventSender#setTrustedReplay(boolean)}
+     */
+    void placeTrustedBid(ContreeBid bid) {
+        addBid(bid, false);
+    }
+
+    private void addBid(ContreeBid bid, boolean notifyNextBidder) {
 
         bids.add(bid);
 
@@ -54,8 +75,9 @@ class ContreeDealBids {
         else {
             bidPlayers.goToNextBidder();
             currentBidderSlot = bidPlayers.getCurrentBidderSlot();
-            currentBidderFilterResult = biddableValuesFilter.biddableValues(currentBidderSlot.getPlayer().orElseThrow(), this);
-            currentBidderSlot.getPlayer().orElseThrow().onPlayerTurnToBid(currentBidderFilterResult.biddableValues());
+            if (notifyNextBidder) {
+                notifyCurrentBidder();
+            }
         }
 
     }
@@ -146,4 +168,15 @@ class ContreeDealBids {
         return currentBidderSlot.getPlayer();
     }
 
+    int nbBids() {
+        return bids.size();
+    }
+
+    /**
+     * @param index index of the bid, in bid order
+     */
+    ContreeBid bid(int index) {
+        return bids.get(index);
+    }
+
 }
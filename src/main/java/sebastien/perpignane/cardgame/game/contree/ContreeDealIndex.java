@@ -0,0 +1,198 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+
+/**
+ * Bitmap indexes over the deals of a {@link ContreeDealArchiveReader}, queried with {@link #query()}.
+ *
+ * Each indexed value of a column owns a bitmap whose bit n is set if deal n has this value, so that filters are ANDs of bitmap words.
+ * The columns are the contract value and its trump suit, the doubled, redoubled, capot and contract reached flags, the attack and winner teams
+ * and the number of trumps of the contract bidder. This last column is range encoded: its bitmap k marks the deals whose bidder has at most k trumps.
+ *
+ * The index is built once, in parallel, from the deals of the reader when it is opened; deals archived later are not indexed.
+ */
+public final class ContreeDealIndex {
+
+    static final int MAX_TRUMPS = 8;
+
+    /**
+     * Number of bitmap words indexed by a single task of the index build
+     */
+    private static final int BUILD_WORDS_BY_TASK = 1 << 10;
+
+    private final long size;
+
+    private final LongFunction<DealRecord> deals;
+
+    private final long[][] contractBitmaps = new long[ContreeBidValue.values().length][];
+
+    private final long[][] trumpSuitBitmaps = new long[CardSuit.values().length][];
+
+    private final long[] doubledBitmap;
+
+    private final long[] redoubledBitmap;
+
+    private final long[] capotBitmap;
+
+    private final long[] contractReachedBitmap;
+
+    private final long[][] attackTeamBitmaps = new long[ContreeTeam.values().length][];
+
+    private final long[][] winnerTeamBitmaps = new long[ContreeTeam.values().length][];
+
+    private final long[][] bidderTrumpsAtMostBitmaps = new long[MAX_TRUMPS + 1][];
+
+    private ContreeDealIndex(long size, LongFunction<DealRecord> deals) {
+        this.size = size;
+        this.deals = deals;
+        int nbWords = nbWords(size);
+        allocate(contractBitmaps, nbWords);
+        allocate(trumpSuitBitmaps, nbWords);
+        allocate(attackTeamBitmaps, nbWords);
+        allocate(winnerTeamBitmaps, nbWords);
+        allocate(bidderTrumpsAtMostBitmaps, nbWords);
+        doubledBitmap = new long[nbWords];
+        redoubledBitmap = new long[nbWords];
+        capotBitmap = new long[nbWords];
+        contractReachedBitmap = new long[nbWords];
+    }
+
+    /**
+     * Indexes the deals of the reader, decoded and replayed by the tasks of the common fork-join pool
+     */
+    public static ContreeDealIndex build(ContreeDealArchiveReader reader) {
+        return build(reader.size(), reader::get);
+    }
+
+    static ContreeDealIndex build(long size, LongFunction<DealRecord> deals) {
+        ContreeDealIndex index = new ContreeDealIndex(size, deals);
+        ForkJoinPool.commonPool().invoke(index.new BuildTask(0, nbWords(size)));
+        return index;
+    }
+
+    /**
+     * @return a query matching all the indexed deals
+     */
+    public ContreeDealQuery query() {
+        return new ContreeDealQuery(this, new long[0][], new long[0][]);
+    }
+
+    /**
+     * @return the number of indexed deals
+     */
+    public long size() {
+        return size;
+    }
+
+    DealRecord deal(long dealIndex) {
+        return deals.apply(dealIndex);
+    }
+
+    static int nbWords(long size) {
+        return Math.toIntExact((size + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    long[] contractBitmap(ContreeBidValue contract) {
+        return contractBitmaps[contract.ordinal()];
+    }
+
+    long[] trumpSuitBitmap(CardSuit suit) {
+        return trumpSuitBitmaps[suit.ordinal()];
+    }
+
+    long[] doubledBitmap() {
+        return doubledBitmap;
+    }
+
+    long[] redoubledBitmap() {
+        return redoubledBitmap;
+    }
+
+    long[] capotBitmap() {
+        return capotBitmap;
+    }
+
+    long[] contractReachedBitmap() {
+        return contractReachedBitmap;
+    }
+
+    long[] attackTeamBitmap(ContreeTeam team) {
+        return attackTeamBitmaps[team.ordinal()];
+    }
+
+    long[] winnerTeamBitmap(ContreeTeam team) {
+        return winnerTeamBitmaps[team.ordinal()];
+    }
+
+    long[] bidderTrumpsAtMostBitmap(int nbTrumps) {
+        return bidderTrumpsAtMostBitmaps[nbTrumps];
+    }
+
+    private static void allocate(long[][] bitmaps, int nbWords) {
+        for (int i = 0 ; i < bitmaps.length ; i++) {
+            bitmaps[i] = new long[nbWords];
+        }
+    }
+
+    private void index(long dealIndex, DealOutcome outcome) {
+        int word = (int) (dealIndex >>> 6);
+        long bit = 1L << dealIndex;
+        contractBitmaps[outcome.contract().ordinal()][word] |= bit;
+        trumpSuitBitmaps[outcome.trumpSuit().ordinal()][word] |= bit;
+        if (outcome.attackTeam() == null) {
+            return;
+        }
+        if (outcome.doubled()) {
+            doubledBitmap[word] |= bit;
+        }
+        if (outcome.redoubled()) {
+            redoubledBitmap[word] |= bit;
+        }
+        if (outcome.capot()) {
+            capotBitmap[word] |= bit;
+        }
+        if (outcome.contractReached()) {
+            contractReachedBitmap[word] |= bit;
+        }
+        attackTeamBitmaps[outcome.attackTeam().ordinal()][word] |= bit;
+        winnerTeamBitmaps[outcome.winnerTeam().orElseThrow().ordinal()][word] |= bit;
+        for (int nbTrumps = outcome.bidderTrumps() ; nbTrumps <= MAX_TRUMPS ; nbTrumps++) {
+            bidderTrumpsAtMostBitmaps[nbTrumps][word] |= bit;
+        }
+    }
+
+    /**
+     * Indexes the deals of a range of bitmap words: tasks never write the same word
+     */
+    private class BuildTask extends RecursiveAction {
+
+        private final int fromWord;
+
+        private final int toWord;
+
+        BuildTask(int fromWord, int toWord) {
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected void compute() {
+            if (toWord - fromWord > BUILD_WORDS_BY_TASK) {
+                int middle = (fromWord + toWord) >>> 1;
+                invokeAll(new BuildTask(fromWord, middle), new BuildTask(middle, toWord));
+                return;
+            }
+            long toDeal = Math.min((long) toWord * Long.SIZE, size);
+            for (long dealIndex = (long) fromWord * Long.SIZE ; dealIndex < toDeal ; dealIndex++) {
+                index(dealIndex, DealOutcome.of(deals.apply(dealIndex)));
+            }
+        }
+
+    }
+
+}
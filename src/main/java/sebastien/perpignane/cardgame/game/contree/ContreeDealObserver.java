@@ -11,6 +11,8 @@ public interface ContreeDealObserver extends CardGameObserver {
 
     void onEndOfDeal(String dealId, Team winnerTeam, ContreeDealScore dealScore, boolean capot);
 
+    void onGameScoreUpdated(ContreeGameScore gameScore);
+
     void onPlacedBid(String dealId, Player<?, ?> player, ContreeBidValue bidValue, CardSuit suit);
 
     void onBidStepStarted(String dealId);
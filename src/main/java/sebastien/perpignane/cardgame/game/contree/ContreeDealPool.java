@@ -0,0 +1,203 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deals shuffled and dealt in advance by a background producer thread, so that games do not shuffle nor deal when a deal starts.
+ * Shared by all the games of a configuration, see {@link ContreeGameConfig#getDealPool()}.
+ *
+ * The deals are published in a bounded lock-free ring of {@link sebastien.perpignane.cardgame.card.CardMask} hands: a slot is free for the producer
+ * when its sequence is its position, and ready for the consumers when its sequence is its position + 1. Consumers claim a position with a CAS on the head.
+ * When the ring is full, the producer parks until the consumers took deals down to a low-water mark of half the capacity: the consumer
+ * crossing the mark wakes it up, so an idle pool costs no CPU and the producer refills the ring by batches.
+ * Neither the producer nor the pool allocate by deal: the shuffled cards, the ring and the hands taken by each game are reused arrays.
+ * A game still builds a card list by hand when it gives the taken hands to its players.
+ *
+ * The deals of a pool seeded with a given seed are always the same, but when several games take their deals from the pool,
+ * which game gets which deal depends on the scheduling.
+ */
+public final class ContreeDealPool implements ContreeDealSupplier, Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    static final int MAX_CAPACITY = 1 << 20;
+
+    private static final int NB_SPINS = 100;
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private final CardDealer cardDealer;
+
+    private final SplittableCardSetShuffler shuffler;
+
+    private final int mask;
+
+    /**
+     * Hands of the players of each slot, {@link ContreePlayers#NB_PLAYERS} by slot
+     */
+    private final long[] hands;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final byte[] cardOrdinals;
+
+    private final int lowWaterMark;
+
+    private final Thread producer;
+
+    /**
+     * True while the producer is parked, or about to park, because the ring is full
+     */
+    private volatile boolean producerParked;
+
+    /**
+     * Position of the next deal of the producer when it parked
+     */
+    private volatile long producerPosition;
+
+    private volatile boolean closed;
+
+    /**
+     * Starts the producer thread
+     * @param distributionConfiguration how the cards are dealt to the players, see {@link CardDealer}
+     * @param capacity the maximum number of deals dealt in advance, rounded up to a power of 2
+     * @throws IllegalArgumentException if the capacity is not between 1 and 2^20
+     */
+    public ContreeDealPool(List<Integer> distributionConfiguration, int capacity, SplittableCardSetShuffler shuffler) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format("The capacity of a deal pool must be between 1 and %d, got %d", MAX_CAPACITY, capacity));
+        }
+        int roundedCapacity = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.cardDealer = new CardDealer(distributionConfiguration);
+        this.shuffler = shuffler;
+        this.mask = roundedCapacity - 1;
+        this.lowWaterMark = roundedCapacity / 2;
+        this.hands = new long[roundedCapacity * ContreePlayers.NB_PLAYERS];
+        this.sequences = new AtomicLongArray(roundedCapacity);
+        for (int i = 0 ; i < roundedCapacity ; i++) {
+            sequences.set(i, i);
+        }
+        this.cardOrdinals = new byte[CardSet.GAME_32.getGameCards().size()];
+        int i = 0;
+        for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+            cardOrdinals[i++] = (byte) card.ordinal();
+        }
+        // Fails before the thread starts with an invalid distribution configuration
+        cardDealer.dealHands(cardOrdinals, ContreePlayers.NB_PLAYERS, new long[ContreePlayers.NB_PLAYERS], 0);
+        this.producer = Thread.ofPlatform().daemon().name("contree-deal-pool").start(this::produce);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Takes the next deal, waiting for the producer if no deal is ready
+     * @param dealtHands receives the hand of each player slot, as a {@link sebastien.perpignane.cardgame.card.CardMask}
+     * @throws IllegalStateException if the pool is closed
+     */
+    @Override
+    public void take(long[] dealtHands) {
+        for (int attempt = 0 ; ; attempt++) {
+            if (closed) {
+                throw new IllegalStateException("The deal pool is closed");
+            }
+            long position = head.get();
+            int slot = (int) (position & mask);
+            long sequence = sequences.get(slot);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    System.arraycopy(hands, slot * ContreePlayers.NB_PLAYERS, dealtHands, 0, ContreePlayers.NB_PLAYERS);
+                    // The slot is free again for the producer, one lap later
+                    sequences.set(slot, position + capacity());
+                    wakeUpProducer(position + 1);
+                    return;
+                }
+            }
+            else if (sequence <= position) {
+                // No deal is ready
+                idle(attempt);
+            }
+        }
+    }
+
+    private void produce() {
+        long position = 0;
+        while (!closed) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position) {
+                // The ring is full
+                awaitConsumers(position);
+                continue;
+            }
+            shuffler.shuffle(cardOrdinals);
+            cardDealer.dealHands(cardOrdinals, ContreePlayers.NB_PLAYERS, hands, slot * ContreePlayers.NB_PLAYERS);
+            sequences.set(slot, position + 1);
+            position++;
+        }
+    }
+
+    /**
+     * Parks the producer until the number of ready deals is down to the low-water mark.
+     * The flag is set before the head is read, and a consumer moves the head before reading the flag: either the producer sees the deals taken,
+     * or the consumer sees the producer parked and wakes it up.
+     */
+    private void awaitConsumers(long position) {
+        producerPosition = position;
+        producerParked = true;
+        if (position - head.get() > lowWaterMark && !closed) {
+            LockSupport.park(this);
+        }
+        else {
+            // A deal is taken but its slot is not released yet
+            Thread.onSpinWait();
+        }
+        producerParked = false;
+    }
+
+    /**
+     * @param nextPosition head of the ring after a deal is taken
+     */
+    private void wakeUpProducer(long nextPosition) {
+        if (producerParked && producerPosition - nextPosition <= lowWaterMark) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    private static void idle(int attempt) {
+        if (attempt < NB_SPINS) {
+            Thread.onSpinWait();
+        }
+        else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Stops the producer thread. Games can no longer take deals from the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(producer);
+        try {
+            producer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable filter over the deals of a {@link ContreeDealIndex}: each method returns a new query, restricted to the deals which also match the given condition.
+ *
+ * For instance, the deals where the attack team bid CAPOT in HEARTS and failed:
+ * <pre>index.query().contract(ContreeBidValue.CAPOT).trumpSuit(CardSuit.HEARTS).contractReached(false).count()</pre>
+ * and the win rate of the contracts of 80 whose bidder has at most 2 trumps:
+ * <pre>index.query().contract(ContreeBidValue.EIGHTY).bidderTrumpsAtMost(2).contractReachedRate()</pre>
+ *
+ * Conditions on deals where all players passed: their contract is {@link ContreeBidValue#PASS}, their trump suit is {@link CardSuit#NONE},
+ * and they are neither doubled, redoubled, capot nor reached.
+ */
+public final class ContreeDealQuery {
+
+    /**
+     * Number of bitmap words aggregated by a single task of a count
+     */
+    private static final int COUNT_WORDS_BY_TASK = 1 << 14;
+
+    private final ContreeDealIndex index;
+
+    private final long[][] includedBitmaps;
+
+    private final long[][] excludedBitmaps;
+
+    ContreeDealQuery(ContreeDealIndex index, long[][] includedBitmaps, long[][] excludedBitmaps) {
+        this.index = index;
+        this.includedBitmaps = includedBitmaps;
+        this.excludedBitmaps = excludedBitmaps;
+    }
+
+    /**
+     * @param contract the value of the contract, {@link ContreeBidValue#PASS} for the deals where all players passed
+     * @throws IllegalArgumentException if the value is a double or a redouble
+     */
+    public ContreeDealQuery contract(ContreeBidValue contract) {
+        if (contract == ContreeBidValue.DOUBLE || contract == ContreeBidValue.REDOUBLE) {
+            throw new IllegalArgumentException(String.format("%s is not a contract value", contract));
+        }
+        return with(index.contractBitmap(contract), true);
+    }
+
+    public ContreeDealQuery trumpSuit(CardSuit suit) {
+        return with(index.trumpSuitBitmap(suit), true);
+    }
+
+    public ContreeDealQuery doubled(boolean doubled) {
+        return with(index.doubledBitmap(), doubled);
+    }
+
+    public ContreeDealQuery redoubled(boolean redoubled) {
+        return with(index.redoubledBitmap(), redoubled);
+    }
+
+    /**
+     * @param capot true for the deals where a team won all the tricks
+     */
+    public ContreeDealQuery capot(boolean capot) {
+        return with(index.capotBitmap(), capot);
+    }
+
+    public ContreeDealQuery contractReached(boolean contractReached) {
+        return with(index.contractReachedBitmap(), contractReached);
+    }
+
+    public ContreeDealQuery attackTeam(ContreeTeam team) {
+        return with(index.attackTeamBitmap(team), true);
+    }
+
+    /**
+     * @param team the attack team of the reached contracts, or the defense team of the failed ones
+     */
+    public ContreeDealQuery winnerTeam(ContreeTeam team) {
+        return with(index.winnerTeamBitmap(team), true);
+    }
+
+    /**
+     * @param nbTrumps the maximum number of trumps dealt to the contract bidder, from 0 to 8
+     */
+    public ContreeDealQuery bidderTrumpsAtMost(int nbTrumps) {
+        return with(index.bidderTrumpsAtMostBitmap(checkNbTrumps(nbTrumps)), true);
+    }
+
+    /**
+     * @param nbTrumps the minimum number of trumps dealt to the contract bidder, from 0 to 8
+     */
+    public ContreeDealQuery bidderTrumpsAtLeast(int nbTrumps) {
+        ContreeDealQuery query = with(index.bidderTrumpsAtMostBitmap(ContreeDealIndex.MAX_TRUMPS), true);
+        return checkNbTrumps(nbTrumps) == 0 ? query : query.with(index.bidderTrumpsAtMostBitmap(nbTrumps - 1), false);
+    }
+
+    /**
+     * @return the number of matching deals, counted by the tasks of the common fork-join pool
+     */
+    public long count() {
+        return ForkJoinPool.commonPool().invoke(new CountTask(0, ContreeDealIndex.nbWords(index.size())));
+    }
+
+    /**
+     * @return the share of the matching deals whose contract is reached, NaN if no deal matches
+     */
+    public double contractReachedRate() {
+        long count = count();
+        return count == 0 ? Double.NaN : (double) contractReached(true).count() / count;
+    }
+
+    /**
+     * Calls the action with the number of each matching deal, in increasing order
+     */
+    public void forEachDealIndex(LongConsumer action) {
+        int nbWords = ContreeDealIndex.nbWords(index.size());
+        for (int word = 0 ; word < nbWords ; word++) {
+            long bits = matchingBits(word);
+            while (bits != 0) {
+                action.accept((long) word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Decodes each matching deal from the archive, in order
+     */
+    public void forEachDeal(Consumer<DealRecord> action) {
+        forEachDealIndex(dealIndex -> action.accept(index.deal(dealIndex)));
+    }
+
+    private ContreeDealQuery with(long[] bitmap, boolean included) {
+        if (included) {
+            return new ContreeDealQuery(index, append(includedBitmaps, bitmap), excludedBitmaps);
+        }
+        return new ContreeDealQuery(index, includedBitmaps, append(excludedBitmaps, bitmap));
+    }
+
+    private static long[][] append(long[][] bitmaps, long[] bitmap) {
+        long[][] newBitmaps = Arrays.copyOf(bitmaps, bitmaps.length + 1);
+        newBitmaps[bitmaps.length] = bitmap;
+        return newBitmaps;
+    }
+
+    private static int checkNbTrumps(int nbTrumps) {
+        if (nbTrumps < 0 || nbTrumps > ContreeDealIndex.MAX_TRUMPS) {
+            throw new IllegalArgumentException(String.format("A player is dealt from 0 to %d trumps, not %d", ContreeDealIndex.MAX_TRUMPS, nbTrumps));
+        }
+        return nbTrumps;
+    }
+
+    private long matchingBits(int word) {
+        long bits = validBits(word);
+        for (long[] bitmap : includedBitmaps) {
+            bits &= bitmap[word];
+        }
+        for (long[] bitmap : excludedBitmaps) {
+            bits &= ~bitmap[word];
+        }
+        return bits;
+    }
+
+    /**
+     * @return the bits of the word which belong to indexed deals
+     */
+    private long validBits(int word) {
+        long nbDealsInWord = index.size() - (long) word * Long.SIZE;
+        return nbDealsInWord >= Long.SIZE ? -1L : (1L << nbDealsInWord) - 1;
+    }
+
+    private class CountTask extends RecursiveTask<Long> {
+
+        private final int fromWord;
+
+        private final int toWord;
+
+        CountTask(int fromWord, int toWord) {
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toWord - fromWord > COUNT_WORDS_BY_TASK) {
+                int middle = (fromWord + toWord) >>> 1;
+                CountTask left = new CountTask(fromWord, middle);
+                left.fork();
+                long rightCount = new CountTask(middle, toWord).compute();
+                return left.join() + rightCount;
+            }
+            long count = 0;
+            for (int word = fromWord ; word < toWord ; word++) {
+                count += Long.bitCount(matchingBits(word));
+            }
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link DealRecord} from the event stream of a game, and appends it to a {@link ContreeDealArchive} when the end of the deal is sent.
+ *
+ * A deal which started before the subscription of the recorder, like a deal recovered by a replay, is not archived.
+ */
+class ContreeDealRecorder implements ContreeGameEventListener {
+
+    static final long EVENT_TYPES = ContreeEventType.mask(
+            ContreeEventType.DEAL_STARTED,
+            ContreeEventType.HAND_DEALT,
+            ContreeEventType.BID_PLACED,
+            ContreeEventType.CARD_PLAYED,
+            ContreeEventType.DEAL_ENDED
+    );
+
+    private final ContreeDealArchive archive;
+
+    private final long[] hands = new long[ContreePlayers.NB_PLAYERS];
+
+    private final byte[] bidValues = new byte[DealRecord.MAX_BIDS];
+
+    private final byte[] bidSuits = new byte[DealRecord.MAX_BIDS];
+
+    private final byte[] playedCards = new byte[DealRecord.NB_CARDS];
+
+    private int firstBidderSlot;
+
+    private int nbBids;
+
+    private int nbPlayedCards;
+
+    private boolean recording = false;
+
+    ContreeDealRecorder(ContreeDealArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public void onEvent(ContreeGameEvent event) {
+        switch (event.type()) {
+            case DEAL_STARTED -> {
+                recording = true;
+                nbBids = 0;
+                nbPlayedCards = 0;
+            }
+            case HAND_DEALT -> hands[event.playerSlot()] = ((long) event.otherValue() << Integer.SIZE) | (event.value() & 0xFFFFFFFFL);
+            case BID_PLACED -> {
+                if (nbBids == 0) {
+                    firstBidderSlot = event.playerSlot();
+                }
+                bidValues[nbBids] = (byte) event.value();
+                bidSuits[nbBids++] = (byte) event.suit();
+            }
+            case CARD_PLAYED -> playedCards[nbPlayedCards++] = (byte) event.card();
+            case DEAL_ENDED -> {
+                if (recording) {
+                    archive.append(new DealRecord(hands.clone(), firstBidderSlot, Arrays.copyOf(bidValues, nbBids), Arrays.copyOf(bidSuits, nbBids), Arrays.copyOf(playedCards, nbPlayedCards)));
+                }
+                recording = false;
+            }
+            default -> {
+                // Not subscribed
+            }
+        }
+    }
+
+}
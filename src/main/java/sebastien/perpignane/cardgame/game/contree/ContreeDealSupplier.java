@@ -0,0 +1,17 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * Supplies the hands of each deal of a game, instead of the shuffler and the card dealer of the game.
+ * The deals are dealt to {@link ContreePlayers#NB_PLAYERS} players.
+ *
+ * @see ContreeDealPool
+ */
+@FunctionalInterface
+public interface ContreeDealSupplier {
+
+    /**
+     * @param dealtHands receives the hand of each player slot, as a {@link sebastien.perpignane.cardgame.card.CardMask}
+     */
+    void take(long[] dealtHands);
+
+}
@@ -1,6 +1,7 @@
 package sebastien.perpignane.cardgame.game.contree;
 
 import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSetShuffler;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
@@ -11,8 +12,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
-import static java.lang.System.out;
-
 class ContreeDeals {
 
     private String gameId;
@@ -27,6 +26,15 @@ class ContreeDeals {
 
     private final CardDealer cardDealer;
 
+    private final CardSetShuffler shuffler;
+
+    private final ContreeDealSupplier dealSupplier;
+
+    /**
+     * Receives the hands taken from the deal supplier, so that the deals of the game do not allocate them
+     */
+    private final long[] suppliedHands = new long[ContreePlayers.NB_PLAYERS];
+
     private final DealScoreCalculator dealScoreCalculator;
 
     private ContreeDeal currentDeal;
@@ -41,6 +49,8 @@ class ContreeDeals {
             BiddableValuesFilter biddableValuesFilter,
             PlayableCardsFilter playableCardsFilter,
             CardDealer cardDealer,
+            CardSetShuffler shuffler,
+            ContreeDealSupplier dealSupplier,
             ContreeGameEventSender eventSender
     ) {
         this.gameScore              = gameScore;
@@ -48,6 +58,8 @@ class ContreeDeals {
         this.biddableValuesFilter   = biddableValuesFilter;
         this.playableCardsFilter    = playableCardsFilter;
         this.cardDealer             = cardDealer;
+        this.shuffler               = shuffler;
+        this.dealSupplier           = dealSupplier;
         this.gameEventSender        = eventSender;
     }
 
@@ -70,6 +82,9 @@ class ContreeDeals {
                 new ContreeDealBids(biddableValuesFilter),
                 new ContreeTricks(playableCardsFilter, gameEventSender),
                 cardDealer,
+                shuffler,
+                dealSupplier,
+                suppliedHands,
                 new ContreeDealScore(dealScoreCalculator),
                 gameEventSender
         );
@@ -97,9 +112,7 @@ class ContreeDeals {
         currentDeal.playerPlays(player, card);
         if (currentDeal.isOver()) {
             gameScore.addDealScore(currentDeal);
-            // TODO Send updated score event
-            out.println("Game score:");
-            ContreeTeam.getTeams().stream().sorted().forEach(t -> out.printf("\t%s: %d / %d%n", t, gameScore.getTeamScore(t), gameScore.getMaxScore()));
+            gameEventSender.sendGameScoreUpdatedEvent(gameScore);
 
             if (!isMaximumScoreReached()) {
                 createAndStartNewDeal();
@@ -107,6 +120,28 @@ class ContreeDeals {
         }
     }
 
+    /**
+     * Notifies the player expected to bid or play in the current deal that it is its turn, after a trusted replay
+     */
+    void notifyCurrentPlayer() {
+        if (currentDeal != null) {
+            currentDeal.notifyCurrentPlayer();
+        }
+    }
+
+    /**
+     * Notifies the player that it is its turn again, if it is the player expected to bid or play in the current deal
+     */
+    void notifyPlayerAgain(ContreePlayer player) {
+        if (currentDeal == null) {
+            return;
+        }
+        Optional<ContreePlayer> expectedPlayer = currentDeal.isBidStep() ? currentDeal.getCurrentBidder() : currentDeal.getCurrentPlayer();
+        if (expectedPlayer.filter(player::equals).isPresent()) {
+            currentDeal.notifyCurrentPlayer();
+        }
+    }
+
     public int getNbDeals() {
         return deals.size();
     }
@@ -130,4 +165,11 @@ class ContreeDeals {
     ContreeGameScore getGameScore() {
         return gameScore;
     }
+
+    /**
+     * @return the last started deal, null if the deals are not started. Avoids allocating an {@link Optional} on hot paths.
+     */
+    ContreeDeal getCurrentDealOrNull() {
+        return currentDeal;
+    }
 }
@@ -0,0 +1,573 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact solver of a contree deal where all the hands are known: it computes the card points, including the dix de der,
+ * that the team of the next player secures from the current trick to the end of the deal, whatever the other team plays.
+ *
+ * The solver is an alpha-beta search of a {@link ContreeSearchState}, on the points of the first team, with:
+ * <ul>
+ *     <li>the playable cards and the trick winner of {@link PlayableCardsFilter}, so the rules are exactly the ones of {@link ContreeTrick}</li>
+ *     <li>equivalence pruning: among touching cards of a hand having the same points, only the highest one is searched</li>
+ *     <li>move ordering: best card stored in the transposition table first, then cheap winning cards, points given to a winning team mate and cheap discards</li>
+ *     <li>a transposition table of the positions between two tricks, keyed by the Zobrist key of the state</li>
+ *     <li>bounds of the remaining points, and MTD(f) null window searches for the points of each card, see {@link #solveCards(CardSuit, long[], int, int[], int)}</li>
+ * </ul>
+ *
+ * The transposition table is kept between two solves, so that the solves of close positions are faster.
+ * An ending of five cards by player is solved in less than a millisecond, see <code>ContreeDoubleDummySolverBenchmark</code>.
+ * Known limitation: a full deal is not solved in real time. It takes about a hundred milliseconds, and the points of each first card
+ * about 150 milliseconds, but some deals take up to a second: a caller with a time budget must give a deadline, see {@link ContreePimcSearch}.
+ * A solve can be given a deadline: it is then given up once the deadline is reached, see {@link ContreePimcSearch}.
+ * A solver is not thread safe: parallel searches use a solver per thread.
+ */
+public final class ContreeDoubleDummySolver {
+
+    public static final int DEFAULT_TABLE_BITS = 18;
+
+    static final int MAX_POINTS = DealScoreCalculator.EXPECTED_CARD_SCORE_SUM;
+
+    private static final int NB_CARDS = ClassicalCard.values().length;
+
+    private static final int NO_CARD = -1;
+
+    /**
+     * The deadline of a solve is checked every 1024 searched nodes
+     */
+    private static final int DEADLINE_CHECK_MASK = 1_023;
+
+    private static final int NB_CARDS_BY_PLAYER = CardSet.GAME_32.getGameCards().size() / ContreePlayers.NB_PLAYERS;
+
+    private static final CardSuit[] SUITS = CardSuit.values();
+
+    /**
+     * Contree cards of each suit, by decreasing game value, for non trump suits (index 0) and for the trump suit (index 1)
+     */
+    private static final int[][][] CARDS_BY_DECREASING_VALUE = new int[2][SUITS.length][];
+
+    private static final int[] SUIT_ORDINALS = new int[NB_CARDS];
+
+    static {
+        for (ClassicalCard card : ClassicalCard.values()) {
+            SUIT_ORDINALS[card.ordinal()] = card.getSuit().ordinal();
+        }
+        for (int trump = 0 ; trump < 2 ; trump++) {
+            boolean isTrump = trump == 1;
+            for (CardSuit suit : SUITS) {
+                CARDS_BY_DECREASING_VALUE[trump][suit.ordinal()] = CardSet.GAME_32.getGameCards().stream()
+                        .filter(card -> card.getSuit() == suit)
+                        .mapToInt(ClassicalCard::ordinal)
+                        .boxed()
+                        .sorted((c1, c2) -> ContreeCard.gameValue(c2, isTrump) - ContreeCard.gameValue(c1, isTrump))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+    }
+
+    private final int tableMask;
+
+    private final long[] tableKeys;
+
+    private final short[] tableLowerBounds;
+
+    private final short[] tableUpperBounds;
+
+    private final byte[] tableBestCards;
+
+    private ContreeSearchState state;
+
+    private final int[] lastTrickCards = new int[ContreePlayers.NB_PLAYERS];
+
+    /**
+     * Clock of the deadline, null when the solve has no deadline
+     */
+    private LongSupplier nanoClock;
+
+    private long deadline;
+
+    private int nbSearchedNodes;
+
+    /**
+     * Set when the deadline is reached: the searches then return at once, without storing their results
+     */
+    private boolean aborted;
+
+    /**
+     * Cards and ordering scores of the searched moves, by search depth
+     */
+    private final int[][] moves = new int[CardSet.GAME_32.getGameCards().size() + 1][NB_CARDS_BY_PLAYER];
+
+    private final int[][] moveScores = new int[CardSet.GAME_32.getGameCards().size() + 1][NB_CARDS_BY_PLAYER];
+
+    /**
+     * Solver with a transposition table of 2^{@link #DEFAULT_TABLE_BITS} entries
+     */
+    public ContreeDoubleDummySolver() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * @param tableBits the transposition table has 2^tableBits entries, of 13 bytes each
+     */
+    public ContreeDoubleDummySolver(int tableBits) {
+        if (tableBits < 1 || tableBits > 26) {
+            throw new IllegalArgumentException(String.format("Table bits must be between 1 and 26, got %d", tableBits));
+        }
+        int tableSize = 1 << tableBits;
+        this.tableMask = tableSize - 1;
+        this.tableKeys = new long[tableSize];
+        this.tableLowerBounds = new short[tableSize];
+        this.tableUpperBounds = new short[tableSize];
+        this.tableBestCards = new byte[tableSize];
+    }
+
+    /**
+     * @param trumpSuit the trump suit of the deal
+     * @param hands the remaining cards of each player, by player slot, as {@link CardMask}s
+     * @param leaderSlot the slot of the player who started the current trick
+     * @param trickCards ordinals of the cards already played in the current trick, in play order
+     * @param nbTrickCards number of cards already played in the current trick
+     * @return the points the team of the next player secures, from the current trick to the end of the deal
+     */
+    public int solve(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        return solve(new ContreeSearchState(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards));
+    }
+
+    /**
+     * @param state a deal in progress, left unchanged by the search
+     * @return the points the team of the next player secures, from the current trick to the end of the deal
+     */
+    public int solve(ContreeSearchState state) {
+        startSolve(state, null, 0L);
+        return nextPlayerTeamPoints(nullWindowBisection(NO_CARD));
+    }
+
+    /**
+     * Same parameters as {@link #solve(CardSuit, long[], int, int[], int)}
+     *
+     * @return the points the team of the next player secures after playing each of its playable cards, indexed by card ordinal.
+     * Cards that cannot be played are worth -1.
+     */
+    public int[] solveCards(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        startSolve(new ContreeSearchState(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards), null, 0L);
+        return solvePlayableCards();
+    }
+
+    /**
+     * Same as {@link #solveCards(CardSuit, long[], int, int[], int)}, but gives up once the deadline is reached.
+     * The positions solved before the deadline are kept in the transposition table.
+     *
+     * @param deadline {@link System#nanoTime()} after which the solve is given up
+     * @return the points of each card, or null if the deadline was reached before all the cards were solved
+     */
+    int[] solveCards(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards, long deadline) {
+        return solveCards(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards, System::nanoTime, deadline);
+    }
+
+    /**
+     * @param nanoClock the clock of the deadline, read every 1024 searched nodes
+     */
+    int[] solveCards(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards, LongSupplier nanoClock, long deadline) {
+        startSolve(new ContreeSearchState(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards), nanoClock, deadline);
+        return solvePlayableCards();
+    }
+
+    /**
+     * Bounded evaluation of the cards, when there is no time to solve: after each playable card, every player plays the first card
+     * of the move ordering of the solver, without any search. It takes a few microseconds, whatever the number of remaining cards.
+     * Same parameters as {@link #solve(CardSuit, long[], int, int[], int)}
+     *
+     * @return the points the team of the next player wins after playing each of its playable cards, indexed by card ordinal.
+     * Cards that cannot be played are worth -1.
+     */
+    int[] playOutCards(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        startSolve(new ContreeSearchState(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards), null, 0L);
+        int[] points = new int[NB_CARDS];
+        Arrays.fill(points, -1);
+        int team = state.nextPlayerSlot() % 2;
+        int teamPoints = state.teamPoints(team);
+        for (long m = state.playableCards() ; m != CardMask.EMPTY ; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            state.play(card);
+            int nbPlayedCards = 1;
+            while (!state.isOver()) {
+                orderedMoves(NO_CARD, 0);
+                state.play(moves[0][0]);
+                nbPlayedCards++;
+            }
+            points[card] = state.teamPoints(team) - teamPoints;
+            for (int i = 0 ; i < nbPlayedCards ; i++) {
+                state.undo();
+            }
+        }
+        return points;
+    }
+
+    private int[] solvePlayableCards() {
+        int[] points = new int[NB_CARDS];
+        Arrays.fill(points, -1);
+        // Only the cards which are not equivalent are searched, best candidates first
+        int nbMoves = orderedMoves(NO_CARD, 0);
+        int guess = MAX_POINTS / 2;
+        for (int i = 0 ; i < nbMoves ; i++) {
+            int card = moves[0][i];
+            guess = mtdf(card, guess);
+            if (aborted) {
+                return null;
+            }
+            points[card] = nextPlayerTeamPoints(guess);
+        }
+        // The cards equivalent to a searched card secure the same points
+        long playableCards = state.playableCards();
+        long inPlayCards = inPlayCards();
+        for (CardSuit suit : SUITS) {
+            int previousInPlayCard = NO_CARD;
+            for (int card : CARDS_BY_DECREASING_VALUE[suit == state.trumpSuit() ? 1 : 0][suit.ordinal()]) {
+                long cardMask = 1L << card;
+                if ((inPlayCards & cardMask) == CardMask.EMPTY) {
+                    continue;
+                }
+                if ((playableCards & cardMask) != CardMask.EMPTY && points[card] == -1) {
+                    points[card] = points[previousInPlayCard];
+                }
+                previousInPlayCard = card;
+            }
+        }
+        return points;
+    }
+
+    private void startSolve(ContreeSearchState state, LongSupplier nanoClock, long deadline) {
+        this.state = state;
+        this.nanoClock = nanoClock;
+        this.deadline = deadline;
+        this.nbSearchedNodes = 0;
+        this.aborted = false;
+    }
+
+    /**
+     * Same parameters as {@link #solve(CardSuit, long[], int, int[], int)}
+     *
+     * @return the playable card securing the most points to the team of the next player
+     */
+    public ClassicalCard bestCard(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        return bestCard(new ContreeSearchState(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards));
+    }
+
+    /**
+     * @param state a deal in progress, left unchanged by the search
+     * @return the playable card securing the most points to the team of the next player
+     */
+    public ClassicalCard bestCard(ContreeSearchState state) {
+        startSolve(state, null, 0L);
+        boolean firstTeam = state.nextPlayerSlot() % 2 == 0;
+        int bestCard = NO_CARD;
+        int bestPoints = 0;
+        for (long m = state.playableCards() ; m != CardMask.EMPTY ; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            if (bestCard != NO_CARD) {
+                // A single null window search tells whether the card is strictly better than the best one so far
+                boolean better = firstTeam
+                        ? playAndSearch(card, bestPoints, bestPoints + 1, 0) > bestPoints
+                        : playAndSearch(card, bestPoints - 1, bestPoints, 0) < bestPoints;
+                if (!better) {
+                    continue;
+                }
+            }
+            bestCard = card;
+            bestPoints = nullWindowBisection(card);
+        }
+        return CardMask.card(bestCard);
+    }
+
+    /**
+     * Bisection of null window searches: each search tells whether the first team secures a number of points,
+     * and the transposition table keeps the bounds found by the previous searches.
+     *
+     * @param card the card played by the next player before the search, or {@link #NO_CARD} to search the current position
+     * @return the points of the first team from the current trick to the end of the deal
+     */
+    private int nullWindowBisection(int card) {
+        int lowerBound = 0;
+        int upperBound = MAX_POINTS;
+        while (lowerBound < upperBound) {
+            int threshold = (lowerBound + upperBound + 1) >>> 1;
+            int points = card == NO_CARD ? search(threshold - 1, threshold, 0) : playAndSearch(card, threshold - 1, threshold, 0);
+            if (aborted) {
+                return 0;
+            }
+            if (points >= threshold) {
+                lowerBound = points;
+            }
+            else {
+                upperBound = points;
+            }
+        }
+        return lowerBound;
+    }
+
+    /**
+     * MTD(f): null window searches around a guess, each one moving the guess to the bound it returns.
+     * The cards of a position secure close points, so the points of a card are a good guess for the next one,
+     * and fewer nodes are searched than with a bisection from the whole range of points.
+     *
+     * @param card the card played by the next player before the search
+     * @param guess estimated points of the first team
+     * @return the points of the first team from the current trick to the end of the deal
+     */
+    private int mtdf(int card, int guess) {
+        int lowerBound = 0;
+        int upperBound = MAX_POINTS;
+        int points = guess;
+        while (lowerBound < upperBound) {
+            int threshold = Math.max(lowerBound + 1, Math.min(upperBound, points));
+            points = playAndSearch(card, threshold - 1, threshold, 0);
+            if (aborted) {
+                return 0;
+            }
+            if (points >= threshold) {
+                lowerBound = points;
+            }
+            else {
+                upperBound = points;
+            }
+        }
+        return lowerBound;
+    }
+
+    private int nextPlayerTeamPoints(int firstTeamPoints) {
+        return state.nextPlayerSlot() % 2 == 0 ? firstTeamPoints : state.remainingPoints() - firstTeamPoints;
+    }
+
+    /**
+     * Fail-soft alpha-beta search.
+     *
+     * @return the points of the first team from the current trick to the end of the deal: exact if strictly between alpha and beta,
+     * otherwise an upper bound (at most alpha) or a lower bound (at least beta)
+     */
+    private int search(int alpha, int beta, int depth) {
+        if (nanoClock != null && (++nbSearchedNodes & DEADLINE_CHECK_MASK) == 0 && nanoClock.getAsLong() - deadline > 0) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        // The first team wins between none and all of the remaining points
+        if (alpha >= state.remainingPoints()) {
+            return state.remainingPoints();
+        }
+        if (beta <= 0) {
+            return 0;
+        }
+        int tableIndex = -1;
+        int tableBestCard = NO_CARD;
+        long key = state.key();
+        if (state.nbTrickCards() == 0) {
+            if (Long.bitCount(state.hand(state.leaderSlot())) <= 1) {
+                return lastTrickPoints();
+            }
+            tableIndex = (int) key & tableMask;
+            if (tableKeys[tableIndex] == key) {
+                int lowerBound = tableLowerBounds[tableIndex];
+                int upperBound = tableUpperBounds[tableIndex];
+                if (lowerBound >= beta || lowerBound == upperBound) {
+                    return lowerBound;
+                }
+                if (upperBound <= alpha) {
+                    return upperBound;
+                }
+                alpha = Math.max(alpha, lowerBound);
+                beta = Math.min(beta, upperBound);
+                tableBestCard = tableBestCards[tableIndex];
+            }
+        }
+
+        boolean firstTeam = state.nextPlayerSlot() % 2 == 0;
+        int nbMoves = orderedMoves(tableBestCard, depth);
+        int[] depthMoves = moves[depth];
+        int searchAlpha = alpha;
+        int searchBeta = beta;
+
+        int bestPoints = firstTeam ? -1 : MAX_POINTS + 1;
+        int bestCard = depthMoves[0];
+        for (int i = 0 ; i < nbMoves ; i++) {
+            int card = depthMoves[i];
+            int points = playAndSearch(card, alpha, beta, depth);
+            if (aborted) {
+                return 0;
+            }
+            if (firstTeam ? points > bestPoints : points < bestPoints) {
+                bestPoints = points;
+                bestCard = card;
+            }
+            if (firstTeam) {
+                alpha = Math.max(alpha, points);
+            }
+            else {
+                beta = Math.min(beta, points);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        if (tableIndex != -1) {
+            store(tableIndex, key, bestPoints, searchAlpha, searchBeta, bestCard);
+        }
+        return bestPoints;
+    }
+
+    /**
+     * @return the points of the first team in the last trick, where each player has a single card left, or 0 if the deal is over
+     */
+    private int lastTrickPoints() {
+        if (state.isOver()) {
+            return 0;
+        }
+        int leaderSlot = state.leaderSlot();
+        int points = DealScoreCalculator.DIX_DE_DER_BONUS;
+        for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+            int card = Long.numberOfTrailingZeros(state.hand((leaderSlot + i) % ContreePlayers.NB_PLAYERS));
+            lastTrickCards[i] = card;
+            points += state.cardPoints(card);
+        }
+        int winnerSlot = (leaderSlot + PlayableCardsFilter.winningCardIndex(state.trumpSuit(), lastTrickCards, ContreePlayers.NB_PLAYERS)) % ContreePlayers.NB_PLAYERS;
+        return winnerSlot % 2 == 0 ? points : 0;
+    }
+
+    private void store(int tableIndex, long key, int points, int alpha, int beta, int bestCard) {
+        int lowerBound = 0;
+        int upperBound = MAX_POINTS;
+        if (tableKeys[tableIndex] == key) {
+            lowerBound = tableLowerBounds[tableIndex];
+            upperBound = tableUpperBounds[tableIndex];
+        }
+        if (points < beta) {
+            upperBound = Math.min(upperBound, points);
+        }
+        if (points > alpha) {
+            lowerBound = Math.max(lowerBound, points);
+        }
+        tableKeys[tableIndex] = key;
+        tableLowerBounds[tableIndex] = (short) lowerBound;
+        tableUpperBounds[tableIndex] = (short) upperBound;
+        tableBestCards[tableIndex] = (byte) bestCard;
+    }
+
+    /**
+     * Plays the card, searches the position, then takes the card back.
+     *
+     * @return the points of the first team from the current trick to the end of the deal
+     */
+    private int playAndSearch(int card, int alpha, int beta, int depth) {
+        int points = state.teamPoints(0);
+        state.play(card);
+        int trickPoints = state.teamPoints(0) - points;
+        points = trickPoints + search(alpha - trickPoints, beta - trickPoints, depth + 1);
+        state.undo();
+        return points;
+    }
+
+    /**
+     * Fills the moves of the depth with the playable cards of the next player, without the equivalent ones, best candidates first.
+     *
+     * @return the number of moves
+     */
+    private int orderedMoves(int tableBestCard, int depth) {
+        long playableCards = state.playableCards();
+        int[] trickCards = state.trickCards();
+        int nbTrickCards = state.nbTrickCards();
+        CardSuit trumpSuit = state.trumpSuit();
+        long inPlayCards = inPlayCards();
+        int winningIndex = nbTrickCards == 0 ? -1 : PlayableCardsFilter.winningCardIndex(trumpSuit, trickCards, nbTrickCards);
+        int winningCard = winningIndex == -1 ? NO_CARD : trickCards[winningIndex];
+        boolean teamMateIsWinning = nbTrickCards >= 2 && winningIndex == nbTrickCards - 2;
+
+        int[] depthMoves = moves[depth];
+        int[] depthScores = moveScores[depth];
+        int nbMoves = 0;
+        for (CardSuit suit : SUITS) {
+            if (CardMask.ofSuit(playableCards, suit) == CardMask.EMPTY) {
+                continue;
+            }
+            int previousInPlayCard = NO_CARD;
+            for (int card : CARDS_BY_DECREASING_VALUE[suit == trumpSuit ? 1 : 0][suit.ordinal()]) {
+                long cardMask = 1L << card;
+                if ((inPlayCards & cardMask) == CardMask.EMPTY) {
+                    continue;
+                }
+                boolean master = previousInPlayCard == NO_CARD;
+                boolean equivalent = !master
+                        && (playableCards & (1L << previousInPlayCard)) != CardMask.EMPTY
+                        && state.cardPoints(previousInPlayCard) == state.cardPoints(card);
+                previousInPlayCard = card;
+                if ((playableCards & cardMask) == CardMask.EMPTY || equivalent) {
+                    continue;
+                }
+                int score = moveScore(card, master, winningCard, teamMateIsWinning);
+                if (card == tableBestCard) {
+                    score = Integer.MAX_VALUE;
+                }
+                // Insertion sort by decreasing score
+                int i = nbMoves++;
+                while (i > 0 && depthScores[i - 1] < score) {
+                    depthMoves[i] = depthMoves[i - 1];
+                    depthScores[i] = depthScores[i - 1];
+                    i--;
+                }
+                depthMoves[i] = card;
+                depthScores[i] = score;
+            }
+        }
+        return nbMoves;
+    }
+
+    /**
+     * @return the cards in the hands and in the current trick
+     */
+    private long inPlayCards() {
+        long inPlayCards = state.hand(0) | state.hand(1) | state.hand(2) | state.hand(3);
+        int[] trickCards = state.trickCards();
+        for (int i = 0 ; i < state.nbTrickCards() ; i++) {
+            inPlayCards |= 1L << trickCards[i];
+        }
+        return inPlayCards;
+    }
+
+    private int moveScore(int card, boolean master, int winningCard, boolean teamMateIsWinning) {
+        if (state.nbTrickCards() == 0) {
+            return master ? 100 + state.cardPoints(card) : -state.cardValue(card);
+        }
+        if (teamMateIsWinning) {
+            // Give points to the team mate
+            return 500 + state.cardPoints(card);
+        }
+        if (beats(card, winningCard)) {
+            // Win with the cheapest card
+            return 1_000 - state.cardValue(card);
+        }
+        // Discard the cheapest card
+        return -state.cardPoints(card) - state.cardValue(card);
+    }
+
+    /**
+     * @return true if the card wins a trick over the card currently winning it, as computed by {@link PlayableCardsFilter#winningCardIndex(CardSuit, int[], int)}
+     */
+    private boolean beats(int card, int winningCard) {
+        int suit = SUIT_ORDINALS[card];
+        int winningSuit = SUIT_ORDINALS[winningCard];
+        if (suit == winningSuit) {
+            return state.cardValue(card) > state.cardValue(winningCard);
+        }
+        return suit == state.trumpSuit().ordinal();
+    }
+
+}
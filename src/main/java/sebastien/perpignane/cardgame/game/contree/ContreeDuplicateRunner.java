@@ -0,0 +1,197 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Compares two strategies on duplicate boards, with {@link ContreeSimulator#playBoard(long[])}.
+ *
+ * Each board is a deal played at two tables, with the same hands in the same slots: the team A holds the slots of the team 1 at the first table,
+ * and the slots of the team 2 at the second one. The delta of a board is the net score of the team A at the first table plus its net score
+ * at the second table, so that the luck of the cards cancels out and only the decisions of the strategies remain.
+ *
+ * The tables are played by a fixed pool of worker threads, the two tables of a board in parallel.
+ * The hands and the bots of each board get their own random generators, split from the runner seed in the order of the boards,
+ * so that a seed reproduces the same boards whatever the parallelism.
+ */
+public class ContreeDuplicateRunner {
+
+    private static final int NB_TABLES = 2;
+
+    private static final int NB_PLAYERS_BY_TEAM = ContreePlayers.NB_PLAYERS / ContreeTeam.values().length;
+
+    private final ContreeGameConfig gameConfig;
+
+    private final int parallelism;
+
+    private final long seed;
+
+    private final List<Function<RandomGenerator, ContreeBotStrategy>> teamAStrategies;
+
+    private final List<Function<RandomGenerator, ContreeBotStrategy>> teamBStrategies;
+
+    /**
+     * @param teamAStrategies create the strategies of the two bots of the team A from their random generator, the first one for the first slot of the team
+     * @param teamBStrategies create the strategies of the two bots of the team B, the same way
+     */
+    public ContreeDuplicateRunner(
+            ContreeGameConfig gameConfig,
+            int parallelism,
+            long seed,
+            List<Function<RandomGenerator, ContreeBotStrategy>> teamAStrategies,
+            List<Function<RandomGenerator, ContreeBotStrategy>> teamBStrategies
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be at least 1, got %d", parallelism));
+        }
+        if (teamAStrategies.size() != NB_PLAYERS_BY_TEAM || teamBStrategies.size() != NB_PLAYERS_BY_TEAM) {
+            throw new IllegalArgumentException(String.format("%d strategies are required by team, got %d and %d", NB_PLAYERS_BY_TEAM, teamAStrategies.size(), teamBStrategies.size()));
+        }
+        this.gameConfig     = gameConfig;
+        this.parallelism    = parallelism;
+        this.seed           = seed;
+        this.teamAStrategies = List.copyOf(teamAStrategies);
+        this.teamBStrategies = List.copyOf(teamBStrategies);
+    }
+
+    public DuplicateReport run(int nbBoards) {
+
+        if (nbBoards < 0) {
+            throw new IllegalArgumentException(String.format("Number of boards cannot be negative, got %d", nbBoards));
+        }
+
+        int[] teamANetScores = new int[nbBoards * NB_TABLES];
+        TableQueue tableQueue = new TableQueue(
+                nbBoards,
+                new CardDealer(gameConfig.getDistributionConfiguration()),
+                RandomGeneratorFactory.<RandomGenerator.SplittableGenerator>of(SplittableCardSetShuffler.ALGORITHM).create(seed)
+        );
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<?>> workers = new ArrayList<>(parallelism);
+            for (int i = 0 ; i < parallelism ; i++) {
+                workers.add(executor.submit(() -> {
+                    try {
+                        Table table;
+                        while ((table = tableQueue.next()) != null) {
+                            ContreeTeam teamA = table.number() == 0 ? ContreeTeam.TEAM1 : ContreeTeam.TEAM2;
+                            SimulatedBoardResult result = new ContreeSimulator(gameConfig, strategies(teamA, table.random())).playBoard(table.hands());
+                            teamANetScores[table.board() * NB_TABLES + table.number()] = result.netScore(teamA);
+                        }
+                    }
+                    finally {
+                        // The worker hands its last decisions over to the trajectory writers
+                        gameConfig.getTrajectoryWriter().ifPresent(ContreeTrajectoryWriter::releaseLocalRecorder);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A duplicate board failed", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Duplicate simulation was interrupted", e);
+        }
+
+        List<Integer> boardDeltas = new ArrayList<>(nbBoards);
+        for (int board = 0 ; board < nbBoards ; board++) {
+            boardDeltas.add(teamANetScores[board * NB_TABLES] + teamANetScores[board * NB_TABLES + 1]);
+        }
+        return new DuplicateReport(boardDeltas, System.nanoTime() - start);
+
+    }
+
+    /**
+     * The bots of the team A sit in the slots of the given team, the bots of the team B in the other slots
+     */
+    private List<ContreeBotStrategy> strategies(ContreeTeam teamA, RandomGenerator.SplittableGenerator tableRandom) {
+        List<ContreeBotStrategy> strategies = new ArrayList<>(ContreePlayers.NB_PLAYERS);
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            ContreeTeam slotTeam = slot % 2 == 0 ? ContreeTeam.TEAM1 : ContreeTeam.TEAM2;
+            var teamStrategies = slotTeam == teamA ? teamAStrategies : teamBStrategies;
+            strategies.add(teamStrategies.get(slot / ContreeTeam.values().length).apply(tableRandom.split()));
+        }
+        return strategies;
+    }
+
+    /**
+     * @param board number of the board
+     * @param number number of the table of the board, 0 or 1
+     * @param hands the hand of each player slot, the same at both tables of the board
+     */
+    private record Table(int board, int number, long[] hands, RandomGenerator.SplittableGenerator random) {}
+
+    /**
+     * Tables to be played by the workers, the two tables of a board one after the other
+     */
+    private static class TableQueue {
+
+        private final int nbBoards;
+
+        private final CardDealer cardDealer;
+
+        private final RandomGenerator.SplittableGenerator masterRandom;
+
+        private final byte[] cardOrdinals;
+
+        private int nextTable;
+
+        private RandomGenerator.SplittableGenerator boardRandom;
+
+        private long[] boardHands;
+
+        TableQueue(int nbBoards, CardDealer cardDealer, RandomGenerator.SplittableGenerator masterRandom) {
+            this.nbBoards = nbBoards;
+            this.cardDealer = cardDealer;
+            this.masterRandom = masterRandom;
+            this.cardOrdinals = new byte[CardSet.GAME_32.getGameCards().size()];
+            int i = 0;
+            for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+                cardOrdinals[i++] = (byte) card.ordinal();
+            }
+        }
+
+        /**
+         * Claims the next table. The generator and the hands of a board are created with its first table,
+         * so that they only depend on the number of the board
+         * @return null if all the tables are claimed
+         */
+        synchronized Table next() {
+            if (nextTable >= nbBoards * NB_TABLES) {
+                return null;
+            }
+            int board = nextTable / NB_TABLES;
+            int number = nextTable % NB_TABLES;
+            nextTable++;
+            if (number == 0) {
+                boardRandom = masterRandom.split();
+                new SplittableCardSetShuffler(boardRandom.split()).shuffle(cardOrdinals);
+                boardHands = new long[ContreePlayers.NB_PLAYERS];
+                cardDealer.dealHands(cardOrdinals, ContreePlayers.NB_PLAYERS, boardHands, 0);
+            }
+            return new Table(board, number, boardHands, boardRandom.split());
+        }
+
+    }
+
+}
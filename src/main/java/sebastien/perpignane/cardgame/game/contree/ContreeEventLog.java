@@ -0,0 +1,363 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+/**
+ * Append-only binary log of the events of a game, written in segment files of a directory, see {@link ContreeEventLogFormat}.
+ *
+ * The game thread only copies each event in a chunk of memory: the threads of a {@link ContreeEventLogWriter}, shared by the logs of all the games,
+ * append the chunks to the current segment and force them to the disk (group commit) as soon as the log holds a group commit of events,
+ * and at least every group commit interval.
+ * So the game never waits for the disk, and a crash loses at most the events of the last interval.
+ * If the disk is slower than the game, full chunks pile up in memory.
+ *
+ * The log is closed after the end of the game event.
+ */
+public class ContreeEventLog implements ContreeGameEventListener, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ContreeEventLog.class);
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final ContreeEventLogWriter writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition finishedCondition = lock.newCondition();
+
+    private final ArrayDeque<ByteBuffer> fullChunks = new ArrayDeque<>();
+
+    /**
+     * Number of events of the chunks not taken by a writer thread yet
+     */
+    private int nbPendingEvents = 0;
+
+    /**
+     * Chunk receiving the events, taken from the writer with the first event after a write
+     */
+    private ByteBuffer currentChunk;
+
+    private boolean closing = false;
+
+    private boolean writeRequested = false;
+
+    private boolean timedWriteRequested = false;
+
+    private boolean finished = false;
+
+    private long nbDroppedEvents = 0;
+
+    /**
+     * Held by the writer thread draining the log, so that chunks are taken and written in order
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private final List<ByteBuffer> drainedChunks = new ArrayList<>();
+
+    private FileChannel segmentChannel;
+
+    private int segmentIndex;
+
+    private long segmentPosition;
+
+    private long writtenSequence = 0;
+
+    private volatile long durableSequence = 0;
+
+    private volatile IOException failure;
+
+    /**
+     * Log written by the {@link ContreeEventLogWriter#shared()} writer
+     */
+    public ContreeEventLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, ContreeEventLogWriter.shared());
+    }
+
+    /**
+     * @param segmentSize maximum size of a segment file in bytes, header included, a multiple of {@link ContreeEventLogFormat#RECORD_SIZE}
+     * @param writer writes the events of the log, and of other logs
+     */
+    public ContreeEventLog(Path directory, long segmentSize, ContreeEventLogWriter writer) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE || segmentSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException(String.format("Segment size must be a multiple of %d greater than %d, got %d", RECORD_SIZE, HEADER_SIZE, segmentSize));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.writer = writer;
+        Files.createDirectories(directory);
+        this.segmentIndex = lastSegmentIndex(directory);
+    }
+
+    static int lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToInt(name -> Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(-1);
+        }
+    }
+
+    @Override
+    public void onEvent(ContreeGameEvent event) {
+        lock.lock();
+        try {
+            if (closing) {
+                nbDroppedEvents++;
+                return;
+            }
+            if (currentChunk == null) {
+                currentChunk = writer.takeChunk();
+                requestTimedWrite();
+            }
+            ContreeEventLogFormat.writeRecord(currentChunk, event);
+            nbPendingEvents++;
+            if (nbPendingEvents >= writer.groupCommitSize()) {
+                fullChunks.add(currentChunk);
+                currentChunk = null;
+                requestWrite();
+            }
+            else if (!currentChunk.hasRemaining()) {
+                fullChunks.add(currentChunk);
+                currentChunk = null;
+            }
+            if (event.type() == ContreeEventType.GAME_ENDED) {
+                closing = true;
+                requestWrite();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void requestWrite() {
+        if (!writeRequested) {
+            writeRequested = true;
+            writer.writeNow(this);
+        }
+    }
+
+    /**
+     * A timed write is always pending while the log holds events: it takes all the chunks when the group commit interval is over
+     */
+    private void requestTimedWrite() {
+        if (!timedWriteRequested) {
+            timedWriteRequested = true;
+            writer.writeAfterInterval(this);
+        }
+    }
+
+    /**
+     * Writes the full chunks, and the current chunk at the end of the group commit interval or when the log is closing, then forces them to the disk.
+     * Called by the threads of the writer.
+     *
+     * @param timed true at the end of the group commit interval
+     */
+    void drain(boolean timed) {
+        drainLock.lock();
+        try {
+            boolean last = takeChunks(timed);
+            try {
+                if (failure == null) {
+                    for (ByteBuffer chunk : drainedChunks) {
+                        write(chunk);
+                    }
+                    if (segmentChannel != null && durableSequence != writtenSequence) {
+                        segmentChannel.force(false);
+                        durableSequence = writtenSequence;
+                    }
+                }
+            }
+            catch (IOException e) {
+                log.error("Failed to write the event log in {}, next events are dropped", directory, e);
+                failure = e;
+                stopAccepting();
+                last = true;
+            }
+            finally {
+                drainedChunks.forEach(writer::recycle);
+                drainedChunks.clear();
+            }
+            if (last) {
+                finish();
+            }
+        }
+        finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the log is closing: the chunks taken are the last ones
+     */
+    private boolean takeChunks(boolean timed) {
+        lock.lock();
+        try {
+            if (timed) {
+                timedWriteRequested = false;
+            }
+            else {
+                writeRequested = false;
+            }
+            drainedChunks.addAll(fullChunks);
+            fullChunks.clear();
+            if (currentChunk != null && (timed || closing)) {
+                drainedChunks.add(currentChunk);
+                currentChunk = null;
+            }
+            nbPendingEvents = currentChunk == null ? 0 : currentChunk.position() / RECORD_SIZE;
+            return closing;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        for (int offset = 0; offset < chunk.limit(); offset += RECORD_SIZE) {
+            ContreeEventLogFormat.writeChecksum(chunk, offset);
+        }
+        while (chunk.hasRemaining()) {
+            if (segmentChannel == null || segmentPosition == segmentSize) {
+                rollSegment(chunk.getLong(chunk.position()));
+            }
+            int length = (int) Math.min(chunk.remaining(), segmentSize - segmentPosition);
+            ByteBuffer part = chunk.slice(chunk.position(), length);
+            while (part.hasRemaining()) {
+                segmentPosition += segmentChannel.write(part);
+            }
+            chunk.position(chunk.position() + length);
+        }
+        if (chunk.limit() > 0) {
+            writtenSequence = chunk.getLong(chunk.limit() - RECORD_SIZE);
+        }
+    }
+
+    private void rollSegment(long firstSequence) throws IOException {
+        if (segmentChannel != null) {
+            segmentChannel.force(false);
+            durableSequence = firstSequence - 1;
+            segmentChannel.close();
+        }
+        segmentIndex++;
+        segmentChannel = FileChannel.open(directory.resolve(segmentFileName(segmentIndex)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        ContreeEventLogFormat.writeHeader(header, firstSequence);
+        header.flip();
+        while (header.hasRemaining()) {
+            segmentChannel.write(header);
+        }
+        segmentPosition = HEADER_SIZE;
+    }
+
+    private void stopAccepting() {
+        lock.lock();
+        try {
+            closing = true;
+            fullChunks.forEach(writer::recycle);
+            fullChunks.clear();
+            if (currentChunk != null) {
+                writer.recycle(currentChunk);
+                currentChunk = null;
+            }
+            nbPendingEvents = 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish() {
+        if (segmentChannel != null) {
+            try {
+                segmentChannel.close();
+            }
+            catch (IOException e) {
+                log.error("Failed to close the event log segment in {}", directory, e);
+            }
+            segmentChannel = null;
+        }
+        lock.lock();
+        try {
+            finished = true;
+            finishedCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting events, and waits until the events already received are forced to the disk
+     *
+     * @throws IOException if the writing of the log failed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closing = true;
+            if (!finished) {
+                requestWrite();
+            }
+            while (!finished) {
+                finishedCondition.await();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while closing the event log in %s", directory), e);
+        }
+        finally {
+            lock.unlock();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the sequence of the last event forced to the disk, 0 if none yet
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public long getNbDroppedEvents() {
+        lock.lock();
+        try {
+            return nbDroppedEvents;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+}
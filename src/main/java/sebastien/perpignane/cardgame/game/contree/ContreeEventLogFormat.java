@@ -0,0 +1,112 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of the segments written by {@link ContreeEventLog}.
+ *
+ * A segment starts with a header of {@link #RECORD_SIZE} bytes, followed by records of {@link #RECORD_SIZE} bytes, all little endian:
+ * <pre>
+ *  header: magic (int) | version (int) | sequence of the first record (long) | zeros
+ *  record: sequence (long) | type (byte) | player slot (byte) | card (byte) | suit (byte)
+ *          | deal number (int) | trick number (int) | value (int) | other value (int) | CRC32C of the 28 first bytes (int)
+ * </pre>
+ * Sequences start from 1: a record full of zeros is the end of a segment which was not fully written.
+ */
+final class ContreeEventLogFormat {
+
+    static final int RECORD_SIZE = 32;
+
+    static final int HEADER_SIZE = RECORD_SIZE;
+
+    static final int MAGIC = 0x43544C47;
+
+    static final int VERSION = 1;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int CHECKSUM_OFFSET = RECORD_SIZE - Integer.BYTES;
+
+    private static final ContreeEventType[] EVENT_TYPES = ContreeEventType.values();
+
+    /**
+     * One checksum by writer or reader thread, reset for each record
+     */
+    private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+    private ContreeEventLogFormat() {
+    }
+
+    static String segmentFileName(int segmentIndex) {
+        return String.format("%010d%s", segmentIndex, SEGMENT_SUFFIX);
+    }
+
+    static void writeHeader(ByteBuffer buffer, long firstSequence) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(firstSequence);
+        buffer.put(new byte[HEADER_SIZE - Integer.BYTES * 2 - Long.BYTES]);
+    }
+
+    /**
+     * Writes the record at the position of the buffer, without its checksum, see {@link #writeChecksum(ByteBuffer, int)}
+     */
+    static void writeRecord(ByteBuffer buffer, ContreeGameEvent event) {
+        buffer.putLong(event.sequence());
+        buffer.put((byte) event.type().ordinal());
+        buffer.put((byte) event.playerSlot());
+        buffer.put((byte) event.card());
+        buffer.put((byte) event.suit());
+        buffer.putInt(event.dealNumber());
+        buffer.putInt(event.trickNumber());
+        buffer.putInt(event.value());
+        buffer.putInt(event.otherValue());
+        buffer.putInt(0);
+    }
+
+    static void writeChecksum(ByteBuffer buffer, int recordOffset) {
+        buffer.putInt(recordOffset + CHECKSUM_OFFSET, checksum(buffer, recordOffset));
+    }
+
+    /**
+     * @return true if the record at the given offset was fully written
+     */
+    static boolean isValidRecord(ByteBuffer buffer, int recordOffset) {
+        return buffer.getLong(recordOffset) > 0 && buffer.getInt(recordOffset + CHECKSUM_OFFSET) == checksum(buffer, recordOffset);
+    }
+
+    static ContreeGameEvent readRecord(ByteBuffer buffer, int recordOffset) {
+        return new ContreeGameEvent(
+                EVENT_TYPES[buffer.get(recordOffset + 8)],
+                buffer.getLong(recordOffset),
+                buffer.getInt(recordOffset + 12),
+                buffer.getInt(recordOffset + 16),
+                buffer.get(recordOffset + 9),
+                buffer.get(recordOffset + 10),
+                buffer.get(recordOffset + 11),
+                buffer.getInt(recordOffset + 20),
+                buffer.getInt(recordOffset + 24)
+        );
+    }
+
+    private static int checksum(ByteBuffer buffer, int recordOffset) {
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset() + recordOffset, CHECKSUM_OFFSET);
+        }
+        else {
+            int position = buffer.position();
+            int limit = buffer.limit();
+            buffer.limit(recordOffset + CHECKSUM_OFFSET).position(recordOffset);
+            crc.update(buffer);
+            buffer.limit(limit).position(position);
+        }
+        return (int) crc.getValue();
+    }
+
+}
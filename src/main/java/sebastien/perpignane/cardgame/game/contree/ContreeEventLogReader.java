@@ -0,0 +1,68 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+/**
+ * Reads the events of a {@link ContreeEventLog}, segment after segment, through memory mapped files: the records are decoded where the OS pages them in, without copy.
+ *
+ * The reading of a segment stops at its first record which was not fully written before a crash.
+ * The next segment, written after the recovery of the game, goes on from the last valid event.
+ */
+final class ContreeEventLogReader {
+
+    private ContreeEventLogReader() {
+    }
+
+    /**
+     * @return the sequence of the last read event, 0 if the log is empty
+     * @throws IOException if a segment cannot be read, or is not a segment of an event log
+     */
+    static long read(Path directory, ContreeGameEventListener listener) throws IOException {
+        long lastSequence = 0;
+        for (Path segment : segments(directory)) {
+            lastSequence = readSegment(segment, lastSequence, listener);
+        }
+        return lastSequence;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static long readSegment(Path segment, long previousSequence, ContreeGameEventListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                // The header itself was not fully written
+                return previousSequence;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(BYTE_ORDER);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException(String.format("%s is not a segment of a version %d event log", segment, VERSION));
+            }
+            long lastSequence = previousSequence;
+            for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= size && isValidRecord(buffer, offset); offset += RECORD_SIZE) {
+                long sequence = buffer.getLong(offset);
+                if (sequence <= lastSequence) {
+                    break;
+                }
+                listener.onEvent(readRecord(buffer, offset));
+                lastSequence = sequence;
+            }
+            return lastSequence;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+/**
+ * Writer threads shared by the {@link ContreeEventLog}s of many games: they append the chunks of events of each log to its segments
+ * and force them to the disk (group commit).
+ *
+ * A log asks for a write as soon as it holds <code>groupCommitSize</code> events, and <code>groupCommitInterval</code> after its first event waiting for the disk.
+ * The events are copied in small chunks of {@link #CHUNK_SIZE} events, taken from a pool of the writer and given back once written:
+ * a game only holds memory for the events waiting for the disk, and a slow game holds a single small chunk, whatever the group commit size.
+ * The number of threads does not depend on the number of games.
+ */
+public class ContreeEventLogWriter implements Closeable {
+
+    public static final int DEFAULT_GROUP_COMMIT_SIZE = 4_096;
+
+    public static final Duration DEFAULT_GROUP_COMMIT_INTERVAL = Duration.ofMillis(10);
+
+    public static final int DEFAULT_NB_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of events of a chunk
+     */
+    static final int CHUNK_SIZE = 64;
+
+    private static final ContreeEventLogWriter SHARED = new ContreeEventLogWriter(DEFAULT_NB_THREADS, DEFAULT_GROUP_COMMIT_SIZE, DEFAULT_GROUP_COMMIT_INTERVAL);
+
+    private final ScheduledExecutorService executor;
+
+    private final int groupCommitSize;
+
+    private final int chunkSize;
+
+    private final long groupCommitIntervalNanos;
+
+    private final BlockingQueue<ByteBuffer> freeChunks;
+
+    /**
+     * @param nbThreads number of writer threads
+     * @param groupCommitSize number of events forced to the disk together when the game is fast
+     * @param groupCommitInterval maximum time between the writing of an event and its forcing to the disk when the game is slow
+     */
+    public ContreeEventLogWriter(int nbThreads, int groupCommitSize, Duration groupCommitInterval) {
+        if (nbThreads < 1) {
+            throw new IllegalArgumentException(String.format("At least 1 writer thread is required, got %d", nbThreads));
+        }
+        if (groupCommitSize <= 0) {
+            throw new IllegalArgumentException(String.format("Group commit size must be positive, got %d", groupCommitSize));
+        }
+        if (groupCommitInterval.isNegative() || groupCommitInterval.isZero()) {
+            throw new IllegalArgumentException(String.format("Group commit interval must be positive, got %s", groupCommitInterval));
+        }
+        this.groupCommitSize = groupCommitSize;
+        this.chunkSize = Math.min(groupCommitSize, CHUNK_SIZE);
+        this.groupCommitIntervalNanos = groupCommitInterval.toNanos();
+        // Enough free chunks for a few group commits by thread
+        this.freeChunks = new ArrayBlockingQueue<>(4 * nbThreads * ((groupCommitSize + chunkSize - 1) / chunkSize));
+        this.executor = Executors.newScheduledThreadPool(nbThreads, Thread.ofPlatform().daemon().name("contree-event-log-writer-", 0).factory());
+    }
+
+    /**
+     * @return the writer of the event logs of the games, with {@link #DEFAULT_NB_THREADS} threads and the default group commit. It is never closed.
+     */
+    public static ContreeEventLogWriter shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the number of events held by a log before it asks for a write
+     */
+    int groupCommitSize() {
+        return groupCommitSize;
+    }
+
+    /**
+     * @return a cleared chunk of at most {@link #CHUNK_SIZE} records
+     */
+    ByteBuffer takeChunk() {
+        ByteBuffer chunk = freeChunks.poll();
+        return chunk != null ? chunk : ByteBuffer.allocate(chunkSize * RECORD_SIZE).order(BYTE_ORDER);
+    }
+
+    /**
+     * Gives a written chunk back to the pool, unless the pool is full
+     */
+    void recycle(ByteBuffer chunk) {
+        chunk.clear();
+        freeChunks.offer(chunk);
+    }
+
+    /**
+     * Writes the full chunks of the log, and all its chunks if it is closing, as soon as a writer thread is available
+     */
+    void writeNow(ContreeEventLog eventLog) {
+        executor.execute(() -> eventLog.drain(false));
+    }
+
+    /**
+     * Writes all the chunks of the log at the end of the group commit interval
+     */
+    void writeAfterInterval(ContreeEventLog eventLog) {
+        executor.schedule(() -> eventLog.drain(true), groupCommitIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the writer threads once the pending writes are done. The logs of the writer must be closed before.
+     *
+     * @throws IllegalStateException for the {@link #shared()} writer
+     */
+    @Override
+    public void close() {
+        if (this == SHARED) {
+            throw new IllegalStateException("The shared event log writer cannot be closed");
+        }
+        executor.shutdown();
+    }
+
+}
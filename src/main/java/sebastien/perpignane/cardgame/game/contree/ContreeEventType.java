@@ -0,0 +1,101 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * Types of the events of {@link ContreeGameEvent}. Each type has its own bit, so that listeners subscribe to a set of types with a mask.
+ *
+ * The fields of an event not listed for its type are {@link ContreeGameEvent#NONE}.
+ * Ordinals are written in event logs: new types are added at the end.
+ */
+public enum ContreeEventType {
+
+    /**
+     * value: ordinal of the new {@link sebastien.perpignane.cardgame.game.GameStatus}, otherValue: ordinal of the old one
+     */
+    GAME_STATE_UPDATED,
+
+    /**
+     * playerSlot: the slot of the joining player
+     */
+    PLAYER_JOINED,
+
+    /**
+     * dealNumber
+     */
+    DEAL_STARTED,
+
+    BID_STEP_STARTED,
+
+    /**
+     * playerSlot: the bidder, value: ordinal of the {@link ContreeBidValue}, suit: ordinal of the bid suit
+     */
+    BID_PLACED,
+
+    BID_STEP_ENDED,
+
+    /**
+     * suit: ordinal of the trump suit
+     */
+    PLAY_STEP_STARTED,
+
+    /**
+     * trickNumber, suit: ordinal of the trump suit
+     */
+    TRICK_STARTED,
+
+    /**
+     * playerSlot: the player, card: ordinal of the played {@link sebastien.perpignane.cardgame.card.ClassicalCard}
+     */
+    CARD_PLAYED,
+
+    TRICK_TRUMPED,
+
+    /**
+     * playerSlot: the winner of the trick
+     */
+    TRICK_ENDED,
+
+    PLAY_STEP_ENDED,
+
+    /**
+     * value: ordinal of the winner team, otherValue: 1 if capot, 0 otherwise
+     */
+    DEAL_ENDED,
+
+    /**
+     * value: score of the team 1, otherValue: score of the team 2
+     */
+    GAME_SCORE_UPDATED,
+
+    /**
+     * value: ordinal of the winner team
+     */
+    GAME_ENDED,
+
+    /**
+     * Sent after {@link #DEAL_STARTED} for each player. playerSlot: the player, value and otherValue: low and high 32 bits of the
+     * {@link sebastien.perpignane.cardgame.card.CardMask} of the dealt hand
+     */
+    HAND_DEALT;
+
+    /**
+     * Mask of all the event types
+     */
+    public static final long ALL = (1L << values().length) - 1;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public boolean isIn(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public static long mask(ContreeEventType... types) {
+        long mask = 0;
+        for (ContreeEventType type : types) {
+            mask |= type.bit();
+        }
+        return mask;
+    }
+
+}
@@ -1,8 +1,13 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.game.AbstractGame;
+import sebastien.perpignane.cardgame.game.BackpressurePolicy;
+import sebastien.perpignane.cardgame.game.CardGameObserver;
 import sebastien.perpignane.cardgame.game.GameObserver;
 import sebastien.perpignane.cardgame.game.GameStatus;
 import sebastien.perpignane.cardgame.player.Player;
@@ -12,24 +17,63 @@ import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
 
 public class ContreeGame extends AbstractGame<ContreePlayer> {
 
+    private static final Logger log = LoggerFactory.getLogger(ContreeGame.class);
+
     private final ContreeGamePlayers gamePlayers;
 
     private final ContreeDeals gameDeals;
 
     private final ContreeGameEventSender gameEventSender;
 
+    /**
+     * Serializes player actions, see {@link ContreeGameExecutionMode}
+     */
+    private final ContreeGameCommandExecutor commandExecutor;
+
+    /**
+     * Generator of the strategies of the bots joining the game, only used by the join commands
+     */
+    private final RandomGenerator.SplittableGenerator botRandom;
+
     ContreeGame(
         ContreeGamePlayers gamePlayers,
         ContreeDeals gameDeals,
         ContreeGameEventSender eventSender
     ) {
-        super();
+        this(gamePlayers, gameDeals, eventSender, new LockGameCommandExecutor());
+    }
+
+    ContreeGame(
+        ContreeGamePlayers gamePlayers,
+        ContreeDeals gameDeals,
+        ContreeGameEventSender eventSender,
+        ContreeGameCommandExecutor commandExecutor
+    ) {
+        this(UUID.randomUUID().toString(), gamePlayers, gameDeals, eventSender, commandExecutor, new SplittableCardSetShuffler().splitGenerator());
+    }
+
+    /**
+     * @param botRandom generator of the strategies of the bots joining the game, split from the shuffler of the game
+     */
+    ContreeGame(
+        String gameId,
+        ContreeGamePlayers gamePlayers,
+        ContreeDeals gameDeals,
+        ContreeGameEventSender eventSender,
+        ContreeGameCommandExecutor commandExecutor,
+        RandomGenerator.SplittableGenerator botRandom
+    ) {
+        super(gameId);
         this.gamePlayers = gamePlayers;
         this.gameDeals = gameDeals;
         this.gameEventSender = eventSender;
+        this.commandExecutor = commandExecutor;
+        this.botRandom = botRandom;
         updateState(GameStatus.WAITING_FOR_PLAYERS);
     }
 
@@ -38,7 +82,19 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         return new ArrayList<>(gamePlayers.getGamePlayers());
     }
 
-    public synchronized void joinGame(ContreePlayer p) {
+    /**
+     * @return a random generator for the strategy of a bot joining the game, split from the generator of the game.
+     * Only called by the players while they join the game, as the join commands of the game are serialized.
+     */
+    public RandomGenerator.SplittableGenerator splitBotRandom() {
+        return botRandom.split();
+    }
+
+    public void joinGame(ContreePlayer p) {
+        commandExecutor.execute(() -> joinGameCommand(p));
+    }
+
+    void joinGameCommand(ContreePlayer p) {
         if (isOver()) {
             throw new IllegalStateException("This game is over, you cannot join it");
         }
@@ -62,8 +118,11 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         }
     }
 
-    public synchronized void leaveGame(ContreePlayer leavingPlayer) {
+    public void leaveGame(ContreePlayer leavingPlayer) {
+        commandExecutor.execute(() -> leaveGameCommand(leavingPlayer));
+    }
 
+    private void leaveGameCommand(ContreePlayer leavingPlayer) {
         if (isOver()) {
             return;
         }
@@ -73,25 +132,31 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         if (isStarted()) {
             newPlayer.onGameStarted();
         }
-
     }
 
     private void startGame() {
         gameDeals.startDeals(getGameId(), gamePlayers.buildDealPlayers());
     }
 
-    public synchronized void placeBid(ContreePlayer player, ContreeBidValue bidValue, CardSuit cardSuit) {
+    public void placeBid(ContreePlayer player, ContreeBidValue bidValue, CardSuit cardSuit) {
+        commandExecutor.execute(() -> placeBidCommand(player, bidValue, cardSuit), e -> rejectCommand(player, e));
+    }
+
+    void placeBidCommand(ContreePlayer player, ContreeBidValue bidValue, CardSuit cardSuit) {
         if (isOver()) {
             throw new IllegalStateException("This game is over, you cannot place a bid on it");
         }
         gameDeals.placeBid(player, bidValue, cardSuit);
     }
 
-    public synchronized void playCard(ContreePlayer player, ClassicalCard card) {
+    public void playCard(ContreePlayer player, ClassicalCard card) {
+        commandExecutor.execute(() -> playCardCommand(player, card), e -> rejectCommand(player, e));
+    }
+
+    void playCardCommand(ContreePlayer player, ClassicalCard card) {
         if (isOver()) {
             throw new IllegalStateException("This game is over, you cannot play a card on it");
         }
-        gameEventSender.sendPlayedCardEvent(player, card);
         gameDeals.playCard(player, card);
         if (gameDeals.isMaximumScoreReached()) {
             updateState(GameStatus.OVER);
@@ -100,6 +165,45 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         }
     }
 
+    /**
+     * In mailbox mode, a player does not get the exception of its rejected bid or card, and would wait for its turn forever:
+     * it is notified again that it is its turn, so that it bids or plays again.
+     * A player who bid or played out of its turn is not notified, the player expected to bid or play already was.
+     */
+    private void rejectCommand(ContreePlayer player, RuntimeException e) {
+        log.warn("Command of player {} rejected in game {}", player, getGameId(), e);
+        if (!isOver()) {
+            gameDeals.notifyPlayerAgain(player);
+        }
+    }
+
+    /**
+     * Runs commands recorded in an event log as one command, in trusted replay mode, see {@link ContreeGameEventSender#setTrustedReplay(boolean)}.
+     * Then the player expected to bid or play is notified, so that the game goes on.
+     * If the last recorded command ended the game, the end of the game, which was not recorded, is sent.
+     *
+     * @param recordedCommands calls the command methods of the game, not the public ones which would run them later in mailbox mode
+     * @param lastSequence sequence of the last recorded event
+     */
+    void replay(Runnable recordedCommands, long lastSequence) {
+        commandExecutor.execute(() -> {
+            gameEventSender.setTrustedReplay(true);
+            try {
+                recordedCommands.run();
+            }
+            finally {
+                gameEventSender.setTrustedReplay(false);
+                gameEventSender.resumeSequence(lastSequence);
+            }
+            if (isOver()) {
+                gameEventSender.sendEndOfGameEvent(this);
+            }
+            else if (isStarted()) {
+                gameDeals.notifyCurrentPlayer();
+            }
+        });
+    }
+
     public void registerAsGameObserver(GameObserver observer) {
         if (isOver()) {
             throw new IllegalStateException("This game is over, you cannot register an observer on it");
@@ -107,6 +211,25 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         gameEventSender.registerAsObserver(observer);
     }
 
+    /**
+     * The observer gets the events of the game on a dispatcher thread, so that it does not slow the game down
+     * @param policy what happens when the observer is too slow to process the events
+     */
+    public void registerAsGameObserver(CardGameObserver observer, BackpressurePolicy policy) {
+        if (isOver()) {
+            throw new IllegalStateException("This game is over, you cannot register an observer on it");
+        }
+        gameEventSender.registerAsAsyncObserver(observer, policy);
+    }
+
+    /**
+     * Subscribes to the primitive-encoded event stream of the game. The listener is called in the thread running the game commands.
+     * @param eventTypesMask the types of the events the listener gets, see {@link ContreeEventType#mask(ContreeEventType...)}
+     */
+    public void subscribe(ContreeGameEventListener listener, long eventTypesMask) {
+        gameEventSender.subscribe(listener, eventTypesMask);
+    }
+
     public Optional<ContreeTeam> getWinner() {
         if (gameDeals == null) {
             return Optional.empty();
@@ -131,6 +254,24 @@ public class ContreeGame extends AbstractGame<ContreePlayer> {
         return gameDeals.getNbDeals();
     }
 
+    ContreeGameScore getGameScore() {
+        return gameDeals.getGameScore();
+    }
+
+    /**
+     * @return the last started deal, null if the game is not started
+     */
+    ContreeDeal getCurrentDealOrNull() {
+        return gameDeals.getCurrentDealOrNull();
+    }
+
+    /**
+     * @return the slot of the player in the game, -1 if the player is not in the game
+     */
+    int indexOf(ContreePlayer player) {
+        return gamePlayers.getPlayerSlots().indexOf(player);
+    }
+
     public ContreeGameState toState() {
         return new ContreeGameState(
                 getGameId(),
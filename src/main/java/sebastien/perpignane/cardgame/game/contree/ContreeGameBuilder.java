@@ -1,6 +1,16 @@
 package sebastien.perpignane.cardgame.game.contree;
 
 import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSetShuffler;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.game.AsyncEventDispatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
 
 public class ContreeGameBuilder {
 
@@ -8,15 +18,75 @@ public class ContreeGameBuilder {
     }
 
     public static ContreeGame createGame(ContreeGameConfig gameConfig) {
-        ContreeGameEventSender eventSender = new ContreeGameEventSender();
-        ContreeGamePlayers players = new ContreeGamePlayersImpl();
+        return createGame(gameConfig, createCommandExecutor(gameConfig));
+    }
+
+    static ContreeGameCommandExecutor createCommandExecutor(ContreeGameConfig gameConfig) {
+        return switch (gameConfig.getExecutionMode()) {
+            case LOCK -> new LockGameCommandExecutor();
+            case MAILBOX -> new MailboxGameCommandExecutor(gameConfig.getGameScheduler());
+        };
+    }
+
+    static ContreeGame createGame(ContreeGameConfig gameConfig, ContreeGameCommandExecutor commandExecutor) {
+        return createGame(gameConfig, commandExecutor, gameConfig.createCardSetShuffler());
+    }
+
+    /**
+     * @param shuffler shuffles the cards of each deal of the game, instead of the one of the configuration
+     */
+    static ContreeGame createGame(ContreeGameConfig gameConfig, ContreeGameCommandExecutor commandExecutor, CardSetShuffler shuffler) {
+        return createGame(gameConfig, commandExecutor, UUID.randomUUID().toString(), new CardDealer(gameConfig.getDistributionConfiguration()), shuffler, gameConfig.getDealPool().orElse(null));
+    }
+
+    /**
+     * @param dealSupplier supplies the hands of each deal of the game, instead of the shuffler and the deal pool of the configuration
+     */
+    static ContreeGame createGame(ContreeGameConfig gameConfig, ContreeGameCommandExecutor commandExecutor, ContreeDealSupplier dealSupplier) {
+        return createGame(gameConfig, commandExecutor, UUID.randomUUID().toString(), new CardDealer(gameConfig.getDistributionConfiguration()), gameConfig.createCardSetShuffler(), dealSupplier);
+    }
+
+    /**
+     * @param gameId id of the game, the one of the recorded game when it is recovered from its event log
+     * @param cardDealer deals the shuffled cards to the players, instead of the deal pool of the configuration
+     */
+    static ContreeGame createGame(ContreeGameConfig gameConfig, ContreeGameCommandExecutor commandExecutor, String gameId, CardDealer cardDealer) {
+        return createGame(gameConfig, commandExecutor, gameId, cardDealer, gameConfig.createCardSetShuffler(), null);
+    }
+
+    /**
+     * @param dealSupplier supplies the hands of each deal, null to shuffle and deal the cards when each deal starts
+     */
+    private static ContreeGame createGame(ContreeGameConfig gameConfig, ContreeGameCommandExecutor commandExecutor, String gameId, CardDealer cardDealer, CardSetShuffler shuffler, ContreeDealSupplier dealSupplier) {
+        AsyncEventDispatcher asyncDispatcher = new AsyncEventDispatcher(gameConfig.getEventDispatchExecutor(), AsyncEventDispatcher.DEFAULT_QUEUE_CAPACITY);
+        ContreeGameEventSender eventSender = new ContreeGameEventSender(asyncDispatcher, Collections.emptySet());
+        ContreeGamePlayers players = new ContreeGamePlayersImpl(gameConfig.getBotThreadFactory());
+        eventSender.setPlayerSlots(players.getPlayerSlots());
         ContreeGameScore gameScore = new ContreeGameScore(gameConfig.getMaxScore());
         PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
         BiddableValuesFilter biddableValuesFilter = new BiddableValuesFilter();
         DealScoreCalculator scoreCalculator = new DealScoreCalculator();
-        CardDealer cardDealer = new CardDealer(gameConfig.getDistributionConfiguration());
-        ContreeDeals deals = new ContreeDeals(gameScore, scoreCalculator, biddableValuesFilter, playableCardsFilter, cardDealer, eventSender);
-        return new ContreeGame(players, deals, eventSender);
+        ContreeDeals deals = new ContreeDeals(gameScore, scoreCalculator, biddableValuesFilter, playableCardsFilter, cardDealer, shuffler, dealSupplier, eventSender);
+        ContreeGame game = new ContreeGame(gameId, players, deals, eventSender, commandExecutor, botRandom(shuffler));
+        gameConfig.getEventLogDirectory().ifPresent(directory -> game.subscribe(openEventLog(directory.resolve(game.getGameId()), gameConfig.getEventLogWriter()), ContreeEventType.ALL));
+        gameConfig.getDealArchive().ifPresent(archive -> game.subscribe(new ContreeDealRecorder(archive), ContreeDealRecorder.EVENT_TYPES));
+        return game;
+    }
+
+    /**
+     * @return the generator of the bots of a game, split from its shuffler so that the bots are reproduced with its seed, seeded at random if the shuffler cannot be split
+     */
+    static RandomGenerator.SplittableGenerator botRandom(CardSetShuffler shuffler) {
+        return (shuffler instanceof SplittableCardSetShuffler splittableShuffler ? splittableShuffler : new SplittableCardSetShuffler()).splitGenerator();
+    }
+
+    private static ContreeEventLog openEventLog(Path directory, ContreeEventLogWriter writer) {
+        try {
+            return new ContreeEventLog(directory, ContreeEventLog.DEFAULT_SEGMENT_SIZE, writer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("Cannot open the event log in %s", directory), e);
+        }
     }
 
 }
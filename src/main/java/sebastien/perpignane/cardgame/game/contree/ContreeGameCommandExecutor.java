@@ -0,0 +1,22 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs the commands of a game one at a time, in the order they are received.
+ */
+interface ContreeGameCommandExecutor {
+
+    void execute(Runnable command);
+
+    /**
+     * Runs the command, and gives its failure to the handler when the caller does not get it:
+     * by default the command runs in the calling thread, and the failure is thrown to the caller.
+     *
+     * @param onFailure called with the exception thrown by the command, when the command is run later by another thread
+     */
+    default void execute(Runnable command, Consumer<RuntimeException> onFailure) {
+        execute(command);
+    }
+
+}
@@ -1,6 +1,15 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import sebastien.perpignane.cardgame.card.CardSetShuffler;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.game.AsyncEventDispatcher;
+
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
 
 public interface ContreeGameConfig {
 
@@ -15,4 +24,76 @@ public interface ContreeGameConfig {
     default List<Integer> getDistributionConfiguration() {
         return DEFAULT_DISTRIBUTION_CONFIG;
     }
+
+    /**
+     * @return the shuffler of the deals of a new game, called once by game. A {@link SplittableCardSetShuffler} seeded at random by default.
+     */
+    default CardSetShuffler createCardSetShuffler() {
+        return new SplittableCardSetShuffler();
+    }
+
+    /**
+     * @return the pool the games take their deals from, shared by all the games of this configuration.
+     * No pool by default: each game shuffles and deals the cards with its {@link #createCardSetShuffler() shuffler} when a deal starts.
+     */
+    default Optional<ContreeDealPool> getDealPool() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return the factory of the threads running bot event handlers. Virtual threads by default.
+     */
+    default ThreadFactory getBotThreadFactory() {
+        return Thread.ofVirtual().factory();
+    }
+
+    /**
+     * @return how the commands of the players are serialized on the game. A lock by default.
+     */
+    default ContreeGameExecutionMode getExecutionMode() {
+        return ContreeGameExecutionMode.LOCK;
+    }
+
+    /**
+     * @return the pool draining the mailboxes of the games in {@link ContreeGameExecutionMode#MAILBOX} mode. The common pool by default.
+     */
+    default Executor getGameScheduler() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @return runs the dispatches of events to the asynchronous observers of the game. The pool shared by all the games by default, see {@link AsyncEventDispatcher#SHARED_EXECUTOR}.
+     */
+    default Executor getEventDispatchExecutor() {
+        return AsyncEventDispatcher.SHARED_EXECUTOR;
+    }
+
+    /**
+     * @return the directory where each game writes its {@link ContreeEventLog}, in a subdirectory named with the game id. No event log by default.
+     */
+    default Optional<Path> getEventLogDirectory() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return the writer threads of the event logs, shared by the games. {@link ContreeEventLogWriter#shared()} by default.
+     */
+    default ContreeEventLogWriter getEventLogWriter() {
+        return ContreeEventLogWriter.shared();
+    }
+
+    /**
+     * @return the archive where the games append their finished deals, shared by all the games of this configuration. No archive by default.
+     */
+    default Optional<ContreeDealArchive> getDealArchive() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return the writer of the decisions of the bots of the games played by a {@link ContreeSimulator}, shared by all the games of this configuration.
+     * No trajectories by default.
+     */
+    default Optional<ContreeTrajectoryWriter> getTrajectoryWriter() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,31 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * A game event encoded with primitive values only: no id string has to be built to send it.
+ * Which fields are set depends on the {@link ContreeEventType}, the others are {@link #NONE}.
+ *
+ * @param type type of the event
+ * @param sequence number of the event in the game, starting from 1, counting all the events of the game, subscribed or not
+ * @param dealNumber number of the current deal, starting from 1, {@link #NONE} before the first deal
+ * @param trickNumber number of the current trick in the deal, starting from 1, {@link #NONE} outside of the play step
+ * @param playerSlot slot of the player, from 0 to 3
+ * @param card ordinal of the card
+ * @param suit ordinal of the card suit
+ * @param value first value of the event
+ * @param otherValue second value of the event
+ */
+public record ContreeGameEvent(
+        ContreeEventType type,
+        long sequence,
+        int dealNumber,
+        int trickNumber,
+        int playerSlot,
+        int card,
+        int suit,
+        int value,
+        int otherValue
+) {
+
+    public static final int NONE = -1;
+
+}
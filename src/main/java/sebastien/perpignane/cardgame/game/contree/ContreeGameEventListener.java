@@ -0,0 +1,11 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * Listener of the primitive-encoded event stream of a game, see {@link ContreeGame#subscribe(ContreeGameEventListener, long)}
+ */
+@FunctionalInterface
+public interface ContreeGameEventListener {
+
+    void onEvent(ContreeGameEvent event);
+
+}
@@ -1,30 +1,77 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.game.AbstractGameEventSender;
+import sebastien.perpignane.cardgame.game.AsyncEventDispatcher;
 import sebastien.perpignane.cardgame.game.CardGameObserver;
 import sebastien.perpignane.cardgame.game.GameObserver;
+import sebastien.perpignane.cardgame.game.GameStatus;
 import sebastien.perpignane.cardgame.player.Player;
 import sebastien.perpignane.cardgame.player.Team;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 class ContreeGameEventSender extends AbstractGameEventSender {
 
+    private static final int END_OF_GAME_EVENT = FIRST_GAME_SPECIFIC_EVENT;
+    private static final int PLAYED_CARD_EVENT = FIRST_GAME_SPECIFIC_EVENT + 1;
+    private static final int START_OF_DEAL_EVENT = FIRST_GAME_SPECIFIC_EVENT + 2;
+    private static final int END_OF_DEAL_EVENT = FIRST_GAME_SPECIFIC_EVENT + 3;
+    private static final int GAME_SCORE_EVENT = FIRST_GAME_SPECIFIC_EVENT + 4;
+    private static final int PLACED_BID_EVENT = FIRST_GAME_SPECIFIC_EVENT + 5;
+    private static final int BID_STEP_STARTED_EVENT = FIRST_GAME_SPECIFIC_EVENT + 6;
+    private static final int BID_STEP_ENDED_EVENT = FIRST_GAME_SPECIFIC_EVENT + 7;
+    private static final int PLAY_STEP_STARTED_EVENT = FIRST_GAME_SPECIFIC_EVENT + 8;
+    private static final int PLAY_STEP_ENDED_EVENT = FIRST_GAME_SPECIFIC_EVENT + 9;
+    private static final int TRUMPED_TRICK_EVENT = FIRST_GAME_SPECIFIC_EVENT + 10;
+    private static final int NEW_TRICK_EVENT = FIRST_GAME_SPECIFIC_EVENT + 11;
+    private static final int END_OF_TRICK_EVENT = FIRST_GAME_SPECIFIC_EVENT + 12;
+    private static final int JOINED_GAME_EVENT = FIRST_GAME_SPECIFIC_EVENT + 13;
+
     private final Set<ContreeDealObserver> dealObservers = ConcurrentHashMap.newKeySet();
     private final Set<ContreeTrickObserver> trickObservers = ConcurrentHashMap.newKeySet();
 
+    private record Subscription(ContreeGameEventListener listener, long eventTypesMask) {}
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Union of the masks of all the subscriptions: events nobody subscribed to are not even built
+     */
+    private volatile long subscribedEventTypes = 0;
+
+    private ContreeGamePlayerSlots playerSlots;
+
+    // Events are sent by the game commands, one at a time
+    private long sequence = 0;
+
+    private int dealNumber = ContreeGameEvent.NONE;
+
+    private int trickNumber = ContreeGameEvent.NONE;
+
+    private boolean trustedReplay = false;
+
     public ContreeGameEventSender() {
         this(Collections.emptySet());
     }
 
     public ContreeGameEventSender(Collection<CardGameObserver> observers) {
+        this(new AsyncEventDispatcher(), observers);
+    }
+
+    ContreeGameEventSender(AsyncEventDispatcher asyncDispatcher, Collection<CardGameObserver> observers) {
+        super(asyncDispatcher);
         observers.forEach(this::registerAsObserver);
     }
 
@@ -44,56 +91,178 @@ class ContreeGameEventSender extends AbstractGameEventSender {
         }
     }
 
+    /**
+     * @param eventTypesMask the types of the events the listener gets, see {@link ContreeEventType#mask(ContreeEventType...)}
+     */
+    void subscribe(ContreeGameEventListener listener, long eventTypesMask) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        synchronized (subscriptions) {
+            subscriptions.add(new Subscription(listener, eventTypesMask));
+            subscribedEventTypes |= eventTypesMask;
+        }
+    }
+
+    /**
+     * @param playerSlots used to find the slot of the players of the events
+     */
+    void setPlayerSlots(ContreeGamePlayerSlots playerSlots) {
+        this.playerSlots = playerSlots;
+    }
+
+    /**
+     * In trusted replay mode, commands recorded in an event log are replayed: they are not validated, players are not notified of their turn,
+     * and no event is sent, but events are still counted so that the sequence goes on as in the recorded game.
+     */
+    void setTrustedReplay(boolean trustedReplay) {
+        this.trustedReplay = trustedReplay;
+    }
+
+    boolean isTrustedReplay() {
+        return trustedReplay;
+    }
+
+    /**
+     * @param lastSequence sequence of the last recorded event of a replayed game: the next event gets the following one
+     */
+    void resumeSequence(long lastSequence) {
+        this.sequence = lastSequence;
+    }
+
+    @Override
+    protected boolean isSnapshotEvent(int eventType) {
+        return eventType == GAME_SCORE_EVENT || super.isSnapshotEvent(eventType);
+    }
+
+    @Override
+    protected <O extends CardGameObserver> void sendEvent(Set<O> observers, Class<O> observerType, int eventType, Consumer<O> event) {
+        if (!trustedReplay) {
+            super.sendEvent(observers, observerType, eventType, event);
+        }
+    }
+
+    private void publish(ContreeEventType type) {
+        publish(type, null, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
+    }
+
+    private void publish(ContreeEventType type, Player<?, ?> player, int card, int suit, int value, int otherValue) {
+        publish(type, slotOf(player), card, suit, value, otherValue);
+    }
+
+    private void publish(ContreeEventType type, int playerSlot, int card, int suit, int value, int otherValue) {
+        long eventSequence = ++sequence;
+        if (trustedReplay || !type.isIn(subscribedEventTypes)) {
+            return;
+        }
+        ContreeGameEvent event = new ContreeGameEvent(type, eventSequence, dealNumber, trickNumber, playerSlot, card, suit, value, otherValue);
+        for (Subscription subscription : subscriptions) {
+            if (type.isIn(subscription.eventTypesMask())) {
+                subscription.listener().onEvent(event);
+            }
+        }
+    }
+
+    private int slotOf(Player<?, ?> player) {
+        if (playerSlots == null || !(player instanceof ContreePlayer contreePlayer)) {
+            return ContreeGameEvent.NONE;
+        }
+        return playerSlots.indexOf(contreePlayer);
+    }
+
+    private static int ordinalOf(Enum<?> value) {
+        return value == null ? ContreeGameEvent.NONE : value.ordinal();
+    }
+
+    @Override
+    public void sendStateEvent(GameStatus oldState, GameStatus newState) {
+        super.sendStateEvent(oldState, newState);
+        publish(ContreeEventType.GAME_STATE_UPDATED, null, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ordinalOf(newState), ordinalOf(oldState));
+    }
+
     void sendEndOfGameEvent(ContreeGame contreeGame) {
-        gameObservers.forEach(go -> go.onEndOfGame(contreeGame));
+        sendEvent(gameObservers, GameObserver.class, END_OF_GAME_EVENT, go -> go.onEndOfGame(contreeGame));
+        publish(ContreeEventType.GAME_ENDED, null, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ordinalOf(contreeGame.getWinner().orElse(null)), ContreeGameEvent.NONE);
     }
 
     void sendPlayedCardEvent(Player<?, ?> player, ClassicalCard card) {
-        gameObservers.forEach(observer -> observer.onCardPlayed(player, card));
+        sendEvent(gameObservers, GameObserver.class, PLAYED_CARD_EVENT, go -> go.onCardPlayed(player, card));
+        publish(ContreeEventType.CARD_PLAYED, player, card.ordinal(), ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
     }
 
     void sendStartOfDealEvent(int dealNumber, String dealId) {
-        dealObservers.forEach(cdo -> cdo.onDealStarted(dealNumber, dealId));
+        this.dealNumber = dealNumber;
+        this.trickNumber = ContreeGameEvent.NONE;
+        sendEvent(dealObservers, ContreeDealObserver.class, START_OF_DEAL_EVENT, cdo -> cdo.onDealStarted(dealNumber, dealId));
+        publish(ContreeEventType.DEAL_STARTED);
+    }
+
+    /**
+     * Only sent to the subscribers of the primitive event stream, so that the deal can be replayed from an event log
+     */
+    void sendDealtHandEvent(int playerSlot, List<ClassicalCard> hand) {
+        sendDealtHandEvent(playerSlot, CardMask.of(hand));
+    }
+
+    void sendDealtHandEvent(int playerSlot, long handMask) {
+        publish(ContreeEventType.HAND_DEALT, playerSlot, ContreeGameEvent.NONE, ContreeGameEvent.NONE, (int) handMask, (int) (handMask >>> 32));
     }
 
     void sendEndOfDealEvent(String dealId, Team winnerTeam, ContreeDealScore dealScore, boolean capot) {
-        dealObservers.forEach(cdo -> cdo.onEndOfDeal(dealId, winnerTeam, dealScore, capot));
+        sendEvent(dealObservers, ContreeDealObserver.class, END_OF_DEAL_EVENT, cdo -> cdo.onEndOfDeal(dealId, winnerTeam, dealScore, capot));
+        publish(ContreeEventType.DEAL_ENDED, null, ContreeGameEvent.NONE, ContreeGameEvent.NONE, winnerTeam instanceof ContreeTeam team ? team.ordinal() : ContreeGameEvent.NONE, capot ? 1 : 0);
+    }
+
+    void sendGameScoreUpdatedEvent(ContreeGameScore gameScore) {
+        sendEvent(dealObservers, ContreeDealObserver.class, GAME_SCORE_EVENT, cdo -> cdo.onGameScoreUpdated(gameScore));
+        publish(ContreeEventType.GAME_SCORE_UPDATED, null, ContreeGameEvent.NONE, ContreeGameEvent.NONE, gameScore.getTeamScore(ContreeTeam.TEAM1), gameScore.getTeamScore(ContreeTeam.TEAM2));
     }
 
     void sendPlacedBidEvent(String dealId, ContreeBid bid) {
-        dealObservers.forEach(cdo -> cdo.onPlacedBid(dealId, bid.player(), bid.bidValue(), bid.cardSuit()));
+        sendEvent(dealObservers, ContreeDealObserver.class, PLACED_BID_EVENT, cdo -> cdo.onPlacedBid(dealId, bid.player(), bid.bidValue(), bid.cardSuit()));
+        publish(ContreeEventType.BID_PLACED, bid.player(), ContreeGameEvent.NONE, ordinalOf(bid.cardSuit()), ordinalOf(bid.bidValue()), ContreeGameEvent.NONE);
     }
 
     void sendBidStepStartedEvent(String dealId) {
-        dealObservers.forEach(cdo -> cdo.onBidStepStarted(dealId));
+        sendEvent(dealObservers, ContreeDealObserver.class, BID_STEP_STARTED_EVENT, cdo -> cdo.onBidStepStarted(dealId));
+        publish(ContreeEventType.BID_STEP_STARTED);
     }
 
     void sendBidStepEndedEvent(String dealId) {
-        dealObservers.forEach(cdo -> cdo.onBidStepEnded(dealId));
+        sendEvent(dealObservers, ContreeDealObserver.class, BID_STEP_ENDED_EVENT, cdo -> cdo.onBidStepEnded(dealId));
+        publish(ContreeEventType.BID_STEP_ENDED);
     }
 
     void sendPlayStepStartedEvent(String dealId, CardSuit trumpSuit) {
-        dealObservers.forEach(cdo -> cdo.onPlayStepStarted(dealId, trumpSuit));
+        sendEvent(dealObservers, ContreeDealObserver.class, PLAY_STEP_STARTED_EVENT, cdo -> cdo.onPlayStepStarted(dealId, trumpSuit));
+        publish(ContreeEventType.PLAY_STEP_STARTED, null, ContreeGameEvent.NONE, ordinalOf(trumpSuit), ContreeGameEvent.NONE, ContreeGameEvent.NONE);
     }
 
     void sendPlayStepEndedEvent(String dealId) {
-        dealObservers.forEach(cdo -> cdo.onPlayStepEnded(dealId));
+        sendEvent(dealObservers, ContreeDealObserver.class, PLAY_STEP_ENDED_EVENT, cdo -> cdo.onPlayStepEnded(dealId));
+        publish(ContreeEventType.PLAY_STEP_ENDED);
+        trickNumber = ContreeGameEvent.NONE;
     }
 
     void sendTrumpedTrickEvent(String trickId) {
-        trickObservers.forEach(to -> to.onTrumpedTrick(trickId));
+        sendEvent(trickObservers, ContreeTrickObserver.class, TRUMPED_TRICK_EVENT, to -> to.onTrumpedTrick(trickId));
+        publish(ContreeEventType.TRICK_TRUMPED);
     }
 
     void sendNewTrickEvent(String trickId, CardSuit trumpSuit) {
-        trickObservers.forEach(to -> to.onNewTrick(trickId, trumpSuit));
+        trickNumber = trickNumber == ContreeGameEvent.NONE ? 1 : trickNumber + 1;
+        sendEvent(trickObservers, ContreeTrickObserver.class, NEW_TRICK_EVENT, to -> to.onNewTrick(trickId, trumpSuit));
+        publish(ContreeEventType.TRICK_STARTED, null, ContreeGameEvent.NONE, ordinalOf(trumpSuit), ContreeGameEvent.NONE, ContreeGameEvent.NONE);
     }
 
     void sendEndOfTrickEvent(String trickId, ContreePlayer winner) {
-        trickObservers.forEach(to -> to.onEndOfTrick(trickId, winner));
+        sendEvent(trickObservers, ContreeTrickObserver.class, END_OF_TRICK_EVENT, to -> to.onEndOfTrick(trickId, winner));
+        publish(ContreeEventType.TRICK_ENDED, winner, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
     }
 
     void sendJoinedGameEvent(ContreeGame game, int playerIndex, ContreePlayer player) {
-        gameObservers.forEach(go -> go.onJoinedGame(game, playerIndex, player));
+        sendEvent(gameObservers, GameObserver.class, JOINED_GAME_EVENT, go -> go.onJoinedGame(game, playerIndex, player));
+        publish(ContreeEventType.PLAYER_JOINED, player, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
     }
 
 }
@@ -0,0 +1,19 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * How the commands of the players (join, leave, bid, play) are serialized on a game.
+ */
+public enum ContreeGameExecutionMode {
+
+    /**
+     * Commands run in the calling thread, under a lock owned by the game. Errors are thrown to the caller.
+     */
+    LOCK,
+
+    /**
+     * Commands are posted in a mailbox owned by the game, drained by a pool shared by all the games.
+     * The callers never wait for the game: errors are logged, as no caller is waiting for them.
+     */
+    MAILBOX
+
+}
@@ -0,0 +1,244 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Hosts many contree games in the same process, indexed by game id, and routes the player commands to them.
+ *
+ * Games are spread on several registry shards by game id, so that creating and evicting games in many threads do not contend on the same map.
+ * When a game ends, it is evicted from the registry and only its {@link ContreeGameSummary} is kept.
+ * The number of kept summaries is bounded, the oldest ones are dropped first: the memory used by the host does not grow with the number of played games.
+ */
+public class ContreeGameHost {
+
+    public static final int DEFAULT_NB_SHARDS = 16;
+
+    public static final int DEFAULT_MAX_NB_SUMMARIES = 10_000;
+
+    public static final int DEFAULT_RECOVERY_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private final ContreeGameConfig gameConfig;
+
+    private final Map<String, ContreeGame>[] shards;
+
+    private final int shardMask;
+
+    private final Map<String, ContreeGameSummary> summaries = new ConcurrentHashMap<>();
+
+    private final Queue<String> summaryIds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger nbSummaries = new AtomicInteger();
+
+    private final int maxNbSummaries;
+
+    private final LongAdder nbEvictedGames = new LongAdder();
+
+    private final EndOfGameObserver evictionObserver = new EndOfGameObserver(this::evictGame);
+
+    public ContreeGameHost(ContreeGameConfig gameConfig) {
+        this(gameConfig, DEFAULT_NB_SHARDS, DEFAULT_MAX_NB_SUMMARIES);
+    }
+
+    /**
+     * @param gameConfig configuration of the hosted games
+     * @param nbShards number of registry shards, a power of 2
+     * @param maxNbSummaries maximum number of summaries of evicted games kept by the host
+     */
+    @SuppressWarnings("unchecked")
+    public ContreeGameHost(ContreeGameConfig gameConfig, int nbShards, int maxNbSummaries) {
+        if (nbShards <= 0 || Integer.bitCount(nbShards) != 1) {
+            throw new IllegalArgumentException(String.format("The number of shards must be a power of 2, got %d", nbShards));
+        }
+        if (maxNbSummaries < 0) {
+            throw new IllegalArgumentException(String.format("The maximum number of summaries cannot be negative, got %d", maxNbSummaries));
+        }
+        this.gameConfig = gameConfig;
+        this.shards = new Map[nbShards];
+        for (int i = 0; i < nbShards; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = nbShards - 1;
+        this.maxNbSummaries = maxNbSummaries;
+    }
+
+    /**
+     * Creates a game, waiting for players, and registers it in the host until its end.
+     */
+    public ContreeGame createGame() {
+        ContreeGame game = ContreeGameBuilder.createGame(gameConfig);
+        hostGame(game);
+        return game;
+    }
+
+    /**
+     * Recovers the games which were not over when the host was stopped, from their event logs, see {@link ContreeGameConfig#getEventLogDirectory()}.
+     * The logs are replayed by {@link #DEFAULT_RECOVERY_PARALLELISM} threads, and the recovered games are hosted as the created ones.
+     *
+     * @return the number of recovered games
+     * @throws IllegalStateException if no event log directory is configured
+     * @throws IOException if an event log cannot be read
+     */
+    public int recoverGames() throws IOException {
+        return recoverGames(DEFAULT_RECOVERY_PARALLELISM);
+    }
+
+    /**
+     * Recovers the games which were not over, replaying their logs on a pool of <code>parallelism</code> threads.
+     * The event logs of the recovered games are written by the threads of {@link ContreeGameConfig#getEventLogWriter()}, whatever the number of games.
+     *
+     * @return the number of recovered games
+     * @throws IllegalStateException if no event log directory is configured
+     * @throws IOException if an event log cannot be read
+     */
+    public int recoverGames(int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be at least 1, got %d", parallelism));
+        }
+        Path logDirectory = gameConfig.getEventLogDirectory().orElseThrow(() -> new IllegalStateException("No event log directory is configured"));
+        Queue<Path> gameLogDirectories;
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            gameLogDirectories = files.filter(Files::isDirectory).collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+        }
+        AtomicInteger nbRecoveredGames = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<?>> workers = new ArrayList<>(parallelism);
+            for (int i = 0 ; i < parallelism ; i++) {
+                workers.add(executor.submit(() -> {
+                    Path gameLogDirectory;
+                    while ((gameLogDirectory = gameLogDirectories.poll()) != null) {
+                        if (ContreeGameReplayer.recover(gameLogDirectory, gameConfig, this::hostGame).isPresent()) {
+                            nbRecoveredGames.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("A game could not be recovered", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while recovering the games", e);
+        }
+        return nbRecoveredGames.get();
+    }
+
+    private void hostGame(ContreeGame game) {
+        game.registerAsGameObserver(evictionObserver);
+        shard(game.getGameId()).put(game.getGameId(), game);
+    }
+
+    /**
+     * @return the game, if it is hosted and not over
+     */
+    public Optional<ContreeGame> getGame(String gameId) {
+        return Optional.ofNullable(shard(gameId).get(gameId));
+    }
+
+    /**
+     * @return the summary of the evicted game, if it is still kept by the host
+     */
+    public Optional<ContreeGameSummary> getSummary(String gameId) {
+        return Optional.ofNullable(summaries.get(gameId));
+    }
+
+    public void joinGame(String gameId, ContreePlayer player) {
+        hostedGame(gameId).joinGame(player);
+    }
+
+    public void leaveGame(String gameId, ContreePlayer player) {
+        hostedGame(gameId).leaveGame(player);
+    }
+
+    public void placeBid(String gameId, ContreePlayer player, ContreeBidValue bidValue, CardSuit cardSuit) {
+        hostedGame(gameId).placeBid(player, bidValue, cardSuit);
+    }
+
+    public void playCard(String gameId, ContreePlayer player, ClassicalCard card) {
+        hostedGame(gameId).playCard(player, card);
+    }
+
+    public int getNbHostedGames() {
+        int nbGames = 0;
+        for (Map<String, ContreeGame> shard : shards) {
+            nbGames += shard.size();
+        }
+        return nbGames;
+    }
+
+    public long getNbEvictedGames() {
+        return nbEvictedGames.sum();
+    }
+
+    ContreeGameConfig getGameConfig() {
+        return gameConfig;
+    }
+
+    private ContreeGame hostedGame(String gameId) {
+        ContreeGame game = shard(gameId).get(gameId);
+        if (game != null) {
+            return game;
+        }
+        if (summaries.containsKey(gameId)) {
+            throw new IllegalStateException(String.format("Game %s is over", gameId));
+        }
+        throw new IllegalArgumentException(String.format("Unknown game %s", gameId));
+    }
+
+    private Map<String, ContreeGame> shard(String gameId) {
+        int hash = gameId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    private void evictGame(ContreeGame game) {
+        if (shard(game.getGameId()).remove(game.getGameId()) == null) {
+            return;
+        }
+        nbEvictedGames.increment();
+        archiveSummary(ContreeGameSummary.of(game));
+    }
+
+    private void archiveSummary(ContreeGameSummary summary) {
+        if (maxNbSummaries == 0) {
+            return;
+        }
+        summaries.put(summary.gameId(), summary);
+        summaryIds.add(summary.gameId());
+        if (nbSummaries.incrementAndGet() > maxNbSummaries) {
+            String oldestGameId = summaryIds.poll();
+            if (oldestGameId != null) {
+                summaries.remove(oldestGameId);
+                nbSummaries.decrementAndGet();
+            }
+        }
+    }
+
+}
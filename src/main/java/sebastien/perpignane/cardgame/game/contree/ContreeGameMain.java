@@ -6,15 +6,25 @@ import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.ParseResult;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 import sebastien.perpignane.cardgame.game.GameTextDisplayer;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
 import sebastien.perpignane.cardgame.player.contree.handlers.BiddingBotEventHandler;
 import sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler;
 import sebastien.perpignane.cardgame.player.contree.handlers.ContreeLocalPlayerEventHandler;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
 
 import static java.lang.System.*;
 
@@ -34,7 +44,15 @@ public class ContreeGameMain {
 
         if (!CommandLine.printHelpIfRequested(parseResult)) {
             try {
-                startGame(cliContreeGameConfig);
+                if (cliContreeGameConfig.getNbDuplicateBoards() > 0) {
+                    runDuplicateSimulation(cliContreeGameConfig);
+                }
+                else if (cliContreeGameConfig.getNbSimulatedGames() > 0) {
+                    simulateGames(cliContreeGameConfig);
+                }
+                else {
+                    startGame(cliContreeGameConfig);
+                }
             }
             catch(Exception e) {
                 log.error("Game session failed", e);
@@ -44,7 +62,7 @@ public class ContreeGameMain {
 
     }
 
-    private static void startGame(CliContreeGameConfig cliContreeGameConfig) {
+    private static void startGame(CliContreeGameConfig cliContreeGameConfig) throws InterruptedException {
 
         int maxScore = cliContreeGameConfig.getMaxScore();
         boolean onlyBots = cliContreeGameConfig.isOnlyBots();
@@ -58,22 +76,27 @@ public class ContreeGameMain {
             game = ContreeGameBuilder.createGame(cliContreeGameConfig);
 
             game.registerAsGameObserver(GameTextDisplayer.getInstance());
+            CountDownLatch endOfGame = new CountDownLatch(1);
+            game.registerAsGameObserver(new EndOfGameObserver(g -> endOfGame.countDown()));
 
             int i = 0;
             while (i < 3) {
-                game.joinGame(createBotPlayer(i));
+                game.joinGame(createBotPlayer(i, cliContreeGameConfig.getBotThreadFactory()));
                 i++;
             }
 
             sebastien.perpignane.cardgame.player.contree.ContreePlayer lastPlayer;
             if (onlyBots) {
-                lastPlayer = new ContreePlayerImpl("*Player 4*", new BiddingBotEventHandler());
+                lastPlayer = new ContreePlayerImpl("*Player 4*", new BiddingBotEventHandler(cliContreeGameConfig.getBotThreadFactory()));
             }
             else {
                 lastPlayer = manageHumanPlayer(cliContreeGameConfig.getPlayerName());
             }
 
             game.joinGame(lastPlayer);
+
+            // In mailbox mode, the game is played by daemon threads of the scheduler
+            endOfGame.await();
         }
         catch(Exception e) {
             if (game != null) {
@@ -83,9 +106,97 @@ public class ContreeGameMain {
         }
     }
 
-    private static ContreePlayer createBotPlayer(int playerIdx) {
+    private static void simulateGames(CliContreeGameConfig cliContreeGameConfig) throws IOException {
+
+        OptionalInt dealPoolCapacity = cliContreeGameConfig.getDealPoolCapacity();
+        if (dealPoolCapacity.isEmpty()) {
+            archiveSimulatedDeals(cliContreeGameConfig);
+            return;
+        }
+
+        try (ContreeDealPool dealPool = new ContreeDealPool(cliContreeGameConfig.getDistributionConfiguration(), dealPoolCapacity.getAsInt(), new SplittableCardSetShuffler())) {
+            cliContreeGameConfig.setDealPool(dealPool);
+            archiveSimulatedDeals(cliContreeGameConfig);
+        }
+
+    }
+
+    private static void archiveSimulatedDeals(CliContreeGameConfig cliContreeGameConfig) throws IOException {
+
+        Optional<Path> dealArchiveDirectory = cliContreeGameConfig.getDealArchiveDirectory();
+        if (dealArchiveDirectory.isEmpty()) {
+            writeSimulatedTrajectories(cliContreeGameConfig);
+            return;
+        }
+
+        try (ContreeDealArchive dealArchive = new ContreeDealArchive(dealArchiveDirectory.get())) {
+            long nbArchivedDeals = dealArchive.size();
+            cliContreeGameConfig.setDealArchive(dealArchive);
+            writeSimulatedTrajectories(cliContreeGameConfig);
+            out.printf("%d deals archived in %s%n", dealArchive.size() - nbArchivedDeals, dealArchive.getDirectory());
+        }
+
+    }
+
+    private static void writeSimulatedTrajectories(CliContreeGameConfig cliContreeGameConfig) throws IOException {
+
+        Optional<Path> trajectoryDirectory = cliContreeGameConfig.getTrajectoryDirectory();
+        if (trajectoryDirectory.isEmpty()) {
+            runSimulation(cliContreeGameConfig);
+            return;
+        }
+
+        ContreeTrajectoryWriter trajectoryWriter = new ContreeTrajectoryWriter(
+                trajectoryDirectory.get(),
+                ContreeTrajectoryWriter.DEFAULT_SHARD_SIZE,
+                ContreeTrajectoryWriter.DEFAULT_RECORDS_BY_BLOCK,
+                true,
+                cliContreeGameConfig.getNbTrajectoryWriters()
+        );
+        try (trajectoryWriter) {
+            cliContreeGameConfig.setTrajectoryWriter(trajectoryWriter);
+            runSimulation(cliContreeGameConfig);
+        }
+        out.printf("%d decisions written in %s, %d MB, the game threads waited %d times for the writers%n",
+                trajectoryWriter.getNbRecords(), trajectoryWriter.getDirectory(), trajectoryWriter.getNbWrittenBytes() / (1024 * 1024), trajectoryWriter.getNbWaits());
+
+    }
+
+    private static void runSimulation(CliContreeGameConfig cliContreeGameConfig) {
+
+        int nbGames = cliContreeGameConfig.getNbSimulatedGames();
+        int parallelism = cliContreeGameConfig.getParallelism();
+        long seed = cliContreeGameConfig.getSeed();
+
+        out.printf("Simulating %d games on %d threads. Max score is %d, seed is %d%n", nbGames, parallelism, cliContreeGameConfig.getMaxScore(), seed);
+
+        SimulationReport report = new ContreeSimulationRunner(cliContreeGameConfig, parallelism, seed).run(nbGames);
+
+        out.println(report);
+
+    }
+
+    private static void runDuplicateSimulation(CliContreeGameConfig cliContreeGameConfig) {
+
+        int nbBoards = cliContreeGameConfig.getNbDuplicateBoards();
+        int parallelism = cliContreeGameConfig.getParallelism();
+        long seed = cliContreeGameConfig.getSeed();
+
+        out.printf("Playing %d duplicate boards on %d threads, a bot always bidding 80 HEART in team A, bots always passing otherwise. Seed is %d%n", nbBoards, parallelism, seed);
+
+        DuplicateReport report = new ContreeDuplicateRunner(
+                cliContreeGameConfig, parallelism, seed,
+                List.of(BiddingBotStrategy::new, RandomCardBotStrategy::new),
+                List.of(RandomCardBotStrategy::new, RandomCardBotStrategy::new)
+        ).run(nbBoards);
+
+        out.println(report);
+
+    }
+
+    private static ContreePlayer createBotPlayer(int playerIdx, ThreadFactory threadFactory) {
         String playerName = String.format("Player %d", playerIdx + 1);
-        return new ContreePlayerImpl(playerName, new ContreeBotPlayerEventHandler());
+        return new ContreePlayerImpl(playerName, new ContreeBotPlayerEventHandler(RandomCardBotStrategy::new, threadFactory));
     }
 
     private static ContreePlayer manageHumanPlayer(String humanPlayerName) {
@@ -112,6 +223,39 @@ class CliContreeGameConfig implements ContreeGameConfig {
     @Option(names = {"--only-bots"}, defaultValue = "false", description = "4 bots play a game")
     private boolean onlyBots = false;
 
+    @Option(names = {"--simulate"}, paramLabel = "<games>", description = "Simulate this number of bot-only games, without display, and print statistics")
+    private int nbSimulatedGames = 0;
+
+    @Option(names = {"--duplicate"}, paramLabel = "<boards>", description = "Play this number of duplicate boards, each deal at two tables with the seats of the teams swapped, and print the score deltas of a team with a bot always bidding 80 HEART against a team of bots always passing")
+    private int nbDuplicateBoards = 0;
+
+    @Option(names = {"--parallelism"}, paramLabel = "<n>", description = "Number of threads simulating games. Defaults to the number of available processors")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = {"--seed"}, paramLabel = "<s>", description = "Seed of the simulated deals and bots decisions. Random by default")
+    private Long seed;
+
+    @Option(names = {"--execution-mode"}, paramLabel = "<mode>", description = "How player commands are serialized on the game: ${COMPLETION-CANDIDATES}. Defaults to ${DEFAULT-VALUE}")
+    private ContreeGameExecutionMode executionMode = ContreeGameExecutionMode.LOCK;
+
+    @Option(names = {"--deal-archive"}, paramLabel = "<dir>", description = "Archive the deals of the simulated games in this directory")
+    private Path dealArchiveDirectory;
+
+    private ContreeDealArchive dealArchive;
+
+    @Option(names = {"--deal-pool"}, paramLabel = "<deals>", description = "Take the deals of the simulated games from a pool of this number of deals, shuffled and dealt in advance by a background thread. The deals then do not depend on the seed")
+    private Integer dealPoolCapacity;
+
+    private ContreeDealPool dealPool;
+
+    @Option(names = {"--trajectories"}, paramLabel = "<dir>", description = "Write every decision of the bots of the simulated games in LZ4 compressed shards of this directory, for training")
+    private Path trajectoryDirectory;
+
+    @Option(names = {"--trajectory-writers"}, paramLabel = "<n>", description = "Number of threads compressing and writing the trajectories. Defaults to ${DEFAULT-VALUE}")
+    private int nbTrajectoryWriters = 1;
+
+    private ContreeTrajectoryWriter trajectoryWriter;
+
     @CommandLine.Parameters(arity = "0..1")
     private String playerName = "";
 
@@ -132,4 +276,79 @@ class CliContreeGameConfig implements ContreeGameConfig {
     public String getPlayerName() {
         return playerName;
     }
+
+    public int getNbSimulatedGames() {
+        return nbSimulatedGames;
+    }
+
+    public int getNbDuplicateBoards() {
+        return nbDuplicateBoards;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getSeed() {
+        if (seed == null) {
+            seed = new Random().nextLong();
+        }
+        return seed;
+    }
+
+    public Optional<Path> getDealArchiveDirectory() {
+        return Optional.ofNullable(dealArchiveDirectory);
+    }
+
+    void setDealArchive(ContreeDealArchive dealArchive) {
+        this.dealArchive = dealArchive;
+    }
+
+    @Override
+    public Optional<ContreeDealArchive> getDealArchive() {
+        return Optional.ofNullable(dealArchive);
+    }
+
+    public OptionalInt getDealPoolCapacity() {
+        return dealPoolCapacity == null ? OptionalInt.empty() : OptionalInt.of(dealPoolCapacity);
+    }
+
+    void setDealPool(ContreeDealPool dealPool) {
+        this.dealPool = dealPool;
+    }
+
+    @Override
+    public Optional<ContreeDealPool> getDealPool() {
+        return Optional.ofNullable(dealPool);
+    }
+
+    public Optional<Path> getTrajectoryDirectory() {
+        return Optional.ofNullable(trajectoryDirectory);
+    }
+
+    public int getNbTrajectoryWriters() {
+        return nbTrajectoryWriters;
+    }
+
+    void setTrajectoryWriter(ContreeTrajectoryWriter trajectoryWriter) {
+        this.trajectoryWriter = trajectoryWriter;
+    }
+
+    @Override
+    public Optional<ContreeTrajectoryWriter> getTrajectoryWriter() {
+        return Optional.ofNullable(trajectoryWriter);
+    }
+
+    @Override
+    public ContreeGameExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Virtual threads are daemon threads: the bots of the game run on platform threads, so that the JVM stays alive until the end of the game.
+     */
+    @Override
+    public ThreadFactory getBotThreadFactory() {
+        return Thread.ofPlatform().factory();
+    }
 }
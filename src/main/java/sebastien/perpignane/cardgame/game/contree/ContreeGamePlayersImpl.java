@@ -9,31 +9,65 @@ import sebastien.perpignane.cardgame.player.util.PlayerSlot;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 class ContreeGamePlayersImpl implements ContreeGamePlayers {
 
+    /**
+     * Serializes joins and replacements. A lock rather than synchronized methods, so that virtual bot threads waiting for it do not pin their carrier thread.
+     */
+    private final Lock lock = new ReentrantLock();
+
     private final ContreeGamePlayerSlots playerSlots = new ContreeGamePlayerSlots();
 
     private volatile int nbPlayers = 0;
 
-    public synchronized JoinGameResult joinGame(final ContreePlayer joiningPlayer, final ContreeTeam wantedTeam) {
+    private final ThreadFactory botThreadFactory;
+
+    ContreeGamePlayersImpl() {
+        this(Thread.ofVirtual().factory());
+    }
+
+    /**
+     * @param botThreadFactory creates the threads of the bots replacing leaving players
+     */
+    ContreeGamePlayersImpl(ThreadFactory botThreadFactory) {
+        this.botThreadFactory = botThreadFactory;
+    }
+
+    public JoinGameResult joinGame(final ContreePlayer joiningPlayer, final ContreeTeam wantedTeam) {
 
         Objects.requireNonNull(joiningPlayer, "joiningPlayer cannot be null");
 
+        lock.lock();
+        try {
+            return joinGameLocked(joiningPlayer, wantedTeam);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private JoinGameResult joinGameLocked(final ContreePlayer joiningPlayer, final ContreeTeam wantedTeam) {
+
         throwsExceptionIfPlayerAlreadyJoined(joiningPlayer);
 
         Optional<ContreePlayer> replacedPlayer = Optional.empty();
 
         boolean wantedTeamIsFull = wantedTeamIsFull(wantedTeam);
 
-        var eligibleSlots = playerSlots.stream()
-                .filter(ps -> wantedTeam == null || teamByPlayerIndex(ps.getSlotNumber()) == wantedTeam)
-                .toList();
-
         boolean successfulJoin = false;
         int playerIndex = -1;
 
-        for (PlayerSlot<ContreePlayer> currentSlot : eligibleSlots) {
+        for (int slotIndex = 0; slotIndex < playerSlots.size(); slotIndex++) {
+
+            if (wantedTeam != null && teamByPlayerIndex(slotIndex) != wantedTeam) {
+                continue;
+            }
+
+            PlayerSlot<ContreePlayer> currentSlot = playerSlots.getSlot(slotIndex);
 
             boolean currentSlotIsJoinable;
 
@@ -86,19 +120,30 @@ class ContreeGamePlayersImpl implements ContreeGamePlayers {
             return isFull();
         }
 
-        return playerSlots.stream().filter(ps -> ps.getPlayer().isPresent()
-                && ps.getPlayer().get().getTeam().isPresent()
-                && ps.getPlayer().get().getTeam().get() == wantedTeam).toList().size() == 2;
+        int nbTeamPlayers = 0;
+        for (int slotIndex = 0; slotIndex < playerSlots.size(); slotIndex++) {
+            ContreePlayer player = playerSlots.getSlot(slotIndex).getPlayerOrNull();
+            if (player != null && player.getTeam().isPresent() && player.getTeam().get() == wantedTeam) {
+                nbTeamPlayers++;
+            }
+        }
+        return nbTeamPlayers == 2;
     }
 
     @Override
-    public synchronized ContreePlayer leaveGameAndReplaceWithBotPlayer(ContreePlayer player) {
+    public ContreePlayer leaveGameAndReplaceWithBotPlayer(ContreePlayer player) {
         if (player.isBot()) {
             throw new IllegalArgumentException("WTF ? A bot wants to leave the game ?");
         }
-        ContreePlayer newBotPlayer = ContreePlayerFactory.createBotPlayer(player.getName());
-        replacePlayer(player, newBotPlayer);
-        return newBotPlayer;
+        lock.lock();
+        try {
+            ContreePlayer newBotPlayer = ContreePlayerFactory.createBotPlayer(player.getName(), botThreadFactory);
+            replacePlayer(player, newBotPlayer);
+            return newBotPlayer;
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     private void replacePlayer(ContreePlayer replacedPlayer, ContreePlayer newPlayer) {
@@ -114,7 +159,7 @@ class ContreeGamePlayersImpl implements ContreeGamePlayers {
         assignTeamToPlayer(playerIndex);
     }
 
-    public synchronized JoinGameResult joinGame(ContreePlayer joiningPlayer) {
+    public JoinGameResult joinGame(ContreePlayer joiningPlayer) {
         return joinGame(joiningPlayer, null);
     }
 
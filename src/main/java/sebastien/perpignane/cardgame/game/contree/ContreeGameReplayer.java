@@ -0,0 +1,149 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds a game interrupted by an unclean shutdown from its {@link ContreeEventLog}, so that it goes on where it was.
+ *
+ * The recorded joins, bids and played cards are run again in trusted replay mode, see {@link ContreeGame#replay(Runnable, long)}.
+ * Recorded players are replaced by bots: humans can take their place by joining the game.
+ * The deals are dealt as recorded by the {@link ContreeEventType#HAND_DEALT} events.
+ */
+class ContreeGameReplayer implements ContreeGameEventListener {
+
+    private static final ContreeBidValue[] BID_VALUES = ContreeBidValue.values();
+
+    private static final CardSuit[] CARD_SUITS = CardSuit.values();
+
+    private final Queue<long[]> handsByDeal = new ArrayDeque<>();
+
+    private final List<ContreeGameEvent> commands = new ArrayList<>();
+
+    private long[] currentDealHands;
+
+    private int nbJoinedPlayers = 0;
+
+    private boolean gameEnded = false;
+
+    private ContreeGameReplayer() {
+    }
+
+    /**
+     * @param gameLogDirectory the directory of the event log of the game, named with the game id
+     * @param beforeReplay called with the recovered game before the replay, for example to register observers
+     * @return the recovered game, empty if the game was over or never started to be recorded
+     */
+    static Optional<ContreeGame> recover(Path gameLogDirectory, ContreeGameConfig gameConfig, Consumer<ContreeGame> beforeReplay) throws IOException {
+        ContreeGameReplayer replayer = new ContreeGameReplayer();
+        long lastSequence = ContreeEventLogReader.read(gameLogDirectory, replayer);
+        if (replayer.gameEnded || replayer.nbJoinedPlayers == 0) {
+            return Optional.empty();
+        }
+        ContreeGame game = ContreeGameBuilder.createGame(
+                gameConfig,
+                ContreeGameBuilder.createCommandExecutor(gameConfig),
+                gameLogDirectory.getFileName().toString(),
+                new RecordedCardDealer(gameConfig.getDistributionConfiguration(), replayer.handsByDeal)
+        );
+        beforeReplay.accept(game);
+        game.replay(() -> replayer.runCommands(game, gameConfig), lastSequence);
+        return Optional.of(game);
+    }
+
+    @Override
+    public void onEvent(ContreeGameEvent event) {
+        switch (event.type()) {
+            case PLAYER_JOINED -> {
+                // Later joins replace players, who are all bots once recovered
+                if (nbJoinedPlayers < ContreePlayers.NB_PLAYERS) {
+                    nbJoinedPlayers++;
+                    commands.add(event);
+                }
+            }
+            case DEAL_STARTED -> {
+                currentDealHands = new long[ContreePlayers.NB_PLAYERS];
+                handsByDeal.add(currentDealHands);
+            }
+            case HAND_DEALT -> currentDealHands[event.playerSlot()] = ((long) event.otherValue() << Integer.SIZE) | (event.value() & 0xFFFFFFFFL);
+            case BID_PLACED, CARD_PLAYED -> commands.add(event);
+            case GAME_ENDED -> gameEnded = true;
+            default -> {
+                // Other events are consequences of the commands
+            }
+        }
+    }
+
+    private void runCommands(ContreeGame game, ContreeGameConfig gameConfig) {
+        List<ContreePlayer> players = null;
+        for (ContreeGameEvent command : commands) {
+            switch (command.type()) {
+                case PLAYER_JOINED -> game.joinGameCommand(ContreePlayerFactory.createBotPlayer(String.valueOf(command.playerSlot() + 1), gameConfig.getBotThreadFactory()));
+                case BID_PLACED -> {
+                    players = players == null ? game.getPlayers() : players;
+                    CardSuit suit = command.suit() == ContreeGameEvent.NONE ? null : CARD_SUITS[command.suit()];
+                    game.placeBidCommand(players.get(command.playerSlot()), BID_VALUES[command.value()], suit);
+                }
+                case CARD_PLAYED -> {
+                    players = players == null ? game.getPlayers() : players;
+                    game.playCardCommand(players.get(command.playerSlot()), CardMask.card(command.card()));
+                }
+                default -> throw new IllegalStateException(String.format("Unexpected recorded command: %s", command.type()));
+            }
+        }
+    }
+
+    /**
+     * Deals the recorded hands, then deals the shuffled cards as usual once the recorded deals are over
+     */
+    static class RecordedCardDealer extends CardDealer {
+
+        private final Queue<long[]> handsByDeal;
+
+        RecordedCardDealer(List<Integer> distributeConfiguration, Queue<long[]> handsByDeal) {
+            super(distributeConfiguration);
+            this.handsByDeal = handsByDeal;
+        }
+
+        @Override
+        public List<List<ClassicalCard>> dealCards(List<ClassicalCard> cards, int nbPlayers) {
+            long[] hands = handsByDeal.poll();
+            if (hands == null || hands.length != nbPlayers || !isComplete(hands, cards.size())) {
+                return super.dealCards(cards, nbPlayers);
+            }
+            List<List<ClassicalCard>> handByPlayer = new ArrayList<>(nbPlayers);
+            for (long hand : hands) {
+                handByPlayer.add(new ArrayList<>(CardMask.toList(hand)));
+            }
+            return handByPlayer;
+        }
+
+        /**
+         * @return false if the crash happened before all the hands of the deal were recorded
+         */
+        private static boolean isComplete(long[] hands, int nbCards) {
+            long allCards = CardMask.EMPTY;
+            int nbDealtCards = 0;
+            for (long hand : hands) {
+                allCards |= hand;
+                nbDealtCards += CardMask.size(hand);
+            }
+            return nbDealtCards == nbCards && CardMask.size(allCards) == nbCards;
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.game.GameStatus;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+/**
+ * What remains of a game once it is evicted from {@link ContreeGameHost}: a few values instead of the players, deals and tricks of the game.
+ *
+ * @param gameId id of the game
+ * @param status status of the game when it was evicted, not over when the end of the game was forced
+ * @param winner the team who won the game, null when the end of the game was forced
+ * @param team1Score final score of the team 1
+ * @param team2Score final score of the team 2
+ * @param nbDeals number of deals of the game
+ */
+public record ContreeGameSummary(
+        String gameId,
+        GameStatus status,
+        ContreeTeam winner,
+        int team1Score,
+        int team2Score,
+        int nbDeals
+) {
+
+    static ContreeGameSummary of(ContreeGame game) {
+        var gameScore = game.getGameScore();
+        return new ContreeGameSummary(
+                game.getGameId(),
+                game.getStatus(),
+                game.getWinner().orElse(null),
+                gameScore.getTeamScore(ContreeTeam.TEAM1),
+                gameScore.getTeamScore(ContreeTeam.TEAM2),
+                game.getNbDeals()
+        );
+    }
+
+}
@@ -0,0 +1,104 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matchmaking lobby gathering waiting players into tables of 4, then starting a game of {@link ContreeGameHost} for each full table.
+ *
+ * Joining the lobby never takes a lock: a player claims a seat of an open table with a compare-and-set, or opens a new table.
+ * When a table is not full after the bot fill timeout, its free seats are given to bots.
+ * The players of a table join its game in seat order, so that they play in the team they wanted.
+ */
+public class ContreeLobby {
+
+    private final ContreeGameHost host;
+
+    private final Duration botFillTimeout;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Queue<LobbyTable> openTables = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param host host of the games of the full tables
+     * @param botFillTimeout time after which the free seats of a table are given to bots
+     * @param scheduler runs the bot fills
+     */
+    public ContreeLobby(ContreeGameHost host, Duration botFillTimeout, ScheduledExecutorService scheduler) {
+        this.host = host;
+        this.botFillTimeout = botFillTimeout;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<ContreeGame> join(ContreePlayer player) {
+        return join(player, null);
+    }
+
+    /**
+     * @param player the waiting player
+     * @param wantedTeam the team the player wants to play in, null if any team is fine
+     * @return the game of the table of the player, completed when the table is full
+     */
+    public CompletableFuture<ContreeGame> join(ContreePlayer player, ContreeTeam wantedTeam) {
+        Objects.requireNonNull(player, "player cannot be null");
+
+        Iterator<LobbyTable> tableIterator = openTables.iterator();
+        while (tableIterator.hasNext()) {
+            LobbyTable table = tableIterator.next();
+            if (table.isFull()) {
+                tableIterator.remove();
+            }
+            else if (table.claimSeat(player, wantedTeam)) {
+                return table.getGame();
+            }
+        }
+
+        // Nobody else can claim a seat of the new table before it is published, so the player always gets a seat
+        LobbyTable newTable = new LobbyTable(this::launch);
+        newTable.claimSeat(player, wantedTeam);
+        openTables.add(newTable);
+        newTable.setBotFill(
+                scheduler.schedule(() -> newTable.fillWithBots(host.getGameConfig().getBotThreadFactory()), botFillTimeout.toNanos(), TimeUnit.NANOSECONDS)
+        );
+        return newTable.getGame();
+    }
+
+    /**
+     * @return the number of tables waiting for players
+     */
+    public int getNbOpenTables() {
+        int nbOpenTables = 0;
+        for (LobbyTable table : openTables) {
+            if (!table.isFull()) {
+                nbOpenTables++;
+            }
+        }
+        return nbOpenTables;
+    }
+
+    private void launch(LobbyTable table) {
+        openTables.remove(table);
+        table.cancelBotFill();
+        try {
+            ContreeGame game = host.createGame();
+            for (int seat = 0; seat < ContreePlayers.NB_PLAYERS; seat++) {
+                game.joinGame(table.getPlayer(seat));
+            }
+            table.getGame().complete(game);
+        }
+        catch (RuntimeException e) {
+            table.getGame().completeExceptionally(e);
+        }
+    }
+
+}
@@ -0,0 +1,347 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Perfect information Monte Carlo search of the card to play: layouts of the cards the player cannot see are sampled,
+ * consistently with the play seen by a {@link ContreePlayTracker}, and each allowed card is evaluated on each layout
+ * by a {@link ContreeDoubleDummySolver}: the points the team of the player secures after the card when all the hands are known.
+ * The card with the best average points for the team of the player wins.
+ *
+ * Layouts are evaluated by the tasks of a fork-join pool, each layout with its own random generator seeded before the search,
+ * so that a search is reproduced from the random generator of the player when the move budget is not reached.
+ * Each worker thread solves with its own solver, whose transposition table is kept from a layout to the next, and from a search to the next.
+ * Once the move budget is spent, the layouts not evaluated yet are skipped, and the solves in progress are given up:
+ * a search lasts the move budget at most, whatever the time a solve takes.
+ * A solve takes a few milliseconds once some tricks are played, but the full deal of the first trick may take longer than the whole budget,
+ * see {@link ContreeDoubleDummySolver}. When no layout is solved in time, the cards are evaluated on the first layout by a bounded play out,
+ * see {@link ContreeDoubleDummySolver#playOutCards(CardSuit, long[], int, int[], int)}.
+ *
+ * A search is thread safe and can be shared by many bots.
+ */
+public final class ContreePimcSearch {
+
+    public static final int DEFAULT_NB_LAYOUTS = 64;
+
+    public static final Duration DEFAULT_MOVE_BUDGET = Duration.ofMillis(150);
+
+    /**
+     * Number of layouts evaluated by a single task of a search
+     */
+    private static final int LAYOUTS_BY_TASK = 4;
+
+    private static final int MAX_SAMPLING_ATTEMPTS = 1_000;
+
+    private static final long ALL_CARDS = CardSet.GAME_32.getGameCardsMask();
+
+    private static final RandomGeneratorFactory<RandomGenerator> LAYOUT_RANDOM_FACTORY = RandomGeneratorFactory.of(SplittableCardSetShuffler.ALGORITHM);
+
+    /**
+     * Solver of each worker thread, shared by all the searches: a solver is not thread safe
+     */
+    private static final ThreadLocal<ContreeDoubleDummySolver> SOLVERS = ThreadLocal.withInitial(ContreeDoubleDummySolver::new);
+
+    private final int nbLayouts;
+
+    private final long moveBudgetNanos;
+
+    private final ForkJoinPool pool;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * Search of {@link #DEFAULT_NB_LAYOUTS} layouts within {@link #DEFAULT_MOVE_BUDGET}, on the common pool
+     */
+    public ContreePimcSearch() {
+        this(DEFAULT_NB_LAYOUTS, DEFAULT_MOVE_BUDGET, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param nbLayouts number of layouts sampled by search
+     * @param moveBudget duration after which no layout is evaluated anymore
+     * @param pool the pool evaluating the layouts
+     */
+    public ContreePimcSearch(int nbLayouts, Duration moveBudget, ForkJoinPool pool) {
+        this(nbLayouts, moveBudget, pool, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the clock of the move budget, {@link System#nanoTime()} out of the tests
+     */
+    ContreePimcSearch(int nbLayouts, Duration moveBudget, ForkJoinPool pool, LongSupplier nanoClock) {
+        if (nbLayouts < 1) {
+            throw new IllegalArgumentException(String.format("At least 1 layout is required, got %d", nbLayouts));
+        }
+        this.nbLayouts = nbLayouts;
+        this.moveBudgetNanos = moveBudget.toNanos();
+        this.pool = pool;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param tracker the play of the current deal, the next player being the one searching
+     * @param hand the hand of the next player, as a {@link CardMask}
+     * @param allowedCards the cards of the hand the player is allowed to play, as a {@link CardMask}
+     * @param random seeds the layouts
+     * @return the allowed card with the best average points for the team of the player
+     */
+    public ClassicalCard chooseCard(ContreePlayTracker tracker, long hand, long allowedCards, RandomGenerator random) {
+        if (Long.bitCount(allowedCards) == 1) {
+            return CardMask.first(allowedCards);
+        }
+        return evaluate(tracker, hand, allowedCards, random).bestCard();
+    }
+
+    Evaluation evaluate(ContreePlayTracker tracker, long hand, long allowedCards, RandomGenerator random) {
+        if (allowedCards == CardMask.EMPTY || (allowedCards & ~hand) != CardMask.EMPTY) {
+            throw new IllegalArgumentException(String.format("Allowed cards %s are not in hand %s", CardMask.toString(allowedCards), CardMask.toString(hand)));
+        }
+        int[] cards = new int[Long.bitCount(allowedCards)];
+        int i = 0;
+        for (long m = allowedCards ; m != CardMask.EMPTY ; m &= m - 1) {
+            cards[i++] = Long.numberOfTrailingZeros(m);
+        }
+        long[] layoutSeeds = new long[nbLayouts];
+        for (int layout = 0 ; layout < nbLayouts ; layout++) {
+            layoutSeeds[layout] = random.nextLong();
+        }
+        Position position = new Position(tracker, hand);
+        long deadline = nanoClock.getAsLong() + moveBudgetNanos;
+
+        long[] totals = pool.invoke(new LayoutTask(position, cards, layoutSeeds, 0, nbLayouts, deadline));
+
+        int nbEvaluatedLayouts = (int) totals[cards.length];
+        double[] averagePoints = new double[cards.length];
+        if (nbEvaluatedLayouts == 0) {
+            long[] hands = sampleLayout(position, LAYOUT_RANDOM_FACTORY.create(layoutSeeds[0]));
+            // The play out does not use the transposition table: the smallest one is enough
+            int[] points = new ContreeDoubleDummySolver(1).playOutCards(position.trumpSuit, hands, position.leaderSlot, position.trickCards, position.nbTrickCards);
+            for (int card = 0 ; card < cards.length ; card++) {
+                averagePoints[card] = points[cards[card]];
+            }
+            return new Evaluation(cards, averagePoints, 0);
+        }
+        for (int card = 0 ; card < cards.length ; card++) {
+            averagePoints[card] = (double) totals[card] / nbEvaluatedLayouts;
+        }
+        return new Evaluation(cards, averagePoints, nbEvaluatedLayouts);
+    }
+
+    /**
+     * @param cards ordinals of the allowed cards
+     * @param averagePoints average points of the team of the player when it plays each card, from the current trick to the end of the deal
+     * @param nbLayouts number of layouts solved within the move budget, 0 when the cards were played out on the first layout instead
+     */
+    record Evaluation(int[] cards, double[] averagePoints, int nbLayouts) {
+
+        ClassicalCard bestCard() {
+            int best = 0;
+            for (int i = 1 ; i < cards.length ; i++) {
+                if (averagePoints[i] > averagePoints[best]) {
+                    best = i;
+                }
+            }
+            return CardMask.card(cards[best]);
+        }
+
+    }
+
+    /**
+     * Copy of what the searching player knows when the search starts
+     */
+    static final class Position {
+
+        private final int slot;
+
+        private final long hand;
+
+        private final CardSuit trumpSuit;
+
+        private final int leaderSlot;
+
+        private final int[] trickCards;
+
+        private final int nbTrickCards;
+
+        private final long unseenCards;
+
+        private final int[] nbRemainingCards = new int[ContreePlayers.NB_PLAYERS];
+
+        private final long[] possibleCards = new long[ContreePlayers.NB_PLAYERS];
+
+        Position(ContreePlayTracker tracker, long hand) {
+            this.slot = tracker.nextPlayerSlot();
+            this.hand = hand;
+            this.trumpSuit = tracker.trumpSuit();
+            this.leaderSlot = tracker.leaderSlot();
+            this.trickCards = tracker.trickCards().clone();
+            this.nbTrickCards = tracker.nbTrickCards();
+            this.unseenCards = ALL_CARDS & ~tracker.playedCards() & ~hand;
+            for (int s = 0 ; s < ContreePlayers.NB_PLAYERS ; s++) {
+                if (s != slot) {
+                    nbRemainingCards[s] = tracker.nbRemainingCards(s);
+                    possibleCards[s] = unseenCards & ~tracker.excludedCards(s);
+                }
+            }
+        }
+
+    }
+
+    private class LayoutTask extends RecursiveTask<long[]> {
+
+        private final Position position;
+
+        private final int[] cards;
+
+        private final long[] layoutSeeds;
+
+        private final int fromLayout;
+
+        private final int toLayout;
+
+        private final long deadline;
+
+        LayoutTask(Position position, int[] cards, long[] layoutSeeds, int fromLayout, int toLayout, long deadline) {
+            this.position = position;
+            this.cards = cards;
+            this.layoutSeeds = layoutSeeds;
+            this.fromLayout = fromLayout;
+            this.toLayout = toLayout;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return the total points of each card, followed by the number of evaluated layouts
+         */
+        @Override
+        protected long[] compute() {
+            if (toLayout - fromLayout > LAYOUTS_BY_TASK) {
+                int middle = (fromLayout + toLayout) >>> 1;
+                LayoutTask left = new LayoutTask(position, cards, layoutSeeds, fromLayout, middle, deadline);
+                left.fork();
+                long[] totals = new LayoutTask(position, cards, layoutSeeds, middle, toLayout, deadline).compute();
+                long[] leftTotals = left.join();
+                for (int i = 0 ; i < totals.length ; i++) {
+                    totals[i] += leftTotals[i];
+                }
+                return totals;
+            }
+            long[] totals = new long[cards.length + 1];
+            ContreeDoubleDummySolver solver = SOLVERS.get();
+            for (int layout = fromLayout ; layout < toLayout ; layout++) {
+                if (nanoClock.getAsLong() - deadline > 0) {
+                    break;
+                }
+                RandomGenerator random = LAYOUT_RANDOM_FACTORY.create(layoutSeeds[layout]);
+                long[] hands = sampleLayout(position, random);
+                int[] points = solver.solveCards(position.trumpSuit, hands, position.leaderSlot, position.trickCards, position.nbTrickCards, nanoClock, deadline);
+                if (points == null) {
+                    break;
+                }
+                for (int card = 0 ; card < cards.length ; card++) {
+                    totals[card] += points[cards[card]];
+                }
+                totals[cards.length]++;
+            }
+            return totals;
+        }
+
+    }
+
+    /**
+     * Deals the unseen cards to the other players: the cards a single player can hold first, then the others at random,
+     * each card to a player drawn in proportion to the number of cards it still misses.
+     * When no consistent layout is found after {@link #MAX_SAMPLING_ATTEMPTS} attempts, the excluded cards are ignored.
+     */
+    static long[] sampleLayout(Position position, RandomGenerator random) {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        int[] unseen = new int[Long.bitCount(position.unseenCards)];
+        int i = 0;
+        for (long m = position.unseenCards ; m != CardMask.EMPTY ; m &= m - 1) {
+            unseen[i++] = Long.numberOfTrailingZeros(m);
+        }
+        int[] missingCards = new int[ContreePlayers.NB_PLAYERS];
+        for (int attempt = 0 ; attempt <= MAX_SAMPLING_ATTEMPTS ; attempt++) {
+            long[] possibleCards = attempt < MAX_SAMPLING_ATTEMPTS ? position.possibleCards : allUnseenCards(position);
+            if (tryToSampleLayout(position, possibleCards, unseen, hands, missingCards, random)) {
+                return hands;
+            }
+        }
+        throw new IllegalStateException(String.format("The %d unseen cards cannot be dealt to the other players", unseen.length));
+    }
+
+    private static long[] allUnseenCards(Position position) {
+        long[] possibleCards = new long[ContreePlayers.NB_PLAYERS];
+        for (int s = 0 ; s < ContreePlayers.NB_PLAYERS ; s++) {
+            possibleCards[s] = s == position.slot ? CardMask.EMPTY : position.unseenCards;
+        }
+        return possibleCards;
+    }
+
+    private static boolean tryToSampleLayout(Position position, long[] possibleCards, int[] unseen, long[] hands, int[] missingCards, RandomGenerator random) {
+        for (int s = 0 ; s < ContreePlayers.NB_PLAYERS ; s++) {
+            hands[s] = CardMask.EMPTY;
+            missingCards[s] = position.nbRemainingCards[s];
+        }
+        hands[position.slot] = position.hand;
+        // Fisher–Yates shuffle, then the cards with a single possible player are moved first
+        for (int i = unseen.length - 1 ; i > 0 ; i--) {
+            int j = random.nextInt(i + 1);
+            int card = unseen[i];
+            unseen[i] = unseen[j];
+            unseen[j] = card;
+        }
+        int nbForcedCards = 0;
+        for (int i = 0 ; i < unseen.length ; i++) {
+            if (nbPossiblePlayers(possibleCards, unseen[i]) == 1) {
+                int card = unseen[i];
+                unseen[i] = unseen[nbForcedCards];
+                unseen[nbForcedCards++] = card;
+            }
+        }
+        for (int card : unseen) {
+            long cardMask = 1L << card;
+            int nbMissingCards = 0;
+            for (int s = 0 ; s < ContreePlayers.NB_PLAYERS ; s++) {
+                if ((possibleCards[s] & cardMask) != CardMask.EMPTY) {
+                    nbMissingCards += missingCards[s];
+                }
+            }
+            if (nbMissingCards == 0) {
+                return false;
+            }
+            int drawn = random.nextInt(nbMissingCards);
+            for (int s = 0 ; s < ContreePlayers.NB_PLAYERS ; s++) {
+                if ((possibleCards[s] & cardMask) != CardMask.EMPTY) {
+                    drawn -= missingCards[s];
+                    if (drawn < 0) {
+                        hands[s] |= cardMask;
+                        missingCards[s]--;
+                        break;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int nbPossiblePlayers(long[] possibleCards, int card) {
+        int nbPlayers = 0;
+        for (long cards : possibleCards) {
+            nbPlayers += (int) ((cards >>> card) & 1L);
+        }
+        return nbPlayers;
+    }
+
+}
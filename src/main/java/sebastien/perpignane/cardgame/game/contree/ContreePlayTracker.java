@@ -0,0 +1,159 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+
+import java.util.Arrays;
+
+/**
+ * What every player of a game knows about the play of the current deal, built from the event stream of the game:
+ * the trump suit, the played cards, the current trick and the cards each player cannot hold.
+ *
+ * The cards a player cannot hold are inferred from the rules of {@link PlayableCardsFilter}: a card x is excluded from the hand of a player
+ * if the card this player just played would not have been playable with x in hand, like a card of the wanted suit when the player did not follow.
+ *
+ * A tracker is written by the game thread. It may be read by a bot thread while the game waits for the card of this bot.
+ */
+public final class ContreePlayTracker implements ContreeGameEventListener {
+
+    public static final long EVENT_TYPES = ContreeEventType.mask(
+            ContreeEventType.DEAL_STARTED,
+            ContreeEventType.BID_PLACED,
+            ContreeEventType.PLAY_STEP_STARTED,
+            ContreeEventType.CARD_PLAYED,
+            ContreeEventType.TRICK_ENDED
+    );
+
+    static final int NB_CARDS_BY_PLAYER = CardSet.GAME_32.getGameCards().size() / ContreePlayers.NB_PLAYERS;
+
+    private static final long ALL_CARDS = CardSet.GAME_32.getGameCardsMask();
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    private CardSuit trumpSuit;
+
+    private int firstBidderSlot;
+
+    private int leaderSlot;
+
+    private final int[] trickCards = new int[ContreePlayers.NB_PLAYERS];
+
+    private int nbTrickCards;
+
+    private long playedCards;
+
+    private final int[] nbPlayedCardsBySlot = new int[ContreePlayers.NB_PLAYERS];
+
+    private final long[] excludedCardsBySlot = new long[ContreePlayers.NB_PLAYERS];
+
+    private boolean playStep;
+
+    @Override
+    public void onEvent(ContreeGameEvent event) {
+        switch (event.type()) {
+            case DEAL_STARTED -> {
+                trumpSuit = null;
+                firstBidderSlot = ContreeGameEvent.NONE;
+                nbTrickCards = 0;
+                playedCards = CardMask.EMPTY;
+                Arrays.fill(nbPlayedCardsBySlot, 0);
+                Arrays.fill(excludedCardsBySlot, CardMask.EMPTY);
+                playStep = false;
+            }
+            case BID_PLACED -> {
+                if (firstBidderSlot == ContreeGameEvent.NONE) {
+                    firstBidderSlot = event.playerSlot();
+                }
+            }
+            case PLAY_STEP_STARTED -> {
+                trumpSuit = CardSuit.values()[event.suit()];
+                // The first bidder leads the first trick
+                leaderSlot = firstBidderSlot;
+                playStep = true;
+            }
+            case CARD_PLAYED -> cardPlayed(event.playerSlot(), event.card());
+            case TRICK_ENDED -> {
+                leaderSlot = event.playerSlot();
+                nbTrickCards = 0;
+            }
+            default -> {
+                // Not subscribed
+            }
+        }
+    }
+
+    private void cardPlayed(int slot, int card) {
+        long cardMask = 1L << card;
+        if (nbTrickCards == 0) {
+            leaderSlot = slot;
+        }
+        else {
+            for (long others = ALL_CARDS & ~cardMask ; others != CardMask.EMPTY ; others &= others - 1) {
+                long hand = cardMask | Long.lowestOneBit(others);
+                if ((playableCardsFilter.playableCards(hand, trumpSuit, trickCards, nbTrickCards) & cardMask) == CardMask.EMPTY) {
+                    excludedCardsBySlot[slot] |= Long.lowestOneBit(others);
+                }
+            }
+        }
+        trickCards[nbTrickCards++] = card;
+        playedCards |= cardMask;
+        nbPlayedCardsBySlot[slot]++;
+    }
+
+    /**
+     * @return true between the end of the bids and the end of the deal
+     */
+    public boolean isPlayStep() {
+        return playStep;
+    }
+
+    /**
+     * @return the slot of the player expected to play the next card
+     * @throws IllegalStateException outside of the play step
+     */
+    public int nextPlayerSlot() {
+        if (!playStep) {
+            throw new IllegalStateException("No card is expected outside of the play step");
+        }
+        return (leaderSlot + nbTrickCards) % ContreePlayers.NB_PLAYERS;
+    }
+
+    CardSuit trumpSuit() {
+        return trumpSuit;
+    }
+
+    int leaderSlot() {
+        return leaderSlot;
+    }
+
+    /**
+     * @return the ordinals of the cards of the current trick, in play order. Only the first {@link #nbTrickCards()} are set.
+     */
+    int[] trickCards() {
+        return trickCards;
+    }
+
+    int nbTrickCards() {
+        return nbTrickCards;
+    }
+
+    /**
+     * @return all the cards played during the deal, including the ones of the current trick, as a {@link CardMask}
+     */
+    long playedCards() {
+        return playedCards;
+    }
+
+    int nbRemainingCards(int slot) {
+        return NB_CARDS_BY_PLAYER - nbPlayedCardsBySlot[slot];
+    }
+
+    /**
+     * @return the cards the player of the slot cannot hold, as a {@link CardMask}
+     */
+    long excludedCards(int slot) {
+        return excludedCardsBySlot[slot];
+    }
+
+}
@@ -0,0 +1,409 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+
+import java.util.SplittableRandom;
+
+/**
+ * The play step of a deal, from a given position to the end, for searches: cards are played with {@link #play(int)}
+ * and taken back with {@link #undo()}, both in constant time and without allocation.
+ *
+ * The hands are {@link CardMask}s and the cards are ordinals. The playable cards and the trick winners are the ones of {@link PlayableCardsFilter},
+ * the points of the tricks are counted like {@link DealScoreCalculator}, the last trick winning the dix de der.
+ *
+ * The state also maintains a Zobrist key of the trump suit, the hands and the leader of the current trick, identifying the positions between two tricks.
+ *
+ * A state is not thread safe: parallel searches work on their own {@link #copy()}.
+ */
+public final class ContreeSearchState {
+
+    private static final int NB_CARDS = ClassicalCard.values().length;
+
+    private static final int NB_CARDS_BY_PLAYER = CardSet.GAME_32.getGameCards().size() / ContreePlayers.NB_PLAYERS;
+
+    private static final long ALL_CARDS = CardSet.GAME_32.getGameCardsMask();
+
+    private static final CardSuit[] SUITS = CardSuit.values();
+
+    /**
+     * Game points and game values of the cards, by trump suit ordinal and card ordinal
+     */
+    private static final int[][] CARD_POINTS = new int[SUITS.length][NB_CARDS];
+
+    private static final int[][] CARD_VALUES = new int[SUITS.length][NB_CARDS];
+
+    private static final long[][] CARD_KEYS = new long[NB_CARDS][ContreePlayers.NB_PLAYERS];
+
+    private static final long[] LEADER_KEYS = new long[ContreePlayers.NB_PLAYERS];
+
+    private static final long[] TRUMP_SUIT_KEYS = new long[SUITS.length];
+
+    private static final PlayableCardsFilter PLAYABLE_CARDS_FILTER = new PlayableCardsFilter();
+
+    static {
+        for (CardSuit trumpSuit : SUITS) {
+            for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+                boolean trump = card.getSuit() == trumpSuit;
+                CARD_POINTS[trumpSuit.ordinal()][card.ordinal()] = ContreeCard.gamePoints(card.ordinal(), trump);
+                CARD_VALUES[trumpSuit.ordinal()][card.ordinal()] = ContreeCard.gameValue(card.ordinal(), trump);
+            }
+        }
+        SplittableRandom random = new SplittableRandom(0x5EB_C0_17EEL);
+        for (long[] cardKeys : CARD_KEYS) {
+            for (int slot = 0 ; slot < cardKeys.length ; slot++) {
+                cardKeys[slot] = random.nextLong();
+            }
+        }
+        for (int slot = 0 ; slot < LEADER_KEYS.length ; slot++) {
+            LEADER_KEYS[slot] = random.nextLong();
+        }
+        for (int suit = 0 ; suit < TRUMP_SUIT_KEYS.length ; suit++) {
+            TRUMP_SUIT_KEYS[suit] = random.nextLong();
+        }
+    }
+
+    private CardSuit trumpSuit;
+
+    private int[] cardPoints;
+
+    private int[] cardValues;
+
+    private final long[] hands;
+
+    /**
+     * Cards of the current trick, in play order. Only the first {@link #nbTrickCards} are relevant.
+     */
+    private final int[] trickCards;
+
+    private int nbTrickCards;
+
+    /**
+     * All the cards of the state, in play order: the cards of the trick in progress when the state was created, then the played ones
+     */
+    private final int[] playedCards;
+
+    private int nbPlayedCards;
+
+    private int nbInitialCards;
+
+    /**
+     * Leader of each trick, the first one being the trick in progress when the state was created.
+     * The leader of a trick is the winner of the previous one.
+     */
+    private final int[] leaderSlots;
+
+    private int nbCompletedTricks;
+
+    private final int[] teamPoints;
+
+    private int remainingPoints;
+
+    private long key;
+
+    /**
+     * @param trumpSuit the trump suit of the deal
+     * @param hands the remaining cards of each player, by player slot, as {@link CardMask}s
+     * @param leaderSlot the slot of the player who started the current trick
+     * @param trickCards ordinals of the cards already played in the current trick, in play order
+     * @param nbTrickCards number of cards already played in the current trick
+     * @throws IllegalArgumentException if the cards are not the ones of a deal in progress
+     */
+    public ContreeSearchState(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        checkPosition(hands, leaderSlot, trickCards, nbTrickCards);
+        this.trumpSuit = trumpSuit;
+        this.cardPoints = CARD_POINTS[trumpSuit.ordinal()];
+        this.cardValues = CARD_VALUES[trumpSuit.ordinal()];
+        this.hands = hands.clone();
+        this.trickCards = new int[ContreePlayers.NB_PLAYERS];
+        this.playedCards = new int[nbTrickCards + Long.bitCount(hands[0] | hands[1] | hands[2] | hands[3])];
+        this.leaderSlots = new int[playedCards.length / ContreePlayers.NB_PLAYERS + 1];
+        this.teamPoints = new int[2];
+        System.arraycopy(trickCards, 0, this.trickCards, 0, nbTrickCards);
+        System.arraycopy(trickCards, 0, this.playedCards, 0, nbTrickCards);
+        this.nbTrickCards = nbTrickCards;
+        this.nbPlayedCards = nbTrickCards;
+        this.nbInitialCards = nbTrickCards;
+        this.leaderSlots[0] = leaderSlot;
+
+        remainingPoints = DealScoreCalculator.DIX_DE_DER_BONUS;
+        for (int i = 0 ; i < nbTrickCards ; i++) {
+            remainingPoints += cardPoints[trickCards[i]];
+        }
+        key = TRUMP_SUIT_KEYS[trumpSuit.ordinal()] ^ LEADER_KEYS[leaderSlot];
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            for (long m = hands[slot] ; m != CardMask.EMPTY ; m &= m - 1) {
+                int card = Long.numberOfTrailingZeros(m);
+                remainingPoints += cardPoints[card];
+                key ^= CARD_KEYS[card][slot];
+            }
+        }
+    }
+
+    private ContreeSearchState(ContreeSearchState state) {
+        this.trumpSuit = state.trumpSuit;
+        this.cardPoints = state.cardPoints;
+        this.cardValues = state.cardValues;
+        this.hands = state.hands.clone();
+        this.trickCards = state.trickCards.clone();
+        this.nbTrickCards = state.nbTrickCards;
+        this.playedCards = state.playedCards.clone();
+        this.nbPlayedCards = state.nbPlayedCards;
+        this.nbInitialCards = state.nbInitialCards;
+        this.leaderSlots = state.leaderSlots.clone();
+        this.nbCompletedTricks = state.nbCompletedTricks;
+        this.teamPoints = state.teamPoints.clone();
+        this.remainingPoints = state.remainingPoints;
+        this.key = state.key;
+    }
+
+    private static void checkPosition(long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {
+        if (hands.length != ContreePlayers.NB_PLAYERS || leaderSlot < 0 || leaderSlot >= ContreePlayers.NB_PLAYERS) {
+            throw new IllegalArgumentException(String.format("%d hands and a leader slot between 0 and 3 are expected", ContreePlayers.NB_PLAYERS));
+        }
+        if (nbTrickCards < 0 || nbTrickCards >= ContreePlayers.NB_PLAYERS) {
+            throw new IllegalArgumentException(String.format("A trick in progress has 0 to 3 cards, got %d", nbTrickCards));
+        }
+        long allCards = CardMask.EMPTY;
+        int nbCards = 0;
+        for (int i = 0 ; i < nbTrickCards ; i++) {
+            allCards |= 1L << trickCards[i];
+            nbCards++;
+        }
+        for (long hand : hands) {
+            allCards |= hand;
+            nbCards += Long.bitCount(hand);
+        }
+        if (Long.bitCount(allCards) != nbCards || (allCards & ~ALL_CARDS) != CardMask.EMPTY) {
+            throw new IllegalArgumentException("The hands and the trick cards must be distinct contree cards");
+        }
+        int nbHandCards = Long.bitCount(hands[leaderSlot]) + (nbTrickCards > 0 ? 1 : 0);
+        for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+            int slot = (leaderSlot + i) % ContreePlayers.NB_PLAYERS;
+            if (Long.bitCount(hands[slot]) + (i < nbTrickCards ? 1 : 0) != nbHandCards) {
+                throw new IllegalArgumentException(String.format("The hand of player %d does not have the expected number of cards", slot));
+            }
+        }
+        if (nbHandCards == 0 || nbHandCards > NB_CARDS_BY_PLAYER) {
+            throw new IllegalArgumentException(String.format("Each player must have 1 to %d cards, got %d", NB_CARDS_BY_PLAYER, nbHandCards));
+        }
+    }
+
+    /**
+     * Starts a new deal on this state, without allocation. The hands are trusted: they are not checked like in the constructor.
+     *
+     * @param trumpSuit the trump suit of the new deal
+     * @param hands the full hands of the new deal, by player slot, from the offset
+     * @param leaderSlot the slot of the player who starts the first trick
+     * @throws IllegalStateException if the state was not created for a full deal
+     */
+    void reset(CardSuit trumpSuit, long[] hands, int offset, int leaderSlot) {
+        if (playedCards.length != NB_CARDS_BY_PLAYER * ContreePlayers.NB_PLAYERS) {
+            throw new IllegalStateException("Only a state created for a full deal can start a new deal");
+        }
+        this.trumpSuit = trumpSuit;
+        this.cardPoints = CARD_POINTS[trumpSuit.ordinal()];
+        this.cardValues = CARD_VALUES[trumpSuit.ordinal()];
+        nbTrickCards = 0;
+        nbPlayedCards = 0;
+        nbInitialCards = 0;
+        nbCompletedTricks = 0;
+        leaderSlots[0] = leaderSlot;
+        teamPoints[0] = 0;
+        teamPoints[1] = 0;
+        remainingPoints = DealScoreCalculator.EXPECTED_CARD_SCORE_SUM;
+        key = TRUMP_SUIT_KEYS[trumpSuit.ordinal()] ^ LEADER_KEYS[leaderSlot];
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            this.hands[slot] = hands[offset + slot];
+            for (long m = hands[offset + slot] ; m != CardMask.EMPTY ; m &= m - 1) {
+                key ^= CARD_KEYS[Long.numberOfTrailingZeros(m)][slot];
+            }
+        }
+    }
+
+    /**
+     * @return an independent copy of this state, for another search thread
+     */
+    public ContreeSearchState copy() {
+        return new ContreeSearchState(this);
+    }
+
+    /**
+     * Plays a card of the next player, that must be one of the {@link #playableCards()}: only the presence of the card in the hand is checked.
+     *
+     * @param card the ordinal of the card
+     * @return true if the card ends a trick
+     * @throws IllegalArgumentException if the next player does not have the card
+     */
+    public boolean play(int card) {
+        long cardMask = 1L << card;
+        int slot = nextPlayerSlot();
+        if ((hands[slot] & cardMask) == CardMask.EMPTY) {
+            throw new IllegalArgumentException(String.format("Player %d does not have %s", slot, CardMask.card(card)));
+        }
+        hands[slot] &= ~cardMask;
+        key ^= CARD_KEYS[card][slot];
+        playedCards[nbPlayedCards++] = card;
+        trickCards[nbTrickCards++] = card;
+        if (nbTrickCards < ContreePlayers.NB_PLAYERS) {
+            return false;
+        }
+        int leaderSlot = leaderSlots[nbCompletedTricks];
+        int winnerSlot = (leaderSlot + PlayableCardsFilter.winningCardIndex(trumpSuit, trickCards, ContreePlayers.NB_PLAYERS)) % ContreePlayers.NB_PLAYERS;
+        int points = trickPoints();
+        teamPoints[winnerSlot % 2] += points;
+        remainingPoints -= points;
+        leaderSlots[++nbCompletedTricks] = winnerSlot;
+        key ^= LEADER_KEYS[leaderSlot] ^ LEADER_KEYS[winnerSlot];
+        nbTrickCards = 0;
+        return true;
+    }
+
+    public boolean play(ClassicalCard card) {
+        return play(card.ordinal());
+    }
+
+    /**
+     * Takes back the last played card
+     *
+     * @throws IllegalStateException if no card was played since the state was created
+     */
+    public void undo() {
+        if (nbPlayedCards == nbInitialCards) {
+            throw new IllegalStateException("No card to take back");
+        }
+        if (nbTrickCards == 0) {
+            // The last card ended a trick: the trick is in progress again
+            int winnerSlot = leaderSlots[nbCompletedTricks--];
+            int leaderSlot = leaderSlots[nbCompletedTricks];
+            System.arraycopy(playedCards, nbPlayedCards - ContreePlayers.NB_PLAYERS, trickCards, 0, ContreePlayers.NB_PLAYERS);
+            nbTrickCards = ContreePlayers.NB_PLAYERS;
+            int points = trickPoints();
+            teamPoints[winnerSlot % 2] -= points;
+            remainingPoints += points;
+            key ^= LEADER_KEYS[leaderSlot] ^ LEADER_KEYS[winnerSlot];
+        }
+        int card = playedCards[--nbPlayedCards];
+        nbTrickCards--;
+        int slot = nextPlayerSlot();
+        hands[slot] |= 1L << card;
+        key ^= CARD_KEYS[card][slot];
+    }
+
+    /**
+     * Points of the complete current trick, with the dix de der if it is the last one
+     */
+    private int trickPoints() {
+        int points = cardPoints[trickCards[0]] + cardPoints[trickCards[1]] + cardPoints[trickCards[2]] + cardPoints[trickCards[3]];
+        return (hands[0] | hands[1] | hands[2] | hands[3]) == CardMask.EMPTY ? points + DealScoreCalculator.DIX_DE_DER_BONUS : points;
+    }
+
+    /**
+     * @return the cards the next player is allowed to play, as a {@link CardMask}
+     */
+    public long playableCards() {
+        return PLAYABLE_CARDS_FILTER.playableCards(hands[nextPlayerSlot()], trumpSuit, trickCards, nbTrickCards);
+    }
+
+    public int nextPlayerSlot() {
+        return (leaderSlots[nbCompletedTricks] + nbTrickCards) % ContreePlayers.NB_PLAYERS;
+    }
+
+    public boolean isOver() {
+        return nbPlayedCards == playedCards.length;
+    }
+
+    public CardSuit trumpSuit() {
+        return trumpSuit;
+    }
+
+    /**
+     * @return the remaining cards of the player, as a {@link CardMask}
+     */
+    public long hand(int slot) {
+        return hands[slot];
+    }
+
+    /**
+     * @return the slot of the player who started the current trick, or of the winner of the last trick if the deal is over
+     */
+    public int leaderSlot() {
+        return leaderSlots[nbCompletedTricks];
+    }
+
+    public int nbTrickCards() {
+        return nbTrickCards;
+    }
+
+    /**
+     * @return the ordinal of a card of the current trick, by play order
+     */
+    public int trickCard(int index) {
+        return trickCards[index];
+    }
+
+    /**
+     * @return the number of cards played since the state was created, that {@link #undo()} can take back
+     */
+    public int nbPlayedCards() {
+        return nbPlayedCards - nbInitialCards;
+    }
+
+    /**
+     * @return the number of tricks completed since the state was created
+     */
+    public int nbCompletedTricks() {
+        return nbCompletedTricks;
+    }
+
+    /**
+     * @param trick index of a trick completed since the state was created
+     */
+    public int trickWinnerSlot(int trick) {
+        if (trick < 0 || trick >= nbCompletedTricks) {
+            throw new IllegalArgumentException(String.format("Trick %d is not completed", trick));
+        }
+        return leaderSlots[trick + 1];
+    }
+
+    /**
+     * @param team 0 for the team of the players 0 and 2, 1 for the team of the players 1 and 3
+     * @return the points won by the team since the state was created, including the dix de der
+     */
+    public int teamPoints(int team) {
+        return teamPoints[team];
+    }
+
+    /**
+     * @return the points of the cards in the hands and in the current trick, with the dix de der, or 0 if the deal is over
+     */
+    public int remainingPoints() {
+        return remainingPoints;
+    }
+
+    /**
+     * @return the cards of the current trick, in play order. Only the first {@link #nbTrickCards()} are relevant.
+     */
+    int[] trickCards() {
+        return trickCards;
+    }
+
+    int cardPoints(int card) {
+        return cardPoints[card];
+    }
+
+    int cardValue(int card) {
+        return cardValues[card];
+    }
+
+    /**
+     * @return the Zobrist key of the trump suit, the hands and the leader of the current trick
+     */
+    long key() {
+        return key;
+    }
+
+}
@@ -0,0 +1,128 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Plays many bot-only games with {@link ContreeSimulator}s, on a fixed pool of worker threads.
+ *
+ * Each worker plays one game at a time, games are never shared between workers.
+ * The deals and the bots of each game get their own random generators, split from the runner seed in the order of the games,
+ * so that a seed reproduces the same games whatever the parallelism and whichever worker plays each game.
+ */
+public class ContreeSimulationRunner {
+
+    private final ContreeGameConfig gameConfig;
+
+    private final int parallelism;
+
+    private final long seed;
+
+    public ContreeSimulationRunner(ContreeGameConfig gameConfig, int parallelism, long seed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be at least 1, got %d", parallelism));
+        }
+        this.gameConfig     = gameConfig;
+        this.parallelism    = parallelism;
+        this.seed           = seed;
+    }
+
+    public SimulationReport run(int nbGames) {
+
+        if (nbGames < 0) {
+            throw new IllegalArgumentException(String.format("Number of games cannot be negative, got %d", nbGames));
+        }
+
+        SimulatedGameResult[] results = new SimulatedGameResult[nbGames];
+        GameQueue gameQueue = new GameQueue(nbGames, RandomGeneratorFactory.<RandomGenerator.SplittableGenerator>of(SplittableCardSetShuffler.ALGORITHM).create(seed));
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<?>> workers = new ArrayList<>(parallelism);
+            for (int i = 0 ; i < parallelism ; i++) {
+                workers.add(executor.submit(() -> {
+                    try {
+                        GameRandom game;
+                        while ((game = gameQueue.next()) != null) {
+                            results[game.number()] = new ContreeSimulator(gameConfig, strategies(game.random()), new SplittableCardSetShuffler(game.random().split())).playGame();
+                        }
+                    }
+                    finally {
+                        // The worker hands its last decisions over to the trajectory writers
+                        gameConfig.getTrajectoryWriter().ifPresent(ContreeTrajectoryWriter::releaseLocalRecorder);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A simulated game failed", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        }
+
+        return SimulationReport.of(Arrays.asList(results), System.nanoTime() - start);
+
+    }
+
+    private record GameRandom(int number, RandomGenerator.SplittableGenerator random) {}
+
+    /**
+     * Games to be played by the workers, each one with a generator split from the master generator in the order of the games
+     */
+    private static class GameQueue {
+
+        private final int nbGames;
+
+        private final RandomGenerator.SplittableGenerator masterRandom;
+
+        private int nextGame;
+
+        GameQueue(int nbGames, RandomGenerator.SplittableGenerator masterRandom) {
+            this.nbGames = nbGames;
+            this.masterRandom = masterRandom;
+        }
+
+        /**
+         * Claims the next game and splits its generator atomically, so that the generator of a game only depends on its number
+         * @return null if all the games are claimed
+         */
+        synchronized GameRandom next() {
+            if (nextGame >= nbGames) {
+                return null;
+            }
+            return new GameRandom(nextGame++, masterRandom.split());
+        }
+
+    }
+
+    /**
+     * Same seats as the only-bots game: 3 bots always passing, one bot always bidding 80 HEART.
+     */
+    private List<ContreeBotStrategy> strategies(RandomGenerator.SplittableGenerator gameRandom) {
+        return List.of(
+                new RandomCardBotStrategy(gameRandom.split()),
+                new RandomCardBotStrategy(gameRandom.split()),
+                new RandomCardBotStrategy(gameRandom.split()),
+                new BiddingBotStrategy(gameRandom.split())
+        );
+    }
+
+}
@@ -0,0 +1,277 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardSetShuffler;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerEventHandler;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerStatus;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays bot-only contree games in the calling thread, without any player thread.
+ *
+ * The game is driven by the usual {@link ContreeGame}, so all game rules are applied as in a regular game.
+ * When a bot is notified that it is its turn, its decision is not applied immediately but recorded as the next action:
+ * the simulator loop then runs it. This way, the stack does not grow with the number of played cards.
+ *
+ * If the configuration has a {@link ContreeTrajectoryWriter}, every decision of the bots is recorded in the recorder of the thread creating the simulator.
+ * The thread releases its recorder once its games are over, see {@link ContreeTrajectoryWriter#releaseLocalRecorder()}.
+ *
+ * A simulator is not thread safe: use one simulator per thread to play games in parallel.
+ */
+public class ContreeSimulator {
+
+    private final ContreeGameConfig gameConfig;
+
+    private final List<ContreeBotStrategy> strategies;
+
+    private final CardSetShuffler shuffler;
+
+    private final ContreeTrajectoryRecorder trajectoryRecorder;
+
+    private Runnable nextAction;
+
+    private int nbPlayedCards;
+
+    /**
+     * Simulator playing with 3 bots playing random cards and always passing, and one bot always bidding 80 HEART.
+     * @param gameConfig configuration of the simulated games
+     */
+    public ContreeSimulator(ContreeGameConfig gameConfig) {
+        this(gameConfig, gameConfig.createCardSetShuffler());
+    }
+
+    private ContreeSimulator(ContreeGameConfig gameConfig, CardSetShuffler shuffler) {
+        this(gameConfig, defaultStrategies(ContreeGameBuilder.botRandom(shuffler)), shuffler);
+    }
+
+    /**
+     * @param gameConfig configuration of the simulated games
+     * @param strategies strategies of the bots, by seat
+     */
+    public ContreeSimulator(ContreeGameConfig gameConfig, List<ContreeBotStrategy> strategies) {
+        this(gameConfig, strategies, gameConfig.createCardSetShuffler());
+    }
+
+    /**
+     * @param gameConfig configuration of the simulated games
+     * @param strategies strategies of the bots, by seat
+     * @param shuffler shuffles the deals of all the games of this simulator
+     */
+    public ContreeSimulator(ContreeGameConfig gameConfig, List<ContreeBotStrategy> strategies, CardSetShuffler shuffler) {
+        if (strategies.size() != ContreePlayers.NB_PLAYERS) {
+            throw new IllegalArgumentException(String.format("%d strategies are required, got %d", ContreePlayers.NB_PLAYERS, strategies.size()));
+        }
+        this.gameConfig = gameConfig;
+        this.strategies = List.copyOf(strategies);
+        this.shuffler = shuffler;
+        this.trajectoryRecorder = gameConfig.getTrajectoryWriter().map(ContreeTrajectoryWriter::localRecorder).orElse(null);
+    }
+
+    private static List<ContreeBotStrategy> defaultStrategies(RandomGenerator.SplittableGenerator random) {
+        return List.of(new RandomCardBotStrategy(random.split()), new RandomCardBotStrategy(random.split()), new RandomCardBotStrategy(random.split()), new BiddingBotStrategy(random.split()));
+    }
+
+    /**
+     * Plays a full game, until the maximum score is reached.
+     * @return the result of the game
+     * @throws IllegalStateException if the game stops before being over
+     */
+    public SimulatedGameResult playGame() {
+
+        long start = System.nanoTime();
+        nextAction = null;
+        nbPlayedCards = 0;
+
+        // The simulator loop runs the actions itself: commands must run in the calling thread, whatever the configured execution mode
+        ContreeGame game = ContreeGameBuilder.createGame(gameConfig, new LockGameCommandExecutor(), shuffler);
+        joinBots(game);
+        runActions(() -> true);
+
+        if (!game.isOver()) {
+            throw new IllegalStateException(String.format("Simulated game %s stopped before being over", game.getGameId()));
+        }
+
+        var gameScore = game.getGameScore();
+        return new SimulatedGameResult(
+                game.getWinner().orElseThrow(),
+                game.getNbDeals(),
+                nbPlayedCards / ContreePlayers.NB_PLAYERS,
+                gameScore.getTeamScore(ContreeTeam.TEAM1),
+                gameScore.getTeamScore(ContreeTeam.TEAM2),
+                System.nanoTime() - start
+        );
+
+    }
+
+    /**
+     * Plays a single deal with the given hands, as a board of a duplicate match: a new game is started and left after its first deal.
+     * @param dealtHands the hand of each player slot, as a {@link sebastien.perpignane.cardgame.card.CardMask}
+     * @return the score of each team for this deal, 0 for both teams if all the players passed
+     * @throws IllegalStateException if the game stops before the end of the deal
+     */
+    public SimulatedBoardResult playBoard(long[] dealtHands) {
+
+        if (dealtHands.length != ContreePlayers.NB_PLAYERS) {
+            throw new IllegalArgumentException(String.format("%d hands are required, got %d", ContreePlayers.NB_PLAYERS, dealtHands.length));
+        }
+
+        nextAction = null;
+        nbPlayedCards = 0;
+
+        long[] board = dealtHands.clone();
+        ContreeDealSupplier boardSupplier = hands -> System.arraycopy(board, 0, hands, 0, board.length);
+        ContreeGame game = ContreeGameBuilder.createGame(gameConfig, new LockGameCommandExecutor(), boardSupplier);
+        BoardListener boardListener = new BoardListener();
+        game.subscribe(boardListener, ContreeEventType.mask(ContreeEventType.DEAL_STARTED, ContreeEventType.GAME_SCORE_UPDATED));
+        joinBots(game);
+        runActions(() -> !boardListener.over);
+
+        if (!boardListener.over) {
+            throw new IllegalStateException(String.format("Simulated board of game %s stopped before the end of the deal", game.getGameId()));
+        }
+        if (!game.isOver()) {
+            // Releases the event log of the game, if any
+            game.forceEndOfGame();
+        }
+
+        return new SimulatedBoardResult(boardListener.team1Score, boardListener.team2Score);
+
+    }
+
+    private void joinBots(ContreeGame game) {
+        if (trajectoryRecorder != null) {
+            trajectoryRecorder.startGame(game);
+        }
+        for (int i = 0 ; i < strategies.size() ; i++) {
+            strategies.get(i).onJoiningGame(game);
+            game.joinGame(new ContreePlayerImpl(String.format("Bot %d", i + 1), new SimulatedBotEventHandler(strategies.get(i))));
+        }
+    }
+
+    private void runActions(BooleanSupplier keepRunning) {
+        while (nextAction != null && keepRunning.getAsBoolean()) {
+            Runnable action = nextAction;
+            nextAction = null;
+            action.run();
+        }
+    }
+
+    private void setNextAction(Runnable action) {
+        if (nextAction != null) {
+            throw new IllegalStateException("Only one player can be expected to bid or play at a time");
+        }
+        nextAction = action;
+    }
+
+    /**
+     * The board is over when the score of its deal is added to the game score, or when the next deal starts because all the players passed
+     */
+    private static class BoardListener implements ContreeGameEventListener {
+
+        private int nbStartedDeals;
+
+        private boolean over;
+
+        private int team1Score;
+
+        private int team2Score;
+
+        @Override
+        public void onEvent(ContreeGameEvent event) {
+            if (over) {
+                return;
+            }
+            if (event.type() == ContreeEventType.GAME_SCORE_UPDATED) {
+                team1Score = event.value();
+                team2Score = event.otherValue();
+                over = true;
+            }
+            else if (++nbStartedDeals > 1) {
+                over = true;
+            }
+        }
+
+    }
+
+    private class SimulatedBotEventHandler implements ContreePlayerEventHandler {
+
+        private final ContreeBotStrategy strategy;
+
+        private ContreePlayer player;
+
+        SimulatedBotEventHandler(ContreeBotStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void setPlayer(ContreePlayer player) {
+            this.player = player;
+        }
+
+        @Override
+        public void onPlayerTurnToBid(Set<ContreeBidValue> allowedBidValues) {
+            setNextAction(() -> {
+                var bid = strategy.chooseBid(player, allowedBidValues);
+                if (trajectoryRecorder != null) {
+                    trajectoryRecorder.recordBid(player, allowedBidValues, bid);
+                }
+                player.placeBid(bid.bidValue(), bid.cardSuit());
+            });
+        }
+
+        @Override
+        public void onPlayerTurn(Set<ClassicalCard> allowedCards) {
+            setNextAction(() -> {
+                nbPlayedCards++;
+                ClassicalCard card = strategy.chooseCard(player, allowedCards);
+                if (trajectoryRecorder != null) {
+                    trajectoryRecorder.recordCard(player, allowedCards, card);
+                }
+                player.playCard(card);
+            });
+        }
+
+        @Override
+        public boolean isBot() {
+            return true;
+        }
+
+        @Override
+        public void onReceivedHand(Collection<ClassicalCard> hand) {
+            // Strategies read the hand from the player when needed
+        }
+
+        @Override
+        public void onGameStarted() {
+            // Nothing to start, the simulator loop drives the game
+        }
+
+        @Override
+        public void onGameOver() {
+            // The simulator loop stops when there is no more action
+        }
+
+        @Override
+        public void onEjection() {
+            // Bots are never ejected from simulated games
+        }
+
+        @Override
+        public void onStatusUpdate(ContreePlayerStatus oldStatus, ContreePlayerStatus newStatus) {
+            // Status is not used by bots
+        }
+
+    }
+
+}
@@ -0,0 +1,99 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary layout of the shards written by {@link ContreeTrajectoryWriter}, all little endian.
+ *
+ * A shard starts with a header of {@link #HEADER_SIZE} bytes, followed by blocks of records:
+ * <pre>
+ *  header: magic (int) | version (int) | record size (int) | observation size in floats (int) | zeros
+ *  block:  raw length (int) | stored length (int) | stored bytes, the raw bytes if both lengths are equal, else an LZ4 block of the raw bytes
+ *  record: deal id (long) | player slot (int) | phase (int) | legal actions (long) | action (int) | decision number in the deal (int)
+ *          | deal score of the team of the player (int) | deal score of the other team (int) | observation (floats)
+ * </pre>
+ * Phases and actions are the ones of {@link VecContreeEnv}, the observation is the one of {@link ObservationEncoder}.
+ * The raw bytes of a block are whole records, and the decisions of a deal are in a single block.
+ */
+final class ContreeTrajectoryFormat {
+
+    static final int HEADER_SIZE = 32;
+
+    static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+
+    static final int MAGIC = 0x43545452;
+
+    static final int VERSION = 1;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final String SHARD_SUFFIX = ".traj";
+
+    static final int DEAL_ID_OFFSET = 0;
+
+    static final int PLAYER_SLOT_OFFSET = 8;
+
+    static final int PHASE_OFFSET = 12;
+
+    static final int LEGAL_ACTIONS_OFFSET = 16;
+
+    static final int ACTION_OFFSET = 24;
+
+    static final int DECISION_OFFSET = 28;
+
+    static final int TEAM_SCORE_OFFSET = 32;
+
+    static final int OPPONENT_SCORE_OFFSET = 36;
+
+    static final int OBSERVATION_OFFSET = 40;
+
+    static final int RECORD_SIZE = OBSERVATION_OFFSET + ObservationEncoder.SIZE * Float.BYTES;
+
+    /**
+     * Bids and cards of the longest deal
+     */
+    static final int MAX_DECISIONS_BY_DEAL = DealRecord.MAX_BIDS + DealRecord.NB_CARDS;
+
+    private ContreeTrajectoryFormat() {
+    }
+
+    static String shardFileName(int shardIndex) {
+        return String.format("%010d%s", shardIndex, SHARD_SUFFIX);
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(RECORD_SIZE);
+        buffer.putInt(ObservationEncoder.SIZE);
+        buffer.put(new byte[HEADER_SIZE - 4 * Integer.BYTES]);
+    }
+
+    static boolean isValidHeader(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE
+                && buffer.getInt(0) == MAGIC
+                && buffer.getInt(Integer.BYTES) == VERSION
+                && buffer.getInt(2 * Integer.BYTES) == RECORD_SIZE
+                && buffer.getInt(3 * Integer.BYTES) == ObservationEncoder.SIZE;
+    }
+
+    static ContreeTrajectoryRecord readRecord(ByteBuffer buffer, int recordOffset) {
+        float[] observation = new float[ObservationEncoder.SIZE];
+        for (int i = 0 ; i < observation.length ; i++) {
+            observation[i] = buffer.getFloat(recordOffset + OBSERVATION_OFFSET + i * Float.BYTES);
+        }
+        return new ContreeTrajectoryRecord(
+                buffer.getLong(recordOffset + DEAL_ID_OFFSET),
+                buffer.getInt(recordOffset + PLAYER_SLOT_OFFSET),
+                buffer.getInt(recordOffset + PHASE_OFFSET),
+                buffer.getLong(recordOffset + LEGAL_ACTIONS_OFFSET),
+                buffer.getInt(recordOffset + ACTION_OFFSET),
+                buffer.getInt(recordOffset + DECISION_OFFSET),
+                buffer.getInt(recordOffset + TEAM_SCORE_OFFSET),
+                buffer.getInt(recordOffset + OPPONENT_SCORE_OFFSET),
+                observation
+        );
+    }
+
+}
@@ -0,0 +1,89 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeTrajectoryFormat.*;
+
+/**
+ * Reads the decisions written by a {@link ContreeTrajectoryWriter}, shard after shard, block after block.
+ *
+ * With several writer threads, the shards of a run are interleaved: the decisions of a deal are contiguous, but the deals are not in the order of their ids.
+ */
+public final class ContreeTrajectoryReader {
+
+    private final List<Path> shards;
+
+    private ContreeTrajectoryReader(List<Path> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * @return a reader of the shards of the directory when it is opened
+     */
+    public static ContreeTrajectoryReader open(Path directory) throws IOException {
+        return new ContreeTrajectoryReader(ContreeTrajectoryWriter.shards(directory));
+    }
+
+    public List<Path> getShards() {
+        return shards;
+    }
+
+    /**
+     * Decodes the decisions in order, shard after shard
+     * @throws IOException if a shard cannot be read, or is not a valid trajectory shard
+     */
+    public void forEach(Consumer<ContreeTrajectoryRecord> action) throws IOException {
+        for (Path shard : shards) {
+            readShard(shard, action);
+        }
+    }
+
+    private static void readShard(Path shardPath, Consumer<ContreeTrajectoryRecord> action) throws IOException {
+        MappedByteBuffer shard;
+        try (FileChannel channel = FileChannel.open(shardPath, StandardOpenOption.READ)) {
+            shard = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        shard.order(BYTE_ORDER);
+        if (!ContreeTrajectoryFormat.isValidHeader(shard)) {
+            throw new IOException(String.format("%s is not a version %d trajectory shard", shardPath, VERSION));
+        }
+        int position = HEADER_SIZE;
+        while (position < shard.limit()) {
+            if (shard.limit() - position < BLOCK_HEADER_SIZE) {
+                throw new IOException(String.format("Truncated block header at byte %d of %s", position, shardPath));
+            }
+            int rawLength = shard.getInt(position);
+            int storedLength = shard.getInt(position + Integer.BYTES);
+            position += BLOCK_HEADER_SIZE;
+            if (rawLength < 0 || rawLength % RECORD_SIZE != 0 || storedLength < 0 || storedLength > rawLength || storedLength > shard.limit() - position) {
+                throw new IOException(String.format("Invalid block at byte %d of %s: raw length %d, stored length %d", position - BLOCK_HEADER_SIZE, shardPath, rawLength, storedLength));
+            }
+            ByteBuffer block = storedLength == rawLength ? shard.slice(position, rawLength).order(BYTE_ORDER) : decompress(shard, position, storedLength, rawLength, shardPath);
+            for (int offset = 0 ; offset < rawLength ; offset += RECORD_SIZE) {
+                action.accept(ContreeTrajectoryFormat.readRecord(block, offset));
+            }
+            position += storedLength;
+        }
+    }
+
+    private static ByteBuffer decompress(ByteBuffer shard, int position, int storedLength, int rawLength, Path shardPath) throws IOException {
+        byte[] stored = new byte[storedLength];
+        shard.get(position, stored);
+        byte[] raw = new byte[rawLength];
+        try {
+            Lz4BlockCodec.decompress(stored, 0, storedLength, raw, rawLength);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(String.format("Invalid compressed block at byte %d of %s", position - BLOCK_HEADER_SIZE, shardPath), e);
+        }
+        return ByteBuffer.wrap(raw).order(BYTE_ORDER);
+    }
+
+}
@@ -0,0 +1,28 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+/**
+ * A decision of a player, read from the shards of a {@link ContreeTrajectoryWriter}.
+ *
+ * @param dealId number of the deal in the trajectories of the writer, from 0
+ * @param playerSlot slot of the deciding player
+ * @param phase {@link VecContreeEnv#BID_PHASE} or {@link VecContreeEnv#PLAY_PHASE}
+ * @param legalActions allowed actions as a mask, bit i set if action i is allowed
+ * @param action the chosen action: a bid action of {@link VecContreeEnv#bidAction(ContreeBidValue, sebastien.perpignane.cardgame.card.CardSuit)},
+ *               or the ordinal of the played card
+ * @param decision number of the decision in the deal, from 0
+ * @param teamScore final score of the deal for the team of the player
+ * @param opponentScore final score of the deal for the other team
+ * @param observation what the player knew before deciding, see {@link ObservationEncoder}
+ */
+public record ContreeTrajectoryRecord(
+        long dealId,
+        int playerSlot,
+        int phase,
+        long legalActions,
+        int action,
+        int decision,
+        int teamScore,
+        int opponentScore,
+        float[] observation
+) {
+}
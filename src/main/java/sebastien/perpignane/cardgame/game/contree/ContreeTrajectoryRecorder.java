@@ -0,0 +1,163 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeTrajectoryFormat.*;
+
+/**
+ * Records the decisions of the games played by one thread, for a {@link ContreeTrajectoryWriter}.
+ *
+ * The decisions of the current deal are encoded in a staging buffer, then copied in the current block once the deal is over and its scores are known.
+ * The recorder owns two direct blocks: it fills one while the writer drains the other. When the current block is full, it is handed to the writer
+ * and the recorder goes on with the other one, waiting for it only if the writer did not finish it yet.
+ *
+ * A recorder is used by a single thread, see {@link ContreeTrajectoryWriter#localRecorder()} and {@link ContreeTrajectoryWriter#releaseLocalRecorder()}.
+ */
+final class ContreeTrajectoryRecorder implements ContreeGameEventListener {
+
+    static final long EVENT_TYPES = ContreeEventType.mask(ContreeEventType.DEAL_STARTED, ContreeEventType.DEAL_ENDED);
+
+    private static final ContreeTeam[] TEAMS = ContreeTeam.values();
+
+    private final ContreeTrajectoryWriter writer;
+
+    private final ObservationEncoder encoder = new ObservationEncoder();
+
+    private final float[] observation = new float[ObservationEncoder.SIZE];
+
+    private final ByteBuffer deal = ByteBuffer.allocateDirect(MAX_DECISIONS_BY_DEAL * RECORD_SIZE).order(BYTE_ORDER);
+
+    private final FloatBuffer dealFloats = deal.asFloatBuffer();
+
+    private final BlockingQueue<ByteBuffer> freeBlocks = new ArrayBlockingQueue<>(2);
+
+    private ByteBuffer block;
+
+    private ContreeGame game;
+
+    private int nbDecisions;
+
+    private long nbWaits;
+
+    ContreeTrajectoryRecorder(ContreeTrajectoryWriter writer, int blockSize) {
+        this.writer = writer;
+        this.block = ByteBuffer.allocateDirect(blockSize).order(BYTE_ORDER);
+        freeBlocks.add(ByteBuffer.allocateDirect(blockSize).order(BYTE_ORDER));
+    }
+
+    /**
+     * Records the decisions of the game from now on. Must be called before the game starts.
+     */
+    void startGame(ContreeGame game) {
+        this.game = game;
+        nbDecisions = 0;
+        game.subscribe(this, EVENT_TYPES);
+    }
+
+    /**
+     * Records a bid chosen by a player, before it is placed
+     */
+    void recordBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues, ContreeBid bid) {
+        record(player, VecContreeEnv.BID_PHASE, VecContreeEnv.bidActions(allowedBidValues), VecContreeEnv.bidAction(bid.bidValue(), bid.cardSuit()));
+    }
+
+    /**
+     * Records a card chosen by a player, before it is played
+     */
+    void recordCard(ContreePlayer player, Collection<ClassicalCard> allowedCards, ClassicalCard card) {
+        record(player, VecContreeEnv.PLAY_PHASE, CardMask.of(allowedCards), card.ordinal());
+    }
+
+    private void record(ContreePlayer player, int phase, long legalActions, int action) {
+        if (nbDecisions == MAX_DECISIONS_BY_DEAL) {
+            throw new IllegalStateException(String.format("A deal cannot have more than %d decisions", MAX_DECISIONS_BY_DEAL));
+        }
+        int offset = nbDecisions * RECORD_SIZE;
+        deal.putInt(offset + PLAYER_SLOT_OFFSET, game.indexOf(player));
+        deal.putInt(offset + PHASE_OFFSET, phase);
+        deal.putLong(offset + LEGAL_ACTIONS_OFFSET, legalActions);
+        deal.putInt(offset + ACTION_OFFSET, action);
+        deal.putInt(offset + DECISION_OFFSET, nbDecisions);
+        encoder.encode(game, player, observation, 0);
+        dealFloats.put((offset + OBSERVATION_OFFSET) / Float.BYTES, observation);
+        nbDecisions++;
+    }
+
+    @Override
+    public void onEvent(ContreeGameEvent event) {
+        switch (event.type()) {
+            // Decisions of a deal which did not end, like the last deal of a board, are dropped
+            case DEAL_STARTED -> nbDecisions = 0;
+            case DEAL_ENDED -> endDeal();
+            default -> {
+                // Not subscribed
+            }
+        }
+    }
+
+    private void endDeal() {
+        if (nbDecisions == 0) {
+            return;
+        }
+        ContreeDeal endedDeal = game.getCurrentDealOrNull();
+        long dealId = writer.nextDealId();
+        for (int i = 0 ; i < nbDecisions ; i++) {
+            int offset = i * RECORD_SIZE;
+            int team = deal.getInt(offset + PLAYER_SLOT_OFFSET) % TEAMS.length;
+            deal.putLong(offset + DEAL_ID_OFFSET, dealId);
+            deal.putInt(offset + TEAM_SCORE_OFFSET, endedDeal.getTeamScore(TEAMS[team]));
+            deal.putInt(offset + OPPONENT_SCORE_OFFSET, endedDeal.getTeamScore(TEAMS[1 - team]));
+        }
+        int length = nbDecisions * RECORD_SIZE;
+        if (block.remaining() < length) {
+            writer.submit(block, freeBlocks);
+            block = takeFreeBlock();
+        }
+        block.put(block.position(), deal, 0, length);
+        block.position(block.position() + length);
+        writer.recordsAdded(nbDecisions);
+        nbDecisions = 0;
+    }
+
+    private ByteBuffer takeFreeBlock() {
+        ByteBuffer freeBlock = freeBlocks.poll();
+        if (freeBlock != null) {
+            return freeBlock;
+        }
+        nbWaits++;
+        try {
+            return freeBlocks.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the trajectory writer", e);
+        }
+    }
+
+    /**
+     * Hands the current block to the writer, if it holds records. The games of the recorder must be over: it does not record anymore.
+     */
+    void submitLastBlock() {
+        if (block.position() > 0) {
+            writer.submit(block, freeBlocks);
+        }
+        block = null;
+    }
+
+    /**
+     * @return the number of times the thread of the recorder waited for the writer
+     */
+    long getNbWaits() {
+        return nbWaits;
+    }
+
+}
@@ -0,0 +1,371 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static sebastien.perpignane.cardgame.game.contree.ContreeTrajectoryFormat.*;
+
+/**
+ * Writes the decisions of the bots of simulated games, for training: the observation of the player, its allowed actions, the chosen action
+ * and the final scores of the deal, see {@link ContreeTrajectoryFormat}. Shared by all the games of a configuration, see {@link ContreeGameConfig#getTrajectoryWriter()}.
+ *
+ * Each game thread records in its own {@link ContreeTrajectoryRecorder}, with two direct blocks of <code>recordsByBlock</code> records:
+ * game threads never share a lock, they only hand full blocks over to the writer threads.
+ * Once its games are over, a thread hands its last block over with {@link #releaseLocalRecorder()}, and the writer forgets its recorder.
+ * A writer thread compresses a block if compression is enabled, appends it to its own shard file, and gives the block back to its recorder.
+ * A shard is closed and a new one is started when it would exceed <code>shardSize</code> bytes.
+ *
+ * If the writers are slower than the games, a game thread waits for its other block, see {@link #getNbWaits()}: add writer threads.
+ */
+public class ContreeTrajectoryWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ContreeTrajectoryWriter.class);
+
+    public static final long DEFAULT_SHARD_SIZE = 256L * 1024 * 1024;
+
+    public static final int DEFAULT_RECORDS_BY_BLOCK = 2_048;
+
+    private record Block(ByteBuffer buffer, BlockingQueue<ByteBuffer> freeBlocks) {}
+
+    private static final Block END = new Block(null, null);
+
+    private final Path directory;
+
+    private final long shardSize;
+
+    private final int blockSize;
+
+    private final boolean compressed;
+
+    private final BlockingQueue<Block> fullBlocks = new LinkedBlockingQueue<>();
+
+    private final ThreadLocal<ContreeTrajectoryRecorder> localRecorders = new ThreadLocal<>();
+
+    private final AtomicInteger lastShardIndex;
+
+    private final AtomicLong nextDealId = new AtomicLong();
+
+    private final AtomicLong nbRecords = new AtomicLong();
+
+    private final AtomicLong nbWrittenBytes = new AtomicLong();
+
+    private final AtomicLong nbDroppedRecords = new AtomicLong();
+
+    private final AtomicLong nbWaits = new AtomicLong();
+
+    private final List<Thread> writers = new ArrayList<>();
+
+    private volatile boolean closed = false;
+
+    private volatile Throwable failure;
+
+    /**
+     * Writer with LZ4 compressed shards of {@link #DEFAULT_SHARD_SIZE} bytes and a single writer thread
+     */
+    public ContreeTrajectoryWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_SHARD_SIZE, DEFAULT_RECORDS_BY_BLOCK, true, 1);
+    }
+
+    /**
+     * @param shardSize maximum size of a shard file in bytes, a shard holding at least one block
+     * @param recordsByBlock number of records of a block, at least the decisions of a deal
+     * @param compressed true to compress the blocks in the LZ4 block format
+     * @param nbWriters number of writer threads, each one writing its own shards
+     */
+    public ContreeTrajectoryWriter(Path directory, long shardSize, int recordsByBlock, boolean compressed, int nbWriters) throws IOException {
+        if (recordsByBlock < MAX_DECISIONS_BY_DEAL || recordsByBlock > (Integer.MAX_VALUE - BLOCK_HEADER_SIZE) / 2 / RECORD_SIZE) {
+            throw new IllegalArgumentException(String.format("The number of records by block must be between %d and %d, got %d", MAX_DECISIONS_BY_DEAL, (Integer.MAX_VALUE - BLOCK_HEADER_SIZE) / 2 / RECORD_SIZE, recordsByBlock));
+        }
+        if (shardSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException(String.format("Shard size must be greater than %d, got %d", HEADER_SIZE, shardSize));
+        }
+        if (nbWriters < 1) {
+            throw new IllegalArgumentException(String.format("At least 1 writer is required, got %d", nbWriters));
+        }
+        this.directory = directory;
+        this.shardSize = shardSize;
+        this.blockSize = recordsByBlock * RECORD_SIZE;
+        this.compressed = compressed;
+        Files.createDirectories(directory);
+        this.lastShardIndex = new AtomicInteger(lastShardIndex(directory));
+        for (int i = 0 ; i < nbWriters ; i++) {
+            writers.add(Thread.ofPlatform().daemon().name("contree-trajectory-writer-" + i).start(new ShardWriter()));
+        }
+    }
+
+    static List<Path> shards(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SHARD_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static int lastShardIndex(Path directory) throws IOException {
+        List<Path> shards = shards(directory);
+        if (shards.isEmpty()) {
+            return -1;
+        }
+        String lastShard = shards.get(shards.size() - 1).getFileName().toString();
+        return Integer.parseInt(lastShard.substring(0, lastShard.length() - SHARD_SUFFIX.length()));
+    }
+
+    /**
+     * @return the recorder of the calling thread, created on the first call
+     * @throws IllegalStateException if the writer is closed
+     */
+    ContreeTrajectoryRecorder localRecorder() {
+        if (closed) {
+            throw new IllegalStateException(String.format("The trajectory writer of %s is closed", directory));
+        }
+        ContreeTrajectoryRecorder recorder = localRecorders.get();
+        if (recorder == null) {
+            recorder = new ContreeTrajectoryRecorder(this, blockSize);
+            localRecorders.set(recorder);
+        }
+        return recorder;
+    }
+
+    /**
+     * Hands the last block of the recorder of the calling thread over to the writers, and forgets the recorder.
+     * Must be called by each thread recording decisions, once its games are over: the records of the threads which did not are not written.
+     * The thread gets a new recorder if it records decisions again.
+     *
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void releaseLocalRecorder() {
+        if (closed) {
+            throw new IllegalStateException(String.format("The trajectory writer of %s is closed", directory));
+        }
+        releaseRecorder();
+    }
+
+    private void releaseRecorder() {
+        ContreeTrajectoryRecorder recorder = localRecorders.get();
+        if (recorder == null) {
+            return;
+        }
+        localRecorders.remove();
+        recorder.submitLastBlock();
+        nbWaits.addAndGet(recorder.getNbWaits());
+    }
+
+    long nextDealId() {
+        return nextDealId.getAndIncrement();
+    }
+
+    void recordsAdded(int nbAddedRecords) {
+        nbRecords.addAndGet(nbAddedRecords);
+    }
+
+    /**
+     * Hands a full block over to the writers, which give it back cleared in the free blocks queue of its recorder
+     */
+    void submit(ByteBuffer block, BlockingQueue<ByteBuffer> freeBlocks) {
+        fullBlocks.add(new Block(block, freeBlocks));
+    }
+
+    /**
+     * Appends blocks to its current shard, until the end of the writer
+     */
+    private class ShardWriter implements Runnable {
+
+        private final Lz4BlockCodec codec = new Lz4BlockCodec();
+
+        private final ByteBuffer output = ByteBuffer.allocateDirect(BLOCK_HEADER_SIZE + Lz4BlockCodec.maxCompressedLength(blockSize)).order(BYTE_ORDER);
+
+        private FileChannel shardChannel;
+
+        private long shardPosition;
+
+        @Override
+        public void run() {
+            try {
+                Block block;
+                while ((block = fullBlocks.take()) != END) {
+                    writeOrDrop(block);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                closeShard();
+            }
+        }
+
+        private void writeOrDrop(Block block) {
+            ByteBuffer buffer = block.buffer();
+            try {
+                if (failure == null) {
+                    write(buffer);
+                }
+                else {
+                    nbDroppedRecords.addAndGet(buffer.position() / RECORD_SIZE);
+                }
+            }
+            catch (Throwable e) {
+                // The block must go back to its recorder whatever the failure, or its game thread would wait for it forever
+                log.error("Failed to write trajectories in {}, next records are dropped", directory, e);
+                if (failure == null) {
+                    failure = e;
+                }
+                nbDroppedRecords.addAndGet(buffer.position() / RECORD_SIZE);
+            }
+            finally {
+                buffer.clear();
+                block.freeBlocks().add(buffer);
+            }
+        }
+
+        private void write(ByteBuffer block) throws IOException {
+            int rawLength = block.position();
+            output.clear();
+            output.putInt(rawLength);
+            // The block is compressed straight from its direct buffer, after the header of the output
+            int compressedLength = compressed ? codec.compress(block, rawLength, output, output.position() + Integer.BYTES) : rawLength;
+            if (compressedLength < rawLength) {
+                output.putInt(compressedLength);
+            }
+            else {
+                // Stored as is, when it does not compress
+                output.putInt(rawLength);
+                output.put(output.position(), block, 0, rawLength);
+                compressedLength = rawLength;
+            }
+            output.position(output.position() + compressedLength);
+            output.flip();
+            if (shardChannel == null || (shardPosition > HEADER_SIZE && shardPosition + output.limit() > shardSize)) {
+                rollShard();
+            }
+            while (output.hasRemaining()) {
+                shardPosition += shardChannel.write(output);
+            }
+            nbWrittenBytes.addAndGet(output.limit());
+        }
+
+        private void rollShard() throws IOException {
+            if (shardChannel != null) {
+                shardChannel.force(false);
+                shardChannel.close();
+            }
+            shardChannel = FileChannel.open(directory.resolve(shardFileName(lastShardIndex.incrementAndGet())), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            ContreeTrajectoryFormat.writeHeader(header);
+            header.flip();
+            while (header.hasRemaining()) {
+                shardChannel.write(header);
+            }
+            shardPosition = HEADER_SIZE;
+        }
+
+        private void closeShard() {
+            if (shardChannel == null) {
+                return;
+            }
+            try {
+                shardChannel.force(false);
+                shardChannel.close();
+            }
+            catch (IOException e) {
+                log.error("Failed to close a trajectory shard in {}", directory, e);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Writes the block of the recorder of the calling thread, and the blocks handed over by the other threads, then waits for the writers.
+     * The other threads recording decisions must have released their recorder, see {@link #releaseLocalRecorder()}.
+     *
+     * @throws IOException if the writing of a shard failed
+     * @throws RuntimeException if the writing of a block failed for another reason
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseRecorder();
+        for (int i = 0 ; i < writers.size() ; i++) {
+            fullBlocks.add(END);
+        }
+        try {
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while closing the trajectory writer of %s", directory), e);
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() throws IOException {
+        Throwable writeFailure = failure;
+        if (writeFailure == null) {
+            return;
+        }
+        if (writeFailure instanceof IOException e) {
+            throw e;
+        }
+        if (writeFailure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (writeFailure instanceof Error e) {
+            throw e;
+        }
+        throw new IOException(String.format("Failed to write trajectories in %s", directory), writeFailure);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of recorded decisions, including the ones not written yet
+     */
+    public long getNbRecords() {
+        return nbRecords.get();
+    }
+
+    /**
+     * @return the number of bytes written in the shards, headers of the shards excluded
+     */
+    public long getNbWrittenBytes() {
+        return nbWrittenBytes.get();
+    }
+
+    /**
+     * @return the number of decisions dropped after a write failure
+     */
+    public long getNbDroppedRecords() {
+        return nbDroppedRecords.get();
+    }
+
+    /**
+     * @return the number of times a game thread waited for a block being written, counted when the thread releases its recorder
+     */
+    public long getNbWaits() {
+        return nbWaits.get();
+    }
+
+}
@@ -1,5 +1,6 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.card.contree.ContreeCard;
@@ -15,7 +16,13 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
 
     private final String trickId;
 
-    private final List<ContreePlayedCard> playedCards = new ArrayList<>();
+    private final List<ContreePlayedCard> playedCards = new ArrayList<>(4);
+
+    private long playedCardsMask = CardMask.EMPTY;
+
+    private final int[] playedCardsOrdinals = new int[ContreePlayers.NB_PLAYERS];
+
+    private long currentPlayerPlayableCards = CardMask.EMPTY;
 
     private ContreeCard firstPlayedCard = null;
 
@@ -51,9 +58,15 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
 
     private void configureCurrentPlayer() {
         currentPlayerSlot = trickPlayers.getCurrentPlayerSlot();
-        trickPlayers.notifyCurrentPlayerTurn(
-                playableCardsFilter.playableCards(this, currentPlayerSlot.getPlayer().orElseThrow())
-        );
+        if (!eventSender.isTrustedReplay()) {
+            notifyCurrentPlayer();
+        }
+    }
+
+    void notifyCurrentPlayer() {
+        // Computed once per turn: it is used to notify the player and to validate the played card
+        currentPlayerPlayableCards = playableCardsFilter.playableCardsMask(this, currentPlayerSlot.getPlayer().orElseThrow());
+        trickPlayers.notifyCurrentPlayerTurn(CardMask.toSet(currentPlayerPlayableCards));
     }
 
     boolean isTrumpTrick() {
@@ -62,9 +75,12 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
 
     void playerPlays(ContreePlayer player, ClassicalCard card) {
 
-        throwExceptionIfInvalidPlayedCard(player, card);
+        if (!eventSender.isTrustedReplay()) {
+            throwExceptionIfInvalidPlayedCard(player, card);
+        }
+        eventSender.sendPlayedCardEvent(player, card);
 
-        ContreePlayedCard playedCard = new ContreePlayedCard(player, new ContreeCard(card, trumpSuit));
+        ContreePlayedCard playedCard = new ContreePlayedCard(player, ContreeCard.of(card, trumpSuit));
 
         if (firstPlayedCard == null) {
             firstPlayedCard = playedCard.card();
@@ -74,7 +90,9 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
                 eventSender.sendTrumpedTrickEvent(this.trickId);
             }
         }
+        playedCardsOrdinals[playedCards.size()] = card.ordinal();
         playedCards.add(playedCard);
+        playedCardsMask = CardMask.with(playedCardsMask, card);
         player.removeCardFromHand(card);
         if (isOver()) {
             winner = winningPlayer();
@@ -97,10 +115,8 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
             throw new IllegalArgumentException( String.format("Cheater detected -> %s is not current player!. Current player is %s%n", player, currentPlayerSlot.getPlayer().orElseThrow()) );
         }
 
-        var currentPlayerPlayableCards = playableCardsFilter.playableCards(this, player);
-
-        if (!currentPlayerPlayableCards.contains(card) ) {
-            String allowedCardsStr = currentPlayerPlayableCards.stream().map( ClassicalCard::toString ).collect( Collectors.joining(",") );
+        if (!CardMask.contains(currentPlayerPlayableCards, card) ) {
+            String allowedCardsStr = CardMask.toList(currentPlayerPlayableCards).stream().map( ClassicalCard::toString ).collect( Collectors.joining(",") );
             throw new IllegalArgumentException( String.format("Player %s : cheater detected -> %s is not an allowed card. Allowed cards are : %s", player, card, allowedCardsStr) );
         }
     }
@@ -121,7 +137,14 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
     }
 
     public Set<ClassicalCard> getAllCards() {
-        return playedCards.stream().map(pc -> pc.card().getCard()).collect(Collectors.toSet());
+        return CardMask.toSet(playedCardsMask);
+    }
+
+    /**
+     * @return the cards played in this trick as a {@link CardMask}
+     */
+    long getAllCardsMask() {
+        return playedCardsMask;
     }
 
     public CardSuit getTrumpSuit() {
@@ -132,12 +155,7 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
         if (playedCards.isEmpty()) {
             return null;
         }
-        CardSuit wantedSuit = firstPlayedCard.getSuit();
-        return playedCards.stream()
-                .filter(pc -> pc.card().getSuit() == wantedSuit || pc.card().getSuit() == trumpSuit)
-                .max(Comparator.comparingInt(a -> a.card().getGameValue()))
-                .orElseThrow(() -> new IllegalStateException("At least one card must be found as playedCards is not empty"))
-                .player();
+        return playedCards.get(PlayableCardsFilter.winningCardIndex(trumpSuit, playedCardsOrdinals, playedCards.size())).player();
     }
 
     @Override
@@ -145,6 +163,17 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
         return playedCards;
     }
 
+    /**
+     * @return ordinals of the played cards, in play order. Only the first {@link #getNbPlayedCards()} values are relevant.
+     */
+    int[] getPlayedCardsOrdinals() {
+        return playedCardsOrdinals;
+    }
+
+    int getNbPlayedCards() {
+        return playedCards.size();
+    }
+
     public String getTrickId() {
         return trickId;
     }
@@ -154,7 +183,12 @@ class ContreeTrick implements Trick<ContreePlayer, ContreePlayedCard, ContreeTea
     }
 
     public Collection<ContreeCard> getPlayerHand(ContreePlayer player) {
-        return ContreeCard.of( trumpSuit, new HashSet<>(player.getHand()) );
+        long hand = player.getHandMask();
+        List<ContreeCard> playerHand = new ArrayList<>(CardMask.size(hand));
+        for (long m = hand; m != CardMask.EMPTY; m = CardMask.removeFirst(m)) {
+            playerHand.add(ContreeCard.of(CardMask.first(m), trumpSuit));
+        }
+        return playerHand;
     }
 
     @Override
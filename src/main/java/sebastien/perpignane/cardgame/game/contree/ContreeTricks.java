@@ -1,5 +1,7 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.card.contree.ContreeCard;
 import sebastien.perpignane.cardgame.player.Team;
@@ -26,6 +28,8 @@ class ContreeTricks {
 
     private final PlayableCardsFilter playableCardsFilter;
 
+    private final long[] wonCardsMaskByTeam = new long[ContreeTeam.values().length];
+
     public ContreeTricks(PlayableCardsFilter playableCardsFilter, ContreeGameEventSender eventSender) {
         this.playableCardsFilter = playableCardsFilter;
         this.eventSender = eventSender;
@@ -64,6 +68,9 @@ class ContreeTricks {
     public void playerPlays(ContreePlayer player, ClassicalCard card) {
         currentTrick.playerPlays(player, card);
         if ( currentTrick.isOver() ) {
+            currentTrick.getWinnerTeam().ifPresent(
+                team -> wonCardsMaskByTeam[team.ordinal()] |= currentTrick.getAllCardsMask()
+            );
             eventSender.sendEndOfTrickEvent(currentTrick.getTrickId(), currentTrick.getWinner().orElseThrow());
             if ( tricks.size() == NB_TRICKS_PER_DEAL ) {
                 tricksAreOver = true;
@@ -76,6 +83,15 @@ class ContreeTricks {
         }
     }
 
+    /**
+     * Notifies the current player of the current trick that it is its turn, after a trusted replay
+     */
+    void notifyCurrentPlayer() {
+        if (currentTrick != null) {
+            currentTrick.notifyCurrentPlayer();
+        }
+    }
+
     public boolean tricksAreOver() {
         return tricksAreOver;
     }
@@ -99,21 +115,21 @@ class ContreeTricks {
     }
 
     public Map<Team, Set<ContreeCard>> wonCardsByTeam() {
+        CardSuit trumpSuit = deal.getTrumpSuit();
+        Map<Team, Set<ContreeCard>> wonCardsByTeam = new HashMap<>();
+        for (ContreeTeam team : ContreeTeam.values()) {
+            Set<ContreeCard> wonCards = new HashSet<>();
+            CardMask.forEach(wonCardsMaskByTeam[team.ordinal()], c -> wonCards.add(ContreeCard.of(c, trumpSuit)));
+            wonCardsByTeam.put(team, wonCards);
+        }
+        return wonCardsByTeam;
+    }
 
-        Map<Team, List<ContreeTrick>> tricksByWinnerTeam =
-                tricks.stream()
-                    .filter(t -> t.getWinnerTeam().isPresent())
-                    .collect(
-                        Collectors.groupingBy( t -> t.getWinnerTeam().get() )
-                    );
-
-        return ContreeTeam.getTeams().stream().collect(Collectors.toMap(
-                team -> team,
-                team -> tricksByWinnerTeam.getOrDefault(team, Collections.emptyList()).stream()
-                        .map(trick -> trick.getPlayedCards().stream().map(ContreePlayedCard::card).toList())
-                        .flatMap(Collection::stream)
-                        .collect(Collectors.toSet())
-        ));
+    /**
+     * @return the cards won by the team as a {@link CardMask}
+     */
+    long wonCardsMask(ContreeTeam team) {
+        return wonCardsMaskByTeam[team.ordinal()];
     }
 
     Optional<ContreeTrick> lastTrick() {
@@ -141,4 +157,18 @@ class ContreeTricks {
         return currentTrick == null ? Optional.empty() : currentTrick.getCurrentPlayer();
     }
 
+    /**
+     * @return the number of started tricks, the current one included
+     */
+    int nbTricks() {
+        return tricks.size();
+    }
+
+    /**
+     * @param index index of the trick, in play order
+     */
+    ContreeTrick trick(int index) {
+        return tricks.get(index);
+    }
+
 }
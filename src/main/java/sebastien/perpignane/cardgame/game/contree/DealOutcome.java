@@ -0,0 +1,103 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.Optional;
+
+/**
+ * Contract and result of an archived deal, replayed from its {@link DealRecord} with the rules of {@link DealScoreCalculator}.
+ *
+ * @param contract the last valued bid, {@link ContreeBidValue#PASS} if all players passed
+ * @param trumpSuit the suit of the contract, {@link CardSuit#NONE} if all players passed
+ * @param attackTeam the team of the contract bidder, null if all players passed
+ * @param bidderTrumps the number of trumps dealt to the contract bidder
+ * @param capot true if a team won all the tricks
+ */
+record DealOutcome(
+        ContreeBidValue contract,
+        CardSuit trumpSuit,
+        boolean doubled,
+        boolean redoubled,
+        ContreeTeam attackTeam,
+        int bidderTrumps,
+        boolean capot,
+        boolean contractReached) {
+
+    private static final int NB_TRICKS = DealRecord.NB_CARDS / ContreePlayers.NB_PLAYERS;
+
+    private static final DealOutcome ALL_PASS = new DealOutcome(ContreeBidValue.PASS, CardSuit.NONE, false, false, null, 0, false, false);
+
+    static DealOutcome of(DealRecord deal) {
+        int contractBidIndex = -1;
+        boolean doubled = false;
+        boolean redoubled = false;
+        for (int i = 0 ; i < deal.nbBids() ; i++) {
+            ContreeBidValue bidValue = deal.bidValue(i);
+            if (bidValue == ContreeBidValue.DOUBLE) {
+                doubled = true;
+            }
+            else if (bidValue == ContreeBidValue.REDOUBLE) {
+                redoubled = true;
+            }
+            else if (bidValue != ContreeBidValue.PASS) {
+                // Valued bids are increasing: the last one is the contract
+                contractBidIndex = i;
+            }
+        }
+        if (contractBidIndex < 0) {
+            return ALL_PASS;
+        }
+
+        ContreeBidValue contract = deal.bidValue(contractBidIndex);
+        CardSuit trumpSuit = deal.bidSuit(contractBidIndex);
+        int bidderSlot = deal.bidderSlot(contractBidIndex);
+
+        int[] trick = new int[ContreePlayers.NB_PLAYERS];
+        int nbTricks = deal.nbPlayedCards() / ContreePlayers.NB_PLAYERS;
+        int attackTricks = 0;
+        int attackPoints = 0;
+        for (int t = 0 ; t < nbTricks ; t++) {
+            int points = t == NB_TRICKS - 1 ? DealScoreCalculator.DIX_DE_DER_BONUS : 0;
+            for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+                trick[i] = deal.playedCard(t * ContreePlayers.NB_PLAYERS + i).ordinal();
+                points += ContreeCard.gamePoints(trick[i], CardMask.card(trick[i]).getSuit() == trumpSuit);
+            }
+            int winnerIndex = PlayableCardsFilter.winningCardIndex(trumpSuit, trick, ContreePlayers.NB_PLAYERS);
+            if (deal.ownerSlot(CardMask.card(trick[winnerIndex])) % 2 == bidderSlot % 2) {
+                attackTricks++;
+                attackPoints += points;
+            }
+        }
+
+        boolean capot = nbTricks == NB_TRICKS && (attackTricks == 0 || attackTricks == NB_TRICKS);
+        boolean contractReached = contract == ContreeBidValue.CAPOT ? attackTricks == NB_TRICKS : attackPoints >= contract.getExpectedScore();
+        return new DealOutcome(
+                contract,
+                trumpSuit,
+                doubled,
+                redoubled,
+                team(bidderSlot),
+                CardMask.size(CardMask.ofSuit(deal.hand(bidderSlot), trumpSuit)),
+                capot,
+                contractReached
+        );
+    }
+
+    /**
+     * @return the attack team if the contract is reached, the defense team otherwise, empty if all players passed
+     */
+    Optional<ContreeTeam> winnerTeam() {
+        if (attackTeam == null) {
+            return Optional.empty();
+        }
+        return Optional.of(contractReached ? attackTeam : team(attackTeam.ordinal() + 1));
+    }
+
+    private static ContreeTeam team(int slot) {
+        return slot % 2 == 0 ? ContreeTeam.TEAM1 : ContreeTeam.TEAM2;
+    }
+
+}
@@ -0,0 +1,193 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.Arrays;
+
+/**
+ * A finished deal, fully described by its initial distribution, its bids and the order of its played cards.
+ * Its binary form, written in {@link ContreeDealArchive}s, is described by {@link DealRecordCodec}.
+ *
+ * Bidders and players are identified by their slot in the game, from 0 to 3.
+ */
+public final class DealRecord {
+
+    public static final int NB_CARDS = 32;
+
+    /**
+     * The longest bid sequence allowed by the rules: 3 passes, each valued bid followed by 2 passes, a double, 2 passes and a redouble
+     */
+    public static final int MAX_BIDS = 37;
+
+    private static final long GAME_CARDS_MASK = CardSet.GAME_32.getGameCardsMask();
+
+    private static final ContreeBidValue[] BID_VALUES = ContreeBidValue.values();
+
+    private static final CardSuit[] CARD_SUITS = CardSuit.values();
+
+    private final long[] hands;
+
+    private final int firstBidderSlot;
+
+    private final byte[] bidValues;
+
+    private final byte[] bidSuits;
+
+    private final byte[] playedCards;
+
+    /**
+     * @param hands the dealt hands, as {@link CardMask}s by slot
+     * @param firstBidderSlot the slot of the player who placed the first bid
+     * @param bidValues the ordinals of the {@link ContreeBidValue}s of the bids, in order
+     * @param bidSuits the ordinals of the suits of the bids, {@link ContreeGameEvent#NONE} if the bid has no suit
+     * @param playedCards the ordinals of the played cards, in order
+     * @throws IllegalArgumentException if the hands are not a distribution of the 32 cards, if the bids or the played cards cannot belong to this distribution,
+     * or if the cards of a trick were not dealt to the 4 players in turn. Leading a trick is not checked against the winner of the previous one.
+     */
+    DealRecord(long[] hands, int firstBidderSlot, byte[] bidValues, byte[] bidSuits, byte[] playedCards) {
+        if (hands.length != ContreePlayers.NB_PLAYERS || (hands[0] | hands[1] | hands[2] | hands[3]) != GAME_CARDS_MASK
+                || CardMask.size(hands[0]) + CardMask.size(hands[1]) + CardMask.size(hands[2]) + CardMask.size(hands[3]) != NB_CARDS) {
+            throw new IllegalArgumentException("The hands must be a distribution of the 32 cards to 4 players");
+        }
+        if (firstBidderSlot < 0 || firstBidderSlot >= ContreePlayers.NB_PLAYERS) {
+            throw new IllegalArgumentException(String.format("Invalid first bidder slot: %d", firstBidderSlot));
+        }
+        if (bidValues.length != bidSuits.length || bidValues.length > MAX_BIDS) {
+            throw new IllegalArgumentException(String.format("At most %d bids with a value and a suit are expected, got %d values and %d suits", MAX_BIDS, bidValues.length, bidSuits.length));
+        }
+        for (int i = 0 ; i < bidValues.length ; i++) {
+            if (bidValues[i] < 0 || bidValues[i] >= BID_VALUES.length) {
+                throw new IllegalArgumentException(String.format("Invalid bid value ordinal: %d", bidValues[i]));
+            }
+            boolean suitRequired = BID_VALUES[bidValues[i]].isCardSuitRequired();
+            if (suitRequired ? bidSuits[i] < 0 || bidSuits[i] >= CardSuit.NONE.ordinal() : bidSuits[i] != ContreeGameEvent.NONE && bidSuits[i] != CardSuit.NONE.ordinal()) {
+                throw new IllegalArgumentException(String.format("Invalid suit ordinal %d for bid %s", bidSuits[i], BID_VALUES[bidValues[i]]));
+            }
+        }
+        long playedMask = CardMask.EMPTY;
+        int leaderSlot = 0;
+        for (int i = 0 ; i < playedCards.length ; i++) {
+            byte playedCard = playedCards[i];
+            long cardMask = 1L << playedCard;
+            if (playedCard < 0 || (GAME_CARDS_MASK & cardMask) == 0 || (playedMask & cardMask) != 0) {
+                throw new IllegalArgumentException(String.format("Invalid or already played card ordinal: %d", playedCard));
+            }
+            playedMask |= cardMask;
+            int playerSlot = ownerSlot(hands, cardMask);
+            int positionInTrick = i % ContreePlayers.NB_PLAYERS;
+            if (positionInTrick == 0) {
+                leaderSlot = playerSlot;
+            }
+            else if (playerSlot != (leaderSlot + positionInTrick) % ContreePlayers.NB_PLAYERS) {
+                throw new IllegalArgumentException(String.format("Played card %s of trick %d was dealt to slot %d, the player of slot %d was expected",
+                        CardMask.card(playedCard), i / ContreePlayers.NB_PLAYERS + 1, playerSlot, (leaderSlot + positionInTrick) % ContreePlayers.NB_PLAYERS));
+            }
+        }
+        this.hands = hands;
+        this.firstBidderSlot = firstBidderSlot;
+        this.bidValues = bidValues;
+        this.bidSuits = bidSuits;
+        this.playedCards = playedCards;
+    }
+
+    private static int ownerSlot(long[] hands, long cardMask) {
+        int slot = 0;
+        while ((hands[slot] & cardMask) == 0) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * @return the hand dealt to the player of this slot, as a {@link CardMask}
+     */
+    public long hand(int slot) {
+        return hands[slot];
+    }
+
+    /**
+     * @return the slot of the player to whom the card was dealt
+     */
+    public int ownerSlot(ClassicalCard card) {
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            if (CardMask.contains(hands[slot], card)) {
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s is not a card of the deal", card));
+    }
+
+    public int firstBidderSlot() {
+        return firstBidderSlot;
+    }
+
+    public int nbBids() {
+        return bidValues.length;
+    }
+
+    public ContreeBidValue bidValue(int bidIndex) {
+        return BID_VALUES[bidValues[bidIndex]];
+    }
+
+    /**
+     * @return the suit of the bid, null if the bid has no suit
+     */
+    public CardSuit bidSuit(int bidIndex) {
+        return bidValue(bidIndex).isCardSuitRequired() ? CARD_SUITS[bidSuits[bidIndex]] : null;
+    }
+
+    public int bidderSlot(int bidIndex) {
+        return (firstBidderSlot + bidIndex) % ContreePlayers.NB_PLAYERS;
+    }
+
+    public int nbPlayedCards() {
+        return playedCards.length;
+    }
+
+    public ClassicalCard playedCard(int playIndex) {
+        return CardMask.card(playedCards[playIndex]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DealRecord other) || firstBidderSlot != other.firstBidderSlot || !Arrays.equals(hands, other.hands)
+                || !Arrays.equals(bidValues, other.bidValues) || !Arrays.equals(playedCards, other.playedCards)) {
+            return false;
+        }
+        for (int i = 0 ; i < bidValues.length ; i++) {
+            if (bidSuit(i) != other.bidSuit(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(hands);
+        result = 31 * result + firstBidderSlot;
+        result = 31 * result + Arrays.hashCode(bidValues);
+        return 31 * result + Arrays.hashCode(playedCards);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder bids = new StringBuilder();
+        for (int i = 0 ; i < bidValues.length ; i++) {
+            bids.append(i == 0 ? "" : ", ").append(bidderSlot(i)).append(':').append(bidValue(i));
+            if (bidSuit(i) != null) {
+                bids.append(' ').append(bidSuit(i).name());
+            }
+        }
+        return String.format("DealRecord{hands=[%s, %s, %s, %s], bids=[%s], nbPlayedCards=%d}",
+                CardMask.toString(hands[0]), CardMask.toString(hands[1]), CardMask.toString(hands[2]), CardMask.toString(hands[3]),
+                bids, playedCards.length);
+    }
+
+}
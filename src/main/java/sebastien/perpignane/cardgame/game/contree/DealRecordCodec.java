@@ -0,0 +1,150 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Binary form of a {@link DealRecord}: a 64 bytes record, read and written as 8 little endian longs, seen as a 512 bits stream.
+ *
+ * <pre>
+ * bits   0-63  : owner slot of each card of the 32 cards game, 2 bits by card, in the order of the game cards
+ * bits  64-223 : played cards, 5 bits by card: its index in the game cards
+ * bits 224-445 : bids, 6 bits by bid: its value ordinal for PASS, DOUBLE and REDOUBLE, 13 + 4 * (value ordinal - 1) + suit ordinal for valued bids
+ * bits 446-451 : number of bids
+ * bits 452-457 : number of played cards
+ * bits 458-459 : slot of the first bidder
+ * bit  511     : set once the record is written, so that a zeroed record is never read as a deal
+ * </pre>
+ *
+ * The 32 bytes of the cards alone do not leave room for the longest bid sequences, hence the 64 bytes: a record is a cache line.
+ */
+final class DealRecordCodec {
+
+    static final int RECORD_SIZE = 64;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int NB_WORDS = RECORD_SIZE / Long.BYTES;
+
+    private static final int CARD_BITS = 5;
+
+    private static final int BID_BITS = 6;
+
+    private static final int PLAYED_CARDS_OFFSET = 64;
+
+    private static final int BIDS_OFFSET = PLAYED_CARDS_OFFSET + DealRecord.NB_CARDS * CARD_BITS;
+
+    private static final int NB_BIDS_OFFSET = BIDS_OFFSET + DealRecord.MAX_BIDS * BID_BITS;
+
+    private static final int NB_PLAYED_CARDS_OFFSET = NB_BIDS_OFFSET + 6;
+
+    private static final int FIRST_BIDDER_OFFSET = NB_PLAYED_CARDS_OFFSET + 6;
+
+    private static final long WRITTEN_FLAG = 1L << 63;
+
+    private static final int FIRST_VALUED_BID_CODE = ContreeBidValue.values().length;
+
+    private static final ClassicalCard[] GAME_CARDS = CardSet.GAME_32.getGameCards().toArray(ClassicalCard[]::new);
+
+    private static final byte[] GAME_CARD_INDEXES = new byte[ClassicalCard.values().length];
+
+    static {
+        List<ClassicalCard> gameCards = List.of(GAME_CARDS);
+        for (ClassicalCard card : ClassicalCard.values()) {
+            GAME_CARD_INDEXES[card.ordinal()] = (byte) gameCards.indexOf(card);
+        }
+    }
+
+    private DealRecordCodec() {
+    }
+
+    static void encode(DealRecord deal, ByteBuffer buffer, int offset) {
+        long[] words = new long[NB_WORDS];
+        for (int i = 0 ; i < DealRecord.NB_CARDS ; i++) {
+            words[0] |= (long) deal.ownerSlot(GAME_CARDS[i]) << (2 * i);
+        }
+        for (int i = 0 ; i < deal.nbPlayedCards() ; i++) {
+            putBits(words, PLAYED_CARDS_OFFSET + i * CARD_BITS, CARD_BITS, GAME_CARD_INDEXES[deal.playedCard(i).ordinal()]);
+        }
+        for (int i = 0 ; i < deal.nbBids() ; i++) {
+            putBits(words, BIDS_OFFSET + i * BID_BITS, BID_BITS, bidCode(deal.bidValue(i), deal.bidSuit(i) == null ? ContreeGameEvent.NONE : deal.bidSuit(i).ordinal()));
+        }
+        putBits(words, NB_BIDS_OFFSET, 6, deal.nbBids());
+        putBits(words, NB_PLAYED_CARDS_OFFSET, 6, deal.nbPlayedCards());
+        putBits(words, FIRST_BIDDER_OFFSET, 2, deal.firstBidderSlot());
+        words[NB_WORDS - 1] |= WRITTEN_FLAG;
+        // The word holding the written flag is written last
+        for (int i = 0 ; i < NB_WORDS ; i++) {
+            buffer.putLong(offset + i * Long.BYTES, words[i]);
+        }
+    }
+
+    static DealRecord decode(ByteBuffer buffer, int offset) {
+        long[] words = new long[NB_WORDS];
+        for (int i = 0 ; i < NB_WORDS ; i++) {
+            words[i] = buffer.getLong(offset + i * Long.BYTES);
+        }
+        if ((words[NB_WORDS - 1] & WRITTEN_FLAG) == 0) {
+            throw new IllegalArgumentException(String.format("No deal record is written at offset %d", offset));
+        }
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < DealRecord.NB_CARDS ; i++) {
+            hands[(int) (words[0] >>> (2 * i)) & 3] |= 1L << GAME_CARDS[i].ordinal();
+        }
+        int nbBids = (int) getBits(words, NB_BIDS_OFFSET, 6);
+        byte[] bidValues = new byte[nbBids];
+        byte[] bidSuits = new byte[nbBids];
+        for (int i = 0 ; i < nbBids ; i++) {
+            int code = (int) getBits(words, BIDS_OFFSET + i * BID_BITS, BID_BITS);
+            if (code < FIRST_VALUED_BID_CODE) {
+                bidValues[i] = (byte) code;
+                bidSuits[i] = ContreeGameEvent.NONE;
+            }
+            else {
+                bidValues[i] = (byte) ((code - FIRST_VALUED_BID_CODE) / 4 + 1);
+                bidSuits[i] = (byte) ((code - FIRST_VALUED_BID_CODE) % 4);
+            }
+        }
+        int nbPlayedCards = (int) getBits(words, NB_PLAYED_CARDS_OFFSET, 6);
+        byte[] playedCards = new byte[nbPlayedCards];
+        for (int i = 0 ; i < nbPlayedCards ; i++) {
+            playedCards[i] = (byte) GAME_CARDS[(int) getBits(words, PLAYED_CARDS_OFFSET + i * CARD_BITS, CARD_BITS)].ordinal();
+        }
+        return new DealRecord(hands, (int) getBits(words, FIRST_BIDDER_OFFSET, 2), bidValues, bidSuits, playedCards);
+    }
+
+    /**
+     * @return true if a deal record is fully written at this offset
+     */
+    static boolean isWritten(ByteBuffer buffer, int offset) {
+        return (buffer.getLong(offset + RECORD_SIZE - Long.BYTES) & WRITTEN_FLAG) != 0;
+    }
+
+    private static int bidCode(ContreeBidValue bidValue, int suitOrdinal) {
+        return bidValue.isCardSuitRequired() ? FIRST_VALUED_BID_CODE + 4 * (bidValue.ordinal() - 1) + suitOrdinal : bidValue.ordinal();
+    }
+
+    private static void putBits(long[] words, int bitOffset, int nbBits, long value) {
+        int word = bitOffset >>> 6;
+        int shift = bitOffset & 63;
+        words[word] |= value << shift;
+        if (shift + nbBits > Long.SIZE) {
+            words[word + 1] |= value >>> (Long.SIZE - shift);
+        }
+    }
+
+    private static long getBits(long[] words, int bitOffset, int nbBits) {
+        int word = bitOffset >>> 6;
+        int shift = bitOffset & 63;
+        long value = words[word] >>> shift;
+        if (shift + nbBits > Long.SIZE) {
+            value |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return value & ((1L << nbBits) - 1);
+    }
+
+}
@@ -83,6 +83,49 @@ class DealScoreCalculator {
 
     }
 
+    /**
+     * Final scores of a played deal, as {@link DealScoreResult#finalRoundedScoreByTeam()}, computed from primitive values without allocation.
+     *
+     * @param attackTeam ordinal of the team who made the contract
+     * @param attackCardScore card points won by the attack team, dix de der included
+     * @param contractValue value of the contract
+     * @param multiplier 1, 2 if the contract is doubled, 4 if it is redoubled
+     * @param capotTeam ordinal of the team who won all the tricks, -1 if none
+     * @param finalScores receives the final score of each team, by team ordinal, from the offset
+     */
+    static void computeFinalScores(int attackTeam, int attackCardScore, ContreeBidValue contractValue, int multiplier, int capotTeam, int[] finalScores, int offset) {
+
+        boolean announcedCapot = contractValue == ContreeBidValue.CAPOT;
+        boolean contractIsReached = announcedCapot ? capotTeam == attackTeam : attackCardScore >= contractValue.getExpectedScore();
+        int defenseTeam = 1 - attackTeam;
+
+        if (multiplier > 1 || announcedCapot || capotTeam >= 0) {
+            int winnerBaseScore = ContreeBidValue.HUNDRED_SIXTY.getExpectedScore();
+            if (capotTeam >= 0) {
+                winnerBaseScore = ContreeBidValue.CAPOT.getExpectedScore();
+            }
+            if (announcedCapot) {
+                winnerBaseScore = ContreeBidValue.CAPOT.getExpectedScore() * 2;
+            }
+            finalScores[offset + (contractIsReached ? attackTeam : defenseTeam)] = winnerBaseScore * multiplier;
+            finalScores[offset + (contractIsReached ? defenseTeam : attackTeam)] = 0;
+        }
+        else if (!contractIsReached) {
+            finalScores[offset + attackTeam] = 0;
+            finalScores[offset + defenseTeam] = ContreeBidValue.HUNDRED_SIXTY.getExpectedScore();
+        }
+        else {
+            finalScores[offset + attackTeam] = roundScore(attackCardScore);
+            finalScores[offset + defenseTeam] = roundScore(EXPECTED_CARD_SCORE_SUM - attackCardScore);
+        }
+
+    }
+
+    private static int roundScore(int score) {
+        // round to the ten
+        return ((score+5)/10)*10;
+    }
+
     Integer computeCardPoints(Collection<? extends ValuableCard> contreeCards) {
         return contreeCards.stream().mapToInt(ValuableCard::getGamePoints).sum();
     }
@@ -143,10 +186,7 @@ class DealScoreCalculator {
 
     private void roundScores(Map<ContreeTeam, Integer> scoreByTeam) {
         for (Map.Entry<ContreeTeam, Integer> teamScore : scoreByTeam.entrySet()) {
-            int score = teamScore.getValue();
-            // round to the ten
-            var roundScore = ((score+5)/10)*10;
-            scoreByTeam.put(teamScore.getKey(), roundScore);
+            scoreByTeam.put(teamScore.getKey(), roundScore(teamScore.getValue()));
         }
     }
 
@@ -0,0 +1,70 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of duplicate boards played by {@link ContreeDuplicateRunner}.
+ *
+ * @param boardDeltas the delta of each board, in the order of the boards: positive when the team A did better than the team B with the same cards
+ * @param elapsedNanos wall clock duration of the whole simulation, in nanoseconds
+ */
+public record DuplicateReport(
+        List<Integer> boardDeltas,
+        long elapsedNanos
+) {
+
+    public DuplicateReport {
+        boardDeltas = List.copyOf(boardDeltas);
+    }
+
+    public int nbBoards() {
+        return boardDeltas.size();
+    }
+
+    public long totalDelta() {
+        return boardDeltas.stream().mapToLong(Integer::longValue).sum();
+    }
+
+    public double meanDelta() {
+        return nbBoards() == 0 ? 0 : (double) totalDelta() / nbBoards();
+    }
+
+    /**
+     * @return the standard error of the mean delta, 0 with less than 2 boards
+     */
+    public double standardError() {
+        int nbBoards = nbBoards();
+        if (nbBoards < 2) {
+            return 0;
+        }
+        double mean = meanDelta();
+        double sumOfSquares = boardDeltas.stream().mapToDouble(delta -> (delta - mean) * (delta - mean)).sum();
+        return Math.sqrt(sumOfSquares / (nbBoards - 1) / nbBoards);
+    }
+
+    public int teamAWins() {
+        return (int) boardDeltas.stream().filter(delta -> delta > 0).count();
+    }
+
+    public int teamBWins() {
+        return (int) boardDeltas.stream().filter(delta -> delta < 0).count();
+    }
+
+    public double boardsPerSecond() {
+        return elapsedNanos == 0 ? 0 : nbBoards() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                Duplicate boards: %d in %.3f s (%.1f boards/s)
+                Board wins: team A %d, team B %d, ties %d
+                Delta of team A: total %d, mean %.2f +/- %.2f by board""",
+                nbBoards(), elapsedNanos / 1e9, boardsPerSecond(),
+                teamAWins(), teamBWins(), nbBoards() - teamAWins() - teamBWins(),
+                totalDelta(), meanDelta(), standardError()
+        );
+    }
+
+}
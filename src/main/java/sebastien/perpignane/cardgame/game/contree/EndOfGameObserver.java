@@ -0,0 +1,59 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.GameObserver;
+import sebastien.perpignane.cardgame.game.GameStatus;
+import sebastien.perpignane.cardgame.game.Trick;
+import sebastien.perpignane.cardgame.game.war.WarGame;
+import sebastien.perpignane.cardgame.player.Player;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.function.Consumer;
+
+/**
+ * Game observer only interested in the end of contree games
+ */
+class EndOfGameObserver implements GameObserver {
+
+    private final Consumer<ContreeGame> endOfGameAction;
+
+    EndOfGameObserver(Consumer<ContreeGame> endOfGameAction) {
+        this.endOfGameAction = endOfGameAction;
+    }
+
+    @Override
+    public void onEndOfGame(ContreeGame contreeGame) {
+        endOfGameAction.accept(contreeGame);
+    }
+
+    @Override
+    public void onEndOfGame(WarGame warGame) {
+        // Not a contree game
+    }
+
+    @Override
+    public void onStateUpdated(GameStatus oldState, GameStatus newState) {
+        // Only the end of the game is observed
+    }
+
+    @Override
+    public void onCardPlayed(Player<?, ?> player, ClassicalCard card) {
+        // Only the end of the game is observed
+    }
+
+    @Override
+    public void onNextPlayer(Player<?, ?> p) {
+        // Only the end of the game is observed
+    }
+
+    @Override
+    public void onWonTrick(Trick<?, ?, ?> trick) {
+        // Only the end of the game is observed
+    }
+
+    @Override
+    public void onJoinedGame(ContreeGame contreeGame, int playerIndex, ContreePlayer player) {
+        // Only the end of the game is observed
+    }
+
+}
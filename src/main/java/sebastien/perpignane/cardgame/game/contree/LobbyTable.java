@@ -0,0 +1,110 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerFactory;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A table of the lobby, whose seats are claimed without lock: a seat is taken by the first player who sets it with a compare-and-set.
+ * The seat number is the index of the player in the game: seats 0 and 2 are for the team 1, seats 1 and 3 for the team 2.
+ *
+ * The thread taking the last seat launches the table, so a table is launched exactly once.
+ */
+class LobbyTable {
+
+    private static final int[] ALL_SEATS = {0, 1, 2, 3};
+
+    private static final int[] TEAM1_SEATS = {0, 2};
+
+    private static final int[] TEAM2_SEATS = {1, 3};
+
+    private final AtomicReferenceArray<ContreePlayer> seats = new AtomicReferenceArray<>(ContreePlayers.NB_PLAYERS);
+
+    private final AtomicInteger nbTakenSeats = new AtomicInteger();
+
+    private final CompletableFuture<ContreeGame> game = new CompletableFuture<>();
+
+    private final Consumer<LobbyTable> launcher;
+
+    private volatile Future<?> botFill;
+
+    /**
+     * @param launcher called once, by the thread taking the last seat
+     */
+    LobbyTable(Consumer<LobbyTable> launcher) {
+        this.launcher = launcher;
+    }
+
+    /**
+     * @param wantedTeam the team the player wants to play in, null if any team is fine
+     * @return true if the player took a seat, false if no seat is free for the player
+     */
+    boolean claimSeat(ContreePlayer player, ContreeTeam wantedTeam) {
+        for (int seat : eligibleSeats(wantedTeam)) {
+            if (seats.get(seat) == null && seats.compareAndSet(seat, null, player)) {
+                seatTaken();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives the free seats to bots
+     */
+    void fillWithBots(ThreadFactory botThreadFactory) {
+        for (int seat : ALL_SEATS) {
+            if (seats.get(seat) == null
+                    && seats.compareAndSet(seat, null, ContreePlayerFactory.createBotPlayer(String.valueOf(seat + 1), botThreadFactory))) {
+                seatTaken();
+            }
+        }
+    }
+
+    private void seatTaken() {
+        if (nbTakenSeats.incrementAndGet() == ContreePlayers.NB_PLAYERS) {
+            launcher.accept(this);
+        }
+    }
+
+    private static int[] eligibleSeats(ContreeTeam wantedTeam) {
+        if (wantedTeam == null) {
+            return ALL_SEATS;
+        }
+        return wantedTeam == ContreeTeam.TEAM1 ? TEAM1_SEATS : TEAM2_SEATS;
+    }
+
+    boolean isFull() {
+        return nbTakenSeats.get() == ContreePlayers.NB_PLAYERS;
+    }
+
+    ContreePlayer getPlayer(int seat) {
+        return seats.get(seat);
+    }
+
+    void setBotFill(Future<?> botFill) {
+        this.botFill = botFill;
+        if (isFull()) {
+            botFill.cancel(false);
+        }
+    }
+
+    void cancelBotFill() {
+        Future<?> currentBotFill = botFill;
+        if (currentBotFill != null) {
+            currentBotFill.cancel(false);
+        }
+    }
+
+    CompletableFuture<ContreeGame> getGame() {
+        return game;
+    }
+
+}
@@ -0,0 +1,24 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the commands in the calling thread.
+ * A lock is used rather than synchronized methods, so that player threads waiting for the game do not pin their carrier thread when they are virtual.
+ */
+class LockGameCommandExecutor implements ContreeGameCommandExecutor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public void execute(Runnable command) {
+        lock.lock();
+        try {
+            command.run();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+}
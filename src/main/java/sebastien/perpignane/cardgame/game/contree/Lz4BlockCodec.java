@@ -0,0 +1,215 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Compression in the LZ4 block format: a sequence of tokens, literal bytes and back references of at least 4 bytes.
+ * The blocks can be decompressed by any LZ4 implementation, like <code>LZ4_decompress_safe</code>.
+ *
+ * The compressor is the greedy single-pass one of the reference implementation: fast, with a lower ratio than LZ4 HC.
+ * It keeps a hash table between calls, a codec is not thread safe.
+ */
+final class Lz4BlockCodec {
+
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * The last bytes of a block are always literals, and the last match starts before the last {@link #MATCH_START_MARGIN} bytes
+     */
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MATCH_START_MARGIN = 12;
+
+    private static final int MAX_OFFSET = 65_535;
+
+    private static final int HASH_LOG = 16;
+
+    /**
+     * The search step grows every 2^SKIP_STRENGTH bytes without match, so that incompressible data is skipped quickly
+     */
+    private static final int SKIP_STRENGTH = 6;
+
+    private static final int RUN_MASK = 15;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * @param dst receives the block, at least {@link #maxCompressedLength(int)} long
+     * @return the length of the compressed block
+     */
+    int compress(byte[] src, int srcLength, byte[] dst) {
+        return compress(ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN), srcLength, ByteBuffer.wrap(dst), 0);
+    }
+
+    /**
+     * Compresses the first bytes of a buffer, direct or not, without copying them to the heap.
+     * The positions and limits of the buffers are neither used nor changed.
+     *
+     * @param dst receives the block from dstOffset, with at least {@link #maxCompressedLength(int)} bytes after it
+     * @return the length of the compressed block
+     */
+    int compress(ByteBuffer src, int srcLength, ByteBuffer dst, int dstOffset) {
+
+        Arrays.fill(hashTable, -1);
+        boolean littleEndian = src.order() == ByteOrder.LITTLE_ENDIAN;
+        int anchor = 0;
+        int ip = 0;
+        int op = dstOffset;
+        int matchStartLimit = srcLength - MATCH_START_MARGIN;
+        int matchEndLimit = srcLength - LAST_LITERALS;
+
+        while (ip < matchStartLimit) {
+            int sequence = src.getInt(ip);
+            int hash = (sequence * -1640531535) >>> (Integer.SIZE - HASH_LOG);
+            int ref = hashTable[hash];
+            hashTable[hash] = ip;
+            if (ref < 0 || ip - ref > MAX_OFFSET || src.getInt(ref) != sequence) {
+                ip += 1 + ((ip - anchor) >>> SKIP_STRENGTH);
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (ip + matchLength + Long.BYTES <= matchEndLimit) {
+                long diff = src.getLong(ref + matchLength) ^ src.getLong(ip + matchLength);
+                if (diff != 0) {
+                    // The first different byte is the lowest one in little-endian order
+                    matchLength += (littleEndian ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff)) >>> 3;
+                    break;
+                }
+                matchLength += Long.BYTES;
+            }
+            while (ip + matchLength < matchEndLimit && src.get(ref + matchLength) == src.get(ip + matchLength)) {
+                matchLength++;
+            }
+            op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+            ip += matchLength;
+            anchor = ip;
+        }
+
+        // Last literals, without match
+        int literalLength = srcLength - anchor;
+        int token = op++;
+        if (literalLength >= RUN_MASK) {
+            dst.put(token, (byte) (RUN_MASK << 4));
+            op = writeLength(literalLength - RUN_MASK, dst, op);
+        }
+        else {
+            dst.put(token, (byte) (literalLength << 4));
+        }
+        dst.put(op, src, anchor, literalLength);
+        return op + literalLength - dstOffset;
+
+    }
+
+    private static int writeSequence(ByteBuffer src, int anchor, int literalLength, int offset, int matchLength, ByteBuffer dst, int op) {
+        int token = op++;
+        int tokenValue;
+        if (literalLength >= RUN_MASK) {
+            tokenValue = RUN_MASK << 4;
+            op = writeLength(literalLength - RUN_MASK, dst, op);
+        }
+        else {
+            tokenValue = literalLength << 4;
+        }
+        dst.put(op, src, anchor, literalLength);
+        op += literalLength;
+        dst.put(op++, (byte) offset);
+        dst.put(op++, (byte) (offset >>> 8));
+        int extraMatchLength = matchLength - MIN_MATCH;
+        if (extraMatchLength >= RUN_MASK) {
+            tokenValue |= RUN_MASK;
+            op = writeLength(extraMatchLength - RUN_MASK, dst, op);
+        }
+        else {
+            tokenValue |= extraMatchLength;
+        }
+        dst.put(token, (byte) tokenValue);
+        return op;
+    }
+
+    private static int writeLength(int length, ByteBuffer dst, int op) {
+        while (length >= 255) {
+            dst.put(op++, (byte) 255);
+            length -= 255;
+        }
+        dst.put(op++, (byte) length);
+        return op;
+    }
+
+    /**
+     * @param dstLength length of the decompressed block, known by the caller
+     * @throws IllegalArgumentException if the block is corrupted, or does not decompress to exactly dstLength bytes
+     */
+    static void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstLength) {
+
+        int ip = srcOffset;
+        int srcEnd = srcOffset + srcLength;
+        int op = 0;
+
+        while (true) {
+            checkBlock(ip < srcEnd, ip);
+            int token = src[ip++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    checkBlock(ip < srcEnd, ip);
+                    b = src[ip++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            checkBlock(literalLength <= srcEnd - ip && literalLength <= dstLength - op, ip);
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            if (ip == srcEnd) {
+                break;
+            }
+
+            checkBlock(ip + 2 <= srcEnd, ip);
+            int offset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+            ip += 2;
+            checkBlock(offset > 0 && offset <= op, ip);
+
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    checkBlock(ip < srcEnd, ip);
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            checkBlock(matchLength <= dstLength - op, ip);
+            if (offset >= matchLength) {
+                System.arraycopy(dst, op - offset, dst, op, matchLength);
+            }
+            else {
+                // Overlapping match, repeating the last offset bytes
+                for (int i = 0 ; i < matchLength ; i++) {
+                    dst[op + i] = dst[op - offset + i];
+                }
+            }
+            op += matchLength;
+        }
+
+        if (op != dstLength) {
+            throw new IllegalArgumentException(String.format("The LZ4 block decompresses to %d bytes, %d are expected", op, dstLength));
+        }
+
+    }
+
+    private static void checkBlock(boolean valid, int position) {
+        if (!valid) {
+            throw new IllegalArgumentException(String.format("Corrupted LZ4 block at byte %d", position));
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Actor-style executor: commands are posted in a multi-producer mailbox, and the mailbox is drained by one scheduler thread at a time.
+ *
+ * The scheduler is shared by many games: a game is scheduled only when its mailbox receives a command, and a drain runs at most
+ * {@link #MAX_COMMANDS_PER_DRAIN} commands before giving the scheduler thread back, so that a busy game does not starve the others.
+ * Posting a command never blocks, so commands are serialized without any lock.
+ *
+ * A command posted by a running command (e.g. a bot playing synchronously) is run after it, by the same drain.
+ * The sender of a command is gone when it fails: its failure is given to the handler posted with the command, if any, else it is only logged.
+ */
+class MailboxGameCommandExecutor implements ContreeGameCommandExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(MailboxGameCommandExecutor.class);
+
+    static final int MAX_COMMANDS_PER_DRAIN = 64;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Executor scheduler;
+
+    MailboxGameCommandExecutor(Executor scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        mailbox.add(command);
+        schedule();
+    }
+
+    @Override
+    public void execute(Runnable command, Consumer<RuntimeException> onFailure) {
+        execute(() -> {
+            try {
+                command.run();
+            }
+            catch (RuntimeException e) {
+                onFailure.accept(e);
+            }
+        });
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::drain);
+            }
+            catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        int nbRunCommands = 0;
+        Runnable command;
+        while (nbRunCommands < MAX_COMMANDS_PER_DRAIN && (command = mailbox.poll()) != null) {
+            try {
+                command.run();
+            }
+            catch (RuntimeException e) {
+                log.error("Game command failed", e);
+            }
+            nbRunCommands++;
+        }
+        scheduled.set(false);
+        // A command may have been posted after the last poll but before the flag was reset: its sender could not schedule the game.
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+
+}
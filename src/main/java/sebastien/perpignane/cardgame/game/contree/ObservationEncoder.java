@@ -0,0 +1,248 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes what a player knows about a game into a vector of floats, the input of a learned policy:
+ * the hand of the player, the cards played by each seat, the current trick, the bids, the contract and the game score.
+ *
+ * The layout is fixed, {@link #SIZE} floats. Each block starts at its offset constant and most of them are one-hot or many-hot encodings.
+ * Seats are relative to the encoded player: 0 is the player, 1 the next player, 2 the partner and 3 the previous player.
+ * Cards are indexed by {@link #cardIndex(ClassicalCard)}, bids by {@link VecContreeEnv#bidAction(ContreeBidValue, CardSuit)}.
+ *
+ * Encoding reads the game structures directly and does not allocate, so that it can run for every decision of a simulation.
+ * It must run in the game thread or while the game waits for the encoded player, like a {@link ContreePlayTracker}.
+ * Encoding into an array is stateless; encoding into a {@link FloatBuffer} goes through an internal array: use one encoder by thread.
+ */
+public final class ObservationEncoder {
+
+    static final int NB_SEATS = ContreePlayers.NB_PLAYERS;
+
+    private static final ClassicalCard[] GAME_CARDS = CardSet.GAME_32.getGameCards().toArray(ClassicalCard[]::new);
+
+    public static final int NB_CARDS = GAME_CARDS.length;
+
+    /**
+     * Index of each card in the card blocks, by card ordinal, -1 for the cards not in the game
+     */
+    private static final int[] CARD_INDEXES = new int[ClassicalCard.values().length];
+
+    static {
+        Arrays.fill(CARD_INDEXES, -1);
+        for (int i = 0 ; i < GAME_CARDS.length ; i++) {
+            CARD_INDEXES[GAME_CARDS[i].ordinal()] = i;
+        }
+    }
+
+    private static final int NB_CONTRACT_VALUES = ContreeBidValue.CAPOT.ordinal() - ContreeBidValue.EIGHTY.ordinal() + 1;
+
+    private static final int NB_CONTRACT_SUITS = CardSuit.NONE.ordinal();
+
+    private static final ContreeTeam[] TEAMS = ContreeTeam.values();
+
+    /**
+     * Cards in the hand of the player
+     */
+    public static final int HAND_OFFSET = 0;
+
+    /**
+     * Cards played during the deal, current trick included, one block of {@link #NB_CARDS} by seat
+     */
+    public static final int PLAYED_CARDS_OFFSET = HAND_OFFSET + NB_CARDS;
+
+    /**
+     * Cards of the current trick, one block of {@link #NB_CARDS} by seat
+     */
+    public static final int TRICK_CARDS_OFFSET = PLAYED_CARDS_OFFSET + NB_SEATS * NB_CARDS;
+
+    /**
+     * Seat leading the current trick, during the play
+     */
+    public static final int TRICK_LEADER_OFFSET = TRICK_CARDS_OFFSET + NB_SEATS * NB_CARDS;
+
+    /**
+     * Bids placed during the deal, one block of {@link VecContreeEnv#NB_BID_ACTIONS} by seat
+     */
+    public static final int BIDS_OFFSET = TRICK_LEADER_OFFSET + NB_SEATS;
+
+    /**
+     * Value of the highest valued bid, from 80 to capot
+     */
+    public static final int CONTRACT_VALUE_OFFSET = BIDS_OFFSET + NB_SEATS * VecContreeEnv.NB_BID_ACTIONS;
+
+    /**
+     * Suit of the highest valued bid, by {@link CardSuit} ordinal
+     */
+    public static final int CONTRACT_SUIT_OFFSET = CONTRACT_VALUE_OFFSET + NB_CONTRACT_VALUES;
+
+    /**
+     * Seat of the player who placed the highest valued bid
+     */
+    public static final int CONTRACT_SEAT_OFFSET = CONTRACT_SUIT_OFFSET + NB_CONTRACT_SUITS;
+
+    /**
+     * Two flags: the contract is doubled, the contract is redoubled
+     */
+    public static final int DOUBLE_OFFSET = CONTRACT_SEAT_OFFSET + NB_SEATS;
+
+    /**
+     * Two flags: bid step, play step
+     */
+    public static final int PHASE_OFFSET = DOUBLE_OFFSET + 2;
+
+    /**
+     * Game score of the team of the player, then of the other team, divided by the maximum score of the game
+     */
+    public static final int SCORE_OFFSET = PHASE_OFFSET + 2;
+
+    public static final int SIZE = SCORE_OFFSET + 2;
+
+    private final float[] buffer = new float[SIZE];
+
+    /**
+     * @return index of the card in the card blocks of the observation
+     * @throws IllegalArgumentException if the card is not a card of the game
+     */
+    public static int cardIndex(ClassicalCard card) {
+        int index = CARD_INDEXES[card.ordinal()];
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("%s is not a card of the game", card));
+        }
+        return index;
+    }
+
+    /**
+     * Writes the observation of the player at the current position of the buffer, and moves the position after it.
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #SIZE} remaining floats
+     * @see #encode(ContreeGame, ContreePlayer, float[], int)
+     */
+    public void encode(ContreeGame game, ContreePlayer player, FloatBuffer observation) {
+        encode(game, player, buffer, 0);
+        observation.put(buffer);
+    }
+
+    /**
+     * Writes the observation of the player into {@link #SIZE} floats of the array, from the offset.
+     * @throws IllegalArgumentException if the array is too small, or if the player is not in the game
+     * @throws IllegalStateException if no deal is started
+     */
+    public void encode(ContreeGame game, ContreePlayer player, float[] observation, int offset) {
+
+        if (offset < 0 || offset > observation.length - SIZE) {
+            throw new IllegalArgumentException(String.format("An observation takes %d floats, offset %d is out of an array of length %d", SIZE, offset, observation.length));
+        }
+        int playerSlot = game.indexOf(player);
+        if (playerSlot < 0) {
+            throw new IllegalArgumentException(String.format("Player %s is not in game %s", player, game.getGameId()));
+        }
+        ContreeDeal deal = game.getCurrentDealOrNull();
+        if (deal == null) {
+            throw new IllegalStateException(String.format("Game %s has no started deal", game.getGameId()));
+        }
+
+        Arrays.fill(observation, offset, offset + SIZE, 0f);
+
+        for (long m = player.getHandMask() ; m != CardMask.EMPTY ; m = CardMask.removeFirst(m)) {
+            observation[offset + HAND_OFFSET + CARD_INDEXES[Long.numberOfTrailingZeros(m)]] = 1f;
+        }
+
+        encodeBids(game, playerSlot, deal.getBids(), observation, offset);
+
+        if (deal.isBidStep()) {
+            observation[offset + PHASE_OFFSET] = 1f;
+        }
+        else if (deal.isPlayStep()) {
+            observation[offset + PHASE_OFFSET + 1] = 1f;
+            encodeTricks(game, playerSlot, deal.getBids(), deal.getTricks(), observation, offset);
+        }
+
+        ContreeGameScore gameScore = game.getGameScore();
+        float maxScore = gameScore.getMaxScore();
+        int team = playerSlot % TEAMS.length;
+        observation[offset + SCORE_OFFSET] = gameScore.getTeamScore(TEAMS[team]) / maxScore;
+        observation[offset + SCORE_OFFSET + 1] = gameScore.getTeamScore(TEAMS[1 - team]) / maxScore;
+
+    }
+
+    private static void encodeBids(ContreeGame game, int playerSlot, ContreeDealBids bids, float[] observation, int offset) {
+
+        ContreeBid contract = null;
+        int contractSeat = -1;
+        int nbDoubles = 0;
+
+        for (int i = 0 ; i < bids.nbBids() ; i++) {
+            ContreeBid bid = bids.bid(i);
+            int seat = seat(game, playerSlot, bid.player());
+            observation[offset + BIDS_OFFSET + seat * VecContreeEnv.NB_BID_ACTIONS + VecContreeEnv.bidAction(bid.bidValue(), bid.cardSuit())] = 1f;
+            if (bid.isDouble() || bid.isRedouble()) {
+                nbDoubles++;
+            }
+            else if (!bid.isPass()) {
+                contract = bid;
+                contractSeat = seat;
+            }
+        }
+
+        if (contract != null) {
+            observation[offset + CONTRACT_VALUE_OFFSET + contract.bidValue().ordinal() - ContreeBidValue.EIGHTY.ordinal()] = 1f;
+            observation[offset + CONTRACT_SUIT_OFFSET + contract.cardSuit().ordinal()] = 1f;
+            observation[offset + CONTRACT_SEAT_OFFSET + contractSeat] = 1f;
+        }
+        for (int i = 0 ; i < nbDoubles ; i++) {
+            observation[offset + DOUBLE_OFFSET + i] = 1f;
+        }
+
+    }
+
+    private static void encodeTricks(ContreeGame game, int playerSlot, ContreeDealBids bids, ContreeTricks tricks, float[] observation, int offset) {
+
+        int nbTricks = tricks.nbTricks();
+        for (int t = 0 ; t < nbTricks ; t++) {
+            ContreeTrick trick = tricks.trick(t);
+            int[] cardOrdinals = trick.getPlayedCardsOrdinals();
+            for (int i = 0 ; i < trick.getNbPlayedCards() ; i++) {
+                int seat = seat(game, playerSlot, trick.getPlayedCards().get(i).player());
+                observation[offset + PLAYED_CARDS_OFFSET + seat * NB_CARDS + CARD_INDEXES[cardOrdinals[i]]] = 1f;
+            }
+        }
+
+        ContreeTrick currentTrick = nbTricks == 0 ? null : tricks.trick(nbTricks - 1);
+        if (currentTrick == null || currentTrick.isOver()) {
+            // The deal is over, there is no current trick
+            return;
+        }
+
+        int[] cardOrdinals = currentTrick.getPlayedCardsOrdinals();
+        for (int i = 0 ; i < currentTrick.getNbPlayedCards() ; i++) {
+            int seat = seat(game, playerSlot, currentTrick.getPlayedCards().get(i).player());
+            observation[offset + TRICK_CARDS_OFFSET + seat * NB_CARDS + CARD_INDEXES[cardOrdinals[i]]] = 1f;
+        }
+
+        ContreePlayer leader;
+        if (currentTrick.getNbPlayedCards() > 0) {
+            leader = currentTrick.getPlayedCards().get(0).player();
+        }
+        else if (nbTricks > 1) {
+            leader = tricks.trick(nbTricks - 2).winningPlayer();
+        }
+        else {
+            // The first bidder leads the first trick
+            leader = bids.bid(0).player();
+        }
+        observation[offset + TRICK_LEADER_OFFSET + seat(game, playerSlot, leader)] = 1f;
+
+    }
+
+    private static int seat(ContreeGame game, int playerSlot, ContreePlayer player) {
+        return (game.indexOf(player) - playerSlot + NB_SEATS) % NB_SEATS;
+    }
+
+}
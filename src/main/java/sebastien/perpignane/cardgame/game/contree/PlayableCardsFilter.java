@@ -1,96 +1,140 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.card.contree.ContreeCard;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 
-import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Compute the cards a player is allowed to play in a trick.
+ *
+ * The rules are applied on {@link CardMask}s and precomputed tables, so that the computation does not allocate anything.
+ */
 class PlayableCardsFilter {
 
+    /**
+     * Trumps having a higher value than a trump card, by trump card ordinal
+     */
+    private static final long[] HIGHER_TRUMPS = new long[ClassicalCard.values().length];
+
+    static {
+        long contreeCards = CardSet.GAME_32.getGameCardsMask();
+        for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+            long sameSuitCards = CardMask.ofSuit(contreeCards, card.getSuit());
+            for (long m = sameSuitCards; m != CardMask.EMPTY; m = CardMask.removeFirst(m)) {
+                ClassicalCard other = CardMask.first(m);
+                if (ContreeCard.gameValue(other.ordinal(), true) > ContreeCard.gameValue(card.ordinal(), true)) {
+                    HIGHER_TRUMPS[card.ordinal()] |= CardMask.of(other);
+                }
+            }
+        }
+    }
+
     Set<ClassicalCard> playableCards(ContreeTrick trick, ContreePlayer player) {
+        return CardMask.toSet(playableCardsMask(trick, player));
+    }
 
+    long playableCardsMask(ContreeTrick trick, ContreePlayer player) {
         Objects.requireNonNull(player);
+        return playableCards(player.getHandMask(), trick.getTrumpSuit(), trick.getPlayedCardsOrdinals(), trick.getNbPlayedCards());
+    }
 
-        Set<ClassicalCard> allHand = new HashSet<>(player.getHand());
+    /**
+     * @param hand the hand of the player, as a {@link CardMask}
+     * @param trumpSuit the trump suit of the deal
+     * @param playedCards ordinals of the cards already played in the trick, in play order
+     * @param nbPlayedCards number of cards already played in the trick
+     * @return the playable cards of the hand, as a {@link CardMask}
+     */
+    long playableCards(long hand, CardSuit trumpSuit, int[] playedCards, int nbPlayedCards) {
+
+        if (nbPlayedCards == 0) {
+            return hand;
+        }
+
+        CardSuit wantedSuit = suitOf(playedCards[0]);
+
+        long sameSuitCards = CardMask.ofSuit(hand, wantedSuit);
+        boolean hasWantedSuit = sameSuitCards != CardMask.EMPTY;
+        boolean trumpTrick = wantedSuit == trumpSuit;
 
-        if (trick.getPlayedCards().isEmpty()) {
-            return allHand;
+        int highestTrump = -1;
+        for (int i = 0 ; i < nbPlayedCards ; i++) {
+            int playedCard = playedCards[i];
+            if (suitOf(playedCard) == trumpSuit && (highestTrump == -1 || ContreeCard.gameValue(playedCard, true) > ContreeCard.gameValue(highestTrump, true))) {
+                highestTrump = playedCard;
+            }
         }
+        boolean trumpCardPlayed = highestTrump != -1;
 
-        var firstPlayedCard = trick.getPlayedCards().get(0).card();
+        if (trumpTrick || (trumpCardPlayed && !hasWantedSuit)) {
 
-        var sameSuitCards = player.getHand().stream().filter(c -> c.getSuit() == firstPlayedCard.getSuit()).collect(Collectors.toSet());
-        boolean hasWantedSuit = !sameSuitCards.isEmpty();
+            // If the trick was not started by a trump card but trumps were played,
+            // the player does not have to play a trump if his teammate is winning the trick.
+            if (!trumpTrick && teamMateIsWinning(trumpSuit, playedCards, nbPlayedCards)) {
+                return hand;
+            }
 
-        boolean trumpCardPlayed = trick.getPlayedCards().stream().anyMatch(pc -> pc.card().isTrump());
+            long playerTrumps = CardMask.ofSuit(hand, trumpSuit);
+            long higherPlayerTrumps = playerTrumps & HIGHER_TRUMPS[highestTrump];
 
-        if (trick.isTrumpTrick() || (trumpCardPlayed && !hasWantedSuit)) {
-            return computeAllowedCardsForTrickWithTrumpCards(trick, player);
+            if (higherPlayerTrumps != CardMask.EMPTY) {
+                return higherPlayerTrumps;
+            }
+            return playerTrumps == CardMask.EMPTY ? hand : playerTrumps;
         }
 
         if (hasWantedSuit) {
             return sameSuitCards;
         }
-        else {
-            return computeAllowedCardsWhenPlayerLacksSuit(trick, player);
-        }
-
-    }
-
-    private Set<ClassicalCard> computeAllowedCardsForTrickWithTrumpCards(ContreeTrick trick, ContreePlayer player) {
-
-        Set<ClassicalCard> allHand = new HashSet<>(player.getHand());
 
-        // If the trick was not started by a trump card but trumps were played,
-        // the player does not have to play a trump if his teammate is winning the trick.
-        if (!trick.isTrumpTrick() && trick.winningPlayer().sameTeam(player)) {
-            return allHand;
+        if (teamMateIsWinning(trumpSuit, playedCards, nbPlayedCards)) {
+            return hand;
         }
 
-        var playerTrumps = trick.getPlayerHand(player)
-                            .stream()
-                            .filter(ContreeCard::isTrump).toList();
+        long playerTrumps = CardMask.ofSuit(hand, trumpSuit);
+        return playerTrumps == CardMask.EMPTY ? hand : playerTrumps;
 
-        var highestTrump = findHighestPlayedTrumpCard(trick);
-        var higherPlayerTrumps = playerTrumps.stream().filter(c -> c.getGameValue() > highestTrump.card().getGameValue()).toList();
-
-        if (higherPlayerTrumps.isEmpty()) {
-            return playerTrumps.isEmpty() ? allHand : playerTrumps.stream().map(ContreeCard::getCard).collect(Collectors.toSet());
-        } else {
-            return higherPlayerTrumps.stream().map(ContreeCard::getCard).collect(Collectors.toSet());
-        }
     }
 
-    private Set<ClassicalCard> playerTrumpCards(ContreeTrick trick, ContreePlayer player) {
-        return trick.getPlayerHand(player).stream()
-                .filter(ContreeCard::isTrump)
-                .map(ContreeCard::getCard).collect(Collectors.toSet());
+    /**
+     * Players of a team alternate in a trick: the team mate of the next player is the one who played two cards ago.
+     */
+    private boolean teamMateIsWinning(CardSuit trumpSuit, int[] playedCards, int nbPlayedCards) {
+        return nbPlayedCards >= 2 && winningCardIndex(trumpSuit, playedCards, nbPlayedCards) == nbPlayedCards - 2;
     }
 
-    private Set<ClassicalCard> computeAllowedCardsWhenPlayerLacksSuit(ContreeTrick trick, ContreePlayer player) {
-
-        Set<ClassicalCard> allHand = new HashSet<>(player.getHand());
-
-        var winningPlayer = trick.winningPlayer();
-        if (winningPlayer != null && winningPlayer.sameTeam(player)) {
-            return allHand;
+    /**
+     * @return the index, in play order, of the card currently winning the trick
+     */
+    static int winningCardIndex(CardSuit trumpSuit, int[] playedCards, int nbPlayedCards) {
+        CardSuit wantedSuit = suitOf(playedCards[0]);
+        int winningIndex = 0;
+        int winningValue = valueOf(playedCards[0], trumpSuit);
+        for (int i = 1 ; i < nbPlayedCards ; i++) {
+            CardSuit suit = suitOf(playedCards[i]);
+            if (suit == wantedSuit || suit == trumpSuit) {
+                int value = valueOf(playedCards[i], trumpSuit);
+                if (value > winningValue) {
+                    winningValue = value;
+                    winningIndex = i;
+                }
+            }
         }
+        return winningIndex;
+    }
 
-        var trumpCards = playerTrumpCards(trick, player);
-
-        return trumpCards.isEmpty() ? allHand : trumpCards;
-
+    private static int valueOf(int cardOrdinal, CardSuit trumpSuit) {
+        return ContreeCard.gameValue(cardOrdinal, suitOf(cardOrdinal) == trumpSuit);
     }
 
-    private ContreePlayedCard findHighestPlayedTrumpCard(ContreeTrick trick) {
-        return trick.getPlayedCards().stream()
-                .filter(pc -> pc.card().isTrump())
-                .min((a, b) -> Integer.compare(b.card().getGameValue(), a.card().getGameValue()))
-                .orElseThrow(() -> new IllegalStateException("Don't call me if no trump card played"));
+    private static CardSuit suitOf(int cardOrdinal) {
+        return CardMask.card(cardOrdinal).getSuit();
     }
 
 }
@@ -0,0 +1,23 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+/**
+ * Outcome of a single deal played by {@link ContreeSimulator#playBoard(long[])}.
+ *
+ * @param team1Score score of the team 1 for the deal
+ * @param team2Score score of the team 2 for the deal
+ */
+public record SimulatedBoardResult(
+        int team1Score,
+        int team2Score
+) {
+
+    /**
+     * @return the score of the team minus the score of the other team
+     */
+    public int netScore(ContreeTeam team) {
+        return team == ContreeTeam.TEAM1 ? team1Score - team2Score : team2Score - team1Score;
+    }
+
+}
@@ -0,0 +1,23 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+/**
+ * Outcome of a game played by {@link ContreeSimulator}.
+ *
+ * @param winner the team who won the game
+ * @param nbDeals number of deals of the game, including the deals where all players passed
+ * @param nbTricks number of tricks played during the game
+ * @param team1Score final score of the team 1
+ * @param team2Score final score of the team 2
+ * @param durationNanos wall clock duration of the game, in nanoseconds
+ */
+public record SimulatedGameResult(
+        ContreeTeam winner,
+        int nbDeals,
+        int nbTricks,
+        int team1Score,
+        int team2Score,
+        long durationNanos
+) {
+}
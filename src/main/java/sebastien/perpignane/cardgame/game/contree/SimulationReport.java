@@ -0,0 +1,106 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregated results of simulated games.
+ *
+ * @param nbGames number of played games
+ * @param elapsedNanos wall clock duration of the whole simulation, in nanoseconds
+ * @param nbDeals number of deals played in all the games
+ * @param nbTricks number of tricks played in all the games
+ * @param team1Wins number of games won by the team 1
+ * @param team2Wins number of games won by the team 2
+ * @param p50GameDurationNanos median game duration, in nanoseconds
+ * @param p99GameDurationNanos 99th percentile of game duration, in nanoseconds
+ */
+public record SimulationReport(
+        int nbGames,
+        long elapsedNanos,
+        long nbDeals,
+        long nbTricks,
+        int team1Wins,
+        int team2Wins,
+        long p50GameDurationNanos,
+        long p99GameDurationNanos
+) {
+
+    public static SimulationReport of(List<SimulatedGameResult> results, long elapsedNanos) {
+        long nbDeals = 0;
+        long nbTricks = 0;
+        int team1Wins = 0;
+        long[] durations = new long[results.size()];
+        for (int i = 0 ; i < results.size() ; i++) {
+            var result = results.get(i);
+            nbDeals += result.nbDeals();
+            nbTricks += result.nbTricks();
+            if (result.winner() == ContreeTeam.TEAM1) {
+                team1Wins++;
+            }
+            durations[i] = result.durationNanos();
+        }
+        Arrays.sort(durations);
+        return new SimulationReport(
+                results.size(),
+                elapsedNanos,
+                nbDeals,
+                nbTricks,
+                team1Wins,
+                results.size() - team1Wins,
+                percentile(durations, 50),
+                percentile(durations, 99)
+        );
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private static long percentile(long[] sortedValues, int percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(rank, 1) - 1];
+    }
+
+    public double gamesPerSecond() {
+        return perSecond(nbGames);
+    }
+
+    public double dealsPerSecond() {
+        return perSecond(nbDeals);
+    }
+
+    public double tricksPerSecond() {
+        return perSecond(nbTricks);
+    }
+
+    public double averageDealsPerGame() {
+        return nbGames == 0 ? 0 : (double) nbDeals / nbGames;
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                Simulated games: %d in %.3f s
+                Throughput: %.1f games/s, %.1f deals/s, %.1f tricks/s
+                Wins: %s %d, %s %d
+                Average deals per game: %.2f
+                Game duration: p50 %.3f ms, p99 %.3f ms""",
+                nbGames, elapsedNanos / 1e9,
+                gamesPerSecond(), dealsPerSecond(), tricksPerSecond(),
+                ContreeTeam.TEAM1, team1Wins, ContreeTeam.TEAM2, team2Wins,
+                averageDealsPerGame(),
+                p50GameDurationNanos / 1e6, p99GameDurationNanos / 1e6
+        );
+    }
+
+}
@@ -0,0 +1,508 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Many contree deals stepped in lockstep, for reinforcement learning self-play: each call to {@link #step(int[])} applies one action in every environment.
+ *
+ * An environment plays deals one after the other, without {@link sebastien.perpignane.cardgame.player.contree.ContreePlayer} nor thread.
+ * The allowed bids are the ones of {@link BiddableValuesFilter}, the bids end like in {@link ContreeDealBids}, the cards are played on a {@link ContreeSearchState}
+ * and the deals are scored like {@link DealScoreCalculator}. When a deal ends, the next one is dealt at once, the dealer being the next player.
+ *
+ * Actions depend on the phase of the environment. During the bids, an action is a bid: {@link #PASS_ACTION}, {@link #DOUBLE_ACTION}, {@link #REDOUBLE_ACTION}
+ * or a valued bid given by {@link #bidAction(ContreeBidValue, CardSuit)}. During the play, an action is the ordinal of the played card.
+ * The allowed actions of an environment are the bits of its {@link Batch#legalActions()} mask.
+ *
+ * The results are written in a {@link Batch} of primitive arrays, one element (or one element by player slot or by team) by environment, overwritten by each step.
+ *
+ * An environment set is not thread safe: parallel training uses one set by thread, each with its own {@link SplittableCardSetShuffler#split()}.
+ */
+public final class VecContreeEnv {
+
+    public static final int BID_PHASE = 0;
+
+    public static final int PLAY_PHASE = 1;
+
+    public static final int PASS_ACTION = 0;
+
+    public static final int DOUBLE_ACTION = 1;
+
+    public static final int REDOUBLE_ACTION = 2;
+
+    private static final int FIRST_VALUED_BID_ACTION = 3;
+
+    /**
+     * Valued bids, by increasing value
+     */
+    private static final ContreeBidValue[] VALUED_BIDS = Arrays.stream(ContreeBidValue.values())
+            .filter(ContreeBidValue::isCardSuitRequired)
+            .toArray(ContreeBidValue[]::new);
+
+    private static final CardSuit[] BID_SUITS = ContreeBid.allowedCardSuitsForValuedBids().stream()
+            .sorted()
+            .toArray(CardSuit[]::new);
+
+    public static final int NB_BID_ACTIONS = FIRST_VALUED_BID_ACTION + VALUED_BIDS.length * BID_SUITS.length;
+
+    private static final long VALUED_BID_ACTIONS = ((1L << NB_BID_ACTIONS) - 1) & -(1L << FIRST_VALUED_BID_ACTION);
+
+    /**
+     * Score multiplier, by number of doubles
+     */
+    private static final int[] MULTIPLIERS = {1, 2, 4};
+
+    private static final int INITIAL_MAX_BIDS = 4;
+
+    private static final int NO_CONTRACT = -1;
+
+    /**
+     * Results of the last step of all the environments. Arrays are indexed by environment, by environment * 4 + player slot, or by environment * 2 + team,
+     * the team of the players 0 and 2 being the team 0.
+     */
+    public static final class Batch {
+
+        private final int[] phases;
+
+        private final int[] currentSlots;
+
+        private final int[] dealerSlots;
+
+        private final long[] hands;
+
+        private final long[] playedCards;
+
+        private final int[] trickCards;
+
+        private final int[] nbTrickCards;
+
+        private final int[] contracts;
+
+        private final int[] contractSlots;
+
+        private final int[] doubleLevels;
+
+        private final int[] wonPoints;
+
+        private final long[] legalActions;
+
+        private final int[] rewards;
+
+        private final boolean[] dealsOver;
+
+        private Batch(int nbEnvs) {
+            phases = new int[nbEnvs];
+            currentSlots = new int[nbEnvs];
+            dealerSlots = new int[nbEnvs];
+            hands = new long[nbEnvs * ContreePlayers.NB_PLAYERS];
+            playedCards = new long[nbEnvs * ContreePlayers.NB_PLAYERS];
+            trickCards = new int[nbEnvs * ContreePlayers.NB_PLAYERS];
+            nbTrickCards = new int[nbEnvs];
+            contracts = new int[nbEnvs];
+            contractSlots = new int[nbEnvs];
+            doubleLevels = new int[nbEnvs];
+            wonPoints = new int[nbEnvs * 2];
+            legalActions = new long[nbEnvs];
+            rewards = new int[nbEnvs * 2];
+            dealsOver = new boolean[nbEnvs];
+        }
+
+        /**
+         * @return {@link #BID_PHASE} or {@link #PLAY_PHASE}, by environment
+         */
+        public int[] phases() {
+            return phases;
+        }
+
+        /**
+         * @return the slot of the player whose turn it is, by environment
+         */
+        public int[] currentSlots() {
+            return currentSlots;
+        }
+
+        public int[] dealerSlots() {
+            return dealerSlots;
+        }
+
+        /**
+         * @return the remaining cards of each player, as {@link sebastien.perpignane.cardgame.card.CardMask}s, by environment * 4 + player slot
+         */
+        public long[] hands() {
+            return hands;
+        }
+
+        /**
+         * @return the cards played by each player in the deal, as {@link sebastien.perpignane.cardgame.card.CardMask}s, by environment * 4 + player slot
+         */
+        public long[] playedCards() {
+            return playedCards;
+        }
+
+        /**
+         * @return the ordinals of the cards of the current trick, in play order, by environment * 4 + index in the trick
+         */
+        public int[] trickCards() {
+            return trickCards;
+        }
+
+        public int[] nbTrickCards() {
+            return nbTrickCards;
+        }
+
+        /**
+         * @return the bid action of the highest valued bid, -1 if none, by environment
+         */
+        public int[] contracts() {
+            return contracts;
+        }
+
+        /**
+         * @return the slot of the player who made the highest valued bid, -1 if none, by environment
+         */
+        public int[] contractSlots() {
+            return contractSlots;
+        }
+
+        /**
+         * @return 0, 1 if the contract is doubled, 2 if it is redoubled, by environment
+         */
+        public int[] doubleLevels() {
+            return doubleLevels;
+        }
+
+        /**
+         * @return the card points won by each team in the deal, by environment * 2 + team
+         */
+        public int[] wonPoints() {
+            return wonPoints;
+        }
+
+        /**
+         * @return the allowed actions of the player whose turn it is, one bit by action, by environment
+         */
+        public long[] legalActions() {
+            return legalActions;
+        }
+
+        /**
+         * @return the final score of each team if the last step ended a deal, 0 otherwise, by environment * 2 + team
+         */
+        public int[] rewards() {
+            return rewards;
+        }
+
+        /**
+         * @return true if the last step ended a deal, by environment. The other arrays then describe the start of the next deal.
+         */
+        public boolean[] dealsOver() {
+            return dealsOver;
+        }
+
+    }
+
+    private final int nbEnvs;
+
+    private final SplittableCardSetShuffler shuffler;
+
+    private final CardDealer cardDealer = new CardDealer(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG);
+
+    private final byte[] cardOrdinals;
+
+    private final int[] nbBids;
+
+    private final int[] maxBids;
+
+    private final ContreeSearchState[] states;
+
+    private final Batch batch;
+
+    public VecContreeEnv(int nbEnvs, long seed) {
+        this(nbEnvs, new SplittableCardSetShuffler(seed));
+    }
+
+    /**
+     * @param nbEnvs number of environments stepped together
+     * @param shuffler shuffles the deals of all the environments
+     */
+    public VecContreeEnv(int nbEnvs, SplittableCardSetShuffler shuffler) {
+        if (nbEnvs < 1) {
+            throw new IllegalArgumentException(String.format("At least one environment is expected, got %d", nbEnvs));
+        }
+        this.nbEnvs = nbEnvs;
+        this.shuffler = shuffler;
+        cardOrdinals = new byte[CardSet.GAME_32.getGameCards().size()];
+        int i = 0;
+        for (ClassicalCard card : CardSet.GAME_32.getGameCards()) {
+            cardOrdinals[i++] = (byte) card.ordinal();
+        }
+        nbBids = new int[nbEnvs];
+        maxBids = new int[nbEnvs];
+        states = new ContreeSearchState[nbEnvs];
+        batch = new Batch(nbEnvs);
+        // Like in a game, the player 0 bids first in the first deal
+        Arrays.fill(batch.dealerSlots, ContreePlayers.NB_PLAYERS - 1);
+        for (int env = 0 ; env < nbEnvs ; env++) {
+            deal(env);
+        }
+    }
+
+    /**
+     * @return the bid action of a valued bid, or of pass, double and redouble whose suit is ignored
+     * @throws IllegalArgumentException if the suit of a valued bid is missing
+     */
+    public static int bidAction(ContreeBidValue bidValue, CardSuit cardSuit) {
+        return switch (bidValue) {
+            case PASS -> PASS_ACTION;
+            case DOUBLE -> DOUBLE_ACTION;
+            case REDOUBLE -> REDOUBLE_ACTION;
+            default -> {
+                if (cardSuit == null || cardSuit == CardSuit.NONE) {
+                    throw new IllegalArgumentException(String.format("A card suit is required for bid value %s", bidValue));
+                }
+                yield FIRST_VALUED_BID_ACTION + (bidValue.ordinal() - ContreeBidValue.EIGHTY.ordinal()) * BID_SUITS.length + cardSuit.ordinal();
+            }
+        };
+    }
+
+    public static ContreeBidValue bidValue(int bidAction) {
+        checkBidAction(bidAction);
+        return switch (bidAction) {
+            case PASS_ACTION -> ContreeBidValue.PASS;
+            case DOUBLE_ACTION -> ContreeBidValue.DOUBLE;
+            case REDOUBLE_ACTION -> ContreeBidValue.REDOUBLE;
+            default -> VALUED_BIDS[(bidAction - FIRST_VALUED_BID_ACTION) / BID_SUITS.length];
+        };
+    }
+
+    /**
+     * @return the suit of a valued bid, {@link CardSuit#NONE} for pass, double and redouble
+     */
+    public static CardSuit bidSuit(int bidAction) {
+        checkBidAction(bidAction);
+        return bidAction < FIRST_VALUED_BID_ACTION ? CardSuit.NONE : BID_SUITS[(bidAction - FIRST_VALUED_BID_ACTION) % BID_SUITS.length];
+    }
+
+    /**
+     * @return the bid actions allowing the given bid values, whatever the suit of the valued bids
+     */
+    static long bidActions(Collection<ContreeBidValue> bidValues) {
+        long actions = 0L;
+        if (bidValues.contains(ContreeBidValue.PASS)) {
+            actions |= 1L << PASS_ACTION;
+        }
+        if (bidValues.contains(ContreeBidValue.DOUBLE)) {
+            actions |= 1L << DOUBLE_ACTION;
+        }
+        if (bidValues.contains(ContreeBidValue.REDOUBLE)) {
+            actions |= 1L << REDOUBLE_ACTION;
+        }
+        for (int i = 0 ; i < VALUED_BIDS.length ; i++) {
+            if (bidValues.contains(VALUED_BIDS[i])) {
+                actions |= ((1L << BID_SUITS.length) - 1) << (FIRST_VALUED_BID_ACTION + i * BID_SUITS.length);
+            }
+        }
+        return actions;
+    }
+
+    private static void checkBidAction(int bidAction) {
+        if (bidAction < 0 || bidAction >= NB_BID_ACTIONS) {
+            throw new IllegalArgumentException(String.format("A bid action is between 0 and %d, got %d", NB_BID_ACTIONS - 1, bidAction));
+        }
+    }
+
+    public int nbEnvs() {
+        return nbEnvs;
+    }
+
+    /**
+     * @return the state of the environments, updated by each step
+     */
+    public Batch batch() {
+        return batch;
+    }
+
+    /**
+     * Applies an action in each environment
+     *
+     * @param actions the action of the current player, by environment
+     * @return the state of the environments after the actions, the same instance at each step
+     * @throws IllegalArgumentException if an action is not allowed: no environment is then stepped
+     */
+    public Batch step(int[] actions) {
+        if (actions.length != nbEnvs) {
+            throw new IllegalArgumentException(String.format("%d actions are expected, got %d", nbEnvs, actions.length));
+        }
+        long[] legalActions = batch.legalActions;
+        for (int env = 0 ; env < nbEnvs ; env++) {
+            int action = actions[env];
+            if (action < 0 || action >= Long.SIZE || (legalActions[env] & (1L << action)) == 0) {
+                throw new IllegalArgumentException(String.format("Action %d is not allowed in environment %d", action, env));
+            }
+        }
+        Arrays.fill(batch.rewards, 0);
+        Arrays.fill(batch.dealsOver, false);
+        int[] phases = batch.phases;
+        for (int env = 0 ; env < nbEnvs ; env++) {
+            if (phases[env] == BID_PHASE) {
+                bid(env, actions[env]);
+            }
+            else {
+                play(env, actions[env]);
+            }
+        }
+        return batch;
+    }
+
+    private void deal(int env) {
+        Batch b = batch;
+        shuffler.shuffle(cardOrdinals);
+        cardDealer.dealHands(cardOrdinals, ContreePlayers.NB_PLAYERS, b.hands, env * ContreePlayers.NB_PLAYERS);
+        Arrays.fill(b.playedCards, env * ContreePlayers.NB_PLAYERS, (env + 1) * ContreePlayers.NB_PLAYERS, 0L);
+        b.wonPoints[env * 2] = 0;
+        b.wonPoints[env * 2 + 1] = 0;
+        b.nbTrickCards[env] = 0;
+        b.contracts[env] = NO_CONTRACT;
+        b.contractSlots[env] = NO_CONTRACT;
+        b.doubleLevels[env] = 0;
+        b.phases[env] = BID_PHASE;
+        b.currentSlots[env] = firstPlayerSlot(env);
+        nbBids[env] = 0;
+        maxBids[env] = INITIAL_MAX_BIDS;
+        b.legalActions[env] = legalBids(env);
+    }
+
+    private int firstPlayerSlot(int env) {
+        return (batch.dealerSlots[env] + 1) % ContreePlayers.NB_PLAYERS;
+    }
+
+    private void bid(int env, int action) {
+        Batch b = batch;
+        int slot = b.currentSlots[env];
+        nbBids[env]++;
+        if (action == REDOUBLE_ACTION) {
+            b.doubleLevels[env] = 2;
+            startPlay(env);
+            return;
+        }
+        if (action != PASS_ACTION) {
+            if (action == DOUBLE_ACTION) {
+                b.doubleLevels[env] = 1;
+            }
+            else {
+                b.contracts[env] = action;
+                b.contractSlots[env] = slot;
+            }
+            maxBids[env] = Math.max(INITIAL_MAX_BIDS, nbBids[env] + ContreePlayers.NB_PLAYERS - 1);
+        }
+        if (nbBids[env] < maxBids[env]) {
+            b.currentSlots[env] = (slot + 1) % ContreePlayers.NB_PLAYERS;
+            b.legalActions[env] = legalBids(env);
+        }
+        else if (b.contracts[env] == NO_CONTRACT) {
+            // All players passed: nobody scores
+            endDeal(env);
+        }
+        else {
+            startPlay(env);
+        }
+    }
+
+    /**
+     * Allowed bids of the current bidder, as {@link BiddableValuesFilter} computes them
+     */
+    private long legalBids(int env) {
+        Batch b = batch;
+        long legalBids = 1L << PASS_ACTION;
+        int contract = b.contracts[env];
+        if (contract == NO_CONTRACT) {
+            return legalBids | VALUED_BID_ACTIONS;
+        }
+        int doubleLevel = b.doubleLevels[env];
+        if (doubleLevel == 0) {
+            int firstHigherBid = FIRST_VALUED_BID_ACTION + ((contract - FIRST_VALUED_BID_ACTION) / BID_SUITS.length + 1) * BID_SUITS.length;
+            legalBids |= VALUED_BID_ACTIONS & -(1L << firstHigherBid);
+        }
+        boolean teamContract = b.contractSlots[env] % 2 == b.currentSlots[env] % 2;
+        if (!teamContract && doubleLevel == 0) {
+            legalBids |= 1L << DOUBLE_ACTION;
+        }
+        if (teamContract && doubleLevel == 1) {
+            legalBids |= 1L << REDOUBLE_ACTION;
+        }
+        return legalBids;
+    }
+
+    private void startPlay(int env) {
+        Batch b = batch;
+        int contract = b.contracts[env];
+        CardSuit trumpSuit = BID_SUITS[(contract - FIRST_VALUED_BID_ACTION) % BID_SUITS.length];
+        int leaderSlot = firstPlayerSlot(env);
+        if (states[env] == null) {
+            states[env] = new ContreeSearchState(trumpSuit, Arrays.copyOfRange(b.hands, env * ContreePlayers.NB_PLAYERS, (env + 1) * ContreePlayers.NB_PLAYERS), leaderSlot, b.trickCards, 0);
+        }
+        else {
+            states[env].reset(trumpSuit, b.hands, env * ContreePlayers.NB_PLAYERS, leaderSlot);
+        }
+        b.phases[env] = PLAY_PHASE;
+        b.currentSlots[env] = leaderSlot;
+        b.legalActions[env] = states[env].playableCards();
+    }
+
+    private void play(int env, int card) {
+        Batch b = batch;
+        ContreeSearchState state = states[env];
+        int handIndex = env * ContreePlayers.NB_PLAYERS + b.currentSlots[env];
+        b.hands[handIndex] &= ~(1L << card);
+        b.playedCards[handIndex] |= 1L << card;
+        if (state.play(card)) {
+            if (state.isOver()) {
+                score(env, state);
+                endDeal(env);
+                return;
+            }
+            b.nbTrickCards[env] = 0;
+            b.wonPoints[env * 2] = state.teamPoints(0);
+            b.wonPoints[env * 2 + 1] = state.teamPoints(1);
+        }
+        else {
+            b.trickCards[env * ContreePlayers.NB_PLAYERS + b.nbTrickCards[env]++] = card;
+        }
+        b.currentSlots[env] = state.nextPlayerSlot();
+        b.legalActions[env] = state.playableCards();
+    }
+
+    private void score(int env, ContreeSearchState state) {
+        Batch b = batch;
+        int attackTeam = b.contractSlots[env] % 2;
+        int capotTeam = state.trickWinnerSlot(0) % 2;
+        for (int trick = 1 ; trick < state.nbCompletedTricks() && capotTeam >= 0 ; trick++) {
+            if (state.trickWinnerSlot(trick) % 2 != capotTeam) {
+                capotTeam = -1;
+            }
+        }
+        int contract = b.contracts[env];
+        DealScoreCalculator.computeFinalScores(
+                attackTeam,
+                state.teamPoints(attackTeam),
+                VALUED_BIDS[(contract - FIRST_VALUED_BID_ACTION) / BID_SUITS.length],
+                MULTIPLIERS[b.doubleLevels[env]],
+                capotTeam,
+                b.rewards,
+                env * 2
+        );
+    }
+
+    private void endDeal(int env) {
+        batch.dealsOver[env] = true;
+        batch.dealerSlots[env] = firstPlayerSlot(env);
+        deal(env);
+    }
+
+}
@@ -4,6 +4,7 @@ import sebastien.perpignane.cardgame.game.AbstractGame;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
 
 import static java.lang.System.err;
 
@@ -11,6 +12,16 @@ public abstract class AbstractThreadLocalPlayer<M, G extends AbstractGame<?>, T
 
     private final BlockingQueue<M> gameMsgQueue = new ArrayBlockingQueue<>(54);
 
+    private final ThreadFactory threadFactory;
+
+    protected AbstractThreadLocalPlayer() {
+        this(Thread.ofPlatform().factory());
+    }
+
+    protected AbstractThreadLocalPlayer(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
     @Override
     public void run() {
         while (true) {
@@ -32,7 +43,8 @@ public abstract class AbstractThreadLocalPlayer<M, G extends AbstractGame<?>, T
     public abstract String getName();
 
     protected void startPlayerThread() {
-        var thread = new Thread(this, "PlayerThread-" + getName());
+        var thread = threadFactory.newThread(this);
+        thread.setName("PlayerThread-" + getName());
         thread.start();
     }
 
@@ -14,6 +14,11 @@ public interface ContreePlayer extends Player<ContreeGame, ContreeTeam> {
 
     String getName();
 
+    /**
+     * @return the hand of the player as a {@link sebastien.perpignane.cardgame.card.CardMask}
+     */
+    long getHandMask();
+
     void onPlayerTurnToBid(Set<ContreeBidValue> allowedBidValues);
 
     void onPlayerTurn(Set<ClassicalCard> allowedCards);
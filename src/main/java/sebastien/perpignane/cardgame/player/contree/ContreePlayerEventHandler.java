@@ -2,6 +2,7 @@ package sebastien.perpignane.cardgame.player.contree;
 
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
 
 import java.util.Collection;
 import java.util.Set;
@@ -18,4 +19,11 @@ public interface ContreePlayerEventHandler extends PlayerEventHandler<ContreePla
 
     void onStatusUpdate(ContreePlayerStatus oldStatus, ContreePlayerStatus newStatus);
 
+    /**
+     * Called by the game when the player joins it, or replaces a leaving player, before the game sends the events of the player. Does nothing by default.
+     */
+    default void onJoiningGame(ContreeGame game) {
+        // Only bots prepare their strategy for the game
+    }
+
 }
@@ -1,12 +1,25 @@
 package sebastien.perpignane.cardgame.player.contree;
 
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
 import sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler;
 
+import java.util.concurrent.ThreadFactory;
+
 public class ContreePlayerFactory {
     
     private ContreePlayerFactory() {}
     
+    /**
+     * @return a bot playing random cards and always passing, whose random generator is given by the game it joins
+     */
     public static ContreePlayer createBotPlayer(String name) {
         return new ContreePlayerImpl("Bot " + name, new ContreeBotPlayerEventHandler());
     }
-}
\ No newline at end of file
+
+    /**
+     * @param threadFactory creates the thread of the bot event handler
+     */
+    public static ContreePlayer createBotPlayer(String name, ThreadFactory threadFactory) {
+        return new ContreePlayerImpl("Bot " + name, new ContreeBotPlayerEventHandler(RandomCardBotStrategy::new, threadFactory));
+    }
+}
@@ -1,5 +1,6 @@
 package sebastien.perpignane.cardgame.player.contree;
 
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
@@ -17,7 +18,7 @@ public class ContreePlayerImpl implements ContreePlayer {
 
     private final String name;
 
-    private Collection<ClassicalCard> hand = new ArrayList<>();
+    private long hand = CardMask.EMPTY;
 
     private ContreeGame game;
 
@@ -33,8 +34,8 @@ public class ContreePlayerImpl implements ContreePlayer {
 
     @Override
     public void receiveHand(Collection<ClassicalCard> cards) {
-        this.hand = cards;
-        playerEventHandler.onReceivedHand(hand);
+        this.hand = CardMask.of(cards);
+        playerEventHandler.onReceivedHand(cards);
     }
 
     @Override
@@ -45,11 +46,12 @@ public class ContreePlayerImpl implements ContreePlayer {
     @Override
     public void setGame(ContreeGame game) {
         this.game = game;
+        playerEventHandler.onJoiningGame(game);
     }
 
     @Override
     public boolean hasNoMoreCard() {
-        return hand == null || hand.isEmpty();
+        return CardMask.isEmpty(hand);
     }
 
     @Override
@@ -79,17 +81,22 @@ public class ContreePlayerImpl implements ContreePlayer {
 
     @Override
     public int nbAvailableCards() {
-        return hand == null ? 0 : hand.size();
+        return CardMask.size(hand);
     }
 
     @Override
     public Collection<ClassicalCard> getHand() {
-        return Collections.unmodifiableCollection(hand);
+        return CardMask.toList(hand);
+    }
+
+    @Override
+    public long getHandMask() {
+        return hand;
     }
 
     @Override
     public void removeCardFromHand(ClassicalCard card) {
-        hand.remove(card);
+        hand = CardMask.without(hand, card);
     }
 
     @Override
@@ -203,7 +210,7 @@ public class ContreePlayerImpl implements ContreePlayer {
 
     @Override
     public FullContreePlayerState toFullState() {
-        return new FullContreePlayerState(getName(), status, id, hand);
+        return new FullContreePlayerState(getName(), status, id, CardMask.toList(hand));
     }
 
 }
@@ -0,0 +1,25 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.game.contree.ContreeBid;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Collection;
+import java.util.random.RandomGenerator;
+
+/**
+ * Always bids 80 HEART, whatever the allowed bid values, and plays a random allowed card.
+ */
+public class BiddingBotStrategy extends RandomCardBotStrategy {
+
+    public BiddingBotStrategy(RandomGenerator random) {
+        super(random);
+    }
+
+    @Override
+    public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+        return new ContreeBid(player, ContreeBidValue.EIGHTY, CardSuit.HEARTS);
+    }
+
+}
@@ -0,0 +1,38 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.contree.ContreeBid;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Collection;
+
+/**
+ * Decisions taken by a bot. A strategy only decides, it is up to the caller to place the bid or play the card,
+ * so that the same strategy can be used by threaded event handlers and by the simulator.
+ */
+public interface ContreeBotStrategy {
+
+    /**
+     * @param player the bot player
+     * @param allowedBidValues bid values the player is allowed to place
+     * @return the bid to place, made by the given player
+     */
+    ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues);
+
+    /**
+     * @param player the bot player
+     * @param allowedCards cards the player is allowed to play, never empty
+     * @return the card to play, among the allowed cards
+     */
+    ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards);
+
+    /**
+     * Called before the bot joins the game, so that the strategy can subscribe to the events of the game. Does nothing by default.
+     */
+    default void onJoiningGame(ContreeGame game) {
+        // Most strategies only look at the hand of the player
+    }
+
+}
@@ -0,0 +1,71 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.contree.ContreeBid;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
+import sebastien.perpignane.cardgame.game.contree.ContreePimcSearch;
+import sebastien.perpignane.cardgame.game.contree.ContreePlayTracker;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Collection;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays the card chosen by a {@link ContreePimcSearch}, and delegates its bids to another strategy.
+ *
+ * The strategy follows the play of its game with a {@link ContreePlayTracker}, subscribed by {@link #onJoiningGame(ContreeGame)}:
+ * the {@link sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler} of a bot calls it when the bot joins a game,
+ * and the simulators when they start a game. A strategy plays a single game at a time.
+ */
+public class PimcBotStrategy implements ContreeBotStrategy {
+
+    private final ContreeBotStrategy biddingStrategy;
+
+    private final ContreePimcSearch search;
+
+    private final RandomGenerator random;
+
+    private final ContreePlayTracker tracker = new ContreePlayTracker();
+
+    /**
+     * Always passes, and searches with the default search settings
+     */
+    public PimcBotStrategy(RandomGenerator random) {
+        this(new RandomCardBotStrategy(random), new ContreePimcSearch(), random);
+    }
+
+    /**
+     * @param biddingStrategy places the bids of the bot
+     * @param search chooses the cards of the bot
+     * @param random seeds the layouts of the searches
+     */
+    public PimcBotStrategy(ContreeBotStrategy biddingStrategy, ContreePimcSearch search, RandomGenerator random) {
+        this.biddingStrategy = biddingStrategy;
+        this.search = search;
+        this.random = random;
+    }
+
+    @Override
+    public void onJoiningGame(ContreeGame game) {
+        game.subscribe(tracker, ContreePlayTracker.EVENT_TYPES);
+    }
+
+    @Override
+    public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+        return biddingStrategy.chooseBid(player, allowedBidValues);
+    }
+
+    /**
+     * @throws IllegalStateException if the strategy has not joined the game of the player
+     */
+    @Override
+    public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+        if (!tracker.isPlayStep()) {
+            throw new IllegalStateException(String.format("The strategy of %s does not follow the play of its game", player));
+        }
+        return search.chooseCard(tracker, player.getHandMask(), CardMask.of(allowedCards), random);
+    }
+
+}
@@ -0,0 +1,38 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.contree.ContreeBid;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.random.RandomGenerator;
+
+/**
+ * Always passes, and plays a random allowed card.
+ */
+public class RandomCardBotStrategy implements ContreeBotStrategy {
+
+    private final RandomGenerator random;
+
+    public RandomCardBotStrategy(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+        return new ContreeBid(player);
+    }
+
+    @Override
+    public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+        int cardIndex = random.nextInt(allowedCards.size());
+        Iterator<ClassicalCard> cardIterator = allowedCards.iterator();
+        for (int i = 0 ; i < cardIndex ; i++) {
+            cardIterator.next();
+        }
+        return cardIterator.next();
+    }
+
+}
@@ -5,15 +5,33 @@ import sebastien.perpignane.cardgame.player.contree.PlayerEventHandler;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
 
 import static java.lang.System.err;
 
+/**
+ * Player event handler processing its messages in its own thread.
+ *
+ * The thread is created by a pluggable {@link ThreadFactory}: virtual threads allow hosting many games with few carrier threads.
+ * The message loop only blocks on the message queue, which relies on {@link java.util.concurrent.locks.ReentrantLock},
+ * so a virtual thread waiting for its next message never pins its carrier thread.
+ */
 public abstract class AbstractThreadPlayerEventHandler<P extends Player<?, ?>, M> implements PlayerEventHandler<P>, Runnable {
 
     Thread handlerThread;
 
     private final BlockingQueue<M> gameMsgQueue = new ArrayBlockingQueue<>(54);
 
+    private final ThreadFactory threadFactory;
+
+    protected AbstractThreadPlayerEventHandler() {
+        this(Thread.ofPlatform().factory());
+    }
+
+    protected AbstractThreadPlayerEventHandler(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
     @Override
     public void run() {
         while (true) {
@@ -41,7 +59,8 @@ public abstract class AbstractThreadPlayerEventHandler<P extends Player<?, ?>, M
     }
 
     protected void startPlayerEventHandlerThread() {
-        handlerThread = new Thread(this, "PlayerThread-" + getName());
+        handlerThread = threadFactory.newThread(this);
+        handlerThread.setName("PlayerThread-" + getName());
         handlerThread.start();
     }
 }
@@ -1,13 +1,17 @@
 package sebastien.perpignane.cardgame.player.contree.handlers;
 
-import sebastien.perpignane.cardgame.card.CardSuit;
-import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
-import sebastien.perpignane.cardgame.player.contree.PlayerMessage;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+
+import java.util.concurrent.ThreadFactory;
 
 public class BiddingBotEventHandler extends ContreeBotPlayerEventHandler {
 
-    @Override
-    void manageBidMessage(PlayerMessage bidMessage) {
-        getPlayer().placeBid(ContreeBidValue.EIGHTY, CardSuit.HEARTS);
+    public BiddingBotEventHandler() {
+        super(BiddingBotStrategy::new);
+    }
+
+    public BiddingBotEventHandler(ThreadFactory threadFactory) {
+        super(BiddingBotStrategy::new, threadFactory);
     }
+
 }
@@ -1,42 +1,87 @@
 package sebastien.perpignane.cardgame.player.contree.handlers;
 
 import sebastien.perpignane.cardgame.card.ClassicalCard;
-import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayerStatus;
 import sebastien.perpignane.cardgame.player.contree.PlayerMessage;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
 
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
 
+/**
+ * Bot whose decisions are taken by a {@link ContreeBotStrategy}.
+ *
+ * The strategy is created when the bot joins its game, from a generator split from the one of the game ({@link ContreeGame#splitBotRandom()}),
+ * so that the decisions of the bots are reproduced with the seed of the game. It is then told that the bot joins the game.
+ */
 public class ContreeBotPlayerEventHandler extends ThreadLocalContreePlayerEventHandler {
 
-    private final Random random = new Random();
+    private final Function<RandomGenerator, ContreeBotStrategy> strategyFactory;
 
+    /**
+     * Set by the game thread when the bot joins the game, read by the bot thread
+     */
+    private volatile ContreeBotStrategy strategy;
+
+    /**
+     * Bot playing random cards and always passing, running on a virtual thread
+     */
     public ContreeBotPlayerEventHandler() {
-        super();
+        this(RandomCardBotStrategy::new);
+    }
+
+    /**
+     * Bot running on a virtual thread
+     * @param strategyFactory creates the strategy of the bot from the random generator given by its game
+     */
+    public ContreeBotPlayerEventHandler(Function<RandomGenerator, ContreeBotStrategy> strategyFactory) {
+        this(strategyFactory, Thread.ofVirtual().factory());
+    }
+
+    /**
+     * @param strategyFactory creates the strategy of the bot from the random generator given by its game
+     * @param threadFactory creates the thread of the bot
+     */
+    public ContreeBotPlayerEventHandler(Function<RandomGenerator, ContreeBotStrategy> strategyFactory, ThreadFactory threadFactory) {
+        super(threadFactory);
+        this.strategyFactory = strategyFactory;
+    }
+
+    /**
+     * Bot running on a virtual thread, with a strategy whose random generator is not given by the game
+     */
+    public ContreeBotPlayerEventHandler(ContreeBotStrategy strategy) {
+        this(strategy, Thread.ofVirtual().factory());
+    }
+
+    /**
+     * @param strategy strategy of the bot, whose random generator is not given by the game
+     * @param threadFactory creates the thread of the bot
+     */
+    public ContreeBotPlayerEventHandler(ContreeBotStrategy strategy, ThreadFactory threadFactory) {
+        this(random -> strategy, threadFactory);
     }
 
     @Override
-    void managePlayMessage(PlayerMessage playerMessage) {
-        int cardIndex = random.nextInt(playerMessage.allowedCards().size());
-        Iterator<ClassicalCard> cardIterator = playerMessage.allowedCards().iterator();
-        ClassicalCard playedCard = null;
-        int i = 0;
-        while (i < (cardIndex == 0 ? 1 : cardIndex)) {
-            playedCard = cardIterator.next();
-            i++;
-        }
-        getPlayer().playCard(playedCard);
+    public void onJoiningGame(ContreeGame game) {
+        ContreeBotStrategy joiningStrategy = strategyFactory.apply(game.splitBotRandom());
+        joiningStrategy.onJoiningGame(game);
+        strategy = joiningStrategy;
     }
 
-    private void placePassBid() {
-        getPlayer().placeBid(ContreeBidValue.PASS, null);
+    @Override
+    void managePlayMessage(PlayerMessage playerMessage) {
+        getPlayer().playCard(strategy.chooseCard(getPlayer(), playerMessage.allowedCards()));
     }
 
     @Override
     void manageBidMessage(PlayerMessage bidMessage) {
-        placePassBid();
+        var bid = strategy.chooseBid(getPlayer(), bidMessage.allowedBidValues());
+        getPlayer().placeBid(bid.bidValue(), bid.cardSuit());
     }
 
     @Override
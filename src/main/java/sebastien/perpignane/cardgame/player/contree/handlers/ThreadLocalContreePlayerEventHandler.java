@@ -5,6 +5,7 @@ import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
 import sebastien.perpignane.cardgame.player.contree.*;
 
 import java.util.Set;
+import java.util.concurrent.ThreadFactory;
 
 public abstract class ThreadLocalContreePlayerEventHandler extends AbstractThreadPlayerEventHandler<ContreePlayer, PlayerMessage> implements ContreePlayerEventHandler {
 
@@ -22,6 +23,10 @@ public abstract class ThreadLocalContreePlayerEventHandler extends AbstractThrea
     protected ThreadLocalContreePlayerEventHandler() {
     }
 
+    protected ThreadLocalContreePlayerEventHandler(ThreadFactory threadFactory) {
+        super(threadFactory);
+    }
+
     @Override
     public void onGameOver() {
         receiveNewMessage(new PlayerMessage(MessageType.GAME_OVER));
@@ -21,7 +21,7 @@ public class GamePlayerSlots<P extends Player<?, ?>>  {
     }
 
     public boolean contains(P player) {
-        return slots.stream().anyMatch(s -> s.getPlayer().isPresent() && s.getPlayer().get() == player);
+        return indexOf(player) >= 0;
     }
 
     public Optional<P> addPlayerToSlotIndex(int slotNumber, P newPlayer) {
@@ -31,31 +31,72 @@ public class GamePlayerSlots<P extends Player<?, ?>>  {
         return replacedPlayer;
     }
 
+    /**
+     * @param slotNumber the slot number, which is also the index of the slot
+     */
     public PlayerSlot<P> getSlot(int slotNumber) {
         checkSlotNumber(slotNumber);
-        return slots.stream().filter(ps -> ps.getSlotNumber() == slotNumber).findFirst().orElseThrow();
+        return slots.get(slotNumber);
     }
 
     public PlayerSlot<P> getSlot(P player) {
-        return slots.stream().filter(ps -> ps.getPlayer().isPresent() && ps.getPlayer().get() == player).findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown player"));
+        int slotIndex = indexOf(player);
+        if (slotIndex < 0) {
+            throw new IllegalArgumentException("Unknown player");
+        }
+        return slots.get(slotIndex);
+    }
+
+    // Slots are scanned with plain loops: these methods are called for each player action, streams would allocate on each call
+
+    /**
+     * @return the number of the slot of the player, -1 if the player is not in a slot
+     */
+    public int indexOf(P player) {
+        for (int i = 0; i < slots.size(); i++) {
+            PlayerSlot<P> slot = slots.get(i);
+            if (slot.isPresent() && slot.getPlayerOrNull() == player) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private void checkSlotNumber(int slotNumber) throws IllegalArgumentException {
-        if (slotNumber + 1 > slots.size()) {
+        if (slotNumber < 0 || slotNumber + 1 > slots.size()) {
             throw new IllegalArgumentException(String.format("slotIndex %d is not valid", slotNumber));
         }
     }
 
     public boolean isFull() {
-        return slots.stream().noneMatch(s -> s.getPlayer().isEmpty() );
+        for (PlayerSlot<P> slot : slots) {
+            if (slot.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean isEmpty() {
-        return slots.stream().noneMatch( s -> s.getPlayer().isPresent() );
+        for (PlayerSlot<P> slot : slots) {
+            if (slot.isPresent()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean isJoinable() {
-        return slots.stream().anyMatch( s -> s.getPlayer().isEmpty() || s.getPlayer().get().isBot() );
+        for (PlayerSlot<P> slot : slots) {
+            if (slot.isEmpty() || slot.getPlayerOrNull().isBot()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return slots.size();
     }
 
     public Stream<PlayerSlot<P>> stream() {
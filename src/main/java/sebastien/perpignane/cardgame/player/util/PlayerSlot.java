@@ -30,6 +30,13 @@ public class PlayerSlot<P extends Player<?, ?>> {
         return Optional.ofNullable(player);
     }
 
+    /**
+     * @return the player, or null if the slot is empty. Avoids allocating an {@link Optional} on hot paths.
+     */
+    public P getPlayerOrNull() {
+        return player;
+    }
+
     public void setPlayer(P player) {
         this.player = player;
     }
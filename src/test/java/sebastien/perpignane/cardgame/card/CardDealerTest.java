@@ -3,8 +3,11 @@ package sebastien.perpignane.cardgame.card;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -38,6 +41,32 @@ class CardDealerTest {
 
     }
 
+    @DisplayName("Hands dealt as card masks, in place, are the hands dealt as card lists")
+    @Test
+    void testDealHands() {
+
+        CardDealer cardDealer = new CardDealer(List.of(3,3,2));
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, new Random(1));
+        byte[] cardOrdinals = new byte[cards.size()];
+        for (int i = 0 ; i < cardOrdinals.length ; i++) {
+            cardOrdinals[i] = (byte) cards.get(i).ordinal();
+        }
+        long[] hands = {-1, -1, -1, -1, -1, -1};
+
+        cardDealer.dealHands(cardOrdinals, 4, hands, 1);
+
+        var expectedHands = cardDealer.dealCards(cards, 4);
+        assertThat(hands).containsExactly(-1, CardMask.of(expectedHands.get(0)), CardMask.of(expectedHands.get(1)), CardMask.of(expectedHands.get(2)), CardMask.of(expectedHands.get(3)), -1);
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(
+            () -> cardDealer.dealHands(cardOrdinals, 3, hands, 0)
+        );
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(
+            () -> new CardDealer(List.of(3,3,3)).dealHands(cardOrdinals, 4, hands, 0)
+        );
+
+    }
+
     @DisplayName("Invalid arguments -> cannot equally deal 9 cards to 4 players with a 32 card set")
     @Test
     void testInvalidDistributionConfig() {
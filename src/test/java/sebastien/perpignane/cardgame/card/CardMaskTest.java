@@ -0,0 +1,93 @@
+package sebastien.perpignane.cardgame.card;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static sebastien.perpignane.cardgame.card.ClassicalCard.*;
+
+class CardMaskTest {
+
+    @DisplayName("A mask built from cards contains exactly these cards")
+    @Test
+    void testOfAndContains() {
+        long mask = CardMask.of(ACE_SPADE, JACK_HEART, JOKER2);
+
+        assertThat(CardMask.size(mask)).isEqualTo(3);
+        assertThat(CardMask.contains(mask, ACE_SPADE)).isTrue();
+        assertThat(CardMask.contains(mask, JACK_HEART)).isTrue();
+        assertThat(CardMask.contains(mask, JOKER2)).isTrue();
+        assertThat(CardMask.contains(mask, ACE_HEART)).isFalse();
+        assertThat(CardMask.of(List.of(ACE_SPADE, JACK_HEART, JOKER2))).isEqualTo(mask);
+    }
+
+    @DisplayName("Adding and removing cards")
+    @Test
+    void testWithAndWithout() {
+        long mask = CardMask.with(CardMask.EMPTY, TEN_CLUB);
+        assertThat(CardMask.contains(mask, TEN_CLUB)).isTrue();
+
+        mask = CardMask.without(mask, TEN_CLUB);
+        assertThat(CardMask.isEmpty(mask)).isTrue();
+
+        assertThat(CardMask.without(CardMask.of(NINE_CLUB), TEN_CLUB)).isEqualTo(CardMask.of(NINE_CLUB));
+    }
+
+    @DisplayName("Union, intersection and difference")
+    @Test
+    void testSetOperations() {
+        long a = CardMask.of(ACE_SPADE, JACK_HEART);
+        long b = CardMask.of(JACK_HEART, NINE_DIAMOND);
+
+        assertThat(CardMask.union(a, b)).isEqualTo(CardMask.of(ACE_SPADE, JACK_HEART, NINE_DIAMOND));
+        assertThat(CardMask.intersection(a, b)).isEqualTo(CardMask.of(JACK_HEART));
+        assertThat(CardMask.minus(a, b)).isEqualTo(CardMask.of(ACE_SPADE));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CardSuit.class, names = "NONE", mode = EnumSource.Mode.EXCLUDE)
+    void testSuitMask(CardSuit suit) {
+        long suitMask = CardMask.suit(suit);
+
+        assertThat(CardMask.size(suitMask)).isEqualTo(13);
+        assertThat(CardMask.toSet(suitMask)).allMatch(c -> c.getSuit() == suit);
+        assertThat(CardMask.size(CardMask.ofSuit(CardSet.GAME_32.getGameCardsMask(), suit))).isEqualTo(8);
+    }
+
+    @DisplayName("Iteration follows the card ordinals")
+    @Test
+    void testIteration() {
+        long mask = CardMask.of(ACE_SPADE, SEVEN_DIAMOND, JACK_HEART);
+
+        List<ClassicalCard> iterated = new ArrayList<>();
+        for (long m = mask; m != CardMask.EMPTY; m = CardMask.removeFirst(m)) {
+            iterated.add(CardMask.first(m));
+        }
+
+        assertThat(iterated).containsExactly(SEVEN_DIAMOND, JACK_HEART, ACE_SPADE);
+        assertThat(CardMask.toList(mask)).isEqualTo(iterated);
+        assertThat(CardMask.toSet(mask)).isEqualTo(Set.of(SEVEN_DIAMOND, JACK_HEART, ACE_SPADE));
+        assertThat(CardMask.card(ACE_SPADE.ordinal())).isEqualTo(ACE_SPADE);
+    }
+
+    @DisplayName("first fails on an empty mask")
+    @Test
+    void testFirstOnEmptyMask() {
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(() -> CardMask.first(CardMask.EMPTY));
+    }
+
+    @Test
+    void testToString() {
+        assertThat(CardMask.toString(CardMask.of(ACE_SPADE, JACK_HEART))).isEqualTo("[J♥, A♠]");
+        assertThat(CardMask.toString(CardMask.EMPTY)).isEqualTo("[]");
+    }
+
+}
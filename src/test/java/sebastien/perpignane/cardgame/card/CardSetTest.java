@@ -44,4 +44,14 @@ class CardSetTest {
         assertThat(ClassicalCard.values()).containsAll(gameCards);
     }
 
+    @Test
+    @DisplayName("The card mask of a set contains the same cards as the set")
+    void testGameCardsMask() {
+        for (CardSet cardSet : CardSet.values()) {
+            assertThat(CardMask.toSet(cardSet.getGameCardsMask())).isEqualTo(cardSet.getGameCards());
+        }
+        assertThat(CardMask.toSet(CardSet.GAME_32.allOfMask(CardSuit.HEARTS)))
+                .containsExactlyInAnyOrderElementsOf(CardSet.GAME_32.allOf(CardSuit.HEARTS));
+    }
+
 }
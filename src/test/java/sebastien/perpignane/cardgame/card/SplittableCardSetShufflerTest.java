@@ -0,0 +1,67 @@
+package sebastien.perpignane.cardgame.card;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SplittableCardSetShufflerTest {
+
+    @DisplayName("A shuffle is a permutation of the cards of the set")
+    @ParameterizedTest
+    @EnumSource(CardSet.class)
+    void testShuffle(CardSet cardSet) {
+        List<ClassicalCard> shuffledCards = new SplittableCardSetShuffler().shuffle(cardSet);
+
+        assertThat(shuffledCards).containsExactlyInAnyOrderElementsOf(cardSet.getGameCards());
+    }
+
+    @DisplayName("Shufflers with the same seed shuffle the same way")
+    @Test
+    void testSameSeed() {
+        SplittableCardSetShuffler shuffler = new SplittableCardSetShuffler(42);
+        SplittableCardSetShuffler otherShuffler = new SplittableCardSetShuffler(42);
+
+        for (int i = 0 ; i < 10 ; i++) {
+            assertThat(shuffler.shuffle(CardSet.GAME_32)).isEqualTo(otherShuffler.shuffle(CardSet.GAME_32));
+        }
+        assertThat(new SplittableCardSetShuffler(43).shuffle(CardSet.GAME_32)).isNotEqualTo(new SplittableCardSetShuffler(42).shuffle(CardSet.GAME_32));
+    }
+
+    @DisplayName("Split shufflers are reproduced from the seed of their parent, and shuffle differently from it")
+    @Test
+    void testSplit() {
+        SplittableCardSetShuffler shuffler = new SplittableCardSetShuffler(42);
+        SplittableCardSetShuffler split = shuffler.split();
+        SplittableCardSetShuffler otherSplit = new SplittableCardSetShuffler(42).split();
+
+        List<ClassicalCard> splitCards = split.shuffle(CardSet.GAME_32);
+
+        assertThat(otherSplit.shuffle(CardSet.GAME_32)).isEqualTo(splitCards);
+        assertThat(shuffler.shuffle(CardSet.GAME_32)).isNotEqualTo(splitCards);
+    }
+
+    @DisplayName("Card ordinals are shuffled in place")
+    @Test
+    void testShuffleInPlace() {
+        byte[] cardOrdinals = new byte[32];
+        for (int i = 0 ; i < cardOrdinals.length ; i++) {
+            cardOrdinals[i] = (byte) i;
+        }
+
+        new SplittableCardSetShuffler(1).shuffle(cardOrdinals);
+
+        assertThat(cardOrdinals).isNotEqualTo(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31});
+        byte[] sortedOrdinals = cardOrdinals.clone();
+        Arrays.sort(sortedOrdinals);
+        for (int i = 0 ; i < sortedOrdinals.length ; i++) {
+            assertThat(sortedOrdinals[i]).isEqualTo((byte) i);
+        }
+    }
+
+}
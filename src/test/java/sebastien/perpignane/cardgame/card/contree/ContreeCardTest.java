@@ -5,8 +5,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import sebastien.perpignane.cardgame.card.CardSet;
 import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 class ContreeCardTest {
 
@@ -39,4 +41,36 @@ class ContreeCardTest {
         assertThat(result).hasSize(32);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testInstancesAreShared() {
+
+        var card = ContreeCard.of(ClassicalCard.JACK_HEART, CardSuit.HEARTS);
+
+        assertThat(card).isSameAs(ContreeCard.of(ClassicalCard.JACK_HEART, true));
+        assertThat(card).isNotSameAs(ContreeCard.of(ClassicalCard.JACK_HEART, CardSuit.SPADES));
+        assertThat(card.isTrump()).isTrue();
+        assertThat(card.getGameValue()).isEqualTo(ContreeRankValueAndPoints.JACK.getTrumpGameValue());
+        assertThat(card.getGamePoints()).isEqualTo(20);
+
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CardSuit.class, names = "NONE", mode = EnumSource.Mode.EXCLUDE)
+    void testPrimitiveValuesAndPoints(CardSuit trumpSuit) {
+
+        for (ClassicalCard classicalCard : CardSet.GAME_32.getGameCards()) {
+            var card = ContreeCard.of(classicalCard, trumpSuit);
+            assertThat(ContreeCard.gameValue(classicalCard.ordinal(), card.isTrump())).isEqualTo(card.getGameValue());
+            assertThat(ContreeCard.gamePoints(classicalCard.ordinal(), card.isTrump())).isEqualTo(card.getGamePoints());
+        }
+
+    }
+
+    @Test
+    void testNotAContreeCard() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ContreeCard.of(ClassicalCard.TWO_HEART, CardSuit.HEARTS));
+        assertThatIllegalArgumentException().isThrownBy(() -> ContreeCard.of(ClassicalCard.JOKER1, false));
+    }
+
+}
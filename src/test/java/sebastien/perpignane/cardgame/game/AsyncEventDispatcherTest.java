@@ -0,0 +1,149 @@
+package sebastien.perpignane.cardgame.game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.game.contree.ContreeDealObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.*;
+
+class AsyncEventDispatcherTest {
+
+    @DisplayName("Events are delivered to the observers of the event type only")
+    @Test
+    void testDispatchByObserverType() {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(Runnable::run, 8);
+        GameObserver gameObserver = mock(GameObserver.class);
+        ContreeDealObserver dealObserver = mock(ContreeDealObserver.class);
+        dispatcher.register(gameObserver, BackpressurePolicy.BLOCK);
+        dispatcher.register(dealObserver, BackpressurePolicy.BLOCK);
+
+        dispatcher.dispatch(GameObserver.class, 0, go -> go.onStateUpdated(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED));
+        dispatcher.dispatch(ContreeDealObserver.class, 1, cdo -> cdo.onBidStepStarted("deal"));
+
+        verify(gameObserver).onStateUpdated(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED);
+        verify(dealObserver).onBidStepStarted("deal");
+        verifyNoMoreInteractions(gameObserver, dealObserver);
+        assertThat(dispatcher.hasObservers()).isTrue();
+    }
+
+    @DisplayName("Without asynchronous observer, nothing is dispatched")
+    @Test
+    void testNoObserver() {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(dispatch -> { throw new AssertionError("No dispatch expected"); }, 8);
+
+        dispatcher.dispatch(GameObserver.class, 0, go -> go.onNextPlayer(null));
+
+        assertThat(dispatcher.hasObservers()).isFalse();
+    }
+
+    @DisplayName("Events are delivered in order on the dispatcher thread, while the game goes on")
+    @Test
+    void testSlowObserverDoesNotSlowTheSender() throws InterruptedException {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher();
+        CountDownLatch observerReleased = new CountDownLatch(1);
+        CountDownLatch allEventsReceived = new CountDownLatch(100);
+        List<Integer> receivedEvents = Collections.synchronizedList(new ArrayList<>());
+        List<String> dispatchThreads = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.register(new CardGameObserver() { }, BackpressurePolicy.BLOCK);
+
+        for (int i = 0; i < 100; i++) {
+            int eventNumber = i;
+            dispatcher.dispatch(CardGameObserver.class, 0, o -> {
+                awaitQuietly(observerReleased);
+                dispatchThreads.add(Thread.currentThread().getName());
+                receivedEvents.add(eventNumber);
+                allEventsReceived.countDown();
+            });
+        }
+        assertThat(receivedEvents).isEmpty();
+
+        observerReleased.countDown();
+        assertThat(allEventsReceived.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(receivedEvents).isSorted().hasSize(100);
+        assertThat(dispatchThreads).allMatch(name -> name.startsWith("EventDispatcher-"));
+        assertThat(dispatcher.getNbDroppedEvents()).isZero();
+    }
+
+    @DisplayName("A dispatch delivers one batch by observer, then gives its thread back and schedules the next dispatch")
+    @Test
+    void testOneBatchByDispatch() {
+        List<Runnable> dispatches = new ArrayList<>();
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(dispatches::add, 256);
+        GameObserver gameObserver = mock(GameObserver.class);
+        dispatcher.register(gameObserver, BackpressurePolicy.BLOCK);
+
+        for (int i = 0; i < AsyncEventDispatcher.BATCH_SIZE + 10; i++) {
+            dispatcher.dispatch(GameObserver.class, AsyncEventDispatcher.NOT_COALESCED, go -> go.onNextPlayer(null));
+        }
+        assertThat(dispatches).hasSize(1);
+
+        dispatches.get(0).run();
+        verify(gameObserver, times(AsyncEventDispatcher.BATCH_SIZE)).onNextPlayer(null);
+        assertThat(dispatches).hasSize(2);
+
+        dispatches.get(1).run();
+        verify(gameObserver, times(AsyncEventDispatcher.BATCH_SIZE + 10)).onNextPlayer(null);
+        assertThat(dispatches).hasSize(2);
+    }
+
+    @DisplayName("Dropped events of the observers are counted")
+    @Test
+    void testDroppedEvents() {
+        List<Runnable> dispatches = new ArrayList<>();
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(dispatches::add, 2);
+        GameObserver gameObserver = mock(GameObserver.class);
+        dispatcher.register(gameObserver, BackpressurePolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(GameObserver.class, 0, go -> go.onNextPlayer(null));
+        }
+        assertThat(dispatches).hasSize(1);
+        dispatches.get(0).run();
+
+        verify(gameObserver, times(2)).onNextPlayer(null);
+        assertThat(dispatcher.getNbDroppedEvents()).isEqualTo(3);
+    }
+
+    @DisplayName("A blocked sender fails when interrupted")
+    @Test
+    void testInterruptedSender() {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(dispatch -> {}, 1);
+        dispatcher.register(mock(GameObserver.class), BackpressurePolicy.BLOCK);
+        dispatcher.dispatch(GameObserver.class, 0, go -> go.onNextPlayer(null));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatIllegalStateException().isThrownBy(() -> dispatcher.dispatch(GameObserver.class, 0, go -> go.onNextPlayer(null)));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        }
+        finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testObserverIsRequired() {
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher();
+        assertThatIllegalArgumentException().isThrownBy(() -> dispatcher.register(null, BackpressurePolicy.BLOCK));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package sebastien.perpignane.cardgame.game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.awaitility.Awaitility.await;
+
+class ObserverEventQueueTest {
+
+    private static final Runnable NOTHING = () -> {};
+
+    private final List<String> receivedEvents = new ArrayList<>();
+
+    private final Consumer<?>[] batch = new Consumer<?>[10];
+
+    private final CardGameObserver observer = new CardGameObserver() { };
+
+    private Consumer<CardGameObserver> event(String name) {
+        return o -> receivedEvents.add(name);
+    }
+
+    @DisplayName("Events are delivered in order, in batches")
+    @Test
+    void testDeliverInOrder() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.DROP_OLDEST, 20);
+        for (int i = 0; i < 15; i++) {
+            queue.offer(0, event("e" + i), NOTHING);
+        }
+
+        assertThat(queue.deliver(batch)).isEqualTo(10);
+        assertThat(queue.isEmpty()).isFalse();
+        assertThat(queue.deliver(batch)).isEqualTo(5);
+        assertThat(queue.isEmpty()).isTrue();
+
+        assertThat(receivedEvents).hasSize(15).startsWith("e0", "e1").endsWith("e14");
+        assertThat(queue.getObserver()).isSameAs(observer);
+    }
+
+    @DisplayName("With DROP_OLDEST, the oldest events are dropped when the queue is full")
+    @Test
+    void testDropOldest() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.DROP_OLDEST, 2);
+
+        queue.offer(0, event("e1"), NOTHING);
+        queue.offer(0, event("e2"), NOTHING);
+        queue.offer(0, event("e3"), NOTHING);
+        queue.deliver(batch);
+
+        assertThat(receivedEvents).containsExactly("e2", "e3");
+        assertThat(queue.getNbDroppedEvents()).isEqualTo(1);
+    }
+
+    @DisplayName("With COALESCE, a new snapshot event replaces the pending event of the same type when the queue is full, at the tail")
+    @Test
+    void testCoalesce() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.COALESCE, 3);
+
+        queue.offer(1, event("score1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("trick1"), NOTHING);
+        queue.offer(1, event("score2"), NOTHING);
+        queue.deliver(batch);
+        assertThat(receivedEvents).containsExactly("card1", "trick1", "score2");
+        assertThat(queue.getNbDroppedEvents()).isEqualTo(1);
+    }
+
+    @DisplayName("With COALESCE, snapshot events are not coalesced while the queue has room")
+    @Test
+    void testCoalesceOnlyWhenFull() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.COALESCE, 4);
+
+        queue.offer(1, event("score1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card1"), NOTHING);
+        queue.offer(1, event("score2"), NOTHING);
+        queue.deliver(batch);
+
+        assertThat(receivedEvents).containsExactly("score1", "card1", "score2");
+        assertThat(queue.getNbDroppedEvents()).isZero();
+    }
+
+    @DisplayName("With COALESCE, played cards and ends of trick are never coalesced: the oldest event is dropped when the queue is full")
+    @Test
+    void testCoalesceKeepsCardsAndTricksInOrder() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.COALESCE, 3);
+
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("trick1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card2"), NOTHING);
+        queue.deliver(batch);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card3"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("trick2"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card4"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card5"), NOTHING);
+        queue.deliver(batch);
+
+        assertThat(receivedEvents).containsExactly("card1", "trick1", "card2", "trick2", "card4", "card5");
+        assertThat(queue.getNbDroppedEvents()).isEqualTo(1);
+    }
+
+    @DisplayName("With COALESCE, events stay in order when the ring buffer wraps around")
+    @Test
+    void testCoalesceAfterWrapAround() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.COALESCE, 3);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card2"), NOTHING);
+        queue.deliver(batch);
+
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("card3"), NOTHING);
+        queue.offer(1, event("score1"), NOTHING);
+        queue.offer(AsyncEventDispatcher.NOT_COALESCED, event("trick1"), NOTHING);
+        queue.offer(1, event("score2"), NOTHING);
+        queue.deliver(batch);
+
+        assertThat(receivedEvents).containsExactly("card1", "card2", "card3", "trick1", "score2");
+    }
+
+    @DisplayName("With BLOCK, the sender waits until the observer has room for the event")
+    @Test
+    void testBlock() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.BLOCK, 1);
+        AtomicBoolean waited = new AtomicBoolean(false);
+        AtomicBoolean sent = new AtomicBoolean(false);
+        queue.offer(0, event("e1"), NOTHING);
+
+        Thread sender = Thread.ofPlatform().start(() -> {
+            try {
+                queue.offer(0, event("e2"), () -> waited.set(true));
+                sent.set(true);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        await().atMost(5, TimeUnit.SECONDS).untilTrue(waited);
+        assertThat(sent).isFalse();
+
+        queue.deliver(batch);
+        sender.join(5000);
+
+        assertThat(sent).isTrue();
+        queue.deliver(batch);
+        assertThat(receivedEvents).containsExactly("e1", "e2");
+        assertThat(queue.getNbDroppedEvents()).isZero();
+    }
+
+    @DisplayName("An observer failing on an event gets the next events")
+    @Test
+    void testFailingObserver() throws InterruptedException {
+        ObserverEventQueue queue = new ObserverEventQueue(observer, BackpressurePolicy.BLOCK, 4);
+
+        queue.offer(0, o -> { throw new IllegalStateException("Observer failure"); }, NOTHING);
+        queue.offer(0, event("e2"), NOTHING);
+
+        assertThat(queue.deliver(batch)).isEqualTo(2);
+        assertThat(receivedEvents).containsExactly("e2");
+    }
+
+    @Test
+    void testCapacityMustBePositive() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ObserverEventQueue(observer, BackpressurePolicy.BLOCK, 0));
+    }
+
+}
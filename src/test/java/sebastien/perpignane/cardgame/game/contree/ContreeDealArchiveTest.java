@@ -0,0 +1,141 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static sebastien.perpignane.cardgame.game.contree.ContreeDealArchive.HEADER_SIZE;
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.RECORD_SIZE;
+
+class ContreeDealArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Appended deals are read back in order, across segments")
+    @Test
+    void testAppendAndRead() throws IOException {
+        List<DealRecord> deals = List.of(DealRecordSamples.longestDeal(1), DealRecordSamples.allPassDeal(2), DealRecordSamples.longestDeal(3), DealRecordSamples.allPassDeal(4), DealRecordSamples.longestDeal(5));
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 2)) {
+            deals.forEach(archive::append);
+            assertThat(archive.size()).isEqualTo(5);
+            assertThat(archive.getDirectory()).isEqualTo(directory);
+        }
+
+        ContreeDealArchiveReader reader = ContreeDealArchiveReader.open(directory);
+
+        assertThat(ContreeDealArchive.segments(directory)).hasSize(3);
+        assertThat(reader.size()).isEqualTo(5);
+        List<DealRecord> readDeals = new ArrayList<>();
+        reader.forEach(readDeals::add);
+        assertThat(readDeals).isEqualTo(deals);
+        assertThat(reader.get(0)).isEqualTo(deals.get(0));
+        assertThat(reader.get(3)).isEqualTo(deals.get(3));
+        assertThat(reader.get(4)).isEqualTo(deals.get(4));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> reader.get(5));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> reader.get(-1));
+    }
+
+    @DisplayName("A reopened archive appends the new deals after the archived ones")
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3})
+    void testReopen(int nbArchivedDeals) throws IOException {
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 3)) {
+            LongStream.range(0, nbArchivedDeals).forEach(seed -> archive.append(DealRecordSamples.allPassDeal(seed)));
+        }
+
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 3)) {
+            assertThat(archive.size()).isEqualTo(nbArchivedDeals);
+            archive.append(DealRecordSamples.longestDeal(10));
+        }
+
+        ContreeDealArchiveReader reader = ContreeDealArchiveReader.open(directory);
+        assertThat(reader.size()).isEqualTo(nbArchivedDeals + 1);
+        assertThat(reader.get(0)).isEqualTo(DealRecordSamples.allPassDeal(0));
+        assertThat(reader.get(nbArchivedDeals)).isEqualTo(DealRecordSamples.longestDeal(10));
+    }
+
+    @DisplayName("Games of many threads append their deals at the same time")
+    @Test
+    void testConcurrentAppends() throws IOException {
+        int nbThreads = 8;
+        int nbDealsByThread = 500;
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 256) ; ExecutorService executor = Executors.newFixedThreadPool(nbThreads)) {
+            for (int thread = 0 ; thread < nbThreads ; thread++) {
+                long firstSeed = (long) thread * nbDealsByThread;
+                executor.execute(() -> LongStream.range(firstSeed, firstSeed + nbDealsByThread).forEach(seed -> archive.append(DealRecordSamples.longestDeal(seed))));
+            }
+        }
+
+        ContreeDealArchiveReader reader = ContreeDealArchiveReader.open(directory);
+        assertThat(reader.size()).isEqualTo(nbThreads * nbDealsByThread);
+        List<DealRecord> readDeals = new ArrayList<>();
+        reader.forEach(readDeals::add);
+        assertThat(readDeals).containsExactlyInAnyOrderElementsOf(LongStream.range(0, nbThreads * nbDealsByThread).mapToObj(DealRecordSamples::longestDeal).toList());
+    }
+
+    @DisplayName("A segment ends at its first record which was not fully written before a crash")
+    @Test
+    void testReadAfterCrash() throws IOException {
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 4)) {
+            LongStream.range(0, 3).forEach(seed -> archive.append(DealRecordSamples.allPassDeal(seed)));
+        }
+        Path segment = directory.resolve(ContreeDealArchive.segmentFileName(0));
+        byte[] bytes = Files.readAllBytes(segment);
+        // The written flag of the second record is lost
+        bytes[HEADER_SIZE + 2 * RECORD_SIZE - 1] = 0;
+        Files.write(segment, bytes);
+
+        ContreeDealArchiveReader reader = ContreeDealArchiveReader.open(directory);
+
+        assertThat(reader.size()).isEqualTo(1);
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 4)) {
+            assertThat(archive.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testAppendToClosedArchive() throws IOException {
+        ContreeDealArchive archive = new ContreeDealArchive(directory);
+        archive.close();
+
+        DealRecord deal = DealRecordSamples.allPassDeal(1);
+        assertThatIllegalStateException().isThrownBy(() -> archive.append(deal));
+    }
+
+    @DisplayName("The segments of an archive cannot be read with another number of records by segment")
+    @Test
+    void testOtherNumberOfRecordsBySegment() throws IOException {
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 4)) {
+            archive.append(DealRecordSamples.allPassDeal(1));
+        }
+
+        assertThatIOException().isThrownBy(() -> new ContreeDealArchive(directory, 8));
+    }
+
+    @Test
+    void testNotASegment() throws IOException {
+        Files.write(directory.resolve(ContreeDealArchive.segmentFileName(0)), new byte[HEADER_SIZE + RECORD_SIZE]);
+
+        assertThatIOException().isThrownBy(() -> ContreeDealArchiveReader.open(directory));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, Integer.MAX_VALUE / RECORD_SIZE})
+    void testInvalidNumberOfRecordsBySegment(int recordsPerSegment) {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDealArchive(directory, recordsPerSegment));
+    }
+
+}
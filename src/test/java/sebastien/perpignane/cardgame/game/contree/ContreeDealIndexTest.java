@@ -0,0 +1,90 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContreeDealIndexTest {
+
+    @DisplayName("Each bitmap of the index marks the archived deals whose outcome has its value")
+    @Test
+    void testBuildFromArchive(@TempDir Path directory) throws IOException {
+        List<DealRecord> deals = new ArrayList<>();
+        for (int seed = 0 ; seed < 150 ; seed++) {
+            deals.add(switch (seed % 3) {
+                case 0 -> DealRecordSamples.longestDeal(seed);
+                case 1 -> DealRecordSamples.allPassDeal(seed);
+                default -> DealRecordSamples.suitByPlayerDeal(seed % 4, ContreeBidValue.values()[1 + seed % 10], CardSuit.values()[seed % 4], seed % 5 == 0);
+            });
+        }
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory, 16)) {
+            deals.forEach(archive::append);
+        }
+        List<DealOutcome> outcomes = deals.stream().map(DealOutcome::of).toList();
+
+        ContreeDealIndex index = ContreeDealIndex.build(ContreeDealArchiveReader.open(directory));
+
+        assertThat(index.size()).isEqualTo(deals.size());
+        for (ContreeBidValue contract : ContreeBidValue.values()) {
+            assertBitmap(index.contractBitmap(contract), outcomes, outcome -> outcome.contract() == contract);
+        }
+        for (CardSuit suit : CardSuit.values()) {
+            assertBitmap(index.trumpSuitBitmap(suit), outcomes, outcome -> outcome.trumpSuit() == suit);
+        }
+        assertBitmap(index.doubledBitmap(), outcomes, DealOutcome::doubled);
+        assertBitmap(index.redoubledBitmap(), outcomes, DealOutcome::redoubled);
+        assertBitmap(index.capotBitmap(), outcomes, DealOutcome::capot);
+        assertBitmap(index.contractReachedBitmap(), outcomes, DealOutcome::contractReached);
+        for (ContreeTeam team : ContreeTeam.values()) {
+            assertBitmap(index.attackTeamBitmap(team), outcomes, outcome -> outcome.attackTeam() == team);
+            assertBitmap(index.winnerTeamBitmap(team), outcomes, outcome -> outcome.winnerTeam().equals(Optional.of(team)));
+        }
+        for (int nbTrumps = 0 ; nbTrumps <= ContreeDealIndex.MAX_TRUMPS ; nbTrumps++) {
+            int maxTrumps = nbTrumps;
+            assertBitmap(index.bidderTrumpsAtMostBitmap(nbTrumps), outcomes, outcome -> outcome.attackTeam() != null && outcome.bidderTrumps() <= maxTrumps);
+        }
+    }
+
+    @DisplayName("The index of many deals is built by many tasks, which index the deals in their own bitmap words")
+    @Test
+    void testBuildByManyTasks() {
+        List<DealRecord> samples = List.of(DealRecordSamples.longestDeal(1), DealRecordSamples.allPassDeal(2), DealRecordSamples.suitByPlayerDeal(0, ContreeBidValue.EIGHTY, CardSuit.HEARTS, false));
+        Function<Long, DealRecord> deals = dealIndex -> samples.get((int) (dealIndex % samples.size()));
+        long size = 200_003;
+
+        ContreeDealIndex index = ContreeDealIndex.build(size, deals::apply);
+
+        assertThat(index.size()).isEqualTo(size);
+        assertThat(index.query().contract(ContreeBidValue.PASS).count()).isEqualTo(size / 3 + 1);
+        assertThat(index.query().contract(ContreeBidValue.EIGHTY).count()).isEqualTo(size / 3);
+        assertThat(index.query().contract(ContreeBidValue.CAPOT).count()).isEqualTo(size / 3 + 1);
+    }
+
+    @Test
+    void testEmptyArchive(@TempDir Path directory) throws IOException {
+        ContreeDealIndex index = ContreeDealIndex.build(ContreeDealArchiveReader.open(directory));
+
+        assertThat(index.size()).isZero();
+        assertThat(index.query().count()).isZero();
+    }
+
+    private static void assertBitmap(long[] bitmap, List<DealOutcome> outcomes, Predicate<DealOutcome> predicate) {
+        for (int dealIndex = 0 ; dealIndex < outcomes.size() ; dealIndex++) {
+            boolean marked = (bitmap[dealIndex >>> 6] & (1L << dealIndex)) != 0;
+            assertThat(marked).as("Deal %d, %s", dealIndex, outcomes.get(dealIndex)).isEqualTo(predicate.test(outcomes.get(dealIndex)));
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ContreeDealPoolTest {
+
+    @DisplayName("The first deal of a pool is the deal of its shuffler and of the distribution configuration")
+    @Test
+    void testFirstDeal() {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 4, new SplittableCardSetShuffler(42))) {
+            pool.take(hands);
+        }
+
+        var expectedHands = new CardDealer(List.of(3, 3, 2)).dealCards(new SplittableCardSetShuffler(42).shuffle(CardSet.GAME_32), ContreePlayers.NB_PLAYERS);
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            assertThat(hands[slot]).isEqualTo(CardMask.of(expectedHands.get(slot)));
+        }
+    }
+
+    @DisplayName("Pools with the same seed produce the same deals, each one a distribution of the 32 cards")
+    @Test
+    void testSameSeed() {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        long[] otherHands = new long[ContreePlayers.NB_PLAYERS];
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 2, 3), 2, new SplittableCardSetShuffler(7));
+             ContreeDealPool otherPool = new ContreeDealPool(List.of(3, 2, 3), 8, new SplittableCardSetShuffler(7))) {
+            for (int i = 0 ; i < 100 ; i++) {
+                pool.take(hands);
+                otherPool.take(otherHands);
+                assertThat(hands).isEqualTo(otherHands);
+                assertThat(hands[0] | hands[1] | hands[2] | hands[3]).isEqualTo(CardSet.GAME_32.getGameCardsMask());
+                assertThat(Arrays.stream(hands).mapToInt(CardMask::size)).containsOnly(8);
+            }
+        }
+    }
+
+    @DisplayName("Each deal is taken by one game only, when many games take deals at the same time")
+    @Test
+    void testConcurrentTakes() throws Exception {
+        int nbConsumers = 4;
+        int nbDealsByConsumer = 2_000;
+        List<Future<List<List<Long>>>> consumers = new ArrayList<>();
+        List<List<Long>> deals = new ArrayList<>();
+        List<List<Long>> expectedDeals = new ArrayList<>();
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 16, new SplittableCardSetShuffler(3)) ; ExecutorService executor = Executors.newFixedThreadPool(nbConsumers)) {
+            for (int i = 0 ; i < nbConsumers ; i++) {
+                consumers.add(executor.submit(() -> {
+                    List<List<Long>> consumerDeals = new ArrayList<>();
+                    long[] hands = new long[ContreePlayers.NB_PLAYERS];
+                    for (int deal = 0 ; deal < nbDealsByConsumer ; deal++) {
+                        pool.take(hands);
+                        consumerDeals.add(List.of(hands[0], hands[1], hands[2], hands[3]));
+                    }
+                    return consumerDeals;
+                }));
+            }
+            for (Future<List<List<Long>>> consumer : consumers) {
+                deals.addAll(consumer.get());
+            }
+        }
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 16, new SplittableCardSetShuffler(3))) {
+            long[] hands = new long[ContreePlayers.NB_PLAYERS];
+            for (int deal = 0 ; deal < nbConsumers * nbDealsByConsumer ; deal++) {
+                pool.take(hands);
+                expectedDeals.add(List.of(hands[0], hands[1], hands[2], hands[3]));
+            }
+        }
+
+        Set<List<Long>> distinctDeals = new HashSet<>(deals);
+        assertThat(distinctDeals).hasSameSizeAs(deals);
+        assertThat(deals).containsExactlyInAnyOrderElementsOf(expectedDeals);
+    }
+
+    @DisplayName("The producer of a full pool waits without consuming CPU, and is woken up by the games taking its deals")
+    @Test
+    void testProducerWaitsForConsumers() {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 4, new SplittableCardSetShuffler(5))) {
+            Thread producer = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("contree-deal-pool"))
+                    .findFirst()
+                    .orElseThrow();
+            await().atMost(Duration.ofSeconds(2)).until(() -> producer.getState() == Thread.State.WAITING);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (int deal = 0 ; deal < 10 * pool.capacity() ; deal++) {
+                    pool.take(hands);
+                }
+            });
+            await().atMost(Duration.ofSeconds(2)).until(() -> producer.getState() == Thread.State.WAITING);
+        }
+    }
+
+    @Test
+    void testTakeFromClosedPool() {
+        ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 1, new SplittableCardSetShuffler(1));
+        pool.close();
+
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        assertThatIllegalStateException().isThrownBy(() -> pool.take(hands));
+    }
+
+    @Test
+    void testCapacity() {
+        try (ContreeDealPool pool = new ContreeDealPool(List.of(3, 3, 2), 1000, new SplittableCardSetShuffler(1))) {
+            assertThat(pool.capacity()).isEqualTo(1024);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, ContreeDealPool.MAX_CAPACITY + 1})
+    void testInvalidCapacity(int capacity) {
+        SplittableCardSetShuffler shuffler = new SplittableCardSetShuffler(1);
+        List<Integer> distributionConfiguration = List.of(3, 3, 2);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDealPool(distributionConfiguration, capacity, shuffler));
+    }
+
+    @Test
+    void testInvalidDistributionConfiguration() {
+        SplittableCardSetShuffler shuffler = new SplittableCardSetShuffler(1);
+        List<Integer> distributionConfiguration = List.of(3, 3, 3);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDealPool(distributionConfiguration, 4, shuffler));
+    }
+
+}
@@ -0,0 +1,119 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ContreeDealQueryTest {
+
+    private final List<DealRecord> deals = List.of(
+            // TEAM1 makes a capot at HEARTS
+            DealRecordSamples.suitByPlayerDeal(0, ContreeBidValue.EIGHTY, CardSuit.HEARTS, false),
+            // TEAM2 makes the capot it announced at SPADES, doubled
+            DealRecordSamples.suitByPlayerDeal(1, ContreeBidValue.CAPOT, CardSuit.SPADES, true),
+            // TEAM2 announces a capot at HEARTS and TEAM1 makes it
+            DealRecordSamples.suitByPlayerDeal(3, ContreeBidValue.CAPOT, CardSuit.HEARTS, false),
+            // TEAM2 bids 80 at DIAMONDS without trump and TEAM1 makes a capot
+            DealRecordSamples.suitByPlayerDeal(1, ContreeBidValue.EIGHTY, CardSuit.DIAMONDS, false),
+            DealRecordSamples.allPassDeal(1)
+    );
+
+    private ContreeDealIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ContreeDealIndex.build(deals.size(), dealIndex -> deals.get((int) dealIndex));
+    }
+
+    @DisplayName("The deals where the attack team bid CAPOT in HEARTS and failed")
+    @Test
+    void testFailedCapots() {
+        ContreeDealQuery query = index.query().contract(ContreeBidValue.CAPOT).trumpSuit(CardSuit.HEARTS).contractReached(false);
+
+        assertThat(query.count()).isOne();
+        assertThat(dealIndexes(query)).containsExactly(2L);
+        List<DealRecord> matchingDeals = new ArrayList<>();
+        query.forEachDeal(matchingDeals::add);
+        assertThat(matchingDeals).containsExactly(deals.get(2));
+    }
+
+    @DisplayName("The win rate of the contracts of 80 whose bidder has at most 2 trumps")
+    @Test
+    void testContractReachedRate() {
+        assertThat(index.query().contract(ContreeBidValue.EIGHTY).bidderTrumpsAtMost(2).contractReachedRate()).isZero();
+        assertThat(index.query().contract(ContreeBidValue.EIGHTY).contractReachedRate()).isEqualTo(0.5);
+        assertThat(index.query().contract(ContreeBidValue.HUNDRED).contractReachedRate()).isNaN();
+    }
+
+    @Test
+    void testFilters() {
+        assertThat(index.query().count()).isEqualTo(deals.size());
+        assertThat(dealIndexes(index.query().contract(ContreeBidValue.PASS))).containsExactly(4L);
+        assertThat(dealIndexes(index.query().trumpSuit(CardSuit.NONE))).containsExactly(4L);
+        assertThat(dealIndexes(index.query().doubled(true))).containsExactly(1L);
+        assertThat(dealIndexes(index.query().doubled(false))).containsExactly(0L, 2L, 3L, 4L);
+        assertThat(index.query().redoubled(true).count()).isZero();
+        assertThat(index.query().redoubled(false).count()).isEqualTo(deals.size());
+        assertThat(dealIndexes(index.query().capot(false))).containsExactly(4L);
+        assertThat(dealIndexes(index.query().capot(true).attackTeam(ContreeTeam.TEAM2))).containsExactly(1L, 2L, 3L);
+        assertThat(dealIndexes(index.query().winnerTeam(ContreeTeam.TEAM1))).containsExactly(0L, 2L, 3L);
+        assertThat(dealIndexes(index.query().winnerTeam(ContreeTeam.TEAM2))).containsExactly(1L);
+        assertThat(dealIndexes(index.query().bidderTrumpsAtLeast(8))).containsExactly(0L, 1L);
+        assertThat(dealIndexes(index.query().bidderTrumpsAtLeast(0))).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(dealIndexes(index.query().bidderTrumpsAtLeast(1).bidderTrumpsAtMost(7))).isEmpty();
+    }
+
+    @DisplayName("A query is immutable: a filter returns a new query")
+    @Test
+    void testImmutability() {
+        ContreeDealQuery eighty = index.query().contract(ContreeBidValue.EIGHTY);
+
+        assertThat(eighty.contractReached(true).count()).isOne();
+        assertThat(eighty.count()).isEqualTo(2);
+    }
+
+    @Test
+    void testDoubleIsNotAContract() {
+        ContreeDealQuery query = index.query();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> query.contract(ContreeBidValue.DOUBLE));
+        assertThatIllegalArgumentException().isThrownBy(() -> query.contract(ContreeBidValue.REDOUBLE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 9})
+    void testInvalidNumberOfTrumps(int nbTrumps) {
+        ContreeDealQuery query = index.query();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> query.bidderTrumpsAtMost(nbTrumps));
+        assertThatIllegalArgumentException().isThrownBy(() -> query.bidderTrumpsAtLeast(nbTrumps));
+    }
+
+    @DisplayName("Deals are counted in parallel by many tasks")
+    @Test
+    void testCountByManyTasks() {
+        long size = 3_000_001;
+        ContreeDealIndex largeIndex = ContreeDealIndex.build(size, dealIndex -> deals.get((int) (dealIndex % deals.size())));
+
+        assertThat(largeIndex.query().count()).isEqualTo(size);
+        assertThat(largeIndex.query().contract(ContreeBidValue.PASS).count()).isEqualTo(size / deals.size());
+        assertThat(largeIndex.query().redoubled(false).capot(false).count()).isEqualTo(size / deals.size());
+    }
+
+    private static List<Long> dealIndexes(ContreeDealQuery query) {
+        List<Long> dealIndexes = new ArrayList<>();
+        query.forEachDealIndex(dealIndexes::add);
+        return dealIndexes;
+    }
+
+}
@@ -0,0 +1,88 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ContreeDealRecorderTest {
+
+    private static final int NONE = ContreeGameEvent.NONE;
+
+    @DisplayName("Each deal of a simulated game is archived when it ends")
+    @Test
+    void testSimulatedGame(@TempDir Path directory) throws IOException {
+        SimulatedGameResult result;
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory)) {
+            ContreeGameConfig gameConfig = new ContreeGameConfig() {
+                @Override
+                public int getMaxScore() {
+                    return 500;
+                }
+
+                @Override
+                public Optional<ContreeDealArchive> getDealArchive() {
+                    return Optional.of(archive);
+                }
+            };
+            result = new ContreeSimulator(gameConfig).playGame();
+        }
+
+        List<DealRecord> deals = new ArrayList<>();
+        ContreeDealArchiveReader.open(directory).forEach(deals::add);
+
+        assertThat(deals).hasSize(result.nbDeals());
+        assertThat(deals).allSatisfy(deal -> {
+            assertThat(deal.nbBids()).isGreaterThanOrEqualTo(ContreePlayers.NB_PLAYERS);
+            assertThat(deal.nbPlayedCards()).isIn(0, DealRecord.NB_CARDS);
+            if (deal.nbPlayedCards() > 0) {
+                // The first card is played by the first bidder
+                assertThat(deal.ownerSlot(deal.playedCard(0))).isEqualTo(deal.firstBidderSlot());
+            }
+        });
+        // The bidding bot always bids 80 HEART
+        assertThat(deals).anySatisfy(deal -> assertThat(deal.bidSuit(deal.nbBids() - 4)).isEqualTo(CardSuit.HEARTS));
+    }
+
+    @DisplayName("A deal which started before the subscription of the recorder is not archived")
+    @Test
+    void testDealStartedBeforeSubscription() {
+        ContreeDealArchive archive = mock(ContreeDealArchive.class);
+        ContreeDealRecorder recorder = new ContreeDealRecorder(archive);
+        List<ClassicalCard> cards = DealRecordSamples.shuffledCards(3);
+        long[] hands = DealRecordSamples.hands(cards);
+
+        recorder.onEvent(event(ContreeEventType.CARD_PLAYED, 2, cards.get(2).ordinal(), NONE, NONE, NONE));
+        recorder.onEvent(event(ContreeEventType.DEAL_ENDED, NONE, NONE, NONE, 0, 0));
+
+        verifyNoInteractions(archive);
+
+        recorder.onEvent(event(ContreeEventType.DEAL_STARTED, NONE, NONE, NONE, NONE, NONE));
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            recorder.onEvent(event(ContreeEventType.HAND_DEALT, slot, NONE, NONE, (int) hands[slot], (int) (hands[slot] >>> 32)));
+        }
+        for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+            recorder.onEvent(event(ContreeEventType.BID_PLACED, (i + 3) % ContreePlayers.NB_PLAYERS, NONE, NONE, ContreeBidValue.PASS.ordinal(), NONE));
+        }
+        recorder.onEvent(event(ContreeEventType.DEAL_ENDED, NONE, NONE, NONE, NONE, 0));
+
+        byte pass = (byte) ContreeBidValue.PASS.ordinal();
+        byte noSuit = (byte) NONE;
+        verify(archive).append(new DealRecord(hands, 3, new byte[] {pass, pass, pass, pass}, new byte[] {noSuit, noSuit, noSuit, noSuit}, new byte[0]));
+    }
+
+    private static ContreeGameEvent event(ContreeEventType type, int playerSlot, int card, int suit, int value, int otherValue) {
+        return new ContreeGameEvent(type, 1, 1, NONE, playerSlot, card, suit, value, otherValue);
+    }
+
+}
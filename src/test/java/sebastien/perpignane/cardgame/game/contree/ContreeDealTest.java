@@ -7,9 +7,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalAnswers;
 import sebastien.perpignane.cardgame.card.CardDealer;
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSet;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -20,6 +22,7 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /*
@@ -78,7 +81,7 @@ class ContreeDealTest extends TestCasesManagingPlayers {
                 new ArrayList<>(CardSet.GAME_32.allOf(CardSuit.DIAMONDS))
         ));
 
-        deal = new ContreeDeal(bids, tricks, cardDealer, score, eventSender);
+        deal = new ContreeDeal(bids, tricks, cardDealer, new SplittableCardSetShuffler(1), null, score, eventSender);
 
     }
 
@@ -106,6 +109,49 @@ class ContreeDealTest extends TestCasesManagingPlayers {
 
     }
 
+    @DisplayName("A deal started with a deal pool deals the hands taken from the pool")
+    @Test
+    void testStartDealWithDealPool() {
+        ContreeGameEventSender eventSender = mock(ContreeGameEventSender.class);
+        long[] expectedHands = new long[ContreePlayers.NB_PLAYERS];
+        try (ContreeDealPool dealPool = new ContreeDealPool(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG, 4, new SplittableCardSetShuffler(3));
+             ContreeDealPool samePool = new ContreeDealPool(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG, 4, new SplittableCardSetShuffler(3))) {
+            ContreeDeal pooledDeal = new ContreeDeal(bids, tricks, mock(CardDealer.class), new SplittableCardSetShuffler(1), dealPool, mock(ContreeDealScore.class), eventSender);
+            samePool.take(expectedHands);
+
+            pooledDeal.startDeal(-1, "TEST", dealPlayers);
+        }
+
+        for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+            verify(dealPlayers).receiveHandForPlayer(i, CardMask.toList(expectedHands[i]));
+            verify(eventSender).sendDealtHandEvent(i, expectedHands[i]);
+        }
+    }
+
+    @DisplayName("The hands taken from the deal supplier are received in the array shared by the deals of the game")
+    @Test
+    void testSuppliedHandsAreReused() {
+        long[] board = {1L, 2L, 4L, 8L};
+        long[] suppliedHands = new long[ContreePlayers.NB_PLAYERS];
+        ContreeDealSupplier boardSupplier = hands -> System.arraycopy(board, 0, hands, 0, board.length);
+        ContreeDeal suppliedDeal = new ContreeDeal(bids, tricks, mock(CardDealer.class), new SplittableCardSetShuffler(1), boardSupplier, suppliedHands, mock(ContreeDealScore.class), mock(ContreeGameEventSender.class));
+
+        suppliedDeal.startDeal(-1, "TEST", dealPlayers);
+
+        assertThat(suppliedHands).containsExactly(board);
+    }
+
+    @DisplayName("Pooled deals are dealt to 4 players only")
+    @Test
+    void testStartDealWithDealPoolFailsWhenBadNumberOfPlayers() {
+        when(dealPlayers.getNumberOfPlayers()).thenReturn(2);
+        try (ContreeDealPool dealPool = new ContreeDealPool(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG, 4, new SplittableCardSetShuffler(3))) {
+            ContreeDeal pooledDeal = new ContreeDeal(bids, tricks, mock(CardDealer.class), new SplittableCardSetShuffler(1), dealPool, mock(ContreeDealScore.class), mock(ContreeGameEventSender.class));
+
+            assertThatIllegalStateException().isThrownBy(() -> pooledDeal.startDeal(-1, "TEST", dealPlayers));
+        }
+    }
+
     @DisplayName("After deal.startDeal(), the deal is in bid step")
     @Test
     void testDealIsInBidStepAfterStart() {
@@ -9,6 +9,7 @@ import sebastien.perpignane.cardgame.card.CardDealer;
 import sebastien.perpignane.cardgame.card.CardSet;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
 import sebastien.perpignane.cardgame.player.util.PlayerSlot;
@@ -57,7 +58,7 @@ class ContreeDealsTest extends TestCasesManagingPlayers {
 
         // All cards are playable
         PlayableCardsFilter filter = mock(PlayableCardsFilter.class);
-        when(filter.playableCards(any(), any())).thenReturn(CardSet.GAME_32.getGameCards());
+        when(filter.playableCardsMask(any(), any())).thenReturn(CardSet.GAME_32.getGameCardsMask());
 
         gameScore = mock(ContreeGameScore.class);
         DealScoreCalculator dealScoreCalculator = mock(DealScoreCalculator.class);
@@ -71,7 +72,7 @@ class ContreeDealsTest extends TestCasesManagingPlayers {
 
         when(biddableValuesFilter.biddableValues(any(), any())).thenReturn(bidFilterResult);
 
-        deals = new ContreeDeals(gameScore, dealScoreCalculator, biddableValuesFilter, filter, cardDealer, eventSender);
+        deals = new ContreeDeals(gameScore, dealScoreCalculator, biddableValuesFilter, filter, cardDealer, new SplittableCardSetShuffler(1), null, eventSender);
 
     }
 
@@ -0,0 +1,268 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ContreeDoubleDummySolverTest {
+
+    private static final CardSuit[] TRUMP_SUITS = {CardSuit.DIAMONDS, CardSuit.CLUBS, CardSuit.HEARTS, CardSuit.SPADES};
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    @DisplayName("On small endings, the solver finds the same points as a plain minimax, with a trick in progress or not")
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 2023L})
+    void testSameResultAsMinimax(long seed) {
+        Random random = new Random(seed);
+        var solver = new ContreeDoubleDummySolver(10);
+        for (int i = 0 ; i < 50 ; i++) {
+            Ending ending = randomEnding(random, 1 + random.nextInt(3), random.nextInt(ContreePlayers.NB_PLAYERS));
+            int nextSlot = (ending.leaderSlot + ending.nbTrickCards) % ContreePlayers.NB_PLAYERS;
+
+            int points = solver.solve(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+
+            assertThat(points).isEqualTo(minimax(ending.trumpSuit, ending.hands.clone(), ending.leaderSlot, ending.trickCards.clone(), ending.nbTrickCards, nextSlot % 2));
+        }
+    }
+
+    @DisplayName("The points of each playable card, searched or equivalent to a searched card, are the points of a plain minimax after the card")
+    @ParameterizedTest
+    @ValueSource(longs = {3L, 64L})
+    void testSameCardPointsAsMinimax(long seed) {
+        Random random = new Random(seed);
+        var solver = new ContreeDoubleDummySolver(10);
+        for (int i = 0 ; i < 30 ; i++) {
+            Ending ending = randomEnding(random, 1 + random.nextInt(3), random.nextInt(ContreePlayers.NB_PLAYERS));
+            int slot = (ending.leaderSlot + ending.nbTrickCards) % ContreePlayers.NB_PLAYERS;
+
+            int[] cardPoints = solver.solveCards(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+
+            long playable = playableCardsFilter.playableCards(ending.hands[slot], ending.trumpSuit, ending.trickCards, ending.nbTrickCards);
+            for (ClassicalCard card : ClassicalCard.values()) {
+                if (!CardMask.contains(playable, card)) {
+                    assertThat(cardPoints[card.ordinal()]).isEqualTo(-1);
+                    continue;
+                }
+                long[] hands = ending.hands.clone();
+                hands[slot] = CardMask.without(hands[slot], card);
+                int[] trickCards = ending.trickCards.clone();
+                trickCards[ending.nbTrickCards] = card.ordinal();
+                assertThat(cardPoints[card.ordinal()]).isEqualTo(minimaxAfter(ending.trumpSuit, hands, ending.leaderSlot, trickCards, ending.nbTrickCards + 1, slot % 2));
+            }
+        }
+    }
+
+    @DisplayName("The best card secures the solved points, and no playable card secures more")
+    @ParameterizedTest
+    @ValueSource(longs = {7L, 99L})
+    void testBestCard(long seed) {
+        Random random = new Random(seed);
+        var solver = new ContreeDoubleDummySolver(12);
+        for (int i = 0 ; i < 20 ; i++) {
+            Ending ending = randomEnding(random, 3, random.nextInt(ContreePlayers.NB_PLAYERS));
+
+            int points = solver.solve(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+            int[] cardPoints = solver.solveCards(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+            ClassicalCard bestCard = solver.bestCard(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+
+            assertThat(Arrays.stream(cardPoints).max().orElseThrow()).isEqualTo(points);
+            assertThat(cardPoints[bestCard.ordinal()]).isEqualTo(points);
+        }
+    }
+
+    @DisplayName("A full deal is solved, its best first card securing the solved points")
+    @Test
+    void testFullDeal() {
+        Random random = new Random(5);
+        var solver = new ContreeDoubleDummySolver();
+        for (int i = 0 ; i < 5 ; i++) {
+            Ending deal = randomEnding(random, 8, 0);
+
+            int points = solver.solve(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, 0);
+            int[] cardPoints = solver.solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, 0);
+
+            assertThat(points).isBetween(0, ContreeDoubleDummySolver.MAX_POINTS);
+            assertThat(Arrays.stream(cardPoints).max().orElseThrow()).isEqualTo(points);
+        }
+    }
+
+    @DisplayName("A play out gives points to the playable cards only, the points of the last trick being the solved ones")
+    @Test
+    void testPlayOutCards() {
+        Random random = new Random(13);
+        var solver = new ContreeDoubleDummySolver(10);
+        for (int i = 0 ; i < 20 ; i++) {
+            int nbCardsByPlayer = 1 + random.nextInt(8);
+            Ending ending = randomEnding(random, nbCardsByPlayer, random.nextInt(ContreePlayers.NB_PLAYERS));
+            int slot = (ending.leaderSlot + ending.nbTrickCards) % ContreePlayers.NB_PLAYERS;
+            int remainingPoints = new ContreeSearchState(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards).remainingPoints();
+
+            int[] playedOutPoints = solver.playOutCards(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards);
+
+            long playable = playableCardsFilter.playableCards(ending.hands[slot], ending.trumpSuit, ending.trickCards, ending.nbTrickCards);
+            for (ClassicalCard card : ClassicalCard.values()) {
+                if (CardMask.contains(playable, card)) {
+                    assertThat(playedOutPoints[card.ordinal()]).isBetween(0, remainingPoints);
+                }
+                else {
+                    assertThat(playedOutPoints[card.ordinal()]).isEqualTo(-1);
+                }
+            }
+            if (nbCardsByPlayer == 1) {
+                assertThat(playedOutPoints).isEqualTo(solver.solveCards(ending.trumpSuit, ending.hands, ending.leaderSlot, ending.trickCards, ending.nbTrickCards));
+            }
+        }
+    }
+
+    @DisplayName("The dix de der is won by the team winning the last trick")
+    @Test
+    void testLastTrick() {
+        long[] hands = {
+                CardMask.of(ClassicalCard.JACK_HEART),
+                CardMask.of(ClassicalCard.ACE_SPADE),
+                CardMask.of(ClassicalCard.SEVEN_CLUB),
+                CardMask.of(ClassicalCard.TEN_SPADE)
+        };
+        var solver = new ContreeDoubleDummySolver(4);
+
+        assertThat(solver.solve(CardSuit.HEARTS, hands, 0, new int[0], 0)).isEqualTo(20 + 11 + 10 + 10);
+        // The team of the second player leads with its ace, but the first player must trump it
+        assertThat(solver.solve(CardSuit.HEARTS, hands, 1, new int[0], 0)).isZero();
+        assertThat(solver.bestCard(CardSuit.HEARTS, hands, 1, new int[0], 0)).isEqualTo(ClassicalCard.ACE_SPADE);
+    }
+
+    @DisplayName("A solve with a deadline gives the points of the cards when the deadline is not reached, and nothing once it is passed")
+    @Test
+    void testDeadline() {
+        Random random = new Random(11);
+        var solver = new ContreeDoubleDummySolver();
+        for (int i = 0 ; i < 5 ; i++) {
+            Ending deal = randomEnding(random, 6, random.nextInt(ContreePlayers.NB_PLAYERS));
+
+            int[] cardPoints = solver.solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, deal.nbTrickCards);
+            int[] farDeadlinePoints = solver.solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, deal.nbTrickCards, System.nanoTime() + 60_000_000_000L);
+
+            assertThat(farDeadlinePoints).isEqualTo(cardPoints);
+        }
+
+        Ending deal = randomEnding(random, 8, 0);
+        var coldSolver = new ContreeDoubleDummySolver();
+        assertThat(coldSolver.solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, 0, System.nanoTime() - 1)).isNull();
+        // The aborted search stored nothing wrong in the table
+        assertThat(coldSolver.solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, 0))
+                .isEqualTo(new ContreeDoubleDummySolver().solveCards(deal.trumpSuit, deal.hands, deal.leaderSlot, deal.trickCards, 0));
+    }
+
+    @Test
+    void testInvalidPositions() {
+        var solver = new ContreeDoubleDummySolver(4);
+        long[] sameCard = {CardMask.of(ClassicalCard.ACE_SPADE), CardMask.of(ClassicalCard.ACE_SPADE), CardMask.of(ClassicalCard.KING_SPADE), CardMask.of(ClassicalCard.QUEEN_SPADE)};
+        long[] missingCard = {CardMask.of(ClassicalCard.ACE_SPADE), CardMask.EMPTY, CardMask.of(ClassicalCard.KING_SPADE), CardMask.of(ClassicalCard.QUEEN_SPADE)};
+        long[] over = {CardMask.EMPTY, CardMask.EMPTY, CardMask.EMPTY, CardMask.EMPTY};
+
+        assertThatIllegalArgumentException().isThrownBy(() -> solver.solve(CardSuit.HEARTS, sameCard, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> solver.solve(CardSuit.HEARTS, missingCard, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> solver.solve(CardSuit.HEARTS, over, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDoubleDummySolver(0));
+    }
+
+    private record Ending(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards) {}
+
+    /**
+     * @return an ending where each player still has nbCardsByPlayer cards, with nbTrickCards cards already played in the trick
+     */
+    private Ending randomEnding(Random random, int nbCardsByPlayer, int nbTrickCards) {
+        CardSuit trumpSuit = TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)];
+        int leaderSlot = random.nextInt(ContreePlayers.NB_PLAYERS);
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, random);
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        int next = 0;
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            for (int i = 0 ; i < nbCardsByPlayer ; i++) {
+                hands[slot] = CardMask.with(hands[slot], cards.get(next++));
+            }
+        }
+        // The first players of the trick play random allowed cards
+        int[] trickCards = new int[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < nbTrickCards ; i++) {
+            int slot = (leaderSlot + i) % ContreePlayers.NB_PLAYERS;
+            long playable = playableCardsFilter.playableCards(hands[slot], trumpSuit, trickCards, i);
+            List<ClassicalCard> playableCards = CardMask.toList(playable);
+            ClassicalCard card = playableCards.get(random.nextInt(playableCards.size()));
+            trickCards[i] = card.ordinal();
+            hands[slot] = CardMask.without(hands[slot], card);
+        }
+        return new Ending(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards);
+    }
+
+    /**
+     * @return the points secured by the team from the current trick to the end of the deal, the trick having possibly all its cards
+     */
+    private int minimaxAfter(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards, int team) {
+        if (nbTrickCards < ContreePlayers.NB_PLAYERS) {
+            return minimax(trumpSuit, hands, leaderSlot, trickCards, nbTrickCards, team);
+        }
+        int winnerSlot = (leaderSlot + PlayableCardsFilter.winningCardIndex(trumpSuit, trickCards, ContreePlayers.NB_PLAYERS)) % ContreePlayers.NB_PLAYERS;
+        boolean lastTrick = hands[0] == CardMask.EMPTY;
+        int trickPoints = 0;
+        for (int trickCard : trickCards) {
+            trickPoints += ContreeCard.gamePoints(trickCard, CardMask.card(trickCard).getSuit() == trumpSuit);
+        }
+        int points = winnerSlot % 2 == team ? trickPoints + (lastTrick ? DealScoreCalculator.DIX_DE_DER_BONUS : 0) : 0;
+        return lastTrick ? points : points + minimax(trumpSuit, hands, winnerSlot, new int[ContreePlayers.NB_PLAYERS], 0, team);
+    }
+
+    /**
+     * Plain minimax, without any pruning
+     *
+     * @return the points secured by the team, from the current trick to the end of the deal
+     */
+    private int minimax(CardSuit trumpSuit, long[] hands, int leaderSlot, int[] trickCards, int nbTrickCards, int team) {
+        int slot = (leaderSlot + nbTrickCards) % ContreePlayers.NB_PLAYERS;
+        boolean teamToPlay = slot % 2 == team;
+        int best = teamToPlay ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long playable = playableCardsFilter.playableCards(hands[slot], trumpSuit, trickCards, nbTrickCards);
+        for (ClassicalCard card : CardMask.toList(playable)) {
+            hands[slot] = CardMask.without(hands[slot], card);
+            int[] nextTrickCards = trickCards.clone();
+            nextTrickCards[nbTrickCards] = card.ordinal();
+            int points;
+            if (nbTrickCards < ContreePlayers.NB_PLAYERS - 1) {
+                points = minimax(trumpSuit, hands, leaderSlot, nextTrickCards, nbTrickCards + 1, team);
+            }
+            else {
+                int winnerSlot = (leaderSlot + PlayableCardsFilter.winningCardIndex(trumpSuit, nextTrickCards, ContreePlayers.NB_PLAYERS)) % ContreePlayers.NB_PLAYERS;
+                boolean lastTrick = hands[slot] == CardMask.EMPTY;
+                int trickPoints = 0;
+                for (int trickCard : nextTrickCards) {
+                    trickPoints += ContreeCard.gamePoints(trickCard, CardMask.card(trickCard).getSuit() == trumpSuit);
+                }
+                points = winnerSlot % 2 == team ? trickPoints + (lastTrick ? DealScoreCalculator.DIX_DE_DER_BONUS : 0) : 0;
+                if (!lastTrick) {
+                    points += minimax(trumpSuit, hands, winnerSlot, new int[ContreePlayers.NB_PLAYERS], 0, team);
+                }
+            }
+            hands[slot] = CardMask.with(hands[slot], card);
+            best = teamToPlay ? Math.max(best, points) : Math.min(best, points);
+        }
+        return best;
+    }
+
+}
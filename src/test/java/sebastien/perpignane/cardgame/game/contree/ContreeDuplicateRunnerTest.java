@@ -0,0 +1,86 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.offset;
+
+class ContreeDuplicateRunnerTest {
+
+    private static final List<Function<RandomGenerator, ContreeBotStrategy>> BIDDING_TEAM = List.of(BiddingBotStrategy::new, RandomCardBotStrategy::new);
+
+    private static final List<Function<RandomGenerator, ContreeBotStrategy>> PASSING_TEAM = List.of(RandomCardBotStrategy::new, RandomCardBotStrategy::new);
+
+    private final ContreeGameConfig gameConfig = new ContreeGameConfig() { };
+
+    @Test
+    void testRun() {
+
+        DuplicateReport report = new ContreeDuplicateRunner(gameConfig, 3, 42, BIDDING_TEAM, PASSING_TEAM).run(20);
+
+        assertThat(report.nbBoards()).isEqualTo(20);
+        assertThat(report.teamAWins() + report.teamBWins()).isPositive().isLessThanOrEqualTo(20);
+        assertThat(report.totalDelta()).isEqualTo(report.boardDeltas().stream().mapToLong(Integer::longValue).sum());
+        assertThat(report.standardError()).isPositive();
+        assertThat(report.toString()).contains("Duplicate boards: 20");
+
+    }
+
+    @DisplayName("A seed reproduces the same boards, whatever the parallelism")
+    @Test
+    void testReproducibleRun() {
+        DuplicateReport report = new ContreeDuplicateRunner(gameConfig, 1, 42, BIDDING_TEAM, PASSING_TEAM).run(10);
+        DuplicateReport parallelReport = new ContreeDuplicateRunner(gameConfig, 4, 42, BIDDING_TEAM, PASSING_TEAM).run(10);
+
+        assertThat(parallelReport.boardDeltas()).isEqualTo(report.boardDeltas());
+    }
+
+    @DisplayName("When both teams always pass, no board makes a difference")
+    @Test
+    void testSameStrategies() {
+        DuplicateReport report = new ContreeDuplicateRunner(gameConfig, 2, 7, PASSING_TEAM, PASSING_TEAM).run(10);
+
+        assertThat(report.boardDeltas()).containsOnly(0);
+        assertThat(report.meanDelta()).isZero();
+        assertThat(report.standardError()).isZero();
+    }
+
+    @Test
+    void testRunNoBoard() {
+        DuplicateReport report = new ContreeDuplicateRunner(gameConfig, 2, 1, BIDDING_TEAM, PASSING_TEAM).run(0);
+
+        assertThat(report.nbBoards()).isZero();
+        assertThat(report.meanDelta()).isZero();
+        assertThat(report.standardError()).isZero();
+    }
+
+    @Test
+    void testReport() {
+        DuplicateReport report = new DuplicateReport(List.of(10, -2, 0, 4), 2_000_000_000L);
+
+        assertThat(report.totalDelta()).isEqualTo(12);
+        assertThat(report.meanDelta()).isEqualTo(3);
+        assertThat(report.standardError()).isCloseTo(Math.sqrt((49 + 25 + 9 + 1) / 3.0 / 4), offset(1e-9));
+        assertThat(report.teamAWins()).isEqualTo(2);
+        assertThat(report.teamBWins()).isEqualTo(1);
+        assertThat(report.boardsPerSecond()).isEqualTo(2);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDuplicateRunner(gameConfig, 0, 1, BIDDING_TEAM, PASSING_TEAM));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeDuplicateRunner(gameConfig, 1, 1, BIDDING_TEAM.subList(0, 1), PASSING_TEAM));
+        var runner = new ContreeDuplicateRunner(gameConfig, 1, 1, BIDDING_TEAM, PASSING_TEAM);
+        assertThatIllegalArgumentException().isThrownBy(() -> runner.run(-1));
+    }
+
+}
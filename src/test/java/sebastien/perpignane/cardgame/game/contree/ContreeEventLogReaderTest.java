@@ -0,0 +1,102 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+class ContreeEventLogReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Events of all the segments are read in order")
+    @Test
+    void testRead() throws IOException {
+        writeSegment(0, 1, 2, 3);
+        writeSegment(1, 4, 5);
+
+        List<ContreeGameEvent> events = new ArrayList<>();
+        long lastSequence = ContreeEventLogReader.read(directory, events::add);
+
+        assertThat(lastSequence).isEqualTo(5);
+        assertThat(events).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(events.get(0)).isEqualTo(event(1));
+    }
+
+    @DisplayName("A segment is read until its first record which was not fully written, the next segment goes on from the last valid event")
+    @Test
+    void testReadAfterCrash() throws IOException {
+        Path segment = writeSegment(0, 1, 2, 3);
+        byte[] bytes = Files.readAllBytes(segment);
+        // The checksum of the 3rd record does not match anymore
+        bytes[HEADER_SIZE + 2 * RECORD_SIZE + 12]++;
+        // Partially written 4th record
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length + RECORD_SIZE / 2));
+        writeSegment(1, 3, 4);
+
+        List<ContreeGameEvent> events = new ArrayList<>();
+        long lastSequence = ContreeEventLogReader.read(directory, events::add);
+
+        assertThat(lastSequence).isEqualTo(4);
+        assertThat(events).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @DisplayName("Events already read are ignored")
+    @Test
+    void testStaleSegment() throws IOException {
+        writeSegment(0, 1, 2);
+        writeSegment(1, 2, 3);
+
+        List<ContreeGameEvent> events = new ArrayList<>();
+        ContreeEventLogReader.read(directory, events::add);
+
+        assertThat(events).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L);
+    }
+
+    @DisplayName("A segment without a complete header is empty")
+    @Test
+    void testTruncatedHeader() throws IOException {
+        writeSegment(0, 1);
+        Files.write(directory.resolve(segmentFileName(1)), new byte[HEADER_SIZE / 2]);
+
+        assertThat(ContreeEventLogReader.read(directory, e -> {})).isEqualTo(1);
+    }
+
+    @DisplayName("A file which is not a segment cannot be read")
+    @Test
+    void testNotASegment() throws IOException {
+        Files.write(directory.resolve(segmentFileName(0)), new byte[HEADER_SIZE + RECORD_SIZE]);
+
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> ContreeEventLogReader.read(directory, e -> {}));
+    }
+
+    private Path writeSegment(int segmentIndex, long... sequences) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sequences.length * RECORD_SIZE).order(BYTE_ORDER);
+        ContreeEventLogFormat.writeHeader(buffer, sequences[0]);
+        for (long sequence : sequences) {
+            int offset = buffer.position();
+            ContreeEventLogFormat.writeRecord(buffer, event(sequence));
+            ContreeEventLogFormat.writeChecksum(buffer, offset);
+        }
+        Path segment = directory.resolve(segmentFileName(segmentIndex));
+        Files.write(segment, buffer.array());
+        return segment;
+    }
+
+    private static ContreeGameEvent event(long sequence) {
+        return new ContreeGameEvent(ContreeEventType.CARD_PLAYED, sequence, 1, 1, (int) (sequence % 4), (int) sequence, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
+    }
+
+}
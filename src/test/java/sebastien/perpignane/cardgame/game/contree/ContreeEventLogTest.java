@@ -0,0 +1,250 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+class ContreeEventLogTest {
+
+    private static final long DEFAULT_SEGMENT_SIZE_FOR_TEST = 1_024 * RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Logged events are read back identical, in order")
+    @Test
+    void testWriteAndRead() throws IOException {
+        ContreeEventLog eventLog = new ContreeEventLog(directory);
+        List<ContreeGameEvent> events = List.of(
+                event(1, ContreeEventType.DEAL_STARTED),
+                new ContreeGameEvent(ContreeEventType.BID_PLACED, 2, 1, ContreeGameEvent.NONE, 3, ContreeGameEvent.NONE, 2, ContreeBidValue.HUNDRED.ordinal(), ContreeGameEvent.NONE),
+                new ContreeGameEvent(ContreeEventType.CARD_PLAYED, 3, 1, 1, 0, ClassicalCard.JACK_HEART.ordinal(), ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE),
+                new ContreeGameEvent(ContreeEventType.GAME_SCORE_UPDATED, 4, 1, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, 1_250, 160)
+        );
+
+        events.forEach(eventLog::onEvent);
+        eventLog.close();
+
+        assertThat(readAllSegments()).isEqualTo(events);
+        assertThat(eventLog.getDurableSequence()).isEqualTo(4);
+        assertThat(eventLog.getDirectory()).isEqualTo(directory);
+    }
+
+    @DisplayName("Events are forced to the disk as soon as a group of events is complete")
+    @Test
+    void testGroupCommitBySize() throws IOException {
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(1, 2, Duration.ofHours(1));
+        ContreeEventLog eventLog = new ContreeEventLog(directory, DEFAULT_SEGMENT_SIZE_FOR_TEST, writer);
+
+        eventLog.onEvent(event(1, ContreeEventType.DEAL_STARTED));
+        eventLog.onEvent(event(2, ContreeEventType.BID_STEP_STARTED));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> eventLog.getDurableSequence() == 2);
+        assertThat(readAllSegments()).hasSize(2);
+        eventLog.close();
+        writer.close();
+    }
+
+    @DisplayName("A group of events larger than a chunk is forced to the disk when complete, the events being held in small chunks until then")
+    @Test
+    void testGroupCommitOfManyChunks() throws IOException {
+        int groupCommitSize = 3 * ContreeEventLogWriter.CHUNK_SIZE + 1;
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(1, groupCommitSize, Duration.ofHours(1));
+        ContreeEventLog eventLog = new ContreeEventLog(directory, DEFAULT_SEGMENT_SIZE_FOR_TEST, writer);
+
+        assertThat(writer.takeChunk().capacity()).isEqualTo(ContreeEventLogWriter.CHUNK_SIZE * RECORD_SIZE);
+        for (int sequence = 1 ; sequence < groupCommitSize ; sequence++) {
+            eventLog.onEvent(event(sequence, ContreeEventType.CARD_PLAYED));
+        }
+        assertThat(eventLog.getDurableSequence()).isZero();
+        eventLog.onEvent(event(groupCommitSize, ContreeEventType.CARD_PLAYED));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> eventLog.getDurableSequence() == groupCommitSize);
+        assertThat(readAllSegments()).hasSize(groupCommitSize);
+        eventLog.close();
+        writer.close();
+    }
+
+    @DisplayName("Events are forced to the disk at the end of the group commit interval, even if the group is not complete")
+    @Test
+    void testGroupCommitByInterval() throws IOException {
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(1, 1_000, Duration.ofMillis(10));
+        ContreeEventLog eventLog = new ContreeEventLog(directory, DEFAULT_SEGMENT_SIZE_FOR_TEST, writer);
+
+        eventLog.onEvent(event(1, ContreeEventType.DEAL_STARTED));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> eventLog.getDurableSequence() == 1);
+        assertThat(readAllSegments()).hasSize(1);
+
+        eventLog.onEvent(event(2, ContreeEventType.BID_STEP_STARTED));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> eventLog.getDurableSequence() == 2);
+        eventLog.close();
+        writer.close();
+    }
+
+    @DisplayName("A new segment is started when the current one is full, its header holds its first sequence")
+    @Test
+    void testSegmentRolling() throws IOException {
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(1, 3, Duration.ofHours(1));
+        ContreeEventLog eventLog = new ContreeEventLog(directory, HEADER_SIZE + 2 * RECORD_SIZE, writer);
+
+        for (int sequence = 1; sequence <= 5; sequence++) {
+            eventLog.onEvent(event(sequence, ContreeEventType.CARD_PLAYED));
+        }
+        eventLog.close();
+        writer.close();
+
+        assertThat(segments()).hasSize(3);
+        assertThat(headerSequence(segments().get(2))).isEqualTo(5);
+        assertThat(readAllSegments()).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @DisplayName("A log opened in a directory with segments starts a new segment after the existing ones")
+    @Test
+    void testReopen() throws IOException {
+        ContreeEventLog eventLog = new ContreeEventLog(directory);
+        eventLog.onEvent(event(1, ContreeEventType.DEAL_STARTED));
+        eventLog.close();
+
+        ContreeEventLog reopenedLog = new ContreeEventLog(directory);
+        reopenedLog.onEvent(event(2, ContreeEventType.BID_STEP_STARTED));
+        reopenedLog.close();
+
+        assertThat(segments()).extracting(s -> s.getFileName().toString()).containsExactly(segmentFileName(0), segmentFileName(1));
+        assertThat(readAllSegments()).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L);
+    }
+
+    @DisplayName("The log is closed by the end of the game: later events are dropped")
+    @Test
+    void testClosedByEndOfGame() throws IOException {
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(1, 1_000, Duration.ofHours(1));
+        ContreeEventLog eventLog = new ContreeEventLog(directory, DEFAULT_SEGMENT_SIZE_FOR_TEST, writer);
+
+        eventLog.onEvent(event(1, ContreeEventType.GAME_ENDED));
+        await().atMost(Duration.ofSeconds(2)).until(() -> eventLog.getDurableSequence() == 1);
+        eventLog.onEvent(event(2, ContreeEventType.GAME_STATE_UPDATED));
+        eventLog.close();
+        writer.close();
+
+        assertThat(eventLog.getNbDroppedEvents()).isEqualTo(1);
+        assertThat(readAllSegments()).extracting(ContreeGameEvent::sequence).containsExactly(1L);
+    }
+
+    @DisplayName("A writing failure is reported when closing the log")
+    @Test
+    void testWritingFailure() throws IOException {
+        Path logDirectory = directory.resolve("game");
+        ContreeEventLog eventLog = new ContreeEventLog(logDirectory);
+        Files.delete(logDirectory);
+
+        eventLog.onEvent(event(1, ContreeEventType.DEAL_STARTED));
+
+        assertThatExceptionOfType(IOException.class).isThrownBy(eventLog::close);
+        assertThat(eventLog.getDurableSequence()).isZero();
+    }
+
+    @DisplayName("The logs of many games are written by the threads of their shared writer")
+    @Test
+    void testSharedWriter() throws IOException {
+        ContreeEventLogWriter writer = new ContreeEventLogWriter(2, 4, Duration.ofMillis(5));
+        List<ContreeEventLog> eventLogs = new ArrayList<>();
+        for (int game = 0; game < 200; game++) {
+            eventLogs.add(new ContreeEventLog(directory.resolve("game-" + game), DEFAULT_SEGMENT_SIZE_FOR_TEST, writer));
+        }
+
+        for (int sequence = 1; sequence <= 10; sequence++) {
+            for (ContreeEventLog eventLog : eventLogs) {
+                eventLog.onEvent(event(sequence, sequence == 10 ? ContreeEventType.GAME_ENDED : ContreeEventType.CARD_PLAYED));
+            }
+        }
+        long nbWriterThreads = Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().startsWith("contree-event-log-writer-")).count();
+        for (ContreeEventLog eventLog : eventLogs) {
+            eventLog.close();
+        }
+        writer.close();
+
+        // Without the threads of the other writers, which may not be stopped yet, the count would be 2
+        assertThat(nbWriterThreads).isLessThan(eventLogs.size());
+        for (ContreeEventLog eventLog : eventLogs) {
+            assertThat(eventLog.getDurableSequence()).isEqualTo(10);
+            assertThat(readAllSegments(eventLog.getDirectory())).extracting(ContreeGameEvent::sequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        }
+    }
+
+    @DisplayName("Invalid sizes, intervals and numbers of threads are rejected")
+    @Test
+    void testInvalidArguments() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContreeEventLog(directory, HEADER_SIZE, ContreeEventLogWriter.shared()));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContreeEventLog(directory, HEADER_SIZE + RECORD_SIZE + 1, ContreeEventLogWriter.shared()));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContreeEventLogWriter(1, 0, Duration.ofMillis(10)));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContreeEventLogWriter(1, 10, Duration.ZERO));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new ContreeEventLogWriter(0, 10, Duration.ofMillis(10)));
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> ContreeEventLogWriter.shared().close());
+    }
+
+    @DisplayName("A record with a wrong checksum is not valid")
+    @Test
+    void testCorruptedRecord() {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(BYTE_ORDER);
+        ContreeEventLogFormat.writeRecord(buffer, event(1, ContreeEventType.DEAL_STARTED));
+        ContreeEventLogFormat.writeChecksum(buffer, 0);
+        assertThat(ContreeEventLogFormat.isValidRecord(buffer, 0)).isTrue();
+
+        buffer.put(12, (byte) 7);
+
+        assertThat(ContreeEventLogFormat.isValidRecord(buffer, 0)).isFalse();
+    }
+
+    private static ContreeGameEvent event(long sequence, ContreeEventType type) {
+        return new ContreeGameEvent(type, sequence, 1, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
+    }
+
+    private List<Path> segments() throws IOException {
+        return segments(directory);
+    }
+
+    private static List<Path> segments(Path logDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long headerSequence(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment)).order(BYTE_ORDER);
+        assertThat(buffer.getInt(0)).isEqualTo(MAGIC);
+        assertThat(buffer.getInt(4)).isEqualTo(VERSION);
+        return buffer.getLong(8);
+    }
+
+    private List<ContreeGameEvent> readAllSegments() throws IOException {
+        return readAllSegments(directory);
+    }
+
+    private static List<ContreeGameEvent> readAllSegments(Path logDirectory) throws IOException {
+        List<ContreeGameEvent> events = new ArrayList<>();
+        for (Path segment : segments(logDirectory)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment)).order(BYTE_ORDER);
+            for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= buffer.limit() && ContreeEventLogFormat.isValidRecord(buffer, offset); offset += RECORD_SIZE) {
+                events.add(ContreeEventLogFormat.readRecord(buffer, offset));
+            }
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,27 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContreeEventTypeTest {
+
+    @Test
+    void testMask() {
+        long mask = ContreeEventType.mask(ContreeEventType.CARD_PLAYED, ContreeEventType.GAME_ENDED);
+
+        assertThat(ContreeEventType.CARD_PLAYED.isIn(mask)).isTrue();
+        assertThat(ContreeEventType.GAME_ENDED.isIn(mask)).isTrue();
+        assertThat(ContreeEventType.TRICK_ENDED.isIn(mask)).isFalse();
+        assertThat(Long.bitCount(mask)).isEqualTo(2);
+    }
+
+    @Test
+    void testAll() {
+        assertThat(Long.bitCount(ContreeEventType.ALL)).isEqualTo(ContreeEventType.values().length);
+        for (ContreeEventType type : ContreeEventType.values()) {
+            assertThat(type.isIn(ContreeEventType.ALL)).isTrue();
+        }
+    }
+
+}
@@ -3,6 +3,10 @@ package sebastien.perpignane.cardgame.game.contree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.game.AsyncEventDispatcher;
+
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -34,4 +38,44 @@ class ContreeGameConfigTest {
                 .isEqualTo(ContreeGameConfig.DEFAULT_DISTRIBUTION_CONFIG);
     }
 
-}
\ No newline at end of file
+    @DisplayName("Bots run on virtual threads by default")
+    @Test
+    void testDefaultBotThreadFactory() {
+        Thread thread = contreeGameConfig.getBotThreadFactory().newThread(() -> {});
+        assertThat(thread.isVirtual()).isTrue();
+    }
+
+    @DisplayName("Player commands run under a lock by default")
+    @Test
+    void testDefaultExecutionMode() {
+        assertThat(contreeGameConfig.getExecutionMode()).isSameAs(ContreeGameExecutionMode.LOCK);
+        assertThat(contreeGameConfig.getGameScheduler()).isSameAs(ForkJoinPool.commonPool());
+    }
+
+    @DisplayName("No event log by default")
+    @Test
+    void testDefaultEventLogDirectory() {
+        assertThat(contreeGameConfig.getEventLogDirectory()).isEmpty();
+        assertThat(contreeGameConfig.getEventLogWriter()).isSameAs(ContreeEventLogWriter.shared());
+    }
+
+    @DisplayName("Each game gets its own shuffler by default")
+    @Test
+    void testDefaultCardSetShuffler() {
+        assertThat(contreeGameConfig.createCardSetShuffler())
+                .isInstanceOf(SplittableCardSetShuffler.class)
+                .isNotSameAs(contreeGameConfig.createCardSetShuffler());
+    }
+
+    @DisplayName("Games shuffle and deal their own cards by default")
+    @Test
+    void testDefaultDealPool() {
+        assertThat(contreeGameConfig.getDealPool()).isEmpty();
+    }
+
+    @Test
+    void testDefaultEventDispatchExecutor() {
+        assertThat(contreeGameConfig.getEventDispatchExecutor()).isSameAs(AsyncEventDispatcher.SHARED_EXECUTOR);
+    }
+
+}
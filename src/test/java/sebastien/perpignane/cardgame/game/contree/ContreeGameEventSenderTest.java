@@ -1,17 +1,27 @@
 package sebastien.perpignane.cardgame.game.contree;
 
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
+import org.mockito.InOrder;
+import sebastien.perpignane.cardgame.game.AsyncEventDispatcher;
+import sebastien.perpignane.cardgame.game.BackpressurePolicy;
 import sebastien.perpignane.cardgame.game.GameObserver;
 import sebastien.perpignane.cardgame.game.GameStatus;
 import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 
 class ContreeGameEventSenderTest extends TestCasesManagingPlayers {
@@ -26,6 +36,11 @@ class ContreeGameEventSenderTest extends TestCasesManagingPlayers {
 
     private ContreeGameEventSender gameEventSender;
 
+    @BeforeAll
+    static void globalSetUp() {
+        initPlayers();
+    }
+
     @BeforeEach
     void setUp() {
 
@@ -106,6 +121,21 @@ class ContreeGameEventSenderTest extends TestCasesManagingPlayers {
 
     }
 
+    @Test
+    void testSendGameScoreUpdatedEvent() {
+
+        doAnswer(invocationOnMock -> {
+            calledFlag[0] = true;
+            return null;
+        }).when(dealObserver).onGameScoreUpdated(any());
+
+        gameEventSender.sendGameScoreUpdatedEvent(new ContreeGameScore(1000));
+
+        boolean onGameScoreUpdatedWasCalled = calledFlag[0];
+        assertThat( onGameScoreUpdatedWasCalled ).isTrue();
+
+    }
+
     @Test
     void testSendPlacedBidEvent() {
 
@@ -229,4 +259,123 @@ class ContreeGameEventSenderTest extends TestCasesManagingPlayers {
 
     }
 
+    @DisplayName("Asynchronous observers get the events of their types, in order")
+    @Test
+    void testAsyncObservers() {
+        ContreeGameEventSender asyncEventSender = new ContreeGameEventSender(new AsyncEventDispatcher(Runnable::run, 16), Collections.emptySet());
+        GameTextDisplayerLikeObserver observer = mock(GameTextDisplayerLikeObserver.class);
+        asyncEventSender.registerAsAsyncObserver(observer, BackpressurePolicy.BLOCK);
+
+        asyncEventSender.sendStateEvent(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED);
+        asyncEventSender.sendBidStepStartedEvent("deal");
+        asyncEventSender.sendNewTrickEvent("trick", CardSuit.HEARTS);
+        asyncEventSender.sendPlayedCardEvent(player1, ClassicalCard.ACE_HEART);
+
+        InOrder inOrder = inOrder(observer);
+        inOrder.verify(observer).onStateUpdated(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED);
+        inOrder.verify(observer).onBidStepStarted("deal");
+        inOrder.verify(observer).onNewTrick("trick", CardSuit.HEARTS);
+        inOrder.verify(observer).onCardPlayed(player1, ClassicalCard.ACE_HEART);
+    }
+
+    @DisplayName("With COALESCE, played cards and ends of trick are all delivered in order, only the next player events are coalesced")
+    @Test
+    void testAsyncObserversCoalescePlayedCardsInOrder() {
+        List<Runnable> dispatches = new ArrayList<>();
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(dispatches::add, 6);
+        ContreeGameEventSender asyncEventSender = new ContreeGameEventSender(dispatcher, Collections.emptySet());
+        GameTextDisplayerLikeObserver observer = mock(GameTextDisplayerLikeObserver.class);
+        asyncEventSender.registerAsAsyncObserver(observer, BackpressurePolicy.COALESCE);
+
+        asyncEventSender.sendNextPlayerEvent(player3);
+        asyncEventSender.sendPlayedCardEvent(player3, ClassicalCard.ACE_HEART);
+        asyncEventSender.sendEndOfTrickEvent("trick-1", player3);
+        asyncEventSender.sendPlayedCardEvent(player3, ClassicalCard.KING_HEART);
+        asyncEventSender.sendPlayedCardEvent(player4, ClassicalCard.SEVEN_HEART);
+        asyncEventSender.sendEndOfTrickEvent("trick-2", player3);
+        // The queue is full: the pending next player event is removed, the new one goes at the tail
+        asyncEventSender.sendNextPlayerEvent(player3);
+        dispatches.forEach(Runnable::run);
+
+        InOrder inOrder = inOrder(observer);
+        inOrder.verify(observer).onCardPlayed(player3, ClassicalCard.ACE_HEART);
+        inOrder.verify(observer).onEndOfTrick("trick-1", player3);
+        inOrder.verify(observer).onCardPlayed(player3, ClassicalCard.KING_HEART);
+        inOrder.verify(observer).onCardPlayed(player4, ClassicalCard.SEVEN_HEART);
+        inOrder.verify(observer).onEndOfTrick("trick-2", player3);
+        inOrder.verify(observer).onNextPlayer(player3);
+        inOrder.verifyNoMoreInteractions();
+        assertThat(dispatcher.getNbDroppedEvents()).isEqualTo(1);
+    }
+
+    @DisplayName("Subscribers only get the events of their mask, with the deal and trick numbers and the player slots")
+    @Test
+    void testSubscribe() {
+        ContreeGamePlayerSlots playerSlots = new ContreeGamePlayerSlots();
+        for (int i = 0; i < players.size(); i++) {
+            playerSlots.addPlayerToSlotIndex(i, players.get(i));
+        }
+        gameEventSender.setPlayerSlots(playerSlots);
+        List<ContreeGameEvent> cardEvents = new ArrayList<>();
+        List<ContreeGameEvent> dealEvents = new ArrayList<>();
+        gameEventSender.subscribe(cardEvents::add, ContreeEventType.mask(ContreeEventType.CARD_PLAYED, ContreeEventType.TRICK_ENDED));
+        gameEventSender.subscribe(dealEvents::add, ContreeEventType.mask(ContreeEventType.DEAL_STARTED, ContreeEventType.DEAL_ENDED, ContreeEventType.BID_PLACED));
+
+        gameEventSender.sendStartOfDealEvent(1, "deal-1");
+        gameEventSender.sendPlacedBidEvent("deal-1", new ContreeBid(player2, ContreeBidValue.EIGHTY, CardSuit.SPADES));
+        gameEventSender.sendNewTrickEvent("deal-1-1", CardSuit.SPADES);
+        gameEventSender.sendPlayedCardEvent(player3, ClassicalCard.ACE_SPADE);
+        gameEventSender.sendEndOfTrickEvent("deal-1-1", player3);
+        gameEventSender.sendNewTrickEvent("deal-1-2", CardSuit.SPADES);
+        gameEventSender.sendPlayedCardEvent(player4, ClassicalCard.JACK_SPADE);
+        gameEventSender.sendEndOfDealEvent("deal-1", ContreeTeam.TEAM1, mock(ContreeDealScore.class), true);
+
+        assertThat(cardEvents).containsExactly(
+                new ContreeGameEvent(ContreeEventType.CARD_PLAYED, 4, 1, 1, 2, ClassicalCard.ACE_SPADE.ordinal(), -1, -1, -1),
+                new ContreeGameEvent(ContreeEventType.TRICK_ENDED, 5, 1, 1, 2, -1, -1, -1, -1),
+                new ContreeGameEvent(ContreeEventType.CARD_PLAYED, 7, 1, 2, 3, ClassicalCard.JACK_SPADE.ordinal(), -1, -1, -1)
+        );
+        assertThat(dealEvents).containsExactly(
+                new ContreeGameEvent(ContreeEventType.DEAL_STARTED, 1, 1, -1, -1, -1, -1, -1, -1),
+                new ContreeGameEvent(ContreeEventType.BID_PLACED, 2, 1, -1, 1, -1, CardSuit.SPADES.ordinal(), ContreeBidValue.EIGHTY.ordinal(), -1),
+                new ContreeGameEvent(ContreeEventType.DEAL_ENDED, 8, 1, 2, -1, -1, -1, ContreeTeam.TEAM1.ordinal(), 1)
+        );
+    }
+
+    @DisplayName("All the event types can be subscribed to")
+    @Test
+    void testSubscribeToAllEvents() {
+        List<ContreeEventType> eventTypes = new ArrayList<>();
+        gameEventSender.subscribe(e -> eventTypes.add(e.type()), ContreeEventType.ALL);
+        ContreeGame game = mock(ContreeGame.class);
+        ContreeGameScore gameScore = mock(ContreeGameScore.class);
+
+        gameEventSender.sendStateEvent(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED);
+        gameEventSender.sendJoinedGameEvent(game, 0, player1);
+        gameEventSender.sendStartOfDealEvent(1, "deal-1");
+        gameEventSender.sendBidStepStartedEvent("deal-1");
+        gameEventSender.sendPlacedBidEvent("deal-1", new ContreeBid(player1, ContreeBidValue.PASS, null));
+        gameEventSender.sendBidStepEndedEvent("deal-1");
+        gameEventSender.sendPlayStepStartedEvent("deal-1", CardSuit.HEARTS);
+        gameEventSender.sendNewTrickEvent("deal-1-1", CardSuit.HEARTS);
+        gameEventSender.sendPlayedCardEvent(player1, ClassicalCard.ACE_SPADE);
+        gameEventSender.sendTrumpedTrickEvent("deal-1-1");
+        gameEventSender.sendEndOfTrickEvent("deal-1-1", player1);
+        gameEventSender.sendPlayStepEndedEvent("deal-1");
+        gameEventSender.sendEndOfDealEvent("deal-1", null, mock(ContreeDealScore.class), false);
+        gameEventSender.sendGameScoreUpdatedEvent(gameScore);
+        gameEventSender.sendEndOfGameEvent(game);
+        gameEventSender.sendDealtHandEvent(0, List.of(ClassicalCard.ACE_SPADE));
+
+        assertThat(eventTypes).containsExactly(ContreeEventType.values());
+    }
+
+    @Test
+    void testSubscribeWithoutListener() {
+        assertThatIllegalArgumentException().isThrownBy(() -> gameEventSender.subscribe(null, ContreeEventType.ALL));
+    }
+
+    private interface GameTextDisplayerLikeObserver extends GameObserver, ContreeDealObserver, ContreeTrickObserver {
+    }
+
 }
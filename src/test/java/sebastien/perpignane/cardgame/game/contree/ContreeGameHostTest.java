@@ -0,0 +1,235 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.GameStatus;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+import sebastien.perpignane.cardgame.player.contree.handlers.BiddingBotEventHandler;
+import sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+class ContreeGameHostTest {
+
+    private static final ContreeGameConfig GAME_CONFIG = new ContreeGameConfig() {
+        @Override
+        public int getMaxScore() {
+            return 300;
+        }
+    };
+
+    private ContreeGameHost host;
+
+    @BeforeEach
+    void setUp() {
+        host = new ContreeGameHost(GAME_CONFIG, 4, 2);
+    }
+
+    @DisplayName("A created game is hosted until its end, then only its summary is kept")
+    @Test
+    void testGameIsEvictedAtTheEndOfTheGame() {
+        ContreeGame game = host.createGame();
+        String gameId = game.getGameId();
+
+        assertThat(host.getGame(gameId)).containsSame(game);
+        assertThat(host.getNbHostedGames()).isEqualTo(1);
+
+        host.joinGame(gameId, new ContreePlayerImpl("Player 1", new BiddingBotEventHandler()));
+        host.joinGame(gameId, new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+        host.joinGame(gameId, new ContreePlayerImpl("Player 3", new ContreeBotPlayerEventHandler()));
+        host.joinGame(gameId, new ContreePlayerImpl("Player 4", new ContreeBotPlayerEventHandler()));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> host.getGame(gameId).isEmpty());
+
+        assertThat(host.getNbHostedGames()).isZero();
+        assertThat(host.getNbEvictedGames()).isEqualTo(1);
+        ContreeGameSummary summary = host.getSummary(gameId).orElseThrow();
+        assertThat(summary.gameId()).isEqualTo(gameId);
+        assertThat(summary.status()).isEqualTo(GameStatus.OVER);
+        assertThat(summary.winner()).isNotNull();
+        int winnerScore = summary.winner() == ContreeTeam.TEAM1 ? summary.team1Score() : summary.team2Score();
+        assertThat(winnerScore).isGreaterThanOrEqualTo(300);
+        assertThat(summary.nbDeals()).isPositive();
+    }
+
+    @DisplayName("A game whose end is forced is evicted, without winner")
+    @Test
+    void testForcedEndOfGame() {
+        ContreeGame game = host.createGame();
+
+        game.forceEndOfGame();
+
+        assertThat(host.getGame(game.getGameId())).isEmpty();
+        ContreeGameSummary summary = host.getSummary(game.getGameId()).orElseThrow();
+        assertThat(summary.status()).isEqualTo(GameStatus.WAITING_FOR_PLAYERS);
+        assertThat(summary.winner()).isNull();
+
+        game.forceEndOfGame();
+        assertThat(host.getNbEvictedGames()).isEqualTo(1);
+    }
+
+    @DisplayName("Commands on an evicted game are rejected")
+    @Test
+    void testCommandOnEvictedGame() {
+        ContreeGame game = host.createGame();
+        String gameId = game.getGameId();
+        game.forceEndOfGame();
+
+        ContreePlayer player = mock(ContreePlayer.class);
+        assertThatIllegalStateException().isThrownBy(() -> host.playCard(gameId, player, ClassicalCard.ACE_SPADE));
+        assertThatIllegalStateException().isThrownBy(() -> host.placeBid(gameId, player, ContreeBidValue.PASS, null));
+        assertThatIllegalStateException().isThrownBy(() -> host.leaveGame(gameId, player));
+    }
+
+    @DisplayName("Commands on an unknown game are rejected")
+    @Test
+    void testCommandOnUnknownGame() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        assertThatIllegalArgumentException().isThrownBy(() -> host.joinGame("unknown", player));
+        assertThat(host.getGame("unknown")).isEmpty();
+        assertThat(host.getSummary("unknown")).isEmpty();
+    }
+
+    @DisplayName("Only the most recent summaries are kept")
+    @Test
+    void testSummariesAreBounded() {
+        ContreeGame game1 = host.createGame();
+        ContreeGame game2 = host.createGame();
+        ContreeGame game3 = host.createGame();
+        assertThat(host.getNbHostedGames()).isEqualTo(3);
+
+        game1.forceEndOfGame();
+        game2.forceEndOfGame();
+        game3.forceEndOfGame();
+
+        assertThat(host.getNbEvictedGames()).isEqualTo(3);
+        assertThat(host.getSummary(game1.getGameId())).isEmpty();
+        assertThat(host.getSummary(game2.getGameId())).isPresent();
+        assertThat(host.getSummary(game3.getGameId())).isPresent();
+    }
+
+    @DisplayName("No summary is kept when the maximum number of summaries is 0")
+    @Test
+    void testNoSummary() {
+        ContreeGameHost hostWithoutSummaries = new ContreeGameHost(GAME_CONFIG, 1, 0);
+        ContreeGame game = hostWithoutSummaries.createGame();
+
+        game.forceEndOfGame();
+
+        assertThat(hostWithoutSummaries.getNbEvictedGames()).isEqualTo(1);
+        assertThat(hostWithoutSummaries.getSummary(game.getGameId())).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -2, 3, 12})
+    void testNbShardsMustBeAPowerOf2(int nbShards) {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeGameHost(GAME_CONFIG, nbShards, 10));
+    }
+
+    @Test
+    void testMaxNbSummariesCannotBeNegative() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeGameHost(GAME_CONFIG, 16, -1));
+    }
+
+    @Test
+    void testDefaultHost() {
+        ContreeGameHost defaultHost = new ContreeGameHost(GAME_CONFIG);
+        ContreeGame game = defaultHost.createGame();
+        assertThat(defaultHost.getGame(game.getGameId())).containsSame(game);
+    }
+
+    @DisplayName("Games which were not over are recovered from their event logs by a new host")
+    @Test
+    void testRecoverGames(@TempDir Path logDirectory) throws IOException {
+        ContreeGameConfig loggedGameConfig = new ContreeGameConfig() {
+            @Override
+            public Optional<Path> getEventLogDirectory() {
+                return Optional.of(logDirectory);
+            }
+        };
+        ContreeGameHost stoppedHost = new ContreeGameHost(loggedGameConfig);
+        ContreeGame waitingGame = stoppedHost.createGame();
+        stoppedHost.joinGame(waitingGame.getGameId(), new ContreePlayerImpl("Player 1", new ContreeBotPlayerEventHandler()));
+        stoppedHost.joinGame(waitingGame.getGameId(), new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+        ContreeGame endedGame = stoppedHost.createGame();
+        stoppedHost.joinGame(endedGame.getGameId(), new ContreePlayerImpl("Player 1", new ContreeBotPlayerEventHandler()));
+        endedGame.forceEndOfGame();
+        Path waitingGameLog = logDirectory.resolve(waitingGame.getGameId());
+        await().atMost(2, TimeUnit.SECONDS).until(() -> loggedEvents(waitingGameLog).stream().filter(e -> e.type() == ContreeEventType.PLAYER_JOINED).count() == 2);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> lastLoggedEventType(logDirectory.resolve(endedGame.getGameId())) == ContreeEventType.GAME_ENDED);
+
+        ContreeGameHost recoveringHost = new ContreeGameHost(loggedGameConfig);
+
+        assertThat(recoveringHost.recoverGames()).isEqualTo(1);
+        ContreeGame recoveredGame = recoveringHost.getGame(waitingGame.getGameId()).orElseThrow();
+        assertThat(recoveredGame.isWaitingForPlayers()).isTrue();
+        assertThat(recoveringHost.getGame(endedGame.getGameId())).isEmpty();
+        recoveredGame.forceEndOfGame();
+        assertThat(recoveringHost.getNbEvictedGames()).isEqualTo(1);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> lastLoggedEventType(waitingGameLog) == ContreeEventType.GAME_ENDED);
+    }
+
+    @DisplayName("Many games are recovered by a bounded number of replay threads")
+    @Test
+    void testRecoverGamesWithBoundedParallelism(@TempDir Path logDirectory) throws IOException {
+        ContreeGameConfig loggedGameConfig = new ContreeGameConfig() {
+            @Override
+            public Optional<Path> getEventLogDirectory() {
+                return Optional.of(logDirectory);
+            }
+        };
+        ContreeGameHost stoppedHost = new ContreeGameHost(loggedGameConfig);
+        List<String> gameIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ContreeGame waitingGame = stoppedHost.createGame();
+            stoppedHost.joinGame(waitingGame.getGameId(), new ContreePlayerImpl("Player 1", new ContreeBotPlayerEventHandler()));
+            gameIds.add(waitingGame.getGameId());
+        }
+        for (String gameId : gameIds) {
+            await().atMost(2, TimeUnit.SECONDS).until(() -> loggedEvents(logDirectory.resolve(gameId)).stream().anyMatch(e -> e.type() == ContreeEventType.PLAYER_JOINED));
+        }
+
+        ContreeGameHost recoveringHost = new ContreeGameHost(loggedGameConfig);
+
+        assertThat(recoveringHost.recoverGames(2)).isEqualTo(gameIds.size());
+        for (String gameId : gameIds) {
+            assertThat(recoveringHost.getGame(gameId)).isPresent();
+        }
+        assertThatIllegalArgumentException().isThrownBy(() -> recoveringHost.recoverGames(0));
+    }
+
+    @Test
+    void testRecoverGamesWithoutEventLog() {
+        assertThatIllegalStateException().isThrownBy(() -> host.recoverGames());
+    }
+
+    private static ContreeEventType lastLoggedEventType(Path gameLogDirectory) throws IOException {
+        List<ContreeGameEvent> events = loggedEvents(gameLogDirectory);
+        return events.isEmpty() ? null : events.get(events.size() - 1).type();
+    }
+
+    private static List<ContreeGameEvent> loggedEvents(Path gameLogDirectory) throws IOException {
+        List<ContreeGameEvent> events = new ArrayList<>();
+        ContreeEventLogReader.read(gameLogDirectory, events::add);
+        return events;
+    }
+
+}
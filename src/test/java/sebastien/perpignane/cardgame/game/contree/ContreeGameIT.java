@@ -3,19 +3,33 @@ package sebastien.perpignane.cardgame.game.contree;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import sebastien.perpignane.cardgame.game.BlockingQueueGameObserver;
 import sebastien.perpignane.cardgame.game.GameStatus;
 import sebastien.perpignane.cardgame.game.GameTextDisplayer;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.PimcBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
 import sebastien.perpignane.cardgame.player.contree.handlers.BiddingBotEventHandler;
 import sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 class ContreeGameIT {
 
@@ -38,13 +52,101 @@ class ContreeGameIT {
 
     }
 
+    @DisplayName("Running a game with bot players in mailbox mode. The game must end without error, whoever wins.")
+    @Test
+    @Timeout(value = 2000, unit = TimeUnit.MILLISECONDS)
+    void testRunGameWithBotsInMailboxMode() throws InterruptedException {
+        ContreeGame game = ContreeGameBuilder.createGame(new ContreeGameConfig() {
+            @Override
+            public ContreeGameExecutionMode getExecutionMode() {
+                return ContreeGameExecutionMode.MAILBOX;
+            }
+        });
+        game.registerAsGameObserver(GameTextDisplayer.getInstance());
+
+        game.joinGame(new ContreePlayerImpl("Player 1", new BiddingBotEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 3", new ContreeBotPlayerEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 4", new ContreeBotPlayerEventHandler()));
+        var endOfGame = waitForEndOfGameEvent(game);
+        assertThat(endOfGame).isTrue();
+        assertThat(game.getWinner()).isPresent();
+        assertThat(game.getStatus()).isEqualTo(GameStatus.OVER);
+
+    }
+
+    @DisplayName("Running a game with bot players and an event log. All the events of the game are in the log, the end of the game being the last one.")
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    void testRunGameWithEventLog(@TempDir Path logDirectory) throws InterruptedException, IOException {
+        ContreeGame game = ContreeGameBuilder.createGame(new ContreeGameConfig() {
+            @Override
+            public Optional<Path> getEventLogDirectory() {
+                return Optional.of(logDirectory);
+            }
+        });
+
+        game.joinGame(new ContreePlayerImpl("Player 1", new BiddingBotEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 3", new ContreeBotPlayerEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 4", new ContreeBotPlayerEventHandler()));
+        assertThat(waitForEndOfGameEvent(game)).isTrue();
+
+        Path segment = logDirectory.resolve(game.getGameId()).resolve(ContreeEventLogFormat.segmentFileName(0));
+        await().atMost(Duration.ofSeconds(2)).until(() -> {
+            List<ContreeGameEvent> events = readSegment(segment);
+            return !events.isEmpty() && events.get(events.size() - 1).type() == ContreeEventType.GAME_ENDED;
+        });
+        List<ContreeGameEvent> events = readSegment(segment);
+        assertThat(events).extracting(ContreeGameEvent::sequence).isSorted().doesNotHaveDuplicates();
+        assertThat(events).filteredOn(e -> e.type() == ContreeEventType.PLAYER_JOINED).hasSize(4);
+        assertThat(events).anyMatch(e -> e.type() == ContreeEventType.CARD_PLAYED);
+    }
+
+    @DisplayName("Running a game with PIMC bots, whose play trackers are subscribed when they join the game. The game must end without error, whoever wins.")
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void testRunGameWithPimcBots() throws InterruptedException {
+        ContreeGame game = ContreeGameBuilder.createGame(new ContreeGameConfig() {
+            @Override
+            public int getMaxScore() {
+                return 300;
+            }
+        });
+        var search = new ContreePimcSearch(8, Duration.ofMillis(20), ForkJoinPool.commonPool());
+
+        game.joinGame(new ContreePlayerImpl("Player 1", new ContreeBotPlayerEventHandler(random -> new PimcBotStrategy(new BiddingBotStrategy(random), search, random))));
+        game.joinGame(new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+        game.joinGame(new ContreePlayerImpl("Player 3", new ContreeBotPlayerEventHandler(random -> new PimcBotStrategy(new RandomCardBotStrategy(random), search, random))));
+        game.joinGame(new ContreePlayerImpl("Player 4", new ContreeBotPlayerEventHandler()));
+        assertThat(waitForEndOfGameEvent(game, 60)).isTrue();
+        assertThat(game.getWinner()).isPresent();
+        assertThat(game.getStatus()).isEqualTo(GameStatus.OVER);
+    }
+
+    private List<ContreeGameEvent> readSegment(Path segment) throws IOException {
+        List<ContreeGameEvent> events = new ArrayList<>();
+        if (!Files.exists(segment)) {
+            return events;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment)).order(ContreeEventLogFormat.BYTE_ORDER);
+        for (int offset = ContreeEventLogFormat.HEADER_SIZE; offset + ContreeEventLogFormat.RECORD_SIZE <= buffer.limit() && ContreeEventLogFormat.isValidRecord(buffer, offset); offset += ContreeEventLogFormat.RECORD_SIZE) {
+            events.add(ContreeEventLogFormat.readRecord(buffer, offset));
+        }
+        return events;
+    }
+
     private boolean waitForEndOfGameEvent(ContreeGame game) throws InterruptedException {
+        return waitForEndOfGameEvent(game, 10);
+    }
+
+    private boolean waitForEndOfGameEvent(ContreeGame game, long timeoutSeconds) throws InterruptedException {
         boolean endOfGame = false;
 
         BlockingQueue<String> msgQueue = new ArrayBlockingQueue<>(1);
         game.registerAsGameObserver(new BlockingQueueGameObserver(msgQueue));
 
-        String msg = msgQueue.poll(10, TimeUnit.SECONDS);
+        String msg = msgQueue.poll(timeoutSeconds, TimeUnit.SECONDS);
         if ("END_OF_GAME".equals(msg)) {
             endOfGame = true;
         }
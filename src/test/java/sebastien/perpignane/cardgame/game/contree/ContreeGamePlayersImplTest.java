@@ -7,7 +7,13 @@ import org.junit.jupiter.api.Test;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -262,6 +268,57 @@ class ContreeGamePlayersImplTest extends TestCasesManagingPlayers {
 
     }
 
+    @DisplayName("Players joining concurrently from virtual threads get distinct slots")
+    @Test
+    void testConcurrentJoins() throws InterruptedException {
+
+        List<ContreePlayer> joiningPlayers = List.of(botPlayer(), botPlayer(), botPlayer(), botPlayer());
+        Set<Integer> playerIndexes = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = joiningPlayers.stream().map(player -> Thread.ofVirtual().start(() -> {
+            try {
+                start.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            playerIndexes.add(gamePlayers.joinGame(player).playerIndex());
+        })).toList();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(playerIndexes).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(gamePlayers.isFull()).isTrue();
+        assertThat(gamePlayers.getNbPlayers()).isEqualTo(4);
+
+    }
+
+    @DisplayName("The bot replacing a leaving player gets its thread from the bot thread factory")
+    @Test
+    void testLeaveGame_botThreadFactory() {
+
+        AtomicInteger nbCreatedThreads = new AtomicInteger();
+        ThreadFactory virtualThreads = Thread.ofVirtual().factory();
+        gamePlayers = new ContreeGamePlayersImpl(r -> {
+            nbCreatedThreads.incrementAndGet();
+            return virtualThreads.newThread(r);
+        });
+
+        var leaver = humanPlayer();
+        gamePlayers.joinGame(leaver);
+
+        var newPlayer = gamePlayers.leaveGameAndReplaceWithBotPlayer(leaver);
+        newPlayer.onGameStarted();
+        newPlayer.onGameOver();
+
+        assertThat(nbCreatedThreads).hasValue(1);
+
+    }
+
     @DisplayName("Exception if a human player who didn't joined the game try to leave it")
     @Test
     void testLeaveGame_playerDoesNotExist() {
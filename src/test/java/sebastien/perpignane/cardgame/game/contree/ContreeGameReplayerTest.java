@@ -0,0 +1,245 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static sebastien.perpignane.cardgame.game.contree.ContreeEventLogFormat.*;
+
+class ContreeGameReplayerTest {
+
+    private static final int MAX_SCORE = 500;
+
+    @TempDir
+    Path logDirectory;
+
+    @DisplayName("A game interrupted in the middle of a deal is recovered as it was, then goes on with bots")
+    @Test
+    void testRecoverInterruptedGame() throws IOException, InterruptedException {
+        Path gameLog = recordGame();
+        List<ContreeGameEvent> recordedEvents = readEvents(gameLog);
+        List<ContreeGameEvent> keptEvents = recordedEvents.subList(0, indexOfPlayedCard(recordedEvents, 50) + 1);
+        crashAfter(gameLog, keptEvents.size());
+
+        BlockingQueue<Runnable> gameTasks = new LinkedBlockingQueue<>();
+        List<ContreeGame> gamesBeforeReplay = new ArrayList<>();
+        // The bots cannot play before the recovered state is checked
+        CountDownLatch botsReleased = new CountDownLatch(1);
+        ThreadFactory botThreadFactory = r -> Thread.ofVirtual().unstarted(() -> {
+            try {
+                botsReleased.await();
+                r.run();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ContreeGame game = ContreeGameReplayer.recover(gameLog, recoveryConfig(gameTasks::add, botThreadFactory), gamesBeforeReplay::add).orElseThrow();
+        // Mailbox mode: the replay is the first task of the game
+        gameTasks.take().run();
+
+        assertThat(gamesBeforeReplay).containsExactly(game);
+        assertThat(game.getGameId()).isEqualTo(gameLog.getFileName().toString());
+        assertThat(game.isStarted()).isTrue();
+        assertThat(game.getNbDeals()).isEqualTo(keptEvents.stream().filter(e -> e.type() == ContreeEventType.DEAL_STARTED).count());
+        ContreeGameEvent lastScore = keptEvents.stream().filter(e -> e.type() == ContreeEventType.GAME_SCORE_UPDATED).reduce((first, second) -> second).orElseThrow();
+        assertThat(game.getGameScore().getTeamScore(ContreeTeam.TEAM1)).isEqualTo(lastScore.value());
+        assertThat(game.getGameScore().getTeamScore(ContreeTeam.TEAM2)).isEqualTo(lastScore.otherValue());
+        long[] expectedHands = currentHands(keptEvents);
+        List<ContreePlayer> players = game.getPlayers();
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            assertThat(players.get(slot).getHandMask()).isEqualTo(expectedHands[slot]);
+            assertThat(players.get(slot).isBot()).isTrue();
+        }
+
+        // The recovered bots never bid, the interrupted deal is played until its end, then the next one is passed
+        botsReleased.countDown();
+        int nbRecoveredDeals = game.getNbDeals();
+        while (game.getNbDeals() == nbRecoveredDeals) {
+            Runnable task = gameTasks.poll(5, TimeUnit.SECONDS);
+            assertThat(task).isNotNull();
+            task.run();
+        }
+        game.forceEndOfGame();
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> lastEventType(gameLog) == ContreeEventType.GAME_ENDED);
+        List<ContreeGameEvent> events = readEvents(gameLog);
+        assertThat(events.subList(0, keptEvents.size())).isEqualTo(keptEvents);
+        for (int i = 1 ; i < events.size() ; i++) {
+            assertThat(events.get(i).sequence()).isEqualTo(events.get(i - 1).sequence() + 1);
+        }
+    }
+
+    @DisplayName("When the end of the game was not recorded, the game is over after the replay and its end is sent")
+    @Test
+    void testRecoverGameEndedByTheLastRecordedCard() throws IOException, InterruptedException {
+        Path gameLog = recordGame();
+        List<ContreeGameEvent> recordedEvents = readEvents(gameLog);
+        int lastPlayedCard = 0;
+        for (int i = 0 ; i < recordedEvents.size() ; i++) {
+            if (recordedEvents.get(i).type() == ContreeEventType.CARD_PLAYED) {
+                lastPlayedCard = i;
+            }
+        }
+        crashAfter(gameLog, lastPlayedCard + 1);
+
+        BlockingQueue<Runnable> gameTasks = new LinkedBlockingQueue<>();
+        List<ContreeGame> endedGames = new ArrayList<>();
+        ContreeGame game = ContreeGameReplayer.recover(gameLog, recoveryConfig(gameTasks::add, Thread.ofVirtual().factory()), g -> g.registerAsGameObserver(new EndOfGameObserver(endedGames::add))).orElseThrow();
+        gameTasks.take().run();
+
+        assertThat(game.isOver()).isTrue();
+        assertThat(endedGames).containsExactly(game);
+        // The log of the recovered game is closed after its end
+        await().atMost(Duration.ofSeconds(2)).until(() -> lastEventType(gameLog) == ContreeEventType.GAME_ENDED);
+    }
+
+    @DisplayName("A game which was over is not recovered")
+    @Test
+    void testGameOver() throws IOException {
+        Path gameLog = recordGame();
+
+        List<ContreeGame> gamesBeforeReplay = new ArrayList<>();
+        Optional<ContreeGame> game = ContreeGameReplayer.recover(gameLog, recoveryConfig(Runnable::run, Thread.ofVirtual().factory()), gamesBeforeReplay::add);
+
+        assertThat(game).isEmpty();
+        assertThat(gamesBeforeReplay).isEmpty();
+    }
+
+    @DisplayName("A game waiting for players is recovered with bots in place of the players who joined it")
+    @Test
+    void testRecoverGameWaitingForPlayers() throws IOException {
+        Path gameLog = recordGame();
+        List<ContreeGameEvent> recordedEvents = readEvents(gameLog);
+        int secondJoin = 0;
+        for (int i = 0, nbJoins = 0 ; nbJoins < 2 ; i++) {
+            if (recordedEvents.get(i).type() == ContreeEventType.PLAYER_JOINED) {
+                nbJoins++;
+                secondJoin = i;
+            }
+        }
+        crashAfter(gameLog, secondJoin + 1);
+
+        ContreeGame game = ContreeGameReplayer.recover(gameLog, recoveryConfig(Runnable::run, Thread.ofVirtual().factory()), g -> {}).orElseThrow();
+
+        assertThat(game.isWaitingForPlayers()).isTrue();
+        assertThat(game.getPlayers()).filteredOn(p -> p != null && p.isBot()).hasSize(2);
+    }
+
+    /**
+     * @return the event log directory of a full simulated game
+     */
+    private Path recordGame() throws IOException {
+        ContreeGameConfig recordingConfig = new ContreeGameConfig() {
+            @Override
+            public int getMaxScore() {
+                return MAX_SCORE;
+            }
+
+            @Override
+            public Optional<Path> getEventLogDirectory() {
+                return Optional.of(logDirectory);
+            }
+        };
+        new ContreeSimulator(recordingConfig).playGame();
+        Path gameLog;
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            gameLog = files.findFirst().orElseThrow();
+        }
+        await().atMost(Duration.ofSeconds(2)).until(() -> lastEventType(gameLog) == ContreeEventType.GAME_ENDED);
+        return gameLog;
+    }
+
+    private ContreeGameConfig recoveryConfig(Executor gameScheduler, ThreadFactory botThreadFactory) {
+        return new ContreeGameConfig() {
+            @Override
+            public int getMaxScore() {
+                return MAX_SCORE;
+            }
+
+            @Override
+            public ContreeGameExecutionMode getExecutionMode() {
+                return ContreeGameExecutionMode.MAILBOX;
+            }
+
+            @Override
+            public Executor getGameScheduler() {
+                return gameScheduler;
+            }
+
+            @Override
+            public ThreadFactory getBotThreadFactory() {
+                return botThreadFactory;
+            }
+
+            @Override
+            public Optional<Path> getEventLogDirectory() {
+                return Optional.of(logDirectory);
+            }
+        };
+    }
+
+    /**
+     * Simulates a crash: only the first events were written, the next one partially
+     */
+    private static void crashAfter(Path gameLog, int nbWrittenEvents) throws IOException {
+        try (FileChannel channel = FileChannel.open(gameLog.resolve(segmentFileName(0)), StandardOpenOption.WRITE)) {
+            channel.truncate(HEADER_SIZE + (long) nbWrittenEvents * RECORD_SIZE + RECORD_SIZE / 2);
+        }
+    }
+
+    private static int indexOfPlayedCard(List<ContreeGameEvent> events, int nbPlayedCards) {
+        int nbFound = 0;
+        for (int i = 0 ; i < events.size() ; i++) {
+            if (events.get(i).type() == ContreeEventType.CARD_PLAYED && ++nbFound == nbPlayedCards) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Less than %d played cards", nbPlayedCards));
+    }
+
+    private static long[] currentHands(List<ContreeGameEvent> events) {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (ContreeGameEvent event : events) {
+            switch (event.type()) {
+                case HAND_DEALT -> hands[event.playerSlot()] = ((long) event.otherValue() << Integer.SIZE) | (event.value() & 0xFFFFFFFFL);
+                case CARD_PLAYED -> hands[event.playerSlot()] &= ~(1L << event.card());
+                default -> {}
+            }
+        }
+        return hands;
+    }
+
+    private static ContreeEventType lastEventType(Path gameLog) throws IOException {
+        List<ContreeGameEvent> events = readEvents(gameLog);
+        return events.isEmpty() ? null : events.get(events.size() - 1).type();
+    }
+
+    private static List<ContreeGameEvent> readEvents(Path gameLog) throws IOException {
+        List<ContreeGameEvent> events = new ArrayList<>();
+        ContreeEventLogReader.read(gameLog, events::add);
+        return events;
+    }
+
+}
@@ -2,13 +2,18 @@ package sebastien.perpignane.cardgame.game.contree;
 
 import org.junit.jupiter.api.*;
 import org.mockito.AdditionalAnswers;
+import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
+import sebastien.perpignane.cardgame.game.BackpressurePolicy;
 import sebastien.perpignane.cardgame.game.GameObserver;
 import sebastien.perpignane.cardgame.game.GameStatus;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -149,6 +154,70 @@ class ContreeGameTest extends TestCasesManagingPlayers {
         assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> game.registerAsGameObserver(observer));
     }
 
+    @DisplayName("In mailbox mode, commands are applied when the game mailbox is drained, and errors are not thrown to the players")
+    @Test
+    void testMailboxExecutionMode() {
+        Queue<Runnable> scheduledDrains = new ArrayDeque<>();
+        game = new ContreeGame(gamePlayers, deals, mock(ContreeGameEventSender.class), new MailboxGameCommandExecutor(scheduledDrains::add));
+
+        makeTheGameStart();
+        assertThat(game.isWaitingForPlayers()).isTrue();
+
+        scheduledDrains.poll().run();
+        assertThat(game.isStarted()).isTrue();
+
+        when(deals.isMaximumScoreReached()).thenReturn(true);
+        game.playCard(player1, ClassicalCard.JACK_HEART);
+        game.playCard(player2, ClassicalCard.ACE_SPADE);
+        scheduledDrains.poll().run();
+
+        assertThat(game.isOver()).isTrue();
+        verify(deals).playCard(player1, ClassicalCard.JACK_HEART);
+        verify(deals, never()).playCard(player2, ClassicalCard.ACE_SPADE);
+    }
+
+    @DisplayName("In mailbox mode, a player whose card or bid is rejected is notified again, so that it does not wait for its turn forever")
+    @Test
+    void testMailboxRejectedCommand() {
+        Queue<Runnable> scheduledDrains = new ArrayDeque<>();
+        game = new ContreeGame(gamePlayers, deals, mock(ContreeGameEventSender.class), new MailboxGameCommandExecutor(scheduledDrains::add));
+        makeTheGameStart();
+        scheduledDrains.poll().run();
+
+        doThrow(new IllegalArgumentException("Card not allowed")).when(deals).playCard(player1, ClassicalCard.JACK_HEART);
+        doThrow(new IllegalStateException("Not your turn")).when(deals).placeBid(player2, ContreeBidValue.EIGHTY, CardSuit.HEARTS);
+        game.playCard(player1, ClassicalCard.JACK_HEART);
+        game.placeBid(player2, ContreeBidValue.EIGHTY, CardSuit.HEARTS);
+        scheduledDrains.poll().run();
+
+        verify(deals).notifyPlayerAgain(player1);
+        verify(deals).notifyPlayerAgain(player2);
+    }
+
+    @DisplayName("Subscriptions to the event stream are managed by the event sender")
+    @Test
+    void testSubscribe() {
+        ContreeGameEventSender eventSender = mock(ContreeGameEventSender.class);
+        game = new ContreeGame(gamePlayers, deals, eventSender);
+        ContreeGameEventListener listener = event -> {};
+        long mask = ContreeEventType.mask(ContreeEventType.CARD_PLAYED);
+
+        game.subscribe(listener, mask);
+
+        verify(eventSender).subscribe(listener, mask);
+    }
+
+    @DisplayName("Asynchronous observers can be registered until the end of the game")
+    @Test
+    void testRegisterAsyncObserver() {
+        GameObserver observer = mock(GameObserver.class);
+        game.registerAsGameObserver(observer, BackpressurePolicy.DROP_OLDEST);
+
+        makeTheGameOver();
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> game.registerAsGameObserver(observer, BackpressurePolicy.BLOCK));
+    }
+
     private void makeTheGameOver() {
         makeTheGameStart();
         when(deals.isMaximumScoreReached()).thenReturn(true);
@@ -287,6 +356,21 @@ class ContreeGameTest extends TestCasesManagingPlayers {
         gameState.players().forEach(Assertions::assertNotNull);
     }
 
+    @Test
+    @DisplayName("The generators of the bots are split from the shuffler of the game, so that they are reproduced with its seed")
+    void testBotRandomSplitFromShuffler() {
+        ContreeGameConfig gameConfig = new ContreeGameConfig() { };
+        ContreeGame seededGame = ContreeGameBuilder.createGame(gameConfig, new LockGameCommandExecutor(), new SplittableCardSetShuffler(42));
+        ContreeGame sameSeedGame = ContreeGameBuilder.createGame(gameConfig, new LockGameCommandExecutor(), new SplittableCardSetShuffler(42));
+        ContreeGame otherSeedGame = ContreeGameBuilder.createGame(gameConfig, new LockGameCommandExecutor(), new SplittableCardSetShuffler(43));
+
+        long firstBotSeed = seededGame.splitBotRandom().nextLong();
+
+        assertThat(sameSeedGame.splitBotRandom().nextLong()).isEqualTo(firstBotSeed);
+        assertThat(otherSeedGame.splitBotRandom().nextLong()).isNotEqualTo(firstBotSeed);
+        assertThat(seededGame.splitBotRandom().nextLong()).isNotEqualTo(firstBotSeed);
+    }
+
 }
 
 class LeaveGameFlags {
@@ -0,0 +1,187 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNullPointerException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ContreeLobbyTest {
+
+    private static final Duration LONG_TIMEOUT = Duration.ofMinutes(10);
+
+    private ContreeGameHost host;
+
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        host = new ContreeGameHost(new ContreeGameConfig() { });
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @DisplayName("A game is started when 4 players joined the lobby, with the players in join order")
+    @Test
+    void testFullTableStartsGame() {
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, scheduler);
+        List<ContreePlayer> players = mockPlayers(4);
+
+        List<CompletableFuture<ContreeGame>> games = new ArrayList<>();
+        for (ContreePlayer player : players.subList(0, 3)) {
+            games.add(lobby.join(player));
+        }
+        assertThat(games).noneMatch(CompletableFuture::isDone);
+        assertThat(lobby.getNbOpenTables()).isEqualTo(1);
+
+        games.add(lobby.join(players.get(3)));
+
+        ContreeGame game = games.get(0).join();
+        assertThat(games).allMatch(g -> g.join() == game);
+        assertThat(game.getPlayers()).containsExactlyElementsOf(players);
+        assertThat(game.isStarted()).isTrue();
+        assertThat(host.getGame(game.getGameId())).containsSame(game);
+        assertThat(lobby.getNbOpenTables()).isZero();
+    }
+
+    @DisplayName("Players are seated in the team they want, and open a new table when their team is full")
+    @Test
+    void testWantedTeam() {
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, scheduler);
+        List<ContreePlayer> players = mockPlayers(5);
+
+        var team1Player1 = lobby.join(players.get(0), ContreeTeam.TEAM1);
+        var team1Player2 = lobby.join(players.get(1), ContreeTeam.TEAM1);
+        var team1Player3 = lobby.join(players.get(2), ContreeTeam.TEAM1);
+        assertThat(lobby.getNbOpenTables()).isEqualTo(2);
+
+        var team2Player1 = lobby.join(players.get(3), ContreeTeam.TEAM2);
+        var anyTeamPlayer = lobby.join(players.get(4));
+
+        ContreeGame game = team1Player1.join();
+        assertThat(team1Player2.join()).isSameAs(game);
+        assertThat(team2Player1.join()).isSameAs(game);
+        assertThat(anyTeamPlayer.join()).isSameAs(game);
+        assertThat(team1Player3).isNotDone();
+        assertThat(game.getPlayers()).containsExactly(players.get(0), players.get(3), players.get(1), players.get(4));
+        assertThat(lobby.getNbOpenTables()).isEqualTo(1);
+    }
+
+    @DisplayName("Free seats are given to bots when the timeout expires")
+    @Test
+    void testBotFill() throws Exception {
+        ContreeLobby lobby = new ContreeLobby(host, Duration.ofMillis(50), scheduler);
+        ContreePlayer player = mockPlayers(1).get(0);
+
+        ContreeGame game = lobby.join(player, ContreeTeam.TEAM2).get(10, TimeUnit.SECONDS);
+
+        assertThat(game.getPlayers()).hasSize(4);
+        assertThat(game.getPlayers().get(1)).isSameAs(player);
+        assertThat(game.getPlayers()).filteredOn(ContreePlayer::isBot).hasSize(3);
+        assertThat(lobby.getNbOpenTables()).isZero();
+        game.forceEndOfGame();
+    }
+
+    @DisplayName("The bot fill of a full table is cancelled")
+    @Test
+    void testBotFillIsCancelledWhenTableIsFull() {
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> botFill = mock(ScheduledFuture.class);
+        doReturn(botFill).when(mockScheduler).schedule(any(Runnable.class), anyLong(), any());
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, mockScheduler);
+
+        mockPlayers(4).forEach(lobby::join);
+
+        verify(mockScheduler).schedule(any(Runnable.class), eq(LONG_TIMEOUT.toNanos()), eq(TimeUnit.NANOSECONDS));
+        verify(botFill).cancel(false);
+    }
+
+    @DisplayName("During a join storm, each player gets exactly one seat")
+    @Test
+    void testJoinStorm() throws Exception {
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, scheduler);
+        int nbThreads = 8;
+        int nbPlayersByThread = 50;
+        List<ContreePlayer> players = mockPlayers(nbThreads * nbPlayersByThread);
+
+        ExecutorService joiners = Executors.newFixedThreadPool(nbThreads);
+        List<Future<List<CompletableFuture<ContreeGame>>>> joins = new ArrayList<>();
+        try {
+            for (int t = 0; t < nbThreads; t++) {
+                List<ContreePlayer> threadPlayers = players.subList(t * nbPlayersByThread, (t + 1) * nbPlayersByThread);
+                joins.add(joiners.submit(() -> threadPlayers.stream().map(lobby::join).toList()));
+            }
+
+            Set<ContreeGame> games = new HashSet<>();
+            for (var join : joins) {
+                for (var game : join.get(10, TimeUnit.SECONDS)) {
+                    games.add(game.get(10, TimeUnit.SECONDS));
+                }
+            }
+
+            assertThat(games).hasSize(players.size() / ContreePlayers.NB_PLAYERS);
+            assertThat(games.stream().flatMap(g -> g.getPlayers().stream()).toList()).containsExactlyInAnyOrderElementsOf(players);
+            assertThat(lobby.getNbOpenTables()).isZero();
+        }
+        finally {
+            joiners.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPlayerIsRequired() {
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, scheduler);
+        assertThatNullPointerException().isThrownBy(() -> lobby.join(null));
+    }
+
+    @DisplayName("The game of the table fails when the game cannot be joined")
+    @Test
+    void testFailedLaunch() {
+        ContreeLobby lobby = new ContreeLobby(host, LONG_TIMEOUT, scheduler);
+        ContreePlayer player = mock(ContreePlayer.class);
+        List<ContreePlayer> players = mockPlayers(2);
+
+        lobby.join(player);
+        lobby.join(player);
+        lobby.join(players.get(0));
+        var game = lobby.join(players.get(1));
+
+        assertThat(game).isCompletedExceptionally();
+    }
+
+    private static List<ContreePlayer> mockPlayers(int nbPlayers) {
+        List<ContreePlayer> players = new ArrayList<>();
+        for (int i = 0; i < nbPlayers; i++) {
+            players.add(mock(ContreePlayer.class));
+        }
+        return players;
+    }
+
+}
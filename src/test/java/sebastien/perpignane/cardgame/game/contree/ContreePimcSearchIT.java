@@ -0,0 +1,88 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.PimcBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Move times of the PIMC search on the wall clock, and strength of the PIMC bots: slow and statistical, out of the unit tests
+ */
+class ContreePimcSearchIT {
+
+    /**
+     * Time a bot may take to play a card with the default settings
+     */
+    private static final Duration MOVE_TIME = Duration.ofMillis(200);
+
+    @DisplayName("At the first trick, where full deals are solved, a search with the default settings plays within the move time")
+    @Test
+    void testFirstTrickMoveTime() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.CLUBS, 1);
+        long hand = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.ACE_HEART, ClassicalCard.TEN_HEART,
+                ClassicalCard.JACK_CLUB, ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_DIAMOND, ClassicalCard.EIGHT_DIAMOND);
+        var search = new ContreePimcSearch();
+        // Warms the solvers up
+        search.evaluate(tracker, hand, hand, new Random(1));
+
+        long start = System.nanoTime();
+        search.evaluate(tracker, hand, hand, new Random(5));
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertThat(elapsedNanos).isLessThan(MOVE_TIME.toNanos());
+    }
+
+    @DisplayName("Once some tricks are played, a search with the default settings solves all its layouts within the move time")
+    @Test
+    void testMidDealMoveTime() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerAfterTricks(CardSuit.CLUBS, 1,
+                new ClassicalCard[] {ClassicalCard.ACE_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.EIGHT_SPADE, ClassicalCard.NINE_SPADE},
+                new ClassicalCard[] {ClassicalCard.ACE_HEART, ClassicalCard.SEVEN_HEART, ClassicalCard.EIGHT_HEART, ClassicalCard.NINE_HEART},
+                new ClassicalCard[] {ClassicalCard.ACE_DIAMOND, ClassicalCard.SEVEN_DIAMOND, ClassicalCard.EIGHT_DIAMOND, ClassicalCard.NINE_DIAMOND},
+                new ClassicalCard[] {ClassicalCard.TEN_SPADE, ClassicalCard.JACK_SPADE, ClassicalCard.QUEEN_SPADE, ClassicalCard.KING_SPADE}
+        );
+        long hand = CardMask.of(ClassicalCard.TEN_HEART, ClassicalCard.KING_HEART, ClassicalCard.JACK_CLUB, ClassicalCard.NINE_CLUB);
+        var search = new ContreePimcSearch();
+        // Warms the solvers up
+        search.evaluate(tracker, hand, hand, new Random(1));
+
+        long start = System.nanoTime();
+        ContreePimcSearch.Evaluation evaluation = search.evaluate(tracker, hand, hand, new Random(5));
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertThat(evaluation.nbLayouts()).isEqualTo(ContreePimcSearch.DEFAULT_NB_LAYOUTS);
+        assertThat(elapsedNanos).isLessThan(MOVE_TIME.toNanos());
+    }
+
+    @DisplayName("On the same boards, attackers playing the PIMC cards score more than attackers playing random cards")
+    @Test
+    void testPimcBotsAgainstRandomBots() {
+        var search = new ContreePimcSearch(16, Duration.ofMillis(100), ForkJoinPool.commonPool());
+        List<Function<RandomGenerator, ContreeBotStrategy>> pimcTeam = List.of(
+                random -> new PimcBotStrategy(new BiddingBotStrategy(random), search, random),
+                random -> new PimcBotStrategy(new RandomCardBotStrategy(random), search, random)
+        );
+        List<Function<RandomGenerator, ContreeBotStrategy>> randomTeam = List.of(BiddingBotStrategy::new, RandomCardBotStrategy::new);
+        List<Function<RandomGenerator, ContreeBotStrategy>> defenseTeam = List.of(RandomCardBotStrategy::new, RandomCardBotStrategy::new);
+
+        DuplicateReport pimcReport = new ContreeDuplicateRunner(new ContreeGameConfig() { }, 2, 42, pimcTeam, defenseTeam).run(30);
+        DuplicateReport randomReport = new ContreeDuplicateRunner(new ContreeGameConfig() { }, 2, 42, randomTeam, defenseTeam).run(30);
+
+        assertThat(pimcReport.meanDelta() - randomReport.meanDelta()).isGreaterThan(2 * (pimcReport.standardError() + randomReport.standardError()));
+    }
+
+}
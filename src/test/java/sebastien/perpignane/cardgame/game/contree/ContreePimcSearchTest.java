@@ -0,0 +1,121 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ContreePimcSearchTest {
+
+    private static final long SPADES_AND_HEARTS = CardMask.suit(CardSuit.SPADES) | CardMask.suit(CardSuit.HEARTS);
+
+    @DisplayName("Sampled layouts deal the unseen cards to the other players, without the cards they cannot hold")
+    @Test
+    void testSampleLayout() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.HEARTS, 0, ClassicalCard.ACE_SPADE, ClassicalCard.SEVEN_CLUB);
+        long hand = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.QUEEN_SPADE, ClassicalCard.JACK_SPADE, ClassicalCard.TEN_SPADE,
+                ClassicalCard.NINE_SPADE, ClassicalCard.EIGHT_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.ACE_HEART);
+        ContreePimcSearch.Position position = new ContreePimcSearch.Position(tracker, hand);
+        Random random = new Random(11);
+
+        for (int i = 0 ; i < 200 ; i++) {
+            long[] hands = ContreePimcSearch.sampleLayout(position, random);
+
+            assertThat(hands[2]).isEqualTo(hand);
+            assertThat(Long.bitCount(hands[0])).isEqualTo(7);
+            assertThat(Long.bitCount(hands[1])).isEqualTo(7);
+            assertThat(Long.bitCount(hands[3])).isEqualTo(8);
+            assertThat(hands[1] & SPADES_AND_HEARTS).isEqualTo(CardMask.EMPTY);
+            assertThat(hands[0] | hands[1] | hands[2] | hands[3] | tracker.playedCards()).isEqualTo(CardSet.GAME_32.getGameCardsMask());
+            assertThat(Long.bitCount(hands[0]) + Long.bitCount(hands[1]) + Long.bitCount(hands[2]) + Long.bitCount(hands[3])).isEqualTo(30);
+        }
+    }
+
+    @DisplayName("A search is reproduced from the random generator of the player, whatever the parallelism")
+    @Test
+    void testReproducibleSearch() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.CLUBS, 3, ClassicalCard.ACE_SPADE);
+        long hand = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.ACE_HEART, ClassicalCard.TEN_HEART,
+                ClassicalCard.JACK_CLUB, ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_DIAMOND, ClassicalCard.EIGHT_DIAMOND);
+        long allowedCards = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE);
+
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            ContreePimcSearch.Evaluation evaluation = new ContreePimcSearch(8, Duration.ofSeconds(30), ForkJoinPool.commonPool()).evaluate(tracker, hand, allowedCards, new Random(5));
+            ContreePimcSearch.Evaluation parallelEvaluation = new ContreePimcSearch(8, Duration.ofSeconds(30), pool).evaluate(tracker, hand, allowedCards, new Random(5));
+
+            assertThat(evaluation.nbLayouts()).isEqualTo(8);
+            assertThat(evaluation.cards()).containsExactly(ClassicalCard.SEVEN_SPADE.ordinal(), ClassicalCard.KING_SPADE.ordinal());
+            assertThat(Arrays.stream(evaluation.averagePoints())).allSatisfy(points -> assertThat(points).isBetween(0.0, 162.0));
+            assertThat(parallelEvaluation.averagePoints()).containsExactly(evaluation.averagePoints());
+        }
+    }
+
+    @DisplayName("Within the move budget, all the layouts are solved, whatever the time they take")
+    @Test
+    void testAllLayoutsWithinMoveBudget() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerAfterTricks(CardSuit.CLUBS, 1,
+                new ClassicalCard[] {ClassicalCard.ACE_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.EIGHT_SPADE, ClassicalCard.NINE_SPADE},
+                new ClassicalCard[] {ClassicalCard.ACE_HEART, ClassicalCard.SEVEN_HEART, ClassicalCard.EIGHT_HEART, ClassicalCard.NINE_HEART}
+        );
+        long hand = CardMask.of(ClassicalCard.TEN_HEART, ClassicalCard.KING_HEART, ClassicalCard.JACK_CLUB, ClassicalCard.NINE_CLUB,
+                ClassicalCard.ACE_DIAMOND, ClassicalCard.SEVEN_DIAMOND);
+        // The clock never moves
+        var search = new ContreePimcSearch(16, Duration.ofMillis(1), ForkJoinPool.commonPool(), () -> 0L);
+
+        ContreePimcSearch.Evaluation evaluation = search.evaluate(tracker, hand, hand, new Random(5));
+
+        assertThat(evaluation.nbLayouts()).isEqualTo(16);
+    }
+
+    @DisplayName("When the move budget is spent before any layout is solved, even the first one, the cards are played out on the first layout")
+    @Test
+    void testMoveBudgetSpent() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.CLUBS, 1);
+        long hand = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE, ClassicalCard.ACE_HEART, ClassicalCard.TEN_HEART,
+                ClassicalCard.JACK_CLUB, ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_DIAMOND, ClassicalCard.EIGHT_DIAMOND);
+        // The budget is spent as soon as the search starts
+        AtomicLong clock = new AtomicLong();
+        var search = new ContreePimcSearch(100, Duration.ofMillis(150), ForkJoinPool.commonPool(), () -> clock.getAndAdd(Duration.ofSeconds(1).toNanos()));
+
+        ContreePimcSearch.Evaluation evaluation = search.evaluate(tracker, hand, hand, new Random(5));
+        ContreePimcSearch.Evaluation sameEvaluation = search.evaluate(tracker, hand, hand, new Random(5));
+
+        assertThat(evaluation.nbLayouts()).isZero();
+        assertThat(evaluation.cards()).hasSize(8);
+        assertThat(Arrays.stream(evaluation.averagePoints())).allSatisfy(points -> assertThat(points).isBetween(0.0, 162.0));
+        assertThat(sameEvaluation.averagePoints()).containsExactly(evaluation.averagePoints());
+        assertThat(CardMask.contains(hand, evaluation.bestCard())).isTrue();
+    }
+
+    @Test
+    void testSingleAllowedCard() {
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.CLUBS, 1);
+        long hand = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE);
+
+        assertThat(new ContreePimcSearch().chooseCard(tracker, hand, CardMask.of(ClassicalCard.SEVEN_SPADE), new Random(1))).isEqualTo(ClassicalCard.SEVEN_SPADE);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreePimcSearch(0, Duration.ZERO, ForkJoinPool.commonPool()));
+
+        ContreePlayTracker tracker = ContreePlayTrackerTest.trackerWithTrick(CardSuit.CLUBS, 1);
+        var search = new ContreePimcSearch();
+        long hand = CardMask.of(ClassicalCard.KING_SPADE);
+        long allowedCards = CardMask.of(ClassicalCard.KING_SPADE, ClassicalCard.SEVEN_SPADE);
+        var random = new Random(1);
+        assertThatIllegalArgumentException().isThrownBy(() -> search.evaluate(tracker, hand, allowedCards, random));
+    }
+
+}
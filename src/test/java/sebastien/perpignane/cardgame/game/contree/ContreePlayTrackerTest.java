@@ -0,0 +1,158 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ContreePlayTrackerTest {
+
+    @DisplayName("A player who does not follow the wanted suit has no card of this suit, nor any trump when an opponent wins the trick")
+    @Test
+    void testPlayerNotFollowing() {
+        ContreePlayTracker tracker = trackerWithTrick(CardSuit.HEARTS, 0, ClassicalCard.ACE_SPADE, ClassicalCard.SEVEN_CLUB);
+
+        long contreeCards = CardSet.GAME_32.getGameCardsMask();
+        assertThat(tracker.excludedCards(1)).isEqualTo(CardMask.ofSuit(contreeCards, CardSuit.SPADES) | CardMask.ofSuit(contreeCards, CardSuit.HEARTS));
+        assertThat(tracker.excludedCards(0)).isEqualTo(CardMask.EMPTY);
+        assertThat(tracker.nextPlayerSlot()).isEqualTo(2);
+        assertThat(tracker.nbRemainingCards(1)).isEqualTo(7);
+        assertThat(tracker.nbRemainingCards(2)).isEqualTo(8);
+        assertThat(tracker.playedCards()).isEqualTo(CardMask.of(ClassicalCard.ACE_SPADE, ClassicalCard.SEVEN_CLUB));
+    }
+
+    @DisplayName("A player who does not overtrump has no higher trump")
+    @Test
+    void testPlayerNotOvertrumping() {
+        ContreePlayTracker tracker = trackerWithTrick(CardSuit.HEARTS, 2, ClassicalCard.NINE_HEART, ClassicalCard.SEVEN_HEART);
+
+        assertThat(tracker.excludedCards(3)).isEqualTo(CardMask.of(ClassicalCard.JACK_HEART));
+        assertThat(tracker.nextPlayerSlot()).isZero();
+    }
+
+    @DisplayName("The next player is the first bidder, then the winner of the previous trick")
+    @Test
+    void testLeaders() {
+        ContreePlayTracker tracker = new ContreePlayTracker();
+        tracker.onEvent(event(ContreeEventType.DEAL_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.BID_PLACED, 1, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.BID_PLACED, 2, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+
+        assertThat(tracker.isPlayStep()).isFalse();
+        assertThatIllegalStateException().isThrownBy(tracker::nextPlayerSlot);
+
+        tracker.onEvent(event(ContreeEventType.PLAY_STEP_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, CardSuit.CLUBS.ordinal()));
+        assertThat(tracker.nextPlayerSlot()).isEqualTo(1);
+        assertThat(tracker.trumpSuit()).isEqualTo(CardSuit.CLUBS);
+
+        tracker.onEvent(event(ContreeEventType.TRICK_ENDED, 3, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        assertThat(tracker.nextPlayerSlot()).isEqualTo(3);
+    }
+
+    @DisplayName("In a full game, the tracker knows the next player, and never excludes a card the player holds")
+    @Test
+    void testTrackedGame() {
+        ContreePlayTracker tracker = new ContreePlayTracker();
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        int[] nbCheckedCards = new int[1];
+        ContreeGameEventListener checker = event -> {
+            switch (event.type()) {
+                case HAND_DEALT -> hands[event.playerSlot()] = ((long) event.otherValue() << Integer.SIZE) | (event.value() & 0xFFFFFFFFL);
+                case CARD_PLAYED -> {
+                    // The tracker did not receive the event yet
+                    assertThat(tracker.nextPlayerSlot()).isEqualTo(event.playerSlot());
+                    for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+                        assertThat(tracker.excludedCards(slot) & hands[slot]).isEqualTo(CardMask.EMPTY);
+                        assertThat(tracker.nbRemainingCards(slot)).isEqualTo(Long.bitCount(hands[slot]));
+                    }
+                    hands[event.playerSlot()] &= ~(1L << event.card());
+                    nbCheckedCards[0]++;
+                }
+                default -> {
+                    // Not subscribed
+                }
+            }
+        };
+        ContreeBotStrategy firstBot = new TrackingStrategy(new BiddingBotStrategy(new Random(3)), checker, tracker);
+        Random random = new Random(5);
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() {
+                    @Override
+                    public int getMaxScore() {
+                        return 500;
+                    }
+                },
+                List.of(firstBot, new RandomCardBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random))
+        );
+
+        SimulatedGameResult result = simulator.playGame();
+
+        assertThat(nbCheckedCards[0]).isEqualTo(result.nbTricks() * ContreePlayers.NB_PLAYERS);
+    }
+
+    static ContreePlayTracker trackerWithTrick(CardSuit trumpSuit, int firstBidderSlot, ClassicalCard... cards) {
+        ContreePlayTracker tracker = new ContreePlayTracker();
+        tracker.onEvent(event(ContreeEventType.DEAL_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.BID_PLACED, firstBidderSlot, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        tracker.onEvent(event(ContreeEventType.PLAY_STEP_STARTED, ContreeGameEvent.NONE, ContreeGameEvent.NONE, trumpSuit.ordinal()));
+        for (int i = 0 ; i < cards.length ; i++) {
+            tracker.onEvent(event(ContreeEventType.CARD_PLAYED, (firstBidderSlot + i) % ContreePlayers.NB_PLAYERS, cards[i].ordinal(), ContreeGameEvent.NONE));
+        }
+        return tracker;
+    }
+
+    /**
+     * @return a tracker of the given tricks, each one being won by the first bidder, who leads them all
+     */
+    static ContreePlayTracker trackerAfterTricks(CardSuit trumpSuit, int firstBidderSlot, ClassicalCard[]... tricks) {
+        ContreePlayTracker tracker = trackerWithTrick(trumpSuit, firstBidderSlot);
+        for (ClassicalCard[] trick : tricks) {
+            for (int i = 0 ; i < trick.length ; i++) {
+                tracker.onEvent(event(ContreeEventType.CARD_PLAYED, (firstBidderSlot + i) % ContreePlayers.NB_PLAYERS, trick[i].ordinal(), ContreeGameEvent.NONE));
+            }
+            tracker.onEvent(event(ContreeEventType.TRICK_ENDED, firstBidderSlot, ContreeGameEvent.NONE, ContreeGameEvent.NONE));
+        }
+        return tracker;
+    }
+
+    private static ContreeGameEvent event(ContreeEventType type, int playerSlot, int card, int suit) {
+        return new ContreeGameEvent(type, 1, 1, ContreeGameEvent.NONE, playerSlot, card, suit, ContreeGameEvent.NONE, ContreeGameEvent.NONE);
+    }
+
+    /**
+     * Subscribes a checker, then the tracker, to the game of the bot
+     */
+    private record TrackingStrategy(ContreeBotStrategy strategy, ContreeGameEventListener checker, ContreePlayTracker tracker) implements ContreeBotStrategy {
+
+        @Override
+        public void onJoiningGame(ContreeGame game) {
+            game.subscribe(checker, ContreeEventType.mask(ContreeEventType.HAND_DEALT, ContreeEventType.CARD_PLAYED));
+            game.subscribe(tracker, ContreePlayTracker.EVENT_TYPES);
+        }
+
+        @Override
+        public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+            return strategy.chooseBid(player, allowedBidValues);
+        }
+
+        @Override
+        public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+            return strategy.chooseCard(player, allowedCards);
+        }
+
+    }
+
+}
@@ -20,7 +20,7 @@ class ContreePlayedCardTest {
     @Test
     void testInvalidConstructorArgument_nullPlayer() {
 
-        var card = new ContreeCard(ClassicalCard.JACK_DIAMOND, CardSuit.HEARTS);
+        var card = ContreeCard.of(ClassicalCard.JACK_DIAMOND, CardSuit.HEARTS);
         assertThatExceptionOfType(NullPointerException.class)
             .isThrownBy(
                 () -> new ContreePlayedCard(null, card)
@@ -35,7 +35,7 @@ class ContreePlayedCardTest {
         var noTeamPlayer = mock(ContreePlayer.class);
         when(noTeamPlayer.getTeam()).thenReturn(Optional.empty());
 
-        var card = new ContreeCard(ClassicalCard.JACK_DIAMOND, CardSuit.HEARTS);
+        var card = ContreeCard.of(ClassicalCard.JACK_DIAMOND, CardSuit.HEARTS);
         assertThatExceptionOfType(IllegalArgumentException.class)
             .isThrownBy(
                 () -> new ContreePlayedCard(noTeamPlayer, card)
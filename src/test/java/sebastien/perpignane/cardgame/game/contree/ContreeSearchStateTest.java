@@ -0,0 +1,172 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ContreeSearchStateTest {
+
+    private static final CardSuit[] TRUMP_SUITS = {CardSuit.DIAMONDS, CardSuit.CLUBS, CardSuit.HEARTS, CardSuit.SPADES};
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    @DisplayName("Random deals count the points and the trick winners like the rules, and are taken back to the initial state")
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 2023L})
+    void testPlayAndUndoRandomDeals(long seed) {
+        Random random = new Random(seed);
+        for (int deal = 0 ; deal < 50 ; deal++) {
+            CardSuit trumpSuit = TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)];
+            long[] hands = randomHands(random);
+            int leaderSlot = random.nextInt(ContreePlayers.NB_PLAYERS);
+            var state = new ContreeSearchState(trumpSuit, hands, leaderSlot, new int[0], 0);
+            long initialKey = state.key();
+
+            int[] expectedPoints = new int[2];
+            int[] trickCards = new int[ContreePlayers.NB_PLAYERS];
+            int expectedLeaderSlot = leaderSlot;
+            for (int trick = 0 ; trick < 8 ; trick++) {
+                for (int i = 0 ; i < ContreePlayers.NB_PLAYERS ; i++) {
+                    int slot = (expectedLeaderSlot + i) % ContreePlayers.NB_PLAYERS;
+                    assertThat(state.nextPlayerSlot()).isEqualTo(slot);
+                    long playableCards = state.playableCards();
+                    assertThat(playableCards).isEqualTo(playableCardsFilter.playableCards(state.hand(slot), trumpSuit, trickCards, i));
+                    trickCards[i] = randomCard(playableCards, random);
+                    assertThat(state.play(trickCards[i])).isEqualTo(i == ContreePlayers.NB_PLAYERS - 1);
+                }
+                expectedLeaderSlot = (expectedLeaderSlot + PlayableCardsFilter.winningCardIndex(trumpSuit, trickCards, ContreePlayers.NB_PLAYERS)) % ContreePlayers.NB_PLAYERS;
+                for (int card : trickCards) {
+                    expectedPoints[expectedLeaderSlot % 2] += ContreeCard.gamePoints(card, CardMask.card(card).getSuit() == trumpSuit);
+                }
+                assertThat(state.trickWinnerSlot(trick)).isEqualTo(expectedLeaderSlot);
+            }
+            expectedPoints[expectedLeaderSlot % 2] += DealScoreCalculator.DIX_DE_DER_BONUS;
+
+            assertThat(state.isOver()).isTrue();
+            assertThat(state.teamPoints(0)).isEqualTo(expectedPoints[0]);
+            assertThat(state.teamPoints(1)).isEqualTo(expectedPoints[1]);
+            assertThat(state.teamPoints(0) + state.teamPoints(1)).isEqualTo(DealScoreCalculator.EXPECTED_CARD_SCORE_SUM);
+            assertThat(state.remainingPoints()).isZero();
+
+            for (int i = state.nbPlayedCards() ; i > 0 ; i--) {
+                state.undo();
+            }
+            assertThat(state.nbCompletedTricks()).isZero();
+            assertThat(state.nbTrickCards()).isZero();
+            assertThat(state.leaderSlot()).isEqualTo(leaderSlot);
+            assertThat(state.teamPoints(0)).isZero();
+            assertThat(state.teamPoints(1)).isZero();
+            assertThat(state.remainingPoints()).isEqualTo(DealScoreCalculator.EXPECTED_CARD_SCORE_SUM);
+            assertThat(state.key()).isEqualTo(initialKey);
+            for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+                assertThat(state.hand(slot)).isEqualTo(hands[slot]);
+            }
+        }
+    }
+
+    @DisplayName("A state created with a trick in progress credits its cards to the winner of the trick, and cannot take them back")
+    @Test
+    void testTrickInProgress() {
+        long[] hands = {
+                CardMask.of(ClassicalCard.SEVEN_CLUB),
+                CardMask.EMPTY,
+                CardMask.of(ClassicalCard.TEN_SPADE),
+                CardMask.of(ClassicalCard.KING_SPADE)
+        };
+        int[] trickCards = {ClassicalCard.ACE_SPADE.ordinal()};
+        var state = new ContreeSearchState(CardSuit.HEARTS, hands, 1, trickCards, 1);
+
+        assertThat(state.nextPlayerSlot()).isEqualTo(2);
+        assertThat(state.playableCards()).isEqualTo(CardMask.of(ClassicalCard.TEN_SPADE));
+        assertThat(state.remainingPoints()).isEqualTo(11 + 10 + 4 + 10);
+
+        state.play(ClassicalCard.TEN_SPADE);
+        state.play(ClassicalCard.KING_SPADE);
+        state.play(ClassicalCard.SEVEN_CLUB);
+
+        assertThat(state.isOver()).isTrue();
+        assertThat(state.trickWinnerSlot(0)).isEqualTo(1);
+        assertThat(state.teamPoints(1)).isEqualTo(11 + 10 + 4 + 10);
+
+        state.undo();
+        state.undo();
+        state.undo();
+        assertThatIllegalStateException().isThrownBy(state::undo);
+        assertThat(state.trickCard(0)).isEqualTo(ClassicalCard.ACE_SPADE.ordinal());
+    }
+
+    @DisplayName("A copy is played independently of the original state")
+    @Test
+    void testCopy() {
+        Random random = new Random(3);
+        var state = new ContreeSearchState(CardSuit.CLUBS, randomHands(random), 0, new int[0], 0);
+        state.play(randomCard(state.playableCards(), random));
+
+        var copy = state.copy();
+        while (!copy.isOver()) {
+            copy.play(randomCard(copy.playableCards(), random));
+        }
+
+        assertThat(state.nbPlayedCards()).isEqualTo(1);
+        assertThat(copy.nbPlayedCards()).isEqualTo(32);
+        assertThat(copy.teamPoints(0) + copy.teamPoints(1)).isEqualTo(DealScoreCalculator.EXPECTED_CARD_SCORE_SUM);
+        assertThat(state.teamPoints(0) + state.teamPoints(1)).isZero();
+        assertThat(state.key()).isNotEqualTo(copy.key());
+    }
+
+    @Test
+    void testInvalidMoves() {
+        var state = new ContreeSearchState(CardSuit.CLUBS, randomHands(new Random(4)), 0, new int[0], 0);
+        int notInHand = Long.numberOfTrailingZeros(state.hand(1));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> state.play(notInHand));
+        assertThatIllegalStateException().isThrownBy(state::undo);
+        assertThatIllegalArgumentException().isThrownBy(() -> state.trickWinnerSlot(0));
+    }
+
+    @Test
+    void testInvalidPositions() {
+        long[] sameCard = {CardMask.of(ClassicalCard.ACE_SPADE), CardMask.of(ClassicalCard.ACE_SPADE), CardMask.of(ClassicalCard.KING_SPADE), CardMask.of(ClassicalCard.QUEEN_SPADE)};
+        long[] missingCard = {CardMask.of(ClassicalCard.ACE_SPADE), CardMask.EMPTY, CardMask.of(ClassicalCard.KING_SPADE), CardMask.of(ClassicalCard.QUEEN_SPADE)};
+        long[] over = {CardMask.EMPTY, CardMask.EMPTY, CardMask.EMPTY, CardMask.EMPTY};
+        long[] trickCardInHand = {CardMask.of(ClassicalCard.JACK_SPADE), CardMask.EMPTY, CardMask.of(ClassicalCard.KING_SPADE), CardMask.of(ClassicalCard.QUEEN_SPADE)};
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSearchState(CardSuit.HEARTS, sameCard, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSearchState(CardSuit.HEARTS, missingCard, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSearchState(CardSuit.HEARTS, over, 0, new int[0], 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSearchState(CardSuit.HEARTS, trickCardInHand, 1, new int[] {ClassicalCard.JACK_SPADE.ordinal()}, 1));
+    }
+
+    private static long[] randomHands(Random random) {
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, random);
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+        }
+        return hands;
+    }
+
+    private static int randomCard(long cards, Random random) {
+        for (int i = random.nextInt(Long.bitCount(cards)) ; i > 0 ; i--) {
+            cards &= cards - 1;
+        }
+        return Long.numberOfTrailingZeros(cards);
+    }
+
+}
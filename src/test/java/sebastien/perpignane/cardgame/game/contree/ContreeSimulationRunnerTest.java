@@ -0,0 +1,56 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ContreeSimulationRunnerTest {
+
+    private final ContreeGameConfig gameConfig = new ContreeGameConfig() {
+        @Override
+        public int getMaxScore() {
+            return 300;
+        }
+    };
+
+    @Test
+    void testRun() {
+
+        ContreeSimulationRunner runner = new ContreeSimulationRunner(gameConfig, 3, 42);
+
+        SimulationReport report = runner.run(20);
+
+        assertThat(report.nbGames()).isEqualTo(20);
+        assertThat(report.team1Wins() + report.team2Wins()).isEqualTo(20);
+        assertThat(report.nbDeals()).isGreaterThanOrEqualTo(20);
+        assertThat(report.nbTricks()).isPositive();
+        assertThat(report.p99GameDurationNanos()).isGreaterThanOrEqualTo(report.p50GameDurationNanos());
+
+    }
+
+    @DisplayName("A seed reproduces the same games, whatever the parallelism")
+    @Test
+    void testReproducibleRun() {
+        SimulationReport report = new ContreeSimulationRunner(gameConfig, 1, 42).run(10);
+        SimulationReport parallelReport = new ContreeSimulationRunner(gameConfig, 4, 42).run(10);
+
+        assertThat(parallelReport.team1Wins()).isEqualTo(report.team1Wins());
+        assertThat(parallelReport.nbDeals()).isEqualTo(report.nbDeals());
+        assertThat(parallelReport.nbTricks()).isEqualTo(report.nbTricks());
+    }
+
+    @Test
+    void testRunNoGame() {
+        assertThat(new ContreeSimulationRunner(gameConfig, 2, 1).run(0).nbGames()).isZero();
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSimulationRunner(gameConfig, 0, 1));
+        var runner = new ContreeSimulationRunner(gameConfig, 1, 1);
+        assertThatIllegalArgumentException().isThrownBy(() -> runner.run(-1));
+    }
+
+}
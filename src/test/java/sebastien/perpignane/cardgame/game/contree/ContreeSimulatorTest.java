@@ -0,0 +1,147 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+import sebastien.perpignane.cardgame.player.contree.bot.BiddingBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ContreeSimulatorTest {
+
+    @DisplayName("Games are played until the end in the calling thread")
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testPlayGames() {
+
+        ContreeSimulator simulator = new ContreeSimulator(new ContreeGameConfig() {
+            @Override
+            public int getMaxScore() {
+                return 500;
+            }
+        });
+
+        for (int i = 0 ; i < 10 ; i++) {
+            SimulatedGameResult result = simulator.playGame();
+
+            int winnerScore = result.winner() == ContreeTeam.TEAM1 ? result.team1Score() : result.team2Score();
+            assertThat(winnerScore).isGreaterThanOrEqualTo(500);
+            assertThat(result.nbDeals()).isPositive();
+            assertThat(result.nbTricks()).isPositive().isLessThanOrEqualTo(result.nbDeals() * 8);
+            assertThat(result.nbTricks() % 8).isZero();
+            assertThat(result.durationNanos()).isPositive();
+        }
+
+    }
+
+    @DisplayName("Games are played in the calling thread, even when the mailbox execution mode is configured")
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testPlayGameIgnoresMailboxMode() {
+
+        ContreeSimulator simulator = new ContreeSimulator(new ContreeGameConfig() {
+            @Override
+            public int getMaxScore() {
+                return 500;
+            }
+
+            @Override
+            public ContreeGameExecutionMode getExecutionMode() {
+                return ContreeGameExecutionMode.MAILBOX;
+            }
+        });
+
+        assertThat(simulator.playGame().nbDeals()).isPositive();
+
+    }
+
+    @DisplayName("Strategies of all the seats are used")
+    @Test
+    void testStrategiesBySeat() {
+
+        Random random = new Random(42);
+
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() { },
+                List.of(new RandomCardBotStrategy(random), new BiddingBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random))
+        );
+
+        SimulatedGameResult result = simulator.playGame();
+
+        // As the second seat always bids 80, every deal is played
+        assertThat(result.nbTricks()).isEqualTo(result.nbDeals() * 8);
+
+    }
+
+    @DisplayName("A board is a single deal, played with the given hands")
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testPlayBoard() {
+
+        Random random = new Random(42);
+
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() { },
+                List.of(new BiddingBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random))
+        );
+
+        // The first seat bids 80 HEART with all the hearts: the team 1 wins all the tricks
+        SimulatedBoardResult result = simulator.playBoard(suitByPlayerHands());
+
+        assertThat(result.team1Score()).isPositive();
+        assertThat(result.team2Score()).isZero();
+        assertThat(result.netScore(ContreeTeam.TEAM1)).isEqualTo(result.team1Score());
+        assertThat(result.netScore(ContreeTeam.TEAM2)).isEqualTo(-result.team1Score());
+
+    }
+
+    @DisplayName("When all players pass, the board is over and no team scores")
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testPlayAllPassBoard() {
+
+        Random random = new Random(42);
+
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() { },
+                List.of(new RandomCardBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random), new RandomCardBotStrategy(random))
+        );
+
+        assertThat(simulator.playBoard(suitByPlayerHands())).isEqualTo(new SimulatedBoardResult(0, 0));
+
+    }
+
+    @Test
+    void testBoardHandsForAllSeatsAreRequired() {
+        ContreeSimulator simulator = new ContreeSimulator(new ContreeGameConfig() { });
+        assertThatIllegalArgumentException().isThrownBy(() -> simulator.playBoard(new long[3]));
+    }
+
+    private static long[] suitByPlayerHands() {
+        CardSuit[] suits = {CardSuit.HEARTS, CardSuit.SPADES, CardSuit.DIAMONDS, CardSuit.CLUBS};
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int slot = 0 ; slot < hands.length ; slot++) {
+            hands[slot] = CardMask.ofSuit(CardSet.GAME_32.getGameCardsMask(), suits[slot]);
+        }
+        return hands;
+    }
+
+    @Test
+    void testStrategiesForAllSeatsAreRequired() {
+        var strategies = List.<ContreeBotStrategy>of(new RandomCardBotStrategy(new Random(42)));
+        var gameConfig = new ContreeGameConfig() { };
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeSimulator(gameConfig, strategies));
+    }
+
+}
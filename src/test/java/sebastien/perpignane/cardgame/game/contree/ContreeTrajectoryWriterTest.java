@@ -0,0 +1,380 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+class ContreeTrajectoryWriterTest {
+
+    private static final int NB_SEATS = ContreePlayers.NB_PLAYERS;
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Every decision of a simulated game is read back with its observation, its allowed actions and the scores of its deal, across blocks and shards")
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testWriteAndRead(boolean compressed) throws IOException {
+        List<ContreeTrajectoryRecord> expectedDecisions = new ArrayList<>();
+        List<int[]> dealScores = new ArrayList<>();
+
+        long shardSize = 4L * ContreeTrajectoryFormat.RECORD_SIZE;
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory, shardSize, ContreeTrajectoryFormat.MAX_DECISIONS_BY_DEAL, compressed, 1)) {
+            playGame(writer, new Random(7), expectedDecisions, dealScores);
+            assertThat(writer.getNbRecords()).isEqualTo(expectedDecisions.size());
+        }
+
+        List<ContreeTrajectoryRecord> readDecisions = new ArrayList<>();
+        ContreeTrajectoryReader reader = ContreeTrajectoryReader.open(directory);
+        reader.forEach(readDecisions::add);
+
+        assertThat(reader.getShards()).hasSizeGreaterThan(1);
+        assertThat(readDecisions).hasSameSizeAs(expectedDecisions);
+        long dealId = -1;
+        int[] scores = null;
+        for (int i = 0 ; i < readDecisions.size() ; i++) {
+            ContreeTrajectoryRecord read = readDecisions.get(i);
+            ContreeTrajectoryRecord expected = expectedDecisions.get(i);
+            if (read.decision() == 0) {
+                dealId++;
+                scores = dealScores.get((int) dealId);
+            }
+            assertThat(read.dealId()).isEqualTo(dealId);
+            assertThat(read.playerSlot()).isEqualTo(expected.playerSlot());
+            assertThat(read.phase()).isEqualTo(expected.phase());
+            assertThat(read.legalActions()).isEqualTo(expected.legalActions());
+            assertThat(read.action()).isEqualTo(expected.action());
+            assertThat(read.decision()).isEqualTo(expected.decision());
+            assertThat(read.teamScore()).isEqualTo(scores[read.playerSlot() % 2]);
+            assertThat(read.opponentScore()).isEqualTo(scores[1 - read.playerSlot() % 2]);
+            assertThat(read.observation()).containsExactly(expected.observation());
+        }
+        assertThat(dealId + 1).isEqualTo(dealScores.size());
+    }
+
+    @DisplayName("Compressed shards are much smaller than the records")
+    @Test
+    void testCompression() throws IOException {
+        long nbRecords;
+        long nbWrittenBytes;
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory)) {
+            playGame(writer, new Random(3), new ArrayList<>(), new ArrayList<>());
+            writer.close();
+            nbRecords = writer.getNbRecords();
+            nbWrittenBytes = writer.getNbWrittenBytes();
+        }
+
+        assertThat(nbWrittenBytes).isLessThan(nbRecords * ContreeTrajectoryFormat.RECORD_SIZE / 5);
+        assertThat(Files.size(directory.resolve(ContreeTrajectoryFormat.shardFileName(0)))).isEqualTo(ContreeTrajectoryFormat.HEADER_SIZE + nbWrittenBytes);
+    }
+
+    @DisplayName("Games of many threads record their decisions at the same time, each deal being written as a whole")
+    @Test
+    void testConcurrentGames() throws Exception {
+        int nbThreads = 4;
+        List<Integer> nbDecisionsByThread = new ArrayList<>();
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory, 1L << 20, 256, true, 2)) {
+            ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+            List<Future<Integer>> games = new ArrayList<>();
+            for (int thread = 0 ; thread < nbThreads ; thread++) {
+                long seed = thread;
+                games.add(executor.submit(() -> {
+                    List<ContreeTrajectoryRecord> decisions = new ArrayList<>();
+                    playGame(writer, new Random(seed), decisions, new ArrayList<>());
+                    writer.releaseLocalRecorder();
+                    return decisions.size();
+                }));
+            }
+            for (Future<Integer> game : games) {
+                nbDecisionsByThread.add(game.get());
+            }
+            executor.shutdown();
+        }
+
+        List<ContreeTrajectoryRecord> readDecisions = new ArrayList<>();
+        ContreeTrajectoryReader.open(directory).forEach(readDecisions::add);
+
+        assertThat(readDecisions).hasSize(nbDecisionsByThread.stream().mapToInt(Integer::intValue).sum());
+        for (int i = 1 ; i < readDecisions.size() ; i++) {
+            ContreeTrajectoryRecord previous = readDecisions.get(i - 1);
+            ContreeTrajectoryRecord decision = readDecisions.get(i);
+            if (decision.decision() > 0) {
+                assertThat(decision.dealId()).isEqualTo(previous.dealId());
+                assertThat(decision.decision()).isEqualTo(previous.decision() + 1);
+            }
+        }
+        assertThat(readDecisions.stream().mapToLong(ContreeTrajectoryRecord::dealId).distinct().count())
+                .isEqualTo(readDecisions.stream().filter(d -> d.decision() == 0).count());
+    }
+
+    @DisplayName("A thread releasing its recorder hands its decisions over to the writers, and gets a new recorder if it records again")
+    @Test
+    void testReleaseLocalRecorder() throws Exception {
+        List<ContreeTrajectoryRecord> decisions = new ArrayList<>();
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory)) {
+            ContreeTrajectoryRecorder recorder = writer.localRecorder();
+            playGame(writer, new Random(4), decisions, new ArrayList<>());
+            writer.releaseLocalRecorder();
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> writer.getNbWrittenBytes() > 0);
+            assertThat(writer.localRecorder()).isNotSameAs(recorder);
+
+            Thread otherThread = Thread.ofPlatform().start(() -> {
+                playGame(writer, new Random(6), decisions, new ArrayList<>());
+                writer.releaseLocalRecorder();
+            });
+            otherThread.join();
+        }
+
+        List<ContreeTrajectoryRecord> readDecisions = new ArrayList<>();
+        ContreeTrajectoryReader.open(directory).forEach(readDecisions::add);
+        assertThat(readDecisions).hasSameSizeAs(decisions);
+    }
+
+    @DisplayName("The workers of a simulation runner release their recorders, so that all the decisions of their games are written")
+    @Test
+    void testSimulationRunner() throws IOException {
+        long nbRecords;
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory, 1L << 20, 256, true, 2)) {
+            new ContreeSimulationRunner(new ContreeGameConfig() {
+                @Override
+                public Optional<ContreeTrajectoryWriter> getTrajectoryWriter() {
+                    return Optional.of(writer);
+                }
+            }, 3, 42).run(20);
+            nbRecords = writer.getNbRecords();
+        }
+
+        List<ContreeTrajectoryRecord> readDecisions = new ArrayList<>();
+        ContreeTrajectoryReader.open(directory).forEach(readDecisions::add);
+        assertThat(nbRecords).isPositive();
+        assertThat(readDecisions).hasSize((int) nbRecords);
+    }
+
+    @DisplayName("A block failing to be written for any reason is given back to its recorder, and the failure is thrown when the writer is closed")
+    @Test
+    void testWriteFailure() throws Exception {
+        ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory, 1L << 20, ContreeTrajectoryFormat.MAX_DECISIONS_BY_DEAL, true, 1);
+        BlockingQueue<ByteBuffer> freeBlocks = new ArrayBlockingQueue<>(2);
+        // An incompressible block larger than the blocks of the writer does not fit in its output
+        byte[] randomBytes = new byte[2 * ContreeTrajectoryFormat.MAX_DECISIONS_BY_DEAL * ContreeTrajectoryFormat.RECORD_SIZE];
+        new Random(5).nextBytes(randomBytes);
+        ByteBuffer tooLargeBlock = ByteBuffer.allocateDirect(randomBytes.length).put(randomBytes);
+        ByteBuffer validBlock = ByteBuffer.allocateDirect(ContreeTrajectoryFormat.RECORD_SIZE);
+        validBlock.position(validBlock.capacity());
+
+        writer.submit(tooLargeBlock, freeBlocks);
+        writer.submit(validBlock, freeBlocks);
+
+        assertThat(freeBlocks.poll(5, TimeUnit.SECONDS)).isSameAs(tooLargeBlock);
+        assertThat(freeBlocks.poll(5, TimeUnit.SECONDS)).isSameAs(validBlock);
+        assertThat(writer.getNbDroppedRecords()).isEqualTo(2L * ContreeTrajectoryFormat.MAX_DECISIONS_BY_DEAL + 1);
+        assertThatThrownBy(writer::close).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @DisplayName("A new writer starts a new shard after the existing ones")
+    @Test
+    void testReopen() throws IOException {
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory)) {
+            playGame(writer, new Random(1), new ArrayList<>(), new ArrayList<>());
+        }
+        try (ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory)) {
+            playGame(writer, new Random(2), new ArrayList<>(), new ArrayList<>());
+        }
+
+        assertThat(ContreeTrajectoryReader.open(directory).getShards()).containsExactly(
+                directory.resolve(ContreeTrajectoryFormat.shardFileName(0)),
+                directory.resolve(ContreeTrajectoryFormat.shardFileName(1))
+        );
+    }
+
+    @DisplayName("Invalid writer parameters, closed writers and files which are not shards are rejected")
+    @Test
+    void testInvalidUses() throws IOException {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeTrajectoryWriter(directory, 1L << 20, ContreeTrajectoryFormat.MAX_DECISIONS_BY_DEAL - 1, true, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeTrajectoryWriter(directory, ContreeTrajectoryFormat.HEADER_SIZE, 256, true, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ContreeTrajectoryWriter(directory, 1L << 20, 256, true, 0));
+
+        ContreeTrajectoryWriter writer = new ContreeTrajectoryWriter(directory);
+        writer.close();
+        assertThatIllegalStateException().isThrownBy(writer::localRecorder);
+
+        Files.write(directory.resolve(ContreeTrajectoryFormat.shardFileName(0)), new byte[ContreeTrajectoryFormat.HEADER_SIZE]);
+        ContreeTrajectoryReader reader = ContreeTrajectoryReader.open(directory);
+        assertThatIOException().isThrownBy(() -> reader.forEach(record -> { }));
+    }
+
+    /**
+     * Plays a game recorded by the writer, and collects the expected decisions and the scores of each deal
+     */
+    private static void playGame(ContreeTrajectoryWriter writer, Random random, List<ContreeTrajectoryRecord> decisions, List<int[]> dealScores) {
+        DecisionCollector collector = new DecisionCollector(decisions, dealScores);
+        List<ContreeBotStrategy> strategies = new ArrayList<>();
+        for (int slot = 0 ; slot < NB_SEATS ; slot++) {
+            strategies.add(new CollectingStrategy(slot, new RandomCardBotStrategy(random), random, collector));
+        }
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() {
+                    @Override
+                    public int getMaxScore() {
+                        return 1000;
+                    }
+
+                    @Override
+                    public Optional<ContreeTrajectoryWriter> getTrajectoryWriter() {
+                        return Optional.of(writer);
+                    }
+                },
+                strategies
+        );
+        simulator.playGame();
+    }
+
+    /**
+     * Collects the decisions in the order they are taken, and the scores of each deal from the game score updates
+     */
+    private static class DecisionCollector implements ContreeGameEventListener {
+
+        private final ObservationEncoder encoder = new ObservationEncoder();
+
+        private final List<ContreeTrajectoryRecord> decisions;
+
+        private final List<int[]> dealScores;
+
+        private final int[] gameScores = new int[2];
+
+        private int nbDealDecisions;
+
+        private int dealStart;
+
+        DecisionCollector(List<ContreeTrajectoryRecord> decisions, List<int[]> dealScores) {
+            this.decisions = decisions;
+            this.dealScores = dealScores;
+        }
+
+        @Override
+        public void onEvent(ContreeGameEvent event) {
+            switch (event.type()) {
+                case DEAL_STARTED -> {
+                    if (nbDealDecisions > 0) {
+                        // All the players passed, the game score is not updated
+                        dealScores.add(new int[2]);
+                    }
+                    dealStart = decisions.size();
+                    nbDealDecisions = 0;
+                }
+                case GAME_SCORE_UPDATED -> {
+                    dealScores.add(new int[] {event.value() - gameScores[0], event.otherValue() - gameScores[1]});
+                    gameScores[0] = event.value();
+                    gameScores[1] = event.otherValue();
+                    nbDealDecisions = 0;
+                }
+                default -> {
+                    // Not subscribed
+                }
+            }
+        }
+
+        void collect(ContreeGame game, ContreePlayer player, int slot, int phase, long legalActions, int action) {
+            float[] observation = new float[ObservationEncoder.SIZE];
+            encoder.encode(game, player, observation, 0);
+            decisions.add(new ContreeTrajectoryRecord(-1, slot, phase, legalActions, action, decisions.size() - dealStart, 0, 0, observation));
+            nbDealDecisions++;
+        }
+
+    }
+
+    /**
+     * Bids at random, passing most of the time, and collects its decisions
+     */
+    private static class CollectingStrategy implements ContreeBotStrategy {
+
+        private final int slot;
+
+        private final ContreeBotStrategy cardStrategy;
+
+        private final Random random;
+
+        private final DecisionCollector collector;
+
+        private ContreeGame game;
+
+        CollectingStrategy(int slot, ContreeBotStrategy cardStrategy, Random random, DecisionCollector collector) {
+            this.slot = slot;
+            this.cardStrategy = cardStrategy;
+            this.random = random;
+            this.collector = collector;
+        }
+
+        @Override
+        public void onJoiningGame(ContreeGame game) {
+            this.game = game;
+            if (slot == 0) {
+                game.subscribe(collector, ContreeEventType.mask(ContreeEventType.DEAL_STARTED, ContreeEventType.GAME_SCORE_UPDATED));
+            }
+        }
+
+        @Override
+        public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+            long legalActions = 0;
+            for (ContreeBidValue value : allowedBidValues) {
+                if (value.isCardSuitRequired()) {
+                    for (int suit = 0 ; suit < CardSuit.NONE.ordinal() ; suit++) {
+                        legalActions |= 1L << VecContreeEnv.bidAction(value, CardSuit.values()[suit]);
+                    }
+                }
+                else {
+                    legalActions |= 1L << VecContreeEnv.bidAction(value, null);
+                }
+            }
+            ContreeBid bid;
+            if (random.nextInt(3) > 0 && allowedBidValues.contains(ContreeBidValue.PASS)) {
+                bid = new ContreeBid(player);
+            }
+            else {
+                List<ContreeBidValue> values = new ArrayList<>(allowedBidValues);
+                ContreeBidValue value = values.get(random.nextInt(values.size()));
+                bid = new ContreeBid(player, value, value.isCardSuitRequired() ? CardSuit.values()[random.nextInt(CardSuit.NONE.ordinal())] : null);
+            }
+            collector.collect(game, player, slot, VecContreeEnv.BID_PHASE, legalActions, VecContreeEnv.bidAction(bid.bidValue(), bid.cardSuit()));
+            return bid;
+        }
+
+        @Override
+        public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+            ClassicalCard card = cardStrategy.chooseCard(player, allowedCards);
+            collector.collect(game, player, slot, VecContreeEnv.PLAY_PHASE, CardMask.of(allowedCards), card.ordinal());
+            return card;
+        }
+
+    }
+
+}
@@ -29,9 +29,10 @@ class ContreeTrickLifeCycleTest extends TestCasesManagingPlayers {
 
         ContreeDeal deal = mock(ContreeDeal.class);
         when(deal.getTrumpSuit()).thenReturn(CardSuit.HEARTS);
+        when(deal.getEventSender()).thenReturn(mock(ContreeGameEventSender.class));
 
         PlayableCardsFilter filter = mock(PlayableCardsFilter.class);
-        when(filter.playableCards(any(), any())).thenReturn(CardSet.GAME_32.getGameCards());
+        when(filter.playableCardsMask(any(), any())).thenReturn(CardSet.GAME_32.getGameCardsMask());
 
         trickWithHeartTrump = new ContreeTrick(deal, "TEST", trickPlayers, filter);
     }
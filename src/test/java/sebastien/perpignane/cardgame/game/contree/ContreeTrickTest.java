@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalAnswers;
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSet;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
@@ -37,7 +38,7 @@ class ContreeTrickTest extends TestCasesManagingPlayers {
 
         playableCardsFilter = mock(PlayableCardsFilter.class);
 
-        when(playableCardsFilter.playableCards(any(), any())).thenReturn(CardSet.GAME_32.getGameCards());
+        when(playableCardsFilter.playableCardsMask(any(), any())).thenReturn(CardSet.GAME_32.getGameCardsMask());
 
         trickWithHeartAsTrump = new ContreeTrick(deal, "TEST", trickPlayers, playableCardsFilter);
     }
@@ -111,9 +112,11 @@ class ContreeTrickTest extends TestCasesManagingPlayers {
     @Test
     void testPlayNotAllowedCard() {
 
+        // playable cards are computed when the player turn starts
+        when(playableCardsFilter.playableCardsMask(any(), any())).thenReturn(CardMask.of(ClassicalCard.JACK_HEART));
+
         trickWithHeartAsTrump.startTrick();
 
-        when(playableCardsFilter.playableCards(any(), any())).thenReturn(Set.of(ClassicalCard.JACK_HEART));
         assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> trickWithHeartAsTrump.playerPlays(player1, ClassicalCard.SEVEN_CLUB));
 
     }
@@ -31,7 +31,7 @@ class ContreeTrickWinnerTest extends TestCasesManagingPlayers {
 
         PlayableCardsFilter playableCardsFilter = mock(PlayableCardsFilter.class);
 
-        when(playableCardsFilter.playableCards(any(), any())).thenReturn(CardSet.GAME_32.getGameCards());
+        when(playableCardsFilter.playableCardsMask(any(), any())).thenReturn(CardSet.GAME_32.getGameCardsMask());
 
         startedTrickWithClubAsTrump = new ContreeTrick(deal, "TEST", trickPlayers, playableCardsFilter);
         startedTrickWithClubAsTrump.startTrick();
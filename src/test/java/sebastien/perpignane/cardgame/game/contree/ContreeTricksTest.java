@@ -68,7 +68,7 @@ class ContreeTricksTest extends TestCasesManagingPlayers {
 
         // All cards are allowed, it simplifies tests
         PlayableCardsFilter playableCardsFilter = mock(PlayableCardsFilter.class);
-        when(playableCardsFilter.playableCards(any(), any())).thenReturn(CardSet.GAME_32.getGameCards());
+        when(playableCardsFilter.playableCardsMask(any(), any())).thenReturn(CardSet.GAME_32.getGameCardsMask());
 
         tricksWithHeartAsTrumpSuit = new ContreeTricks(playableCardsFilter, gameEventSender);
 
@@ -0,0 +1,122 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayerImpl;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+import sebastien.perpignane.cardgame.player.contree.handlers.BiddingBotEventHandler;
+import sebastien.perpignane.cardgame.player.contree.handlers.ContreeBotPlayerEventHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class DealOutcomeTest {
+
+    @DisplayName("The attack team which wins all the tricks makes a capot and reaches its contract")
+    @Test
+    void testCapotOfTheAttackTeam() {
+        DealOutcome outcome = DealOutcome.of(DealRecordSamples.suitByPlayerDeal(1, ContreeBidValue.CAPOT, CardSuit.SPADES, true));
+
+        assertThat(outcome).isEqualTo(new DealOutcome(ContreeBidValue.CAPOT, CardSuit.SPADES, true, false, ContreeTeam.TEAM2, 8, true, true));
+        assertThat(outcome.winnerTeam()).contains(ContreeTeam.TEAM2);
+    }
+
+    @DisplayName("The defense team which wins all the tricks makes a capot and the contract is not reached")
+    @Test
+    void testCapotOfTheDefenseTeam() {
+        DealOutcome outcome = DealOutcome.of(DealRecordSamples.suitByPlayerDeal(3, ContreeBidValue.HUNDRED, CardSuit.DIAMONDS, false));
+
+        assertThat(outcome).isEqualTo(new DealOutcome(ContreeBidValue.HUNDRED, CardSuit.DIAMONDS, false, false, ContreeTeam.TEAM2, 0, true, false));
+        assertThat(outcome.winnerTeam()).contains(ContreeTeam.TEAM1);
+    }
+
+    @DisplayName("The contract is the last valued bid, followed by a double and a redouble")
+    @Test
+    void testLongestDeal() {
+        DealRecord deal = DealRecordSamples.longestDeal(1);
+
+        DealOutcome outcome = DealOutcome.of(deal);
+
+        assertThat(outcome.contract()).isEqualTo(ContreeBidValue.CAPOT);
+        assertThat(outcome.trumpSuit()).isEqualTo(deal.bidSuit(DealRecord.MAX_BIDS - 7));
+        assertThat(outcome.doubled()).isTrue();
+        assertThat(outcome.redoubled()).isTrue();
+        assertThat(outcome.bidderTrumps()).isBetween(0, 8);
+    }
+
+    @Test
+    void testAllPassDeal() {
+        DealOutcome outcome = DealOutcome.of(DealRecordSamples.allPassDeal(1));
+
+        assertThat(outcome.contract()).isEqualTo(ContreeBidValue.PASS);
+        assertThat(outcome.trumpSuit()).isEqualTo(CardSuit.NONE);
+        assertThat(outcome.attackTeam()).isNull();
+        assertThat(outcome.winnerTeam()).isEmpty();
+    }
+
+    @DisplayName("The outcomes of the archived deals of a game are the capots and the scores of the game")
+    @Test
+    void testArchivedGame(@TempDir Path directory) throws IOException {
+        List<ContreeGameEvent> events = new ArrayList<>();
+        try (ContreeDealArchive archive = new ContreeDealArchive(directory)) {
+            ContreeGame game = ContreeGameBuilder.createGame(new ContreeGameConfig() {
+                @Override
+                public int getMaxScore() {
+                    return 1000;
+                }
+
+                @Override
+                public Optional<ContreeDealArchive> getDealArchive() {
+                    return Optional.of(archive);
+                }
+            });
+            game.subscribe(event -> {
+                synchronized (events) {
+                    events.add(event);
+                }
+            }, ContreeEventType.mask(ContreeEventType.DEAL_ENDED, ContreeEventType.GAME_SCORE_UPDATED, ContreeEventType.GAME_ENDED));
+            game.joinGame(new ContreePlayerImpl("Player 1", new BiddingBotEventHandler()));
+            game.joinGame(new ContreePlayerImpl("Player 2", new ContreeBotPlayerEventHandler()));
+            game.joinGame(new ContreePlayerImpl("Player 3", new ContreeBotPlayerEventHandler()));
+            game.joinGame(new ContreePlayerImpl("Player 4", new ContreeBotPlayerEventHandler()));
+            await().atMost(Duration.ofSeconds(10)).until(() -> {
+                synchronized (events) {
+                    return !events.isEmpty() && events.get(events.size() - 1).type() == ContreeEventType.GAME_ENDED;
+                }
+            });
+        }
+        List<DealOutcome> outcomes = new ArrayList<>();
+        ContreeDealArchiveReader.open(directory).forEach(deal -> outcomes.add(DealOutcome.of(deal)));
+
+        List<ContreeGameEvent> dealEndedEvents = events.stream().filter(event -> event.type() == ContreeEventType.DEAL_ENDED).toList();
+        assertThat(outcomes).hasSameSizeAs(dealEndedEvents);
+        int dealIndex = -1;
+        int[] scores = new int[ContreeTeam.values().length];
+        for (ContreeGameEvent event : events) {
+            if (event.type() == ContreeEventType.DEAL_ENDED) {
+                dealIndex++;
+                assertThat(outcomes.get(dealIndex).capot()).isEqualTo(event.otherValue() == 1);
+            }
+            else if (event.type() == ContreeEventType.GAME_SCORE_UPDATED) {
+                // The score of the attack team grows if and only if the contract is reached
+                DealOutcome outcome = outcomes.get(dealIndex);
+                int attackTeam = outcome.attackTeam().ordinal();
+                int attackScore = attackTeam == 0 ? event.value() : event.otherValue();
+                assertThat(attackScore > scores[attackTeam]).isEqualTo(outcome.contractReached());
+                scores[0] = event.value();
+                scores[1] = event.otherValue();
+            }
+        }
+        assertThat(outcomes).anyMatch(outcome -> outcome.contract() == ContreeBidValue.EIGHTY);
+    }
+
+}
@@ -0,0 +1,49 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static sebastien.perpignane.cardgame.game.contree.DealRecordCodec.*;
+
+class DealRecordCodecTest {
+
+    @DisplayName("A deal with the longest bid sequence and all its cards played fits in a record")
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 2, 3, 42})
+    void testLongestDeal(long seed) {
+        ByteBuffer buffer = ByteBuffer.allocate(3 * RECORD_SIZE).order(BYTE_ORDER);
+        DealRecord deal = DealRecordSamples.longestDeal(seed);
+
+        DealRecordCodec.encode(deal, buffer, RECORD_SIZE);
+
+        assertThat(DealRecordCodec.decode(buffer, RECORD_SIZE)).isEqualTo(deal);
+        assertThat(DealRecordCodec.isWritten(buffer, RECORD_SIZE)).isTrue();
+        assertThat(DealRecordCodec.isWritten(buffer, 0)).isFalse();
+        assertThat(DealRecordCodec.isWritten(buffer, 2 * RECORD_SIZE)).isFalse();
+    }
+
+    @Test
+    void testAllPassDeal() {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(BYTE_ORDER);
+        DealRecord deal = DealRecordSamples.allPassDeal(7);
+
+        DealRecordCodec.encode(deal, buffer, 0);
+
+        assertThat(DealRecordCodec.decode(buffer, 0)).isEqualTo(deal);
+    }
+
+    @DisplayName("A record which is not written cannot be decoded")
+    @Test
+    void testNotWritten() {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(BYTE_ORDER);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> DealRecordCodec.decode(buffer, 0));
+    }
+
+}
@@ -0,0 +1,115 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deal records with random distributions, for the tests of the deal archive
+ */
+class DealRecordSamples {
+
+    private DealRecordSamples() {
+    }
+
+    /**
+     * @return a deal with the longest bid sequence, a double and a redouble, whose 32 cards are played
+     */
+    static DealRecord longestDeal(long seed) {
+        List<ClassicalCard> cards = shuffledCards(seed);
+        List<Byte> bidValues = new ArrayList<>();
+        List<Byte> bidSuits = new ArrayList<>();
+        for (int i = 0 ; i < 3 ; i++) {
+            addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        }
+        CardSuit[] suits = {CardSuit.DIAMONDS, CardSuit.CLUBS, CardSuit.HEARTS, CardSuit.SPADES};
+        for (int value = ContreeBidValue.EIGHTY.ordinal() ; value <= ContreeBidValue.CAPOT.ordinal() ; value++) {
+            addBid(bidValues, bidSuits, ContreeBidValue.values()[value], suits[value % suits.length]);
+            addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+            addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        }
+        addBid(bidValues, bidSuits, ContreeBidValue.DOUBLE, null);
+        addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        addBid(bidValues, bidSuits, ContreeBidValue.REDOUBLE, null);
+        byte[] playedCards = new byte[cards.size()];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            playedCards[i] = (byte) cards.get(i).ordinal();
+        }
+        return new DealRecord(hands(cards), (int) (seed & 3), toArray(bidValues), toArray(bidSuits), playedCards);
+    }
+
+    /**
+     * @return a deal where the 4 players passed
+     */
+    static DealRecord allPassDeal(long seed) {
+        byte pass = (byte) ContreeBidValue.PASS.ordinal();
+        byte noSuit = (byte) ContreeGameEvent.NONE;
+        return new DealRecord(hands(shuffledCards(seed)), (int) (seed & 3), new byte[] {pass, pass, pass, pass}, new byte[] {noSuit, noSuit, noSuit, noSuit}, new byte[0]);
+    }
+
+    /**
+     * @return a deal where the players of the slots 0 to 3 are dealt the HEARTS, SPADES, DIAMONDS and CLUBS, and each trick is played in this order:
+     * the player dealt the trump suit, or the player of the slot 0 at no trump, wins all the tricks
+     */
+    static DealRecord suitByPlayerDeal(int bidderSlot, ContreeBidValue contract, CardSuit trumpSuit, boolean doubled) {
+        CardSuit[] suits = {CardSuit.HEARTS, CardSuit.SPADES, CardSuit.DIAMONDS, CardSuit.CLUBS};
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        List<List<ClassicalCard>> cardsBySlot = new ArrayList<>();
+        for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+            hands[slot] = CardMask.ofSuit(CardSet.GAME_32.getGameCardsMask(), suits[slot]);
+            cardsBySlot.add(CardMask.toList(hands[slot]));
+        }
+        byte[] playedCards = new byte[DealRecord.NB_CARDS];
+        for (int i = 0 ; i < playedCards.length ; i++) {
+            playedCards[i] = (byte) cardsBySlot.get(i % ContreePlayers.NB_PLAYERS).get(i / ContreePlayers.NB_PLAYERS).ordinal();
+        }
+        List<Byte> bidValues = new ArrayList<>();
+        List<Byte> bidSuits = new ArrayList<>();
+        for (int i = 0 ; i < bidderSlot ; i++) {
+            addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        }
+        addBid(bidValues, bidSuits, contract, trumpSuit);
+        if (doubled) {
+            addBid(bidValues, bidSuits, ContreeBidValue.DOUBLE, null);
+        }
+        for (int i = 0 ; i < 3 ; i++) {
+            addBid(bidValues, bidSuits, ContreeBidValue.PASS, null);
+        }
+        return new DealRecord(hands, 0, toArray(bidValues), toArray(bidSuits), playedCards);
+    }
+
+    static List<ClassicalCard> shuffledCards(long seed) {
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, new Random(seed));
+        return cards;
+    }
+
+    static long[] hands(List<ClassicalCard> cards) {
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+        }
+        return hands;
+    }
+
+    private static void addBid(List<Byte> bidValues, List<Byte> bidSuits, ContreeBidValue bidValue, CardSuit suit) {
+        bidValues.add((byte) bidValue.ordinal());
+        bidSuits.add((byte) (suit == null ? ContreeGameEvent.NONE : suit.ordinal()));
+    }
+
+    private static byte[] toArray(List<Byte> values) {
+        byte[] array = new byte[values.size()];
+        for (int i = 0 ; i < array.length ; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+}
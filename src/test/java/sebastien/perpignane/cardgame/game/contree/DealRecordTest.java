@@ -0,0 +1,80 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DealRecordTest {
+
+    @DisplayName("The bids and the played cards of a deal are read back, with their bidders and owners")
+    @Test
+    void testAccessors() {
+        List<ClassicalCard> cards = DealRecordSamples.shuffledCards(1);
+        DealRecord deal = DealRecordSamples.longestDeal(1);
+
+        assertThat(deal.nbBids()).isEqualTo(DealRecord.MAX_BIDS);
+        assertThat(deal.firstBidderSlot()).isEqualTo(1);
+        assertThat(deal.bidValue(0)).isEqualTo(ContreeBidValue.PASS);
+        assertThat(deal.bidSuit(0)).isNull();
+        assertThat(deal.bidValue(3)).isEqualTo(ContreeBidValue.EIGHTY);
+        assertThat(deal.bidSuit(3)).isEqualTo(CardSuit.CLUBS);
+        assertThat(deal.bidderSlot(0)).isEqualTo(1);
+        assertThat(deal.bidderSlot(3)).isZero();
+        assertThat(deal.bidValue(DealRecord.MAX_BIDS - 1)).isEqualTo(ContreeBidValue.REDOUBLE);
+        assertThat(deal.nbPlayedCards()).isEqualTo(DealRecord.NB_CARDS);
+        assertThat(deal.playedCard(5)).isEqualTo(cards.get(5));
+        assertThat(deal.ownerSlot(cards.get(5))).isEqualTo(1);
+        assertThat(deal.hand(1)).isEqualTo(DealRecordSamples.hands(cards)[1]);
+        assertThat(deal.toString()).contains("1:PASS", "0:EIGHTY CLUBS");
+    }
+
+    @Test
+    void testEquals() {
+        assertThat(DealRecordSamples.longestDeal(2))
+                .isEqualTo(DealRecordSamples.longestDeal(2))
+                .hasSameHashCodeAs(DealRecordSamples.longestDeal(2))
+                .isNotEqualTo(DealRecordSamples.longestDeal(3))
+                .isNotEqualTo(DealRecordSamples.allPassDeal(2));
+        byte pass = (byte) ContreeBidValue.PASS.ordinal();
+        byte[] noSuits = {ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE, ContreeGameEvent.NONE};
+        byte[] noneSuits = {4, 4, 4, 4};
+        long[] hands = DealRecordSamples.hands(DealRecordSamples.shuffledCards(4));
+        assertThat(new DealRecord(hands, 0, new byte[] {pass, pass, pass, pass}, noSuits, new byte[0]))
+                .isEqualTo(new DealRecord(hands, 0, new byte[] {pass, pass, pass, pass}, noneSuits, new byte[0]));
+    }
+
+    @DisplayName("A deal record is a distribution of the 32 cards, with valid bids and played cards")
+    @Test
+    void testInvalidDeals() {
+        long[] hands = DealRecordSamples.hands(DealRecordSamples.shuffledCards(5));
+        byte[] noBid = new byte[0];
+        byte eighty = (byte) ContreeBidValue.EIGHTY.ordinal();
+        ClassicalCard card = CardMask.first(hands[0]);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(new long[] {hands[0], hands[1], hands[2], 0}, 0, noBid, noBid, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(new long[] {hands[0], hands[0] | hands[1], hands[2], hands[3]}, 0, noBid, noBid, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(new long[] {hands[0], hands[1], hands[2]}, 0, noBid, noBid, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 4, noBid, noBid, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[] {eighty}, noBid, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[DealRecord.MAX_BIDS + 1], new byte[DealRecord.MAX_BIDS + 1], noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[] {13}, new byte[] {ContreeGameEvent.NONE}, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[] {eighty}, new byte[] {ContreeGameEvent.NONE}, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[] {eighty}, new byte[] {(byte) CardSuit.NONE.ordinal()}, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, new byte[] {0}, new byte[] {(byte) CardSuit.HEARTS.ordinal()}, noBid));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, noBid, noBid, new byte[] {(byte) card.ordinal(), (byte) card.ordinal()}));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, noBid, noBid, new byte[] {(byte) ClassicalCard.TWO_HEART.ordinal()}));
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, noBid, noBid, noBid).ownerSlot(ClassicalCard.TWO_HEART));
+        ClassicalCard otherCardOfSlot0 = CardMask.toList(hands[0]).get(1);
+        assertThatIllegalArgumentException().isThrownBy(() -> new DealRecord(hands, 0, noBid, noBid, new byte[] {(byte) card.ordinal(), (byte) otherCardOfSlot0.ordinal()}));
+        byte[] trickLedBySlot2 = {(byte) CardMask.first(hands[2]).ordinal(), (byte) CardMask.first(hands[3]).ordinal(), (byte) card.ordinal()};
+        assertThat(new DealRecord(hands, 0, noBid, noBid, trickLedBySlot2).nbPlayedCards()).isEqualTo(3);
+    }
+
+}
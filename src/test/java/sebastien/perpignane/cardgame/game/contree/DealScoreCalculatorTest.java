@@ -765,4 +765,34 @@ class DealScoreCalculatorTest extends TestCasesManagingPlayers {
     }
 
 
+    @DisplayName("Final scores computed from primitive values follow the rules of the deal scores")
+    @Test
+    void testComputeFinalScores() {
+
+        int[] finalScores = new int[4];
+
+        // Reached contract: card scores are rounded
+        DealScoreCalculator.computeFinalScores(0, 94, ContreeBidValue.NINETY, 1, -1, finalScores, 2);
+        assertThat(finalScores).containsExactly(0, 0, 90, 70);
+
+        // Failed contract: the defense team wins 160
+        DealScoreCalculator.computeFinalScores(1, 82, ContreeBidValue.NINETY, 1, -1, finalScores, 0);
+        assertThat(finalScores).startsWith(160, 0);
+
+        // Doubled contract: the winner team wins 160 times 2
+        DealScoreCalculator.computeFinalScores(0, 100, ContreeBidValue.HUNDRED, 2, -1, finalScores, 0);
+        assertThat(finalScores).startsWith(320, 0);
+
+        // Not announced capot made by the defense team, on a redoubled contract
+        DealScoreCalculator.computeFinalScores(0, 0, ContreeBidValue.EIGHTY, 4, 1, finalScores, 0);
+        assertThat(finalScores).startsWith(0, 1000);
+
+        // Announced capot, made or not
+        DealScoreCalculator.computeFinalScores(1, DealScoreCalculator.EXPECTED_CARD_SCORE_SUM, ContreeBidValue.CAPOT, 1, 1, finalScores, 0);
+        assertThat(finalScores).startsWith(0, 500);
+        DealScoreCalculator.computeFinalScores(1, 150, ContreeBidValue.CAPOT, 1, -1, finalScores, 0);
+        assertThat(finalScores).startsWith(500, 0);
+
+    }
+
 }
@@ -0,0 +1,37 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.GameStatus;
+import sebastien.perpignane.cardgame.game.Trick;
+import sebastien.perpignane.cardgame.game.war.WarGame;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EndOfGameObserverTest {
+
+    @Test
+    void testOnlyEndOfContreeGameIsObserved() {
+        List<ContreeGame> endedGames = new ArrayList<>();
+        EndOfGameObserver observer = new EndOfGameObserver(endedGames::add);
+        ContreeGame game = mock(ContreeGame.class);
+        ContreePlayer player = mock(ContreePlayer.class);
+
+        observer.onStateUpdated(GameStatus.WAITING_FOR_PLAYERS, GameStatus.STARTED);
+        observer.onJoinedGame(game, 0, player);
+        observer.onNextPlayer(player);
+        observer.onCardPlayed(player, ClassicalCard.ACE_SPADE);
+        observer.onWonTrick(mock(Trick.class));
+        observer.onEndOfGame(mock(WarGame.class));
+        assertThat(endedGames).isEmpty();
+
+        observer.onEndOfGame(game);
+        assertThat(endedGames).containsExactly(game);
+    }
+
+}
@@ -4,10 +4,13 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 import sebastien.perpignane.cardgame.player.util.GamePlayerSlots;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 @DisplayName("Tests for PlayerSlots")
 class GamePlayerSlotsTest extends TestCasesManagingPlayers {
@@ -83,4 +86,29 @@ class GamePlayerSlotsTest extends TestCasesManagingPlayers {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetSlotOfUnknownPlayer() {
+        assertThatIllegalArgumentException().isThrownBy(() -> emptySlots.getSlot(player1));
+        assertThat(emptySlots.contains(player1)).isFalse();
+        assertThat(fullSlots.contains(player1)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 4})
+    void testGetSlotWithInvalidSlotNumber(int slotNumber) {
+        assertThatIllegalArgumentException().isThrownBy(() -> emptySlots.getSlot(slotNumber));
+    }
+
+    @Test
+    void testFullAndEmpty() {
+        assertThat(emptySlots.size()).isEqualTo(4);
+        assertThat(emptySlots.isEmpty()).isTrue();
+        assertThat(emptySlots.isFull()).isFalse();
+        assertThat(emptySlots.isJoinable()).isTrue();
+
+        assertThat(fullSlots.isEmpty()).isFalse();
+        assertThat(fullSlots.isFull()).isTrue();
+        assertThat(fullSlots.getSlot(0).getPlayerOrNull()).isSameAs(player1);
+    }
+
+}
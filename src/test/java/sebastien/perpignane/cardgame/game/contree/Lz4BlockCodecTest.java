@@ -0,0 +1,109 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class Lz4BlockCodecTest {
+
+    private final Lz4BlockCodec codec = new Lz4BlockCodec();
+
+    @DisplayName("Random, repeated, sparse and tiny blocks are decompressed to their original bytes")
+    @Test
+    void testRoundTrips() {
+        Random random = new Random(17);
+
+        byte[] randomBytes = new byte[10_000];
+        random.nextBytes(randomBytes);
+        assertRoundTrip(randomBytes);
+
+        byte[] zeros = new byte[100_000];
+        assertThat(assertRoundTrip(zeros)).isLessThan(zeros.length / 100);
+
+        byte[] sparse = new byte[200_000];
+        for (int i = 0 ; i < 2_000 ; i++) {
+            sparse[random.nextInt(sparse.length)] = (byte) random.nextInt();
+        }
+        assertThat(assertRoundTrip(sparse)).isLessThan(sparse.length / 10);
+
+        byte[] repeated = new byte[70_000];
+        for (int i = 0 ; i < repeated.length ; i++) {
+            repeated[i] = (byte) (i % 251);
+        }
+        assertRoundTrip(repeated);
+
+        for (int length = 0 ; length < 40 ; length++) {
+            byte[] tiny = new byte[length];
+            random.nextBytes(tiny);
+            Arrays.fill(tiny, 0, length / 2, (byte) 7);
+            assertRoundTrip(tiny);
+        }
+    }
+
+    @DisplayName("A direct buffer is compressed in place, at an offset of the destination, into the same block as its bytes, whatever its byte order")
+    @Test
+    void testDirectBuffers() {
+        Random random = new Random(3);
+        byte[] bytes = new byte[50_000];
+        for (int i = 0 ; i < bytes.length ; i++) {
+            bytes[i] = (byte) (i % 64 < 48 ? i % 7 : random.nextInt());
+        }
+        byte[] expected = new byte[Lz4BlockCodec.maxCompressedLength(bytes.length)];
+        int expectedLength = codec.compress(bytes, bytes.length, expected);
+
+        for (ByteOrder order : List.of(ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN)) {
+            ByteBuffer src = ByteBuffer.allocateDirect(bytes.length).order(order).put(bytes);
+            ByteBuffer dst = ByteBuffer.allocateDirect(8 + Lz4BlockCodec.maxCompressedLength(bytes.length));
+
+            int length = codec.compress(src, bytes.length, dst, 8);
+
+            byte[] compressed = new byte[length];
+            dst.get(8, compressed);
+            byte[] decompressed = new byte[bytes.length];
+            Lz4BlockCodec.decompress(compressed, 0, length, decompressed, bytes.length);
+            assertThat(decompressed).isEqualTo(bytes);
+            assertThat(length).isLessThan(bytes.length / 2);
+            if (order == ByteOrder.LITTLE_ENDIAN) {
+                assertThat(compressed).isEqualTo(Arrays.copyOf(expected, expectedLength));
+            }
+        }
+    }
+
+    @DisplayName("Truncated blocks, references before the start and wrong lengths are rejected")
+    @Test
+    void testCorruptedBlocks() {
+        byte[] sparse = new byte[1_000];
+        sparse[500] = 1;
+        byte[] compressed = new byte[Lz4BlockCodec.maxCompressedLength(sparse.length)];
+        int length = codec.compress(sparse, sparse.length, compressed);
+        byte[] decompressed = new byte[sparse.length];
+
+        assertThatIllegalArgumentException().isThrownBy(() -> Lz4BlockCodec.decompress(compressed, 0, length - 1, decompressed, sparse.length));
+        assertThatIllegalArgumentException().isThrownBy(() -> Lz4BlockCodec.decompress(compressed, 0, length, decompressed, sparse.length - 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> Lz4BlockCodec.decompress(compressed, 0, length, new byte[sparse.length + 1], sparse.length + 1));
+        // One literal, then a match 2 bytes back
+        byte[] badOffset = {0x10, 0, 2, 0, 0x00};
+        assertThatIllegalArgumentException().isThrownBy(() -> Lz4BlockCodec.decompress(badOffset, 0, badOffset.length, new byte[100], 100));
+    }
+
+    /**
+     * @return the compressed length
+     */
+    private int assertRoundTrip(byte[] bytes) {
+        byte[] compressed = new byte[Lz4BlockCodec.maxCompressedLength(bytes.length)];
+        int compressedLength = codec.compress(bytes, bytes.length, compressed);
+        byte[] decompressed = new byte[bytes.length];
+        Lz4BlockCodec.decompress(compressed, 0, compressedLength, decompressed, bytes.length);
+        assertThat(decompressed).isEqualTo(bytes);
+        return compressedLength;
+    }
+
+}
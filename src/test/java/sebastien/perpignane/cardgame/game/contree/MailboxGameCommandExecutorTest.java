@@ -0,0 +1,168 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class MailboxGameCommandExecutorTest {
+
+    /**
+     * Scheduler running the submitted drains only when asked
+     */
+    private final Queue<Runnable> scheduledDrains = new ArrayDeque<>();
+
+    private final MailboxGameCommandExecutor executor = new MailboxGameCommandExecutor(scheduledDrains::add);
+
+    @DisplayName("Commands are run by the scheduler, in the order they are posted, with only one drain scheduled at a time")
+    @Test
+    void testCommandsRunInOrder() {
+        List<Integer> runCommands = new ArrayList<>();
+
+        executor.execute(() -> runCommands.add(1));
+        executor.execute(() -> runCommands.add(2));
+        executor.execute(() -> runCommands.add(3));
+
+        assertThat(runCommands).isEmpty();
+        assertThat(scheduledDrains).hasSize(1);
+
+        scheduledDrains.poll().run();
+
+        assertThat(runCommands).containsExactly(1, 2, 3);
+        assertThat(scheduledDrains).isEmpty();
+    }
+
+    @DisplayName("A command posted by a running command runs after it, in the same drain")
+    @Test
+    void testCommandPostedByCommand() {
+        List<String> runCommands = new ArrayList<>();
+
+        executor.execute(() -> {
+            executor.execute(() -> runCommands.add("posted"));
+            runCommands.add("poster");
+        });
+        scheduledDrains.poll().run();
+
+        assertThat(runCommands).containsExactly("poster", "posted");
+        assertThat(scheduledDrains).isEmpty();
+    }
+
+    @DisplayName("A failing command does not prevent the next ones from running")
+    @Test
+    void testFailingCommand() {
+        List<Integer> runCommands = new ArrayList<>();
+
+        executor.execute(() -> { throw new IllegalStateException("Invalid command"); });
+        executor.execute(() -> runCommands.add(2));
+        scheduledDrains.poll().run();
+
+        assertThat(runCommands).containsExactly(2);
+    }
+
+    @DisplayName("The failure of a command is given to the handler posted with it, and the next commands still run")
+    @Test
+    void testFailingCommandHandler() {
+        List<Integer> runCommands = new ArrayList<>();
+        List<RuntimeException> failures = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("Invalid command");
+
+        executor.execute(() -> { throw failure; }, failures::add);
+        executor.execute(() -> runCommands.add(2), failures::add);
+
+        assertThat(failures).isEmpty();
+        scheduledDrains.poll().run();
+
+        assertThat(failures).containsExactly(failure);
+        assertThat(runCommands).containsExactly(2);
+    }
+
+    @DisplayName("A drain gives the scheduler thread back after a batch of commands, and the game is scheduled again")
+    @Test
+    void testDrainIsBounded() {
+        AtomicInteger nbRunCommands = new AtomicInteger();
+        int nbCommands = MailboxGameCommandExecutor.MAX_COMMANDS_PER_DRAIN + 1;
+        for (int i = 0; i < nbCommands; i++) {
+            executor.execute(nbRunCommands::incrementAndGet);
+        }
+
+        scheduledDrains.poll().run();
+        assertThat(nbRunCommands).hasValue(MailboxGameCommandExecutor.MAX_COMMANDS_PER_DRAIN);
+        assertThat(scheduledDrains).hasSize(1);
+
+        scheduledDrains.poll().run();
+        assertThat(nbRunCommands).hasValue(nbCommands);
+        assertThat(scheduledDrains).isEmpty();
+    }
+
+    @DisplayName("When the scheduler rejects the drain, the error is thrown to the caller and the game can be scheduled later")
+    @Test
+    void testRejectedDrain() {
+        AtomicInteger nbSubmittedDrains = new AtomicInteger();
+        MailboxGameCommandExecutor rejectingExecutor = new MailboxGameCommandExecutor(drain -> {
+            if (nbSubmittedDrains.getAndIncrement() == 0) {
+                throw new RejectedExecutionException("Shutdown");
+            }
+            drain.run();
+        });
+        List<Integer> runCommands = new ArrayList<>();
+
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> rejectingExecutor.execute(() -> runCommands.add(1)));
+        rejectingExecutor.execute(() -> runCommands.add(2));
+
+        assertThat(runCommands).containsExactly(1, 2);
+    }
+
+    @DisplayName("Commands posted concurrently by many threads are all run, one at a time")
+    @Test
+    void testConcurrentPosters() throws InterruptedException {
+        int nbPosters = 4;
+        int nbCommandsByPoster = 10_000;
+
+        ExecutorService scheduler = Executors.newFixedThreadPool(2);
+        ExecutorService posters = Executors.newFixedThreadPool(nbPosters);
+        try {
+            MailboxGameCommandExecutor concurrentExecutor = new MailboxGameCommandExecutor(scheduler);
+            AtomicInteger nbRunningCommands = new AtomicInteger();
+            AtomicInteger maxRunningCommands = new AtomicInteger();
+            int[] nbRunCommands = new int[1];
+
+            for (int p = 0; p < nbPosters; p++) {
+                posters.execute(() -> {
+                    for (int i = 0; i < nbCommandsByPoster; i++) {
+                        concurrentExecutor.execute(() -> {
+                            maxRunningCommands.accumulateAndGet(nbRunningCommands.incrementAndGet(), Math::max);
+                            // Not thread safe on purpose: commands are serialized by the mailbox
+                            nbRunCommands[0]++;
+                            nbRunningCommands.decrementAndGet();
+                        });
+                    }
+                });
+            }
+            posters.shutdown();
+            assertThat(posters.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            CountDownLatch lastCommandRun = new CountDownLatch(1);
+            concurrentExecutor.execute(lastCommandRun::countDown);
+            assertThat(lastCommandRun.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(nbRunCommands[0]).isEqualTo(nbPosters * nbCommandsByPoster);
+            assertThat(maxRunningCommands).hasValue(1);
+        }
+        finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+}
@@ -27,6 +27,12 @@ class MockTrickBuilder {
     }
 
     public MockTrickBuilder withPlayedCards(List<ContreePlayedCard> playedCards) {
+        int[] playedCardsOrdinals = new int[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < playedCards.size() ; i++) {
+            playedCardsOrdinals[i] = playedCards.get(i).card().getCard().ordinal();
+        }
+        when(trick.getPlayedCardsOrdinals()).thenReturn(playedCardsOrdinals);
+        when(trick.getNbPlayedCards()).thenReturn(playedCards.size());
         when(trick.getPlayedCards()).thenReturn(playedCards); return this;
     }
 
@@ -0,0 +1,303 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+class ObservationEncoderTest {
+
+    private static final int NB_SEATS = ContreePlayers.NB_PLAYERS;
+
+    private static final int MAX_SCORE = 1000;
+
+    @DisplayName("The card indexes are the positions of the cards in the game cards")
+    @Test
+    void testCardIndex() {
+        List<ClassicalCard> gameCards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+
+        for (ClassicalCard card : gameCards) {
+            assertThat(ObservationEncoder.cardIndex(card)).isEqualTo(gameCards.indexOf(card));
+        }
+        assertThat(ObservationEncoder.NB_CARDS).isEqualTo(gameCards.size());
+        assertThatIllegalArgumentException().isThrownBy(() -> ObservationEncoder.cardIndex(ClassicalCard.TWO_HEART));
+    }
+
+    @DisplayName("The blocks of the layout follow each other, up to the size of an observation")
+    @Test
+    void testLayout() {
+        assertThat(ObservationEncoder.PLAYED_CARDS_OFFSET).isEqualTo(ObservationEncoder.NB_CARDS);
+        assertThat(ObservationEncoder.TRICK_CARDS_OFFSET).isEqualTo(ObservationEncoder.PLAYED_CARDS_OFFSET + NB_SEATS * ObservationEncoder.NB_CARDS);
+        assertThat(ObservationEncoder.BIDS_OFFSET).isEqualTo(ObservationEncoder.TRICK_LEADER_OFFSET + NB_SEATS);
+        assertThat(ObservationEncoder.CONTRACT_SUIT_OFFSET).isEqualTo(ObservationEncoder.CONTRACT_VALUE_OFFSET + 10);
+        assertThat(ObservationEncoder.SIZE).isEqualTo(488);
+    }
+
+    @DisplayName("At each decision of a random game, the observation of the deciding player is rebuilt from the event stream")
+    @Test
+    void testEncodedGame() {
+        ObservationChecker checker = new ObservationChecker();
+        Random random = new Random(11);
+        List<ContreeBotStrategy> strategies = new ArrayList<>();
+        for (int slot = 0 ; slot < NB_SEATS ; slot++) {
+            strategies.add(new EncodingStrategy(slot, new RandomCardBotStrategy(random), random, checker));
+        }
+        ContreeSimulator simulator = new ContreeSimulator(
+                new ContreeGameConfig() {
+                    @Override
+                    public int getMaxScore() {
+                        return MAX_SCORE;
+                    }
+                },
+                strategies
+        );
+
+        SimulatedGameResult result = simulator.playGame();
+
+        assertThat(checker.nbCheckedCards).isEqualTo(result.nbTricks() * NB_SEATS);
+        assertThat(checker.nbCheckedBids).isPositive();
+        assertThat(checker.nbDoubledDecisions).isPositive();
+    }
+
+    @DisplayName("Invalid offsets, players not in the game and games without deal are rejected")
+    @Test
+    void testInvalidEncodings() {
+        ObservationEncoder encoder = new ObservationEncoder();
+        ContreeGame game = ContreeGameBuilder.createGame(new ContreeGameConfig() { }, new LockGameCommandExecutor(), new ContreeGameConfig() { }.createCardSetShuffler());
+        ContreePlayer player = mock(ContreePlayer.class);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode(game, player, new float[ObservationEncoder.SIZE], -1));
+        assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode(game, player, new float[ObservationEncoder.SIZE], 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> encoder.encode(game, player, new float[ObservationEncoder.SIZE], 0));
+
+        game.joinGame(player);
+        assertThatIllegalStateException().isThrownBy(() -> encoder.encode(game, player, new float[ObservationEncoder.SIZE], 0));
+    }
+
+    /**
+     * Rebuilds what each player knows from the events, and checks the observations against it
+     */
+    private static class ObservationChecker implements ContreeGameEventListener {
+
+        private static final long EVENT_TYPES = ContreeEventType.mask(
+                ContreeEventType.DEAL_STARTED,
+                ContreeEventType.HAND_DEALT,
+                ContreeEventType.BID_PLACED,
+                ContreeEventType.PLAY_STEP_STARTED,
+                ContreeEventType.CARD_PLAYED,
+                ContreeEventType.TRICK_ENDED,
+                ContreeEventType.GAME_SCORE_UPDATED
+        );
+
+        private final ObservationEncoder encoder = new ObservationEncoder();
+
+        private final long[] hands = new long[NB_SEATS];
+
+        private final long[] playedCards = new long[NB_SEATS];
+
+        private final long[] trickCards = new long[NB_SEATS];
+
+        private final List<int[]> bids = new ArrayList<>();
+
+        private final int[] scores = new int[2];
+
+        private boolean playStep;
+
+        private int leaderSlot;
+
+        private int nbCheckedCards;
+
+        private int nbCheckedBids;
+
+        private int nbDoubledDecisions;
+
+        @Override
+        public void onEvent(ContreeGameEvent event) {
+            switch (event.type()) {
+                case DEAL_STARTED -> {
+                    Arrays.fill(playedCards, CardMask.EMPTY);
+                    Arrays.fill(trickCards, CardMask.EMPTY);
+                    bids.clear();
+                    playStep = false;
+                }
+                case HAND_DEALT -> hands[event.playerSlot()] = ((long) event.otherValue() << Integer.SIZE) | (event.value() & 0xFFFFFFFFL);
+                case BID_PLACED -> bids.add(new int[] {
+                        event.playerSlot(),
+                        VecContreeEnv.bidAction(ContreeBidValue.values()[event.value()], event.suit() < 0 ? null : CardSuit.values()[event.suit()])
+                });
+                case PLAY_STEP_STARTED -> {
+                    playStep = true;
+                    leaderSlot = bids.get(0)[0];
+                }
+                case CARD_PLAYED -> {
+                    hands[event.playerSlot()] &= ~(1L << event.card());
+                    playedCards[event.playerSlot()] |= 1L << event.card();
+                    trickCards[event.playerSlot()] |= 1L << event.card();
+                }
+                case TRICK_ENDED -> {
+                    leaderSlot = event.playerSlot();
+                    Arrays.fill(trickCards, CardMask.EMPTY);
+                }
+                case GAME_SCORE_UPDATED -> {
+                    scores[0] = event.value();
+                    scores[1] = event.otherValue();
+                }
+                default -> {
+                    // Not subscribed
+                }
+            }
+        }
+
+        void check(ContreeGame game, ContreePlayer player, int slot) {
+            float[] observation = new float[ObservationEncoder.SIZE + 3];
+            Arrays.fill(observation, -1f);
+            encoder.encode(game, player, observation, 3);
+
+            assertThat(Arrays.copyOf(observation, 3)).containsOnly(-1f);
+            float[] expected = expectedObservation(slot);
+            assertThat(Arrays.copyOfRange(observation, 3, observation.length)).containsExactly(expected);
+
+            FloatBuffer buffer = FloatBuffer.allocate(ObservationEncoder.SIZE + 1);
+            buffer.put(0f);
+            encoder.encode(game, player, buffer);
+            assertThat(buffer.position()).isEqualTo(ObservationEncoder.SIZE + 1);
+            assertThat(Arrays.copyOfRange(buffer.array(), 1, buffer.capacity())).containsExactly(expected);
+
+            if (playStep) {
+                nbCheckedCards++;
+            }
+            else {
+                nbCheckedBids++;
+            }
+            if (expected[ObservationEncoder.DOUBLE_OFFSET] == 1f) {
+                nbDoubledDecisions++;
+            }
+        }
+
+        private float[] expectedObservation(int slot) {
+            float[] expected = new float[ObservationEncoder.SIZE];
+
+            setCards(expected, ObservationEncoder.HAND_OFFSET, hands[slot]);
+            int[] contract = null;
+            int nbDoubles = 0;
+            for (int[] bid : bids) {
+                int seat = seat(slot, bid[0]);
+                expected[ObservationEncoder.BIDS_OFFSET + seat * VecContreeEnv.NB_BID_ACTIONS + bid[1]] = 1f;
+                if (bid[1] == VecContreeEnv.DOUBLE_ACTION || bid[1] == VecContreeEnv.REDOUBLE_ACTION) {
+                    nbDoubles++;
+                }
+                else if (bid[1] != VecContreeEnv.PASS_ACTION) {
+                    contract = bid;
+                }
+            }
+            if (contract != null) {
+                ContreeBidValue value = VecContreeEnv.bidValue(contract[1]);
+                expected[ObservationEncoder.CONTRACT_VALUE_OFFSET + value.ordinal() - ContreeBidValue.EIGHTY.ordinal()] = 1f;
+                expected[ObservationEncoder.CONTRACT_SUIT_OFFSET + VecContreeEnv.bidSuit(contract[1]).ordinal()] = 1f;
+                expected[ObservationEncoder.CONTRACT_SEAT_OFFSET + seat(slot, contract[0])] = 1f;
+            }
+            for (int i = 0 ; i < nbDoubles ; i++) {
+                expected[ObservationEncoder.DOUBLE_OFFSET + i] = 1f;
+            }
+
+            if (playStep) {
+                expected[ObservationEncoder.PHASE_OFFSET + 1] = 1f;
+                for (int s = 0 ; s < NB_SEATS ; s++) {
+                    setCards(expected, ObservationEncoder.PLAYED_CARDS_OFFSET + seat(slot, s) * ObservationEncoder.NB_CARDS, playedCards[s]);
+                    setCards(expected, ObservationEncoder.TRICK_CARDS_OFFSET + seat(slot, s) * ObservationEncoder.NB_CARDS, trickCards[s]);
+                }
+                expected[ObservationEncoder.TRICK_LEADER_OFFSET + seat(slot, leaderSlot)] = 1f;
+            }
+            else {
+                expected[ObservationEncoder.PHASE_OFFSET] = 1f;
+            }
+
+            expected[ObservationEncoder.SCORE_OFFSET] = scores[slot % 2] / (float) MAX_SCORE;
+            expected[ObservationEncoder.SCORE_OFFSET + 1] = scores[1 - slot % 2] / (float) MAX_SCORE;
+            return expected;
+        }
+
+        private static void setCards(float[] observation, int blockOffset, long cards) {
+            for (long m = cards ; m != CardMask.EMPTY ; m = CardMask.removeFirst(m)) {
+                observation[blockOffset + ObservationEncoder.cardIndex(CardMask.first(m))] = 1f;
+            }
+        }
+
+        private static int seat(int playerSlot, int slot) {
+            return (slot - playerSlot + NB_SEATS) % NB_SEATS;
+        }
+
+    }
+
+    /**
+     * Bids at random, passing most of the time but always doubling the contracts of the other team, and checks the observation of its player before each decision
+     */
+    private static class EncodingStrategy implements ContreeBotStrategy {
+
+        private final int slot;
+
+        private final ContreeBotStrategy cardStrategy;
+
+        private final Random random;
+
+        private final ObservationChecker checker;
+
+        private ContreeGame game;
+
+        EncodingStrategy(int slot, ContreeBotStrategy cardStrategy, Random random, ObservationChecker checker) {
+            this.slot = slot;
+            this.cardStrategy = cardStrategy;
+            this.random = random;
+            this.checker = checker;
+        }
+
+        @Override
+        public void onJoiningGame(ContreeGame game) {
+            this.game = game;
+            if (slot == 0) {
+                game.subscribe(checker, ObservationChecker.EVENT_TYPES);
+            }
+        }
+
+        @Override
+        public ContreeBid chooseBid(ContreePlayer player, Collection<ContreeBidValue> allowedBidValues) {
+            checker.check(game, player, slot);
+            // Doubles whenever it can, so that the doubled contracts are checked whatever the random bids
+            if (allowedBidValues.contains(ContreeBidValue.DOUBLE)) {
+                return new ContreeBid(player, ContreeBidValue.DOUBLE);
+            }
+            List<ContreeBidValue> values = new ArrayList<>(allowedBidValues);
+            if (random.nextInt(3) > 0 && values.contains(ContreeBidValue.PASS)) {
+                return new ContreeBid(player);
+            }
+            ContreeBidValue value = values.get(random.nextInt(values.size()));
+            CardSuit suit = value.isCardSuitRequired() ? CardSuit.values()[random.nextInt(CardSuit.NONE.ordinal())] : null;
+            return new ContreeBid(player, value, suit);
+        }
+
+        @Override
+        public ClassicalCard chooseCard(ContreePlayer player, Collection<ClassicalCard> allowedCards) {
+            checker.check(game, player, slot);
+            return cardStrategy.chooseCard(player, allowedCards);
+        }
+
+    }
+
+}
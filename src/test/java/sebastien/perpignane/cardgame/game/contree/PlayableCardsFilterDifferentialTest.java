@@ -0,0 +1,147 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.contree.ContreeCard;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Plays random deals and checks, at every turn, that the card mask based {@link PlayableCardsFilter}
+ * gives exactly the same result as {@link ReferencePlayableCardsFilter}.
+ */
+class PlayableCardsFilterDifferentialTest extends TestCasesManagingPlayers {
+
+    private static final int NB_DEALS_PER_SEED = 20;
+
+    private static final CardSuit[] TRUMP_SUITS = {CardSuit.DIAMONDS, CardSuit.CLUBS, CardSuit.HEARTS, CardSuit.SPADES};
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    private final ReferencePlayableCardsFilter referenceFilter = new ReferencePlayableCardsFilter();
+
+    private static ContreeDeal deal;
+
+    @BeforeAll
+    static void globalSetUp() {
+        initPlayers();
+        deal = MockDealBuilder.builder().withMockedGameEventSender().build();
+    }
+
+    @DisplayName("Playable cards are the same as the reference implementation on random deals")
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 2023L, 123456789L})
+    void testRandomDeals(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0 ; i < NB_DEALS_PER_SEED ; i++) {
+            playRandomDeal(random);
+        }
+    }
+
+    private void playRandomDeal(Random random) {
+
+        List<ClassicalCard> cards = new ArrayList<>(CardSet.GAME_32.getGameCards());
+        Collections.shuffle(cards, random);
+
+        long[] hands = new long[ContreePlayers.NB_PLAYERS];
+        for (int i = 0 ; i < cards.size() ; i++) {
+            hands[i % ContreePlayers.NB_PLAYERS] = CardMask.with(hands[i % ContreePlayers.NB_PLAYERS], cards.get(i));
+        }
+
+        CardSuit trumpSuit = TRUMP_SUITS[random.nextInt(TRUMP_SUITS.length)];
+
+        int leader = random.nextInt(ContreePlayers.NB_PLAYERS);
+        for (int trick = 0 ; trick < ContreeTricks.NB_TRICKS_PER_DEAL ; trick++) {
+
+            int[] playedCardsOrdinals = new int[ContreePlayers.NB_PLAYERS];
+            List<ContreePlayedCard> playedCards = new ArrayList<>();
+
+            for (int n = 0 ; n < ContreePlayers.NB_PLAYERS ; n++) {
+                int seat = (leader + n) % ContreePlayers.NB_PLAYERS;
+                ContreePlayer player = players.get(seat);
+
+                long playableCards = playableCardsFilter.playableCards(hands[seat], trumpSuit, playedCardsOrdinals, n);
+
+                assertThat(CardMask.toSet(playableCards))
+                        .isEqualTo(referencePlayableCards(trumpSuit, playedCards, player, hands[seat]));
+
+                ClassicalCard playedCard = CardMask.toList(playableCards).get(random.nextInt(CardMask.size(playableCards)));
+                playedCardsOrdinals[n] = playedCard.ordinal();
+                playedCards.add(new ContreePlayedCard(player, ContreeCard.of(playedCard, trumpSuit)));
+                hands[seat] = CardMask.without(hands[seat], playedCard);
+            }
+
+            leader = players.indexOf(winningPlayer(playedCards));
+        }
+    }
+
+    private Set<ClassicalCard> referencePlayableCards(CardSuit trumpSuit, List<ContreePlayedCard> playedCards, ContreePlayer player, long hand) {
+
+        when(player.getHand()).thenReturn(CardMask.toSet(hand));
+        when(player.getHandMask()).thenReturn(hand);
+
+        return referenceFilter.playableCards(new ReferenceInputTrick(trumpSuit, playedCards), player);
+    }
+
+    private ContreePlayer winningPlayer(List<ContreePlayedCard> playedCards) {
+        CardSuit wantedSuit = playedCards.get(0).card().getSuit();
+        return playedCards.stream()
+                .filter(pc -> pc.card().getSuit() == wantedSuit || pc.card().isTrump())
+                .max(Comparator.comparingInt(a -> a.card().getGameValue()))
+                .orElseThrow()
+                .player();
+    }
+
+    /**
+     * Trick exposing what the reference filter needs. Much cheaper than a mock, as thousands of them are built.
+     */
+    private class ReferenceInputTrick extends ContreeTrick {
+
+        private final CardSuit trumpSuit;
+
+        private final List<ContreePlayedCard> playedCards;
+
+        ReferenceInputTrick(CardSuit trumpSuit, List<ContreePlayedCard> playedCards) {
+            super(deal, "REFERENCE", null, null);
+            this.trumpSuit = trumpSuit;
+            this.playedCards = playedCards;
+        }
+
+        @Override
+        public CardSuit getTrumpSuit() {
+            return trumpSuit;
+        }
+
+        @Override
+        public List<ContreePlayedCard> getPlayedCards() {
+            return playedCards;
+        }
+
+        @Override
+        boolean isTrumpTrick() {
+            return playedCards.get(0).card().isTrump();
+        }
+
+        @Override
+        ContreePlayer winningPlayer() {
+            return playedCards.isEmpty() ? null : PlayableCardsFilterDifferentialTest.this.winningPlayer(playedCards);
+        }
+
+        @Override
+        public Collection<ContreeCard> getPlayerHand(ContreePlayer player) {
+            return ContreeCard.of(trumpSuit, new HashSet<>(player.getHand()));
+        }
+
+    }
+
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.card.contree.ContreeCard;
@@ -50,6 +51,7 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
     private Collection<ClassicalCard> buildMocksAndRunTestOnTestedPlayer() {
 
         when(testedPlayer.getHand()).thenReturn(testedPlayerHand);
+        when(testedPlayer.getHandMask()).thenReturn(CardMask.of(testedPlayerHand));
 
         ContreeTrick trick = MockTrickBuilder.builder()
                 .withTrumpSuit(trickTrumpSuit)
@@ -59,9 +61,12 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
                 .withPlayerHand(testedPlayer, trickTrumpSuit)
                 .build();
 
+        var playableCards = playableCardsFilter.playableCards(trick, testedPlayer);
 
+        // differential check against the implementation not based on card masks
+        assertThat(playableCards).isEqualTo(new ReferencePlayableCardsFilter().playableCards(trick, testedPlayer));
 
-        return playableCardsFilter.playableCards(trick, testedPlayer);
+        return playableCards;
     }
 
     @Test
@@ -89,7 +94,7 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
 
         ContreePlayer opponent = player1;
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.JACK_CLUB, trickTrumpSuit))
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.JACK_CLUB, trickTrumpSuit))
         );
 
         testedPlayer = player2;
@@ -114,7 +119,7 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         testedPlayerHand = Set.of(ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_CLUB, ClassicalCard.ACE_SPADE);
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit))
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit))
         );
 
         var playableCards = buildMocksAndRunTestOnTestedPlayer();
@@ -134,7 +139,7 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         testedPlayerHand = Set.of(ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_CLUB, ClassicalCard.ACE_HEART);
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit))
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit))
         );
 
         var playableCards = buildMocksAndRunTestOnTestedPlayer();
@@ -156,8 +161,8 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         testedPlayerHand = Set.of(ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_CLUB, ClassicalCard.EIGHT_HEART, ClassicalCard.ACE_HEART);
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(teammate, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.TEN_HEART, trickTrumpSuit))
+                new ContreePlayedCard(teammate, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.TEN_HEART, trickTrumpSuit))
         );
 
         trickWinningPlayer = opponent;
@@ -181,8 +186,8 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         testedPlayerHand = Set.of(ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_CLUB, ClassicalCard.EIGHT_HEART);
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(teammate, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.TEN_HEART, trickTrumpSuit))
+                new ContreePlayedCard(teammate, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.TEN_HEART, trickTrumpSuit))
         );
 
         trickWinningPlayer = opponent;
@@ -206,8 +211,8 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         testedPlayerHand = Set.of(ClassicalCard.SEVEN_CLUB, ClassicalCard.ACE_CLUB, ClassicalCard.EIGHT_SPADE);
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(teammate, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(opponent, new ContreeCard(ClassicalCard.TEN_HEART, trickTrumpSuit))
+                new ContreePlayedCard(teammate, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(opponent, ContreeCard.of(ClassicalCard.TEN_HEART, trickTrumpSuit))
         );
 
         trickWinningPlayer = opponent;
@@ -229,9 +234,9 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         ContreePlayer opponent2 = player3;
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent1, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(teamMate, new ContreeCard(ClassicalCard.ACE_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(opponent2, new ContreeCard(ClassicalCard.EIGHT_DIAMOND, trickTrumpSuit))
+                new ContreePlayedCard(opponent1, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(teamMate, ContreeCard.of(ClassicalCard.ACE_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(opponent2, ContreeCard.of(ClassicalCard.EIGHT_DIAMOND, trickTrumpSuit))
         );
 
         trickWinningPlayer = teamMate;
@@ -256,9 +261,9 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         ContreePlayer opponent2 = player3;
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent1, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(teamMate, new ContreeCard(ClassicalCard.TEN_HEART, trickTrumpSuit)),
-                new ContreePlayedCard(opponent2, new ContreeCard(ClassicalCard.SEVEN_HEART, trickTrumpSuit))
+                new ContreePlayedCard(opponent1, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(teamMate, ContreeCard.of(ClassicalCard.TEN_HEART, trickTrumpSuit)),
+                new ContreePlayedCard(opponent2, ContreeCard.of(ClassicalCard.SEVEN_HEART, trickTrumpSuit))
         );
 
         trickWinningPlayer = teamMate;
@@ -285,9 +290,9 @@ class PlayableCardsFilterTest extends TestCasesManagingPlayers {
         ContreePlayer opponent2 = player3;
 
         trickPlayedCards = List.of(
-                new ContreePlayedCard(opponent1, new ContreeCard(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
-                new ContreePlayedCard(teamMate, new ContreeCard(ClassicalCard.TEN_HEART, trickTrumpSuit)),
-                new ContreePlayedCard(opponent2, new ContreeCard(ClassicalCard.SEVEN_HEART, trickTrumpSuit))
+                new ContreePlayedCard(opponent1, ContreeCard.of(ClassicalCard.JACK_DIAMOND, trickTrumpSuit)),
+                new ContreePlayedCard(teamMate, ContreeCard.of(ClassicalCard.TEN_HEART, trickTrumpSuit)),
+                new ContreePlayedCard(opponent2, ContreeCard.of(ClassicalCard.SEVEN_HEART, trickTrumpSuit))
         );
 
         trickWinningPlayer = teamMate;
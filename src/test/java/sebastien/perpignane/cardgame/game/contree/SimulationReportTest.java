@@ -0,0 +1,55 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.player.contree.ContreeTeam;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SimulationReportTest {
+
+    @Test
+    void testOf() {
+
+        List<SimulatedGameResult> results = new ArrayList<>();
+        for (int i = 1 ; i <= 100 ; i++) {
+            ContreeTeam winner = i % 4 == 0 ? ContreeTeam.TEAM2 : ContreeTeam.TEAM1;
+            results.add(new SimulatedGameResult(winner, 10, 72, 0, 0, i * 1_000L));
+        }
+        Collections.shuffle(results);
+
+        SimulationReport report = SimulationReport.of(results, TimeUnit.SECONDS.toNanos(2));
+
+        assertThat(report.nbGames()).isEqualTo(100);
+        assertThat(report.nbDeals()).isEqualTo(1_000);
+        assertThat(report.nbTricks()).isEqualTo(7_200);
+        assertThat(report.team1Wins()).isEqualTo(75);
+        assertThat(report.team2Wins()).isEqualTo(25);
+        assertThat(report.p50GameDurationNanos()).isEqualTo(50_000L);
+        assertThat(report.p99GameDurationNanos()).isEqualTo(99_000L);
+        assertThat(report.gamesPerSecond()).isCloseTo(50, within(1e-9));
+        assertThat(report.dealsPerSecond()).isCloseTo(500, within(1e-9));
+        assertThat(report.tricksPerSecond()).isCloseTo(3_600, within(1e-9));
+        assertThat(report.averageDealsPerGame()).isCloseTo(10, within(1e-9));
+        assertThat(report.toString()).contains("50.0 games/s", "TEAM1 75", "TEAM2 25");
+
+    }
+
+    @Test
+    void testOfNoGame() {
+
+        SimulationReport report = SimulationReport.of(List.of(), 0);
+
+        assertThat(report.nbGames()).isZero();
+        assertThat(report.p99GameDurationNanos()).isZero();
+        assertThat(report.gamesPerSecond()).isZero();
+        assertThat(report.averageDealsPerGame()).isZero();
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package sebastien.perpignane.cardgame.game.contree;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sebastien.perpignane.cardgame.card.CardMask;
+import sebastien.perpignane.cardgame.card.CardSet;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.util.PlayerSlot;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VecContreeEnvTest extends TestCasesManagingPlayers {
+
+    private static final int NB_ENVS = 8;
+
+    private final BiddableValuesFilter biddableValuesFilter = new BiddableValuesFilter();
+
+    private final PlayableCardsFilter playableCardsFilter = new PlayableCardsFilter();
+
+    @BeforeAll
+    static void globalSetUp() {
+        initPlayers();
+        // Like ContreePlayerImpl, a player is in the same team as himself
+        for (ContreePlayer player : players) {
+            when(player.sameTeam(player)).thenReturn(true);
+        }
+    }
+
+    @DisplayName("Random self-play follows the allowed bids and the playable cards of the game, and every finished deal is scored")
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 2023L})
+    void testRandomSelfPlay(long seed) {
+        Random random = new Random(seed);
+        var env = new VecContreeEnv(NB_ENVS, seed);
+        VecContreeEnv.Batch batch = env.batch();
+        ContreeDealBids[] dealBids = new ContreeDealBids[NB_ENVS];
+        for (int e = 0 ; e < NB_ENVS ; e++) {
+            dealBids[e] = newDealBids();
+        }
+        int[] actions = new int[NB_ENVS];
+        int nbPlayedDeals = 0;
+
+        for (int step = 0 ; step < 2000 ; step++) {
+            for (int e = 0 ; e < NB_ENVS ; e++) {
+                assertThat(batch.legalActions()[e]).isEqualTo(expectedLegalActions(batch, e, dealBids[e]));
+                actions[e] = randomAction(batch, e, random);
+            }
+            int[] phases = batch.phases().clone();
+            int[] slots = batch.currentSlots().clone();
+
+            env.step(actions);
+
+            for (int e = 0 ; e < NB_ENVS ; e++) {
+                if (phases[e] == VecContreeEnv.BID_PHASE) {
+                    dealBids[e].placeTrustedBid(new ContreeBid(players.get(slots[e]), VecContreeEnv.bidValue(actions[e]), bidSuitOrNull(actions[e])));
+                    assertThat(dealBids[e].bidsAreOver()).isEqualTo(batch.phases()[e] == VecContreeEnv.PLAY_PHASE || batch.dealsOver()[e]);
+                }
+                if (batch.dealsOver()[e]) {
+                    nbPlayedDeals += dealBids[e].hasOnlyPassBids() ? 0 : 1;
+                    int team1Reward = batch.rewards()[e * 2];
+                    int team2Reward = batch.rewards()[e * 2 + 1];
+                    if (dealBids[e].hasOnlyPassBids()) {
+                        assertThat(team1Reward).isZero();
+                        assertThat(team2Reward).isZero();
+                    }
+                    else {
+                        assertThat(team1Reward + team2Reward).isPositive();
+                        assertThat(team1Reward % 10).isZero();
+                        assertThat(team2Reward % 10).isZero();
+                    }
+                    dealBids[e] = newDealBids();
+                    assertThat(batch.phases()[e]).isEqualTo(VecContreeEnv.BID_PHASE);
+                    assertThat(batch.currentSlots()[e]).isEqualTo((batch.dealerSlots()[e] + 1) % ContreePlayers.NB_PLAYERS);
+                }
+                else {
+                    assertThat(batch.rewards()[e * 2]).isZero();
+                    assertThat(batch.rewards()[e * 2 + 1]).isZero();
+                }
+            }
+        }
+        assertThat(nbPlayedDeals).isPositive();
+    }
+
+    @DisplayName("The points won by the teams and the played cards are tracked during the play")
+    @Test
+    void testPlayedDeal() {
+        var env = new VecContreeEnv(1, 7L);
+        VecContreeEnv.Batch batch = env.batch();
+        assertThat(batch.currentSlots()[0]).isZero();
+
+        env.step(new int[] {VecContreeEnv.bidAction(ContreeBidValue.EIGHTY, CardSuit.HEARTS)});
+        env.step(new int[] {VecContreeEnv.PASS_ACTION});
+        env.step(new int[] {VecContreeEnv.PASS_ACTION});
+        env.step(new int[] {VecContreeEnv.PASS_ACTION});
+
+        assertThat(batch.phases()[0]).isEqualTo(VecContreeEnv.PLAY_PHASE);
+        assertThat(batch.contractSlots()[0]).isZero();
+        assertThat(batch.currentSlots()[0]).isZero();
+
+        long allCards = CardMask.EMPTY;
+        for (int i = 0 ; i < CardSet.GAME_32.getGameCards().size() - 1 ; i++) {
+            env.step(new int[] {Long.numberOfTrailingZeros(batch.legalActions()[0])});
+            allCards = CardMask.EMPTY;
+            for (int slot = 0 ; slot < ContreePlayers.NB_PLAYERS ; slot++) {
+                allCards |= batch.hands()[slot] | batch.playedCards()[slot];
+            }
+            assertThat(allCards).isEqualTo(CardSet.GAME_32.getGameCardsMask());
+            assertThat(batch.nbTrickCards()[0]).isEqualTo((i + 1) % ContreePlayers.NB_PLAYERS);
+        }
+        assertThat(batch.wonPoints()[0] + batch.wonPoints()[1]).isLessThan(DealScoreCalculator.EXPECTED_CARD_SCORE_SUM);
+
+        env.step(new int[] {Long.numberOfTrailingZeros(batch.legalActions()[0])});
+
+        assertThat(batch.dealsOver()[0]).isTrue();
+        assertThat(batch.rewards()[0] + batch.rewards()[1]).isPositive();
+        assertThat(batch.dealerSlots()[0]).isZero();
+        assertThat(batch.currentSlots()[0]).isEqualTo(1);
+        assertThat(batch.playedCards()).containsOnly(CardMask.EMPTY);
+        assertThat(batch.wonPoints()).containsOnly(0);
+    }
+
+    @DisplayName("After a double, only the attack team can redouble, which ends the bids")
+    @Test
+    void testRedouble() {
+        var env = new VecContreeEnv(1, 3L);
+        VecContreeEnv.Batch batch = env.batch();
+        long passOrRedouble = 1L << VecContreeEnv.PASS_ACTION | 1L << VecContreeEnv.REDOUBLE_ACTION;
+
+        env.step(new int[] {VecContreeEnv.bidAction(ContreeBidValue.HUNDRED, CardSuit.SPADES)});
+        assertThat(batch.legalActions()[0] & (1L << VecContreeEnv.DOUBLE_ACTION)).isNotZero();
+        env.step(new int[] {VecContreeEnv.DOUBLE_ACTION});
+        assertThat(batch.legalActions()[0]).isEqualTo(passOrRedouble);
+        env.step(new int[] {VecContreeEnv.PASS_ACTION});
+        assertThat(batch.legalActions()[0]).isEqualTo(1L << VecContreeEnv.PASS_ACTION);
+        env.step(new int[] {VecContreeEnv.PASS_ACTION});
+        assertThat(batch.legalActions()[0]).isEqualTo(passOrRedouble);
+        env.step(new int[] {VecContreeEnv.REDOUBLE_ACTION});
+
+        assertThat(batch.phases()[0]).isEqualTo(VecContreeEnv.PLAY_PHASE);
+        assertThat(batch.doubleLevels()[0]).isEqualTo(2);
+        assertThat(VecContreeEnv.bidSuit(batch.contracts()[0])).isEqualTo(CardSuit.SPADES);
+    }
+
+    @DisplayName("Environments created with the same seed play the same deals")
+    @Test
+    void testReproducible() {
+        var env1 = new VecContreeEnv(NB_ENVS, 11L);
+        var env2 = new VecContreeEnv(NB_ENVS, 11L);
+        int[] actions = new int[NB_ENVS];
+        for (int step = 0 ; step < 500 ; step++) {
+            assertThat(env2.batch().hands()).isEqualTo(env1.batch().hands());
+            assertThat(env2.batch().legalActions()).isEqualTo(env1.batch().legalActions());
+            for (int e = 0 ; e < NB_ENVS ; e++) {
+                actions[e] = Long.SIZE - 1 - Long.numberOfLeadingZeros(env1.batch().legalActions()[e]);
+            }
+            env1.step(actions);
+            env2.step(actions);
+            assertThat(env2.batch().rewards()).isEqualTo(env1.batch().rewards());
+        }
+    }
+
+    @Test
+    void testBidActions() {
+        for (int action = 0 ; action < VecContreeEnv.NB_BID_ACTIONS ; action++) {
+            assertThat(VecContreeEnv.bidAction(VecContreeEnv.bidValue(action), VecContreeEnv.bidSuit(action))).isEqualTo(action);
+        }
+        assertThat(VecContreeEnv.NB_BID_ACTIONS).isEqualTo(43);
+        assertThatIllegalArgumentException().isThrownBy(() -> VecContreeEnv.bidAction(ContreeBidValue.EIGHTY, CardSuit.NONE));
+        assertThatIllegalArgumentException().isThrownBy(() -> VecContreeEnv.bidValue(VecContreeEnv.NB_BID_ACTIONS));
+    }
+
+    @Test
+    void testBidActionsOfBidValues() {
+        long actions = VecContreeEnv.bidActions(Set.of(ContreeBidValue.PASS, ContreeBidValue.DOUBLE, ContreeBidValue.CAPOT));
+
+        assertThat(Long.bitCount(actions)).isEqualTo(2 + 4);
+        assertThat(actions & (1L << VecContreeEnv.PASS_ACTION)).isNotZero();
+        assertThat(actions & (1L << VecContreeEnv.DOUBLE_ACTION)).isNotZero();
+        for (CardSuit suit : List.of(CardSuit.DIAMONDS, CardSuit.CLUBS, CardSuit.HEARTS, CardSuit.SPADES)) {
+            assertThat(actions & (1L << VecContreeEnv.bidAction(ContreeBidValue.CAPOT, suit))).isNotZero();
+        }
+        assertThat(VecContreeEnv.bidActions(Set.of())).isZero();
+    }
+
+    @Test
+    void testInvalidActions() {
+        var env = new VecContreeEnv(2, 5L);
+        long[] hands = env.batch().hands().clone();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> env.step(new int[] {VecContreeEnv.PASS_ACTION}));
+        assertThatIllegalArgumentException().isThrownBy(() -> env.step(new int[] {VecContreeEnv.PASS_ACTION, VecContreeEnv.DOUBLE_ACTION}));
+        assertThatIllegalArgumentException().isThrownBy(() -> env.step(new int[] {VecContreeEnv.PASS_ACTION, 64}));
+        assertThatIllegalArgumentException().isThrownBy(() -> new VecContreeEnv(0, 5L));
+
+        // Nothing was stepped
+        assertThat(env.batch().currentSlots()).containsOnly(0);
+        assertThat(env.batch().hands()).isEqualTo(hands);
+    }
+
+    private ContreeDealBids newDealBids() {
+        var dealBids = new ContreeDealBids(biddableValuesFilter);
+        ContreeBidPlayers bidPlayers = mock(ContreeBidPlayers.class);
+        when(bidPlayers.getCurrentBidderSlot()).thenReturn(new PlayerSlot<>());
+        dealBids.startTrustedBids(bidPlayers);
+        return dealBids;
+    }
+
+    private long expectedLegalActions(VecContreeEnv.Batch batch, int e, ContreeDealBids dealBids) {
+        int slot = batch.currentSlots()[e];
+        if (batch.phases()[e] == VecContreeEnv.BID_PHASE) {
+            long legalActions = 0;
+            for (ContreeBidValue bidValue : biddableValuesFilter.biddableValues(players.get(slot), dealBids).biddableValues()) {
+                if (bidValue.isCardSuitRequired()) {
+                    for (CardSuit suit : ContreeBid.allowedCardSuitsForValuedBids()) {
+                        legalActions |= 1L << VecContreeEnv.bidAction(bidValue, suit);
+                    }
+                }
+                else {
+                    legalActions |= 1L << VecContreeEnv.bidAction(bidValue, null);
+                }
+            }
+            return legalActions;
+        }
+        int[] trickCards = Arrays.copyOfRange(batch.trickCards(), e * ContreePlayers.NB_PLAYERS, (e + 1) * ContreePlayers.NB_PLAYERS);
+        CardSuit trumpSuit = VecContreeEnv.bidSuit(batch.contracts()[e]);
+        return playableCardsFilter.playableCards(batch.hands()[e * ContreePlayers.NB_PLAYERS + slot], trumpSuit, trickCards, batch.nbTrickCards()[e]);
+    }
+
+    /**
+     * Passes 3 times out of 4 during the bids, so that the deals are played with various contracts
+     */
+    private static int randomAction(VecContreeEnv.Batch batch, int e, Random random) {
+        long legalActions = batch.legalActions()[e];
+        if (batch.phases()[e] == VecContreeEnv.BID_PHASE && random.nextInt(4) > 0) {
+            return VecContreeEnv.PASS_ACTION;
+        }
+        for (int i = random.nextInt(Long.bitCount(legalActions)) ; i > 0 ; i--) {
+            legalActions &= legalActions - 1;
+        }
+        return Long.numberOfTrailingZeros(legalActions);
+    }
+
+    private static CardSuit bidSuitOrNull(int bidAction) {
+        CardSuit suit = VecContreeEnv.bidSuit(bidAction);
+        return suit == CardSuit.NONE ? null : suit;
+    }
+
+}
@@ -0,0 +1,23 @@
+package sebastien.perpignane.cardgame.player.contree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContreePlayerFactoryTest {
+
+    @Test
+    void testCreateBotPlayer() {
+        ContreePlayer player = ContreePlayerFactory.createBotPlayer("1");
+        assertThat(player.getName()).isEqualTo("Bot 1");
+        assertThat(player.isBot()).isTrue();
+    }
+
+    @Test
+    void testCreateBotPlayer_threadFactory() {
+        ContreePlayer player = ContreePlayerFactory.createBotPlayer("2", Thread.ofPlatform().factory());
+        assertThat(player.getName()).isEqualTo("Bot 2");
+        assertThat(player.isBot()).isTrue();
+    }
+
+}
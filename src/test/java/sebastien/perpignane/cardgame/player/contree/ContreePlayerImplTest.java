@@ -3,6 +3,7 @@ package sebastien.perpignane.cardgame.player.contree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardMask;
 import sebastien.perpignane.cardgame.card.CardSuit;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
 import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
@@ -50,7 +51,8 @@ class ContreePlayerImplTest {
 
         assertThat(flag[0]).isTrue();
         assertThat(contreePlayer.hasNoMoreCard()).isFalse();
-        assertThat(contreePlayer.getHand().stream().toList()).isEqualTo(hand);
+        assertThat(contreePlayer.getHand()).containsExactlyInAnyOrderElementsOf(hand);
+        assertThat(contreePlayer.getHandMask()).isEqualTo(CardMask.of(hand));
 
     }
 
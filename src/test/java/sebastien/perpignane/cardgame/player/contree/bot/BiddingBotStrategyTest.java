@@ -0,0 +1,30 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BiddingBotStrategyTest {
+
+    @DisplayName("Always bid 80 HEART, whatever the allowed bid values")
+    @Test
+    void testChooseBid() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new BiddingBotStrategy(new Random(1));
+
+        var bid = strategy.chooseBid(player, Set.of(ContreeBidValue.PASS));
+
+        assertThat(bid.bidValue()).isEqualTo(ContreeBidValue.EIGHTY);
+        assertThat(bid.cardSuit()).isEqualTo(CardSuit.HEARTS);
+        assertThat(bid.player()).isSameAs(player);
+    }
+
+}
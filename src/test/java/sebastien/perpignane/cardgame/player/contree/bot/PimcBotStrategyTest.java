@@ -0,0 +1,40 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class PimcBotStrategyTest {
+
+    @DisplayName("The bids are placed by the bidding strategy, which always passes by default")
+    @Test
+    void testChooseBid() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new PimcBotStrategy(new Random(1));
+
+        var bid = strategy.chooseBid(player, Set.of(ContreeBidValue.PASS, ContreeBidValue.EIGHTY));
+
+        assertThat(bid.bidValue()).isEqualTo(ContreeBidValue.PASS);
+        assertThat(bid.player()).isSameAs(player);
+    }
+
+    @DisplayName("A strategy which did not join the game of the player cannot choose a card")
+    @Test
+    void testChooseCardWithoutGame() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new PimcBotStrategy(new Random(1));
+
+        assertThatThrownBy(() -> strategy.chooseCard(player, Set.of(ClassicalCard.ACE_SPADE)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+}
@@ -0,0 +1,58 @@
+package sebastien.perpignane.cardgame.player.contree.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RandomCardBotStrategyTest {
+
+    @DisplayName("Always pass")
+    @Test
+    void testChooseBid() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new RandomCardBotStrategy(new Random(1));
+
+        var bid = strategy.chooseBid(player, Set.of(ContreeBidValue.PASS, ContreeBidValue.EIGHTY));
+
+        assertThat(bid.isPass()).isTrue();
+        assertThat(bid.player()).isSameAs(player);
+    }
+
+    @DisplayName("Every allowed card can be played, and only allowed cards")
+    @Test
+    void testChooseCard() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new RandomCardBotStrategy(new Random(42));
+        var allowedCards = EnumSet.of(ClassicalCard.ACE_SPADE, ClassicalCard.JACK_HEART, ClassicalCard.SEVEN_CLUB);
+
+        Set<ClassicalCard> playedCards = EnumSet.noneOf(ClassicalCard.class);
+        for (int i = 0 ; i < 100 ; i++) {
+            playedCards.add(strategy.chooseCard(player, allowedCards));
+        }
+
+        assertThat(playedCards).isEqualTo(allowedCards);
+    }
+
+    @DisplayName("Same seed, same cards")
+    @Test
+    void testSeededChoices() {
+        ContreePlayer player = mock(ContreePlayer.class);
+        var strategy = new RandomCardBotStrategy(new Random(7));
+        var sameSeedStrategy = new RandomCardBotStrategy(new Random(7));
+        var allowedCards = EnumSet.of(ClassicalCard.ACE_SPADE, ClassicalCard.JACK_HEART, ClassicalCard.SEVEN_CLUB, ClassicalCard.TEN_DIAMOND);
+
+        for (int i = 0 ; i < 20 ; i++) {
+            assertThat(strategy.chooseCard(player, allowedCards)).isEqualTo(sameSeedStrategy.chooseCard(player, allowedCards));
+        }
+    }
+
+}
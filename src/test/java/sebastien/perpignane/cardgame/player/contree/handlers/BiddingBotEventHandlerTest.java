@@ -3,17 +3,26 @@ package sebastien.perpignane.cardgame.player.contree.handlers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import sebastien.perpignane.cardgame.card.CardSuit;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
 
 import java.util.Set;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 
 class BiddingBotEventHandlerTest {
 
+    private static ContreeGame mockGame() {
+        ContreeGame game = mock(ContreeGame.class);
+        when(game.splitBotRandom()).thenReturn(new SplittableCardSetShuffler(1).splitGenerator());
+        return game;
+    }
+
     @DisplayName("Always bid 80 HEART, whatever contains allowedBidValues")
     @Test
     void testOnPlayerTurnToBid() {
@@ -21,6 +30,25 @@ class BiddingBotEventHandlerTest {
         ContreePlayer mockPlayer = mock(ContreePlayer.class);
         BiddingBotEventHandler handler = new BiddingBotEventHandler();
         handler.setPlayer(mockPlayer);
+        handler.onJoiningGame(mockGame());
+
+        handler.onGameStarted();
+        handler.onPlayerTurnToBid(Set.of(ContreeBidValue.PASS));
+        await().atMost(500, MILLISECONDS)
+                .untilAsserted(
+                        () -> verify(mockPlayer).placeBid(ContreeBidValue.EIGHTY, CardSuit.HEARTS)
+                );
+
+    }
+
+    @DisplayName("The bot thread is created by the given thread factory")
+    @Test
+    void testThreadFactory() {
+
+        ContreePlayer mockPlayer = mock(ContreePlayer.class);
+        BiddingBotEventHandler handler = new BiddingBotEventHandler(Thread.ofPlatform().factory());
+        handler.setPlayer(mockPlayer);
+        handler.onJoiningGame(mockGame());
 
         handler.onGameStarted();
         handler.onPlayerTurnToBid(Set.of(ContreeBidValue.PASS));
@@ -28,7 +56,8 @@ class BiddingBotEventHandlerTest {
                 .untilAsserted(
                         () -> verify(mockPlayer).placeBid(ContreeBidValue.EIGHTY, CardSuit.HEARTS)
                 );
+        assertThat(handler.handlerThread.isVirtual()).isFalse();
 
     }
 
-}
\ No newline at end of file
+}
@@ -4,10 +4,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import sebastien.perpignane.cardgame.card.ClassicalCard;
+import sebastien.perpignane.cardgame.card.SplittableCardSetShuffler;
 import sebastien.perpignane.cardgame.game.contree.ContreeBidValue;
+import sebastien.perpignane.cardgame.game.contree.ContreeGame;
 import sebastien.perpignane.cardgame.player.contree.ContreePlayer;
+import sebastien.perpignane.cardgame.player.contree.bot.ContreeBotStrategy;
+import sebastien.perpignane.cardgame.player.contree.bot.RandomCardBotStrategy;
 
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -26,9 +35,34 @@ class ContreeBotPlayerEventHandlerTest {
         mockPlayer = mock(ContreePlayer.class);
         handler = new ContreeBotPlayerEventHandler();
         handler.setPlayer(mockPlayer);
+        handler.onJoiningGame(mockGame(1));
         handler.onGameStarted();
     }
 
+    private static ContreeGame mockGame(long seed) {
+        ContreeGame game = mock(ContreeGame.class);
+        when(game.splitBotRandom()).thenReturn(new SplittableCardSetShuffler(seed).splitGenerator());
+        return game;
+    }
+
+    @DisplayName("The strategy is created from the generator given by the game, then joins the game")
+    @Test
+    void testStrategyCreatedWhenJoiningGame() {
+        ContreeGame game = mockGame(2);
+        ContreeBotStrategy strategy = mock(ContreeBotStrategy.class);
+        AtomicReference<RandomGenerator> strategyRandom = new AtomicReference<>();
+        var joiningHandler = new ContreeBotPlayerEventHandler(random -> {
+            strategyRandom.set(random);
+            return strategy;
+        });
+
+        joiningHandler.onJoiningGame(game);
+
+        verify(game).splitBotRandom();
+        assertThat(strategyRandom.get()).isNotNull();
+        verify(strategy).onJoiningGame(game);
+    }
+
     @DisplayName("The bot plays a card when onPlayerTurn event is triggered")
     @Test
     void testOnPlayerTurn() {
@@ -81,4 +115,29 @@ class ContreeBotPlayerEventHandlerTest {
                 );
     }
 
-}
\ No newline at end of file
+    @DisplayName("By default, the bot runs on a virtual thread")
+    @Test
+    void testDefaultThreadIsVirtual() {
+        assertThat(handler.handlerThread.isVirtual()).isTrue();
+        assertThat(handler.handlerThread.getName()).startsWith("PlayerThread-");
+    }
+
+    @DisplayName("The handler thread is created by the given thread factory")
+    @Test
+    void testThreadFactory() {
+        AtomicInteger nbCreatedThreads = new AtomicInteger();
+        ThreadFactory platformThreads = Thread.ofPlatform().factory();
+        var platformThreadHandler = new ContreeBotPlayerEventHandler(new RandomCardBotStrategy(new Random(1)), r -> {
+            nbCreatedThreads.incrementAndGet();
+            return platformThreads.newThread(r);
+        });
+        platformThreadHandler.setPlayer(mockPlayer);
+
+        platformThreadHandler.onGameStarted();
+        platformThreadHandler.onGameOver();
+
+        assertThat(nbCreatedThreads).hasValue(1);
+        assertThat(platformThreadHandler.handlerThread.isVirtual()).isFalse();
+    }
+
+}